@@ -0,0 +1,28 @@
+// Teste de carga (k6) para comparar a aplicação com e sem threads virtuais.
+// Uso: k6 run -e BASE_URL=http://localhost:8080/customer carga/clientes.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080/customer';
+const CPFS = ['12345678901', '11122233344', '22233344455', '33344455566'];
+
+export const options = {
+    scenarios: {
+        leitura: {
+            executor: 'constant-vus',
+            vus: 2000,
+            duration: '2m',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const cpf = CPFS[Math.floor(Math.random() * CPFS.length)];
+    const respostas = http.batch([
+        ['GET', `${BASE_URL}/v1/cliente/${cpf}`],
+        ['GET', `${BASE_URL}/v1/endereco/1`],
+        ['GET', `${BASE_URL}/v1/cliente?tamanho=50`],
+    ]);
+    respostas.forEach((resposta) => check(resposta, { 'status 200': (r) => r.status === 200 }));
+}
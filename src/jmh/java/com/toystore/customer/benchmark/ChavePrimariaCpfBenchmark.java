@@ -0,0 +1,126 @@
+package com.toystore.customer.benchmark;
+
+import com.toystore.customer.domain.model.Cpf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca pela chave primária com o CPF em {@code VARCHAR(11)} e em {@code BIGINT}, com JDBC puro para medir só o
+ * banco. As duas tabelas recebem os mesmos CPFs; o tamanho de cada uma (no PostgreSQL, só o índice da chave) é
+ * impresso no setup. Para rodar no PostgreSQL:
+ * {@code -p url=jdbc:postgresql://localhost:5432/toystore -p usuario=... -p senha=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChavePrimariaCpfBenchmark {
+
+    // Multiplicador que espalha as chaves pelo intervalo de CPFs sem repetir (até 10 milhões de linhas)
+    private static final long PASSO = 9973;
+
+    @Param("jdbc:h2:mem:chave_cpf;DB_CLOSE_DELAY=-1")
+    private String url;
+
+    @Param("sa")
+    private String usuario;
+
+    @Param("")
+    private String senha;
+
+    @Param("10000000")
+    private int linhas;
+
+    private Connection conexao;
+    private PreparedStatement buscaTexto;
+    private PreparedStatement buscaNumero;
+
+    @Setup
+    public void setUp() throws SQLException {
+        conexao = DriverManager.getConnection(url, usuario, senha);
+        boolean postgres = url.startsWith("jdbc:postgresql:");
+        String series = postgres
+                ? "generate_series(1, " + linhas + ") as s(x)"
+                : "system_range(1, " + linhas + ")";
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("drop table if exists cpf_texto");
+            statement.execute("drop table if exists cpf_numero");
+            statement.execute("create table cpf_texto (cpf varchar(11) primary key, nome varchar(100))");
+            statement.execute("create table cpf_numero (cpf bigint primary key, nome varchar(100))");
+            statement.execute("insert into cpf_texto select lpad(cast(x * " + PASSO + " as varchar), 11, '0'), "
+                    + "'Cliente' from " + series);
+            statement.execute("insert into cpf_numero select x * " + PASSO + ", 'Cliente' from " + series);
+            if (postgres) {
+                statement.execute("vacuum analyze cpf_texto");
+                statement.execute("vacuum analyze cpf_numero");
+            }
+            System.out.printf("%nTamanho com VARCHAR(11): %d bytes; com BIGINT: %d bytes%n",
+                    tamanho(statement, "cpf_texto", postgres), tamanho(statement, "cpf_numero", postgres));
+        }
+        buscaTexto = conexao.prepareStatement("select nome from cpf_texto where cpf = ?");
+        buscaNumero = conexao.prepareStatement("select nome from cpf_numero where cpf = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("drop table cpf_texto");
+            statement.execute("drop table cpf_numero");
+        }
+        conexao.close();
+    }
+
+    @Benchmark
+    public String buscarPorTexto() throws SQLException {
+        buscaTexto.setString(1, Cpf.formatar(cpfAleatorio()));
+        return nome(buscaTexto);
+    }
+
+    @Benchmark
+    public String buscarPorNumero() throws SQLException {
+        buscaNumero.setLong(1, cpfAleatorio());
+        return nome(buscaNumero);
+    }
+
+    private long cpfAleatorio() {
+        return ThreadLocalRandom.current().nextLong(1, linhas + 1L) * PASSO;
+    }
+
+    private static String nome(PreparedStatement busca) throws SQLException {
+        try (ResultSet resultado = busca.executeQuery()) {
+            return resultado.next() ? resultado.getString(1) : null;
+        }
+    }
+
+    // No H2 não há tamanho por índice: o valor é o da tabela inteira, que é organizada pela chave primária
+    private static long tamanho(Statement statement, String tabela, boolean postgres) throws SQLException {
+        String consulta = postgres
+                ? "select pg_relation_size('" + tabela + "_pkey')"
+                : "call disk_space_used('" + tabela.toUpperCase() + "')";
+        try (ResultSet resultado = statement.executeQuery(consulta)) {
+            resultado.next();
+            return resultado.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.toystore.customer.benchmark;
+
+import com.toystore.customer.ToystoreCustomerApplication;
+import com.toystore.customer.application.dto.ClienteAtualizacaoDTO;
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.ClientePaginaDTO;
+import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.usecases.cliente.ClienteService;
+import com.toystore.customer.application.usecases.endereco.EnderecoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Operações de {@link ClienteService} com o contexto Spring completo sobre H2 em memória.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClienteServiceBenchmark {
+
+    private static final int QUANTIDADE_CLIENTES = 10_000;
+
+    private final AtomicLong proximoCpf = new AtomicLong(50_000_000_000L);
+
+    private ConfigurableApplicationContext contexto;
+    private ClienteService clienteService;
+    private Long enderecoId;
+
+    @Setup
+    public void setUp() {
+        contexto = new SpringApplicationBuilder(ToystoreCustomerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.sql.init.mode=never",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--logging.level.root=WARN");
+        clienteService = contexto.getBean(ClienteService.class);
+
+        EnderecoDTO endereco = contexto.getBean(EnderecoService.class)
+                .salvar(new EnderecoDTO(null, "40000-000", "BA", "Salvador", "Centro", "Rua Principal", "1"));
+        enderecoId = endereco.id();
+        clienteService.importar(IntStream.range(0, QUANTIDADE_CLIENTES)
+                .mapToObj(i -> new ClienteDTO(cpf(i), "Cliente " + i, "cliente" + i + "@mail.com", enderecoId))
+                .iterator());
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public ClienteDTO buscarPorId() {
+        return clienteService.buscarPorId(cpf(ThreadLocalRandom.current().nextInt(QUANTIDADE_CLIENTES)));
+    }
+
+    // Muitas requisições simultâneas, como em uma rajada: exercita o agrupamento das buscas por id
+    @Benchmark
+    @Threads(64)
+    public ClienteDTO buscarPorIdConcorrente() {
+        return buscarPorId();
+    }
+
+    @Benchmark
+    public ClientePaginaDTO buscarPagina() {
+        return clienteService.buscarPagina(cpf(ThreadLocalRandom.current().nextInt(QUANTIDADE_CLIENTES)), 50);
+    }
+
+    @Benchmark
+    public ClienteDTO atualizar() {
+        int i = ThreadLocalRandom.current().nextInt(QUANTIDADE_CLIENTES);
+        return clienteService.atualizar(cpf(i),
+                new ClienteAtualizacaoDTO("Cliente " + i, "cliente" + i + "@mail.com", enderecoId), null).valor();
+    }
+
+    @Benchmark
+    public ClienteDTO salvarEDeletar() {
+        String cpf = String.valueOf(proximoCpf.incrementAndGet());
+        ClienteDTO salvo = clienteService.salvar(new ClienteDTO(cpf, "Novo", "novo@mail.com", enderecoId));
+        clienteService.deletarPorId(cpf);
+        return salvo;
+    }
+
+    private static String cpf(int i) {
+        return String.format("%011d", i);
+    }
+}
@@ -0,0 +1,106 @@
+package com.toystore.customer.benchmark;
+
+import com.toystore.customer.application.dto.CepDTO;
+import com.toystore.customer.infrastructure.cep.DiretorioCeps;
+import com.toystore.customer.infrastructure.cep.GeradorIndiceCeps;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta ao diretório de CEPs e abertura do índice, numa base sintética do tamanho da base nacional (cerca de
+ * um milhão de CEPs, com ruas distintas e poucas cidades e bairros). O tempo de geração do índice e o tamanho do
+ * arquivo são impressos no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiretorioCepsBenchmark {
+
+    // Espalha os CEPs pelo intervalo de oito dígitos
+    private static final int PASSO = 97;
+    private static final int CONSULTAS = 4096;
+
+    @Param("1000000")
+    private int ceps;
+
+    private Path pasta;
+    private Path indice;
+    private DiretorioCeps diretorio;
+    private final String[] existentes = new String[CONSULTAS];
+    private final String[] ausentes = new String[CONSULTAS];
+    private int proxima;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Setup
+    public void setUp() throws IOException {
+        pasta = Files.createTempDirectory("diretorio-ceps");
+        Path base = pasta.resolve("ceps.csv");
+        try (BufferedWriter escritor = Files.newBufferedWriter(base)) {
+            for (int i = 1; i <= ceps; i++) {
+                escritor.write(String.format("%08d;SP;Cidade %d;Bairro %d;Rua %d%n", i * PASSO, i % 5000, i % 300, i));
+            }
+        }
+        indice = pasta.resolve("ceps.idx");
+        long inicio = System.nanoTime();
+        GeradorIndiceCeps.gerar(base, indice);
+        System.out.printf("%nÍndice de %d CEPs gerado em %d ms, com %d bytes%n",
+                ceps, (System.nanoTime() - inicio) / 1_000_000, Files.size(indice));
+        diretorio = DiretorioCeps.abrir(indice, false, meterRegistry);
+
+        // Textos prontos, para medir só a consulta
+        for (int i = 0; i < CONSULTAS; i++) {
+            int numero = ThreadLocalRandom.current().nextInt(1, ceps + 1) * PASSO;
+            existentes[i] = String.format("%08d", numero);
+            ausentes[i] = String.format("%05d-%03d", (numero + 1) / 1000, (numero + 1) % 1000);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        diretorio = null;
+        try (var arquivos = Files.list(pasta)) {
+            for (Path arquivo : arquivos.toList()) {
+                Files.delete(arquivo);
+            }
+        }
+        Files.delete(pasta);
+    }
+
+    @Benchmark
+    public Optional<CepDTO> buscarExistente() {
+        return diretorio.buscar(existentes[proxima++ & (CONSULTAS - 1)]);
+    }
+
+    @Benchmark
+    public Optional<CepDTO> buscarAusente() {
+        return diretorio.buscar(ausentes[proxima++ & (CONSULTAS - 1)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int abrir() throws IOException {
+        return DiretorioCeps.abrir(indice, false, meterRegistry).quantidade();
+    }
+}
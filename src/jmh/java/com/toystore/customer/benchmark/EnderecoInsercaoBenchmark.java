@@ -0,0 +1,150 @@
+package com.toystore.customer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserção de um lote de endereços com id IDENTITY e com a sequência em blocos (pooled-lo) usada por
+ * {@code Endereco}, com JDBC puro e o mesmo tratamento nos dois casos: mesma tabela, mesma conexão e um commit
+ * por lote. Com IDENTITY cada linha é um INSERT que devolve a chave gerada, como o Hibernate faz; com a
+ * sequência, um {@code nextval} reserva {@code tamanhoAlocacao} ids e as linhas vão num único batch. Para rodar
+ * no PostgreSQL: {@code -p url=jdbc:postgresql://localhost:5432/toystore -p usuario=... -p senha=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnderecoInsercaoBenchmark {
+
+    private static final String COLUNAS = "cep varchar(10), estado varchar(50), cidade varchar(50), "
+            + "bairro varchar(50), rua varchar(100), numero varchar(20)";
+
+    @Param("jdbc:h2:mem:endereco_insercao;DB_CLOSE_DELAY=-1")
+    private String url;
+
+    @Param("sa")
+    private String usuario;
+
+    @Param("")
+    private String senha;
+
+    @Param("1000")
+    private int tamanhoLote;
+
+    @Param("50")
+    private int tamanhoAlocacao;
+
+    private Connection conexao;
+    private PreparedStatement insercaoIdentity;
+    private PreparedStatement insercaoSequencia;
+    private PreparedStatement proximoBloco;
+    private int proximo;
+
+    @Setup
+    public void setUp() throws SQLException {
+        conexao = DriverManager.getConnection(url, usuario, senha);
+        conexao.setAutoCommit(false);
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("drop table if exists endereco_identity");
+            statement.execute("drop table if exists endereco_sequencia");
+            statement.execute("drop sequence if exists endereco_sequencia_seq");
+            statement.execute("create table endereco_identity (id bigint generated by default as identity primary key, "
+                    + COLUNAS + ")");
+            statement.execute("create table endereco_sequencia (id bigint primary key, " + COLUNAS + ")");
+            statement.execute("create sequence endereco_sequencia_seq start with 1 increment by " + tamanhoAlocacao);
+        }
+        conexao.commit();
+        insercaoIdentity = conexao.prepareStatement("insert into endereco_identity "
+                + "(cep, estado, cidade, bairro, rua, numero) values (?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+        insercaoSequencia = conexao.prepareStatement("insert into endereco_sequencia "
+                + "(id, cep, estado, cidade, bairro, rua, numero) values (?, ?, ?, ?, ?, ?, ?)");
+        proximoBloco = conexao.prepareStatement("select nextval('endereco_sequencia_seq')");
+    }
+
+    // As duas tabelas voltam vazias a cada iteração, para que o tamanho dos índices não favoreça nenhuma
+    @Setup(Level.Iteration)
+    public void limpar() throws SQLException {
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("delete from endereco_identity");
+            statement.execute("delete from endereco_sequencia");
+        }
+        conexao.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("drop table endereco_identity");
+            statement.execute("drop table endereco_sequencia");
+            statement.execute("drop sequence endereco_sequencia_seq");
+        }
+        conexao.commit();
+        conexao.close();
+    }
+
+    @Benchmark
+    public long inserirComIdentity() throws SQLException {
+        long ultimoId = 0;
+        for (int i = 0; i < tamanhoLote; i++) {
+            preencher(insercaoIdentity, 1, proximo++);
+            insercaoIdentity.executeUpdate();
+            try (ResultSet chaves = insercaoIdentity.getGeneratedKeys()) {
+                chaves.next();
+                ultimoId = chaves.getLong(1);
+            }
+        }
+        conexao.commit();
+        return ultimoId;
+    }
+
+    @Benchmark
+    public long inserirComSequencia() throws SQLException {
+        long id = 0;
+        long fimBloco = 0;
+        for (int i = 0; i < tamanhoLote; i++) {
+            if (id == fimBloco) {
+                try (ResultSet bloco = proximoBloco.executeQuery()) {
+                    bloco.next();
+                    id = bloco.getLong(1);
+                }
+                fimBloco = id + tamanhoAlocacao;
+            }
+            insercaoSequencia.setLong(1, id++);
+            preencher(insercaoSequencia, 2, proximo++);
+            insercaoSequencia.addBatch();
+        }
+        insercaoSequencia.executeBatch();
+        conexao.commit();
+        return id;
+    }
+
+    private static void preencher(PreparedStatement insercao, int primeiro, int i) throws SQLException {
+        insercao.setString(primeiro, String.format("%08d", i % 100_000_000));
+        insercao.setString(primeiro + 1, "BA");
+        insercao.setString(primeiro + 2, "Salvador");
+        insercao.setString(primeiro + 3, "Centro");
+        insercao.setString(primeiro + 4, "Rua " + i);
+        insercao.setString(primeiro + 5, String.valueOf(i));
+    }
+}
@@ -0,0 +1,101 @@
+package com.toystore.customer.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.ClientePaginaDTO;
+import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.infrastructure.web.MapeadoresPorFormato;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compara JSON, CBOR e Smile numa página de clientes e numa lista de endereços. O tamanho de cada
+ * payload é impresso no setup, antes das medições de tempo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatoSerializacaoBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String formato;
+
+    @Param({"1", "50", "1000"})
+    private int quantidade;
+
+    private ObjectWriter writer;
+    private ObjectReader leitorPagina;
+    private ObjectReader leitorEnderecos;
+
+    private ClientePaginaDTO pagina;
+    private List<EnderecoDTO> enderecos;
+    private byte[] paginaSerializada;
+    private byte[] enderecosSerializados;
+
+    @Setup
+    public void setUp() throws IOException {
+        MapeadoresPorFormato mapeadores = MapeadoresPorFormato.de(new ObjectMapper());
+        ObjectMapper mapper = switch (formato) {
+            case "cbor" -> mapeadores.cbor();
+            case "smile" -> mapeadores.smile();
+            default -> mapeadores.json();
+        };
+        writer = mapper.writer();
+        leitorPagina = mapper.readerFor(ClientePaginaDTO.class);
+        leitorEnderecos = mapper.readerForListOf(EnderecoDTO.class);
+
+        List<ClienteDTO> clientes = IntStream.range(0, quantidade)
+                .mapToObj(i -> new ClienteDTO(String.format("%011d", i), "Cliente Número " + i,
+                        "cliente" + i + "@mail.com", (long) (i % 1000)))
+                .toList();
+        pagina = new ClientePaginaDTO(clientes, clientes.getLast().cpf());
+        enderecos = IntStream.range(0, quantidade)
+                .mapToObj(i -> new EnderecoDTO((long) i, String.format("%05d-%03d", i % 100000, i % 1000),
+                        "Bahia", "Salvador", "Centro", "Rua Principal " + i, String.valueOf(i)))
+                .toList();
+        paginaSerializada = writer.writeValueAsBytes(pagina);
+        enderecosSerializados = writer.writeValueAsBytes(enderecos);
+
+        System.out.printf("%n[%s, %d registros] página de clientes: %d bytes, lista de endereços: %d bytes%n",
+                formato, quantidade, paginaSerializada.length, enderecosSerializados.length);
+    }
+
+    @Benchmark
+    public byte[] serializarPaginaClientes() throws IOException {
+        return writer.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public ClientePaginaDTO desserializarPaginaClientes() throws IOException {
+        return leitorPagina.readValue(paginaSerializada);
+    }
+
+    @Benchmark
+    public byte[] serializarEnderecos() throws IOException {
+        return writer.writeValueAsBytes(enderecos);
+    }
+
+    @Benchmark
+    public List<EnderecoDTO> desserializarEnderecos() throws IOException {
+        return leitorEnderecos.readValue(enderecosSerializados);
+    }
+}
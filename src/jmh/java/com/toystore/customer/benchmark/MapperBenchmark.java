@@ -0,0 +1,83 @@
+package com.toystore.customer.benchmark;
+
+import com.toystore.customer.application.dto.ClienteAtualizacaoDTO;
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Endereco;
+import com.toystore.customer.interfaces.mapper.ClienteMapper;
+import com.toystore.customer.interfaces.mapper.ClienteMapperImpl;
+import com.toystore.customer.interfaces.mapper.EnderecoMapper;
+import com.toystore.customer.interfaces.mapper.EnderecoMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.toystore.customer.infrastructure.utils.ClienteHelper.gerarAtualizacaoClienteDTO;
+import static com.toystore.customer.infrastructure.utils.ClienteHelper.gerarCliente;
+import static com.toystore.customer.infrastructure.utils.ClienteHelper.gerarClienteDTO;
+import static com.toystore.customer.infrastructure.utils.EnderecoHelper.gerarEndereco;
+import static com.toystore.customer.infrastructure.utils.EnderecoHelper.gerarEnderecoDTO;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final ClienteMapper clienteMapper = new ClienteMapperImpl();
+    private final EnderecoMapper enderecoMapper = new EnderecoMapperImpl();
+
+    private Cliente cliente;
+    private ClienteDTO clienteDTO;
+    private ClienteAtualizacaoDTO clienteAtualizacaoDTO;
+    private Endereco endereco;
+    private EnderecoDTO enderecoDTO;
+
+    @Setup
+    public void setUp() {
+        cliente = gerarCliente();
+        clienteDTO = gerarClienteDTO(cliente);
+        clienteAtualizacaoDTO = gerarAtualizacaoClienteDTO(clienteDTO);
+        endereco = gerarEndereco();
+        enderecoDTO = gerarEnderecoDTO(endereco);
+    }
+
+    @Benchmark
+    public ClienteDTO clienteParaDto() {
+        return clienteMapper.toDto(cliente);
+    }
+
+    @Benchmark
+    public Cliente clienteDtoParaEntidade() {
+        return clienteMapper.toEntity(clienteDTO);
+    }
+
+    @Benchmark
+    public Cliente clienteAtualizacaoSobreEntidade() {
+        Cliente alvo = new Cliente();
+        clienteMapper.updateFromDto(clienteAtualizacaoDTO, alvo);
+        return alvo;
+    }
+
+    @Benchmark
+    public EnderecoDTO enderecoParaDto() {
+        return enderecoMapper.toDto(endereco);
+    }
+
+    @Benchmark
+    public Endereco enderecoDtoParaEntidade() {
+        return enderecoMapper.toEntity(enderecoDTO);
+    }
+}
@@ -0,0 +1,87 @@
+package com.toystore.customer.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.infrastructure.web.EscritaEmFluxo;
+import com.toystore.customer.infrastructure.web.MapeadoresPorFormato;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Custo de uma resposta de listagem montada inteira em memória (lista + array de bytes, como antes) contra a
+ * mesma resposta escrita em fluxo. Os registros são criados durante a medição nos dois casos, como viriam do
+ * banco. Rode com {@code -prof gc} e compare {@code gc.alloc.rate.norm} (bytes alocados por resposta).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RespostaListaBenchmark {
+
+    @Param({"100000"})
+    private int quantidade;
+
+    private ObjectMapper mapper;
+    private ObjectWriter writer;
+    private OutputStream saida;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        mapper = MapeadoresPorFormato.de(new ObjectMapper()).json();
+        writer = mapper.writer();
+        saida = new OutputStream() {
+            @Override
+            public void write(int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                blackhole.consume(b);
+            }
+        };
+    }
+
+    @Benchmark
+    public void listaMaterializada() throws IOException {
+        List<EnderecoDTO> enderecos = IntStream.range(0, quantidade)
+                .mapToObj(RespostaListaBenchmark::endereco)
+                .toList();
+        saida.write(writer.writeValueAsBytes(enderecos));
+    }
+
+    @Benchmark
+    public void emFluxo() throws IOException {
+        EscritaEmFluxo.<EnderecoDTO>array(mapper, this::produzir).writeTo(saida);
+    }
+
+    private void produzir(Consumer<EnderecoDTO> consumidor) {
+        for (int i = 0; i < quantidade; i++) {
+            consumidor.accept(endereco(i));
+        }
+    }
+
+    private static EnderecoDTO endereco(int i) {
+        return new EnderecoDTO((long) i, "40000-000", "Bahia", "Salvador", "Centro", "Rua Principal", String.valueOf(i));
+    }
+}
@@ -0,0 +1,50 @@
+package com.toystore.customer.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.toystore.customer.application.dto.ClienteDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SerializacaoClienteBenchmark {
+
+    @Param({"10", "10000", "1000000"})
+    private int quantidade;
+
+    private ObjectWriter writer;
+    private List<ClienteDTO> clientes;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().writer();
+        clientes = IntStream.range(0, quantidade)
+                .mapToObj(i -> new ClienteDTO(String.format("%011d", i), "Cliente " + i,
+                        "cliente" + i + "@mail.com", (long) (i % 1000)))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws JsonProcessingException {
+        return writer.writeValueAsBytes(clientes);
+    }
+}
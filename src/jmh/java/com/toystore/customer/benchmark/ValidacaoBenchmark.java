@@ -0,0 +1,93 @@
+package com.toystore.customer.benchmark;
+
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.validacao.CEPValidator;
+import com.toystore.customer.application.validacao.CPFValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Validação de CPF e CEP pelos validadores de {@code @CPF} e {@code @CEP} comparada com expressões regulares
+ * equivalentes ao formato, e a validação completa de um {@link ClienteDTO}. Com {@code -prof gc} o JMH informa
+ * os bytes alocados por operação ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidacaoBenchmark {
+
+    private static final Pattern FORMATO_CPF = Pattern.compile("\\d{11}");
+    private static final Pattern FORMATO_CEP = Pattern.compile("\\d{5}-?\\d{3}");
+
+    @Param({"52998224725", "52998224724", "529.982.247-25"})
+    private String cpf;
+
+    @Param({"40000-000", "4000-000"})
+    private String cep;
+
+    private final CPFValidator validadorCpf = new CPFValidator();
+    private final CEPValidator validadorCep = new CEPValidator();
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private ClienteDTO cliente;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        cliente = new ClienteDTO(cpf, "Maria", "maria@mail.com", 1L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean cpf() {
+        return validadorCpf.isValid(cpf, null);
+    }
+
+    // Só o formato; os dígitos verificadores ainda exigiriam converter os caracteres
+    @Benchmark
+    public boolean cpfExpressaoRegular() {
+        return FORMATO_CPF.matcher(cpf).matches();
+    }
+
+    @Benchmark
+    public boolean cep() {
+        return validadorCep.isValid(cep, null);
+    }
+
+    @Benchmark
+    public boolean cepExpressaoRegular() {
+        return FORMATO_CEP.matcher(cep).matches();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ClienteDTO>> clienteCompleto() {
+        return validator.validate(cliente);
+    }
+}
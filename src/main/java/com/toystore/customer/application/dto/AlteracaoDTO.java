@@ -0,0 +1,28 @@
+package com.toystore.customer.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record AlteracaoDTO(
+
+        @Schema(example = "1042", description = "Número da alteração; as alterações vêm em ordem crescente")
+        long sequencia,
+
+        @Schema(example = "cliente", allowableValues = {"cliente", "endereco"})
+        String agregado,
+
+        @Schema(example = "12345678900", description = "CPF do cliente ou id do endereço")
+        String chave,
+
+        @Schema(description = "Verdadeiro quando o registro foi removido; nesse caso cliente e endereco vêm nulos")
+        boolean removido,
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @Schema(description = "Estado atual do cliente, quando o agregado é cliente")
+        ClienteDTO cliente,
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @Schema(description = "Estado atual do endereço, quando o agregado é endereco")
+        EnderecoDTO endereco
+) {
+}
@@ -0,0 +1,18 @@
+package com.toystore.customer.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record AlteracoesDTO(
+
+        @Schema(description = "Alterações posteriores ao cursor, em ordem")
+        List<AlteracaoDTO> alteracoes,
+
+        @Schema(example = "1042", description = "Cursor a ser enviado em 'desde' na próxima consulta; igual ao recebido quando não há alterações novas")
+        long cursor,
+
+        @Schema(description = "Verdadeiro quando há mais alterações além desta página")
+        boolean haMais
+) {
+}
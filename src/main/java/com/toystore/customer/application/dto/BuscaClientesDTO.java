@@ -0,0 +1,19 @@
+package com.toystore.customer.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BuscaClientesDTO(
+
+        @NotEmpty(message = "Informe ao menos um CPF")
+        @Size(max = 500, message = "Informe no máximo 500 CPFs por busca")
+        @Schema(example = "[\"12345678900\", \"98765432100\"]")
+        List<String> cpfs,
+
+        @Schema(example = "true", description = "Inclui o endereço completo de cada cliente encontrado")
+        boolean incluirEndereco
+) {
+}
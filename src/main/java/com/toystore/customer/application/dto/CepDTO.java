@@ -0,0 +1,25 @@
+package com.toystore.customer.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Localidade de um CEP no diretório de CEPs. A rua é nula nos CEPs que cobrem a cidade ou o bairro inteiro.
+ */
+public record CepDTO(
+
+        @Schema(example = "40020-000")
+        String cep,
+
+        @Schema(example = "Bahia")
+        String estado,
+
+        @Schema(example = "Salvador")
+        String cidade,
+
+        @Schema(example = "Centro")
+        String bairro,
+
+        @Schema(example = "Rua Chile")
+        String rua
+) {
+}
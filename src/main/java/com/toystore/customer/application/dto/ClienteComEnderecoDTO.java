@@ -0,0 +1,28 @@
+package com.toystore.customer.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record ClienteComEnderecoDTO(
+
+        @Schema(example = "12345678900")
+        String cpf,
+
+        @Schema(example = "Pablo Marçal")
+        String nome,
+
+        @Schema(example = "pablomarcal@dinheiro.com")
+        String email,
+
+        @Schema(example = "1")
+        Long enderecoId,
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @Schema(description = "Presente apenas quando a busca pede o endereço")
+        EnderecoDTO endereco
+) {
+
+    public static ClienteComEnderecoDTO semEndereco(ClienteDTO cliente) {
+        return new ClienteComEnderecoDTO(cliente.cpf(), cliente.nome(), cliente.email(), cliente.enderecoId(), null);
+    }
+}
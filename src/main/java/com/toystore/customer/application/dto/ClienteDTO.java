@@ -1,5 +1,6 @@
 package com.toystore.customer.application.dto;
 
+import com.toystore.customer.application.validacao.CPF;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -7,7 +8,8 @@ import jakarta.validation.constraints.NotNull;
 public record ClienteDTO(
 
         @NotBlank(message = "O CPF é obrigatório")
-        @Schema(example = "12345678900")
+        @CPF
+        @Schema(example = "52998224725", description = "11 dígitos, sem pontuação")
         String cpf,
 
         @NotBlank(message = "O nome é obrigatório")
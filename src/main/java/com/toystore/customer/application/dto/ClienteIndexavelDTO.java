@@ -0,0 +1,17 @@
+package com.toystore.customer.application.dto;
+
+/**
+ * Cliente com os campos do endereço usados pela busca textual, lido em uma única consulta.
+ */
+public record ClienteIndexavelDTO(
+        String cpf,
+        String nome,
+        String email,
+        Long enderecoId,
+        String rua,
+        String bairro,
+        String cidade,
+        String estado,
+        String cep
+) {
+}
@@ -0,0 +1,14 @@
+package com.toystore.customer.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record ClientePaginaDTO(
+
+        List<ClienteDTO> clientes,
+
+        @Schema(example = "12345678900", description = "CPF a ser enviado em 'apos' para buscar a próxima página; nulo na última página")
+        String proximoCursor
+) {
+}
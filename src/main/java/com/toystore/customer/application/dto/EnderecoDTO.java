@@ -1,6 +1,8 @@
 package com.toystore.customer.application.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.toystore.customer.application.validacao.CEP;
+import com.toystore.customer.domain.model.Cep;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 
@@ -11,7 +13,8 @@ public record EnderecoDTO(
         Long id,
 
         @NotBlank(message = "O CEP é obrigatório")
-        @Schema(example = "12345-678")
+        @CEP
+        @Schema(example = "12345-678", description = "Com ou sem hífen; gravado como 12345-678")
         String cep,
 
         @NotBlank(message = "O estado é obrigatório")
@@ -34,4 +37,8 @@ public record EnderecoDTO(
         String numero
 
 ) {
+
+    public EnderecoDTO {
+        cep = Cep.normalizar(cep);
+    }
 }
@@ -0,0 +1,33 @@
+package com.toystore.customer.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+/**
+ * Alteração entregue aos outros serviços. O id identifica o evento e serve para descartar entregas repetidas;
+ * não indica a ordem das alterações, porque cada instância reserva ids em blocos e um lote que falhou é
+ * entregue depois dos seguintes.
+ */
+public record EventoAlteracaoDTO(
+
+        @Schema(example = "1051")
+        Long id,
+
+        @Schema(example = "cliente")
+        String agregado,
+
+        @Schema(example = "12345678900")
+        String chave,
+
+        @Schema(example = "ATUALIZACAO")
+        String tipo,
+
+        @JsonRawValue
+        @Schema(description = "Registro depois da alteração; ausente na remoção")
+        String dados,
+
+        Instant criadoEm
+) {
+}
@@ -0,0 +1,22 @@
+package com.toystore.customer.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record FiltroClienteDTO(
+
+        @Schema(example = "joaosilva@mail.com", description = "E-mail exato do cliente")
+        String email,
+
+        @Schema(example = "joao", description = "Início do nome, sem diferenciar maiúsculas nem acentos")
+        String nome,
+
+        @Schema(example = "Salvador")
+        String cidade,
+
+        @Schema(example = "BA")
+        String estado,
+
+        @Schema(example = "12345-678")
+        String cep
+) {
+}
@@ -0,0 +1,14 @@
+package com.toystore.customer.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record ResultadoBuscaClientesDTO(
+
+        List<ClienteComEnderecoDTO> encontrados,
+
+        @Schema(example = "[\"98765432100\"]", description = "CPFs pedidos que não estão cadastrados")
+        List<String> naoEncontrados
+) {
+}
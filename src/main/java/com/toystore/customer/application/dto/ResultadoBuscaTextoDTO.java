@@ -0,0 +1,15 @@
+package com.toystore.customer.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record ResultadoBuscaTextoDTO(
+
+        @Schema(description = "Clientes em ordem de relevância")
+        List<ClienteDTO> clientes,
+
+        @Schema(example = "MS4yMzQ1OjEyMzQ1Njc4OTAw", description = "Cursor a ser enviado em 'apos' para buscar a próxima página; nulo na última página")
+        String proximoCursor
+) {
+}
@@ -0,0 +1,25 @@
+package com.toystore.customer.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record ResultadoImportacaoDTO(
+
+        @Schema(example = "3")
+        int total,
+
+        @Schema(example = "2")
+        int importados,
+
+        @Schema(example = "1")
+        int rejeitados,
+
+        List<ResultadoRegistroDTO> registros
+) {
+
+    public static ResultadoImportacaoDTO de(List<ResultadoRegistroDTO> registros) {
+        int importados = (int) registros.stream().filter(ResultadoRegistroDTO::importado).count();
+        return new ResultadoImportacaoDTO(registros.size(), importados, registros.size() - importados, registros);
+    }
+}
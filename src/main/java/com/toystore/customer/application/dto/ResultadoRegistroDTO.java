@@ -0,0 +1,32 @@
+package com.toystore.customer.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record ResultadoRegistroDTO(
+
+        @Schema(example = "0", description = "Posição do registro no corpo da requisição")
+        int posicao,
+
+        @Schema(example = "12345678900", description = "CPF do cliente ou id gerado do endereço")
+        String identificador,
+
+        @Schema(example = "true")
+        boolean importado,
+
+        List<String> erros
+) {
+
+    public static ResultadoRegistroDTO importado(int posicao, String identificador) {
+        return new ResultadoRegistroDTO(posicao, identificador, true, List.of());
+    }
+
+    public static ResultadoRegistroDTO nulo(int posicao) {
+        return rejeitado(posicao, null, List.of("O registro não pode ser nulo"));
+    }
+
+    public static ResultadoRegistroDTO rejeitado(int posicao, String identificador, List<String> erros) {
+        return new ResultadoRegistroDTO(posicao, identificador, false, erros);
+    }
+}
@@ -0,0 +1,8 @@
+package com.toystore.customer.application.dto;
+
+/**
+ * Recurso acompanhado da sua versão ({@code @Version}), usada para montar o ETag das respostas.
+ * A versão é nula quando não é conhecida sem uma consulta extra.
+ */
+public record Versionado<T>(T valor, Long versao) {
+}
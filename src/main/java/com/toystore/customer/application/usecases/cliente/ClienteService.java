@@ -1,15 +1,34 @@
 package com.toystore.customer.application.usecases.cliente;
 
+import com.toystore.customer.application.dto.AlteracoesDTO;
 import com.toystore.customer.application.dto.ClienteAtualizacaoDTO;
 import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.ClientePaginaDTO;
+import com.toystore.customer.application.dto.FiltroClienteDTO;
+import com.toystore.customer.application.dto.ResultadoBuscaClientesDTO;
+import com.toystore.customer.application.dto.ResultadoBuscaTextoDTO;
+import com.toystore.customer.application.dto.ResultadoImportacaoDTO;
+import com.toystore.customer.application.dto.Versionado;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ClienteService {
 
     ClienteDTO buscarPorId(String cpf);
-    List<ClienteDTO> buscarTodos();
+    Versionado<ClienteDTO> buscarVersionadoPorId(String cpf);
+    Optional<Long> buscarVersao(String cpf);
+    ResultadoBuscaClientesDTO buscarPorCpfs(List<String> cpfs, boolean incluirEndereco);
+    ClientePaginaDTO buscarPagina(String apos, int tamanho);
+    ClientePaginaDTO pesquisar(FiltroClienteDTO filtro, String apos, int tamanho);
+    ResultadoBuscaTextoDTO buscarTexto(String texto, String apos, int tamanho);
+    void reindexarBuscaTexto();
+    void exportarTodos(Consumer<ClienteDTO> consumidor);
+    AlteracoesDTO buscarAlteracoes(long desde, int tamanho);
     ClienteDTO salvar (ClienteDTO clienteDTO);
-    ClienteDTO atualizar (String cpf, ClienteAtualizacaoDTO clienteDTO);
+    ResultadoImportacaoDTO importar(Iterator<ClienteDTO> clientes);
+    Versionado<ClienteDTO> atualizar (String cpf, ClienteAtualizacaoDTO clienteDTO, Long versaoEsperada);
     void deletarPorId(String cpf);
 }
@@ -1,70 +1,424 @@
 package com.toystore.customer.application.usecases.cliente;
 
+import com.toystore.customer.application.dto.AlteracaoDTO;
+import com.toystore.customer.application.dto.AlteracoesDTO;
 import com.toystore.customer.application.dto.ClienteAtualizacaoDTO;
+import com.toystore.customer.application.dto.ClienteComEnderecoDTO;
 import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.ClientePaginaDTO;
+import com.toystore.customer.application.dto.FiltroClienteDTO;
+import com.toystore.customer.application.dto.ResultadoBuscaClientesDTO;
+import com.toystore.customer.application.dto.ResultadoBuscaTextoDTO;
+import com.toystore.customer.application.dto.ResultadoImportacaoDTO;
+import com.toystore.customer.application.dto.ResultadoRegistroDTO;
+import com.toystore.customer.application.dto.Versionado;
 import com.toystore.customer.application.usecases.endereco.EnderecoService;
+import com.toystore.customer.domain.eventos.AlteracaoRegistradaEvento;
+import com.toystore.customer.domain.eventos.ClientesAlteradosEvento;
+import com.toystore.customer.domain.eventos.TipoAlteracao;
 import com.toystore.customer.domain.exceptions.CPFJaCadastradoException;
+import com.toystore.customer.domain.exceptions.CursorInvalidoException;
 import com.toystore.customer.domain.exceptions.RecursoNaoEncontradoException;
+import com.toystore.customer.domain.exceptions.VersaoDesatualizadaException;
 import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Cpf;
+import com.toystore.customer.domain.model.Endereco;
 import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.domain.repository.RemocaoRepository;
+import com.toystore.customer.infrastructure.busca.IndiceClientes;
+import com.toystore.customer.infrastructure.concorrencia.AgrupadorDeConsultas;
+import com.toystore.customer.infrastructure.filtro.FiltroCpfs;
+import com.toystore.customer.infrastructure.persistence.LeituraPropria;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import com.toystore.customer.infrastructure.persistence.ViolacoesDeUnicidade;
 import com.toystore.customer.interfaces.mapper.ClienteMapper;
+import com.toystore.customer.interfaces.mapper.EnderecoMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Service
+@Timed("toystore.servico")
 public class ClienteServiceImpl implements ClienteService{
 
+    static final int TAMANHO_MAXIMO_PAGINA = 500;
+    static final int TAMANHO_LOTE_IMPORTACAO = 1000;
+
     private final ClienteRepository clienteRepository;
     private final ClienteMapper clienteMapper;
     private final EnderecoService enderecoService;
+    private final EnderecoRepository enderecoRepository;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final AgrupadorDeConsultas<String, Versionado<ClienteDTO>> agrupadorClientes;
+    private final IndiceClientes indiceClientes;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SequenciaAlteracoes sequenciaAlteracoes;
+    private final RemocaoRepository remocaoRepository;
+    private final EnderecoMapper enderecoMapper;
+    private final FiltroCpfs filtroCpfs;
 
     @Override
     public ClienteDTO buscarPorId(String cpf) {
-        Cliente cliente = clienteRepository.findById(cpf).orElseThrow(() -> new RecursoNaoEncontradoException(
-                "Cliente não encontrado com o cpf: " + cpf
-        ));
-        return clienteMapper.toDto(cliente);
+        return buscarVersionadoPorId(cpf).valor();
+    }
+
+    @Override
+    public Versionado<ClienteDTO> buscarVersionadoPorId(String cpf) {
+        if (!podeExistir(cpf)) {
+            throw clienteNaoEncontrado(cpf);
+        }
+        // Sem transação própria: dentro de uma, o agrupador faria a busca individual e não agruparia nada
+        return agrupadorClientes.buscar(cpf).orElseThrow(() -> falsoPositivo(cpf));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> buscarVersao(String cpf) {
+        return podeExistir(cpf) ? clienteRepository.buscarVersao(cpf) : Optional.empty();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResultadoBuscaClientesDTO buscarPorCpfs(List<String> cpfs, boolean incluirEndereco) {
+        // Uma única consulta com IN; CPFs repetidos no pedido são buscados e respondidos uma vez
+        Set<String> pedidos = new LinkedHashSet<>(cpfs);
+        Set<String> possiveis = pedidos.stream()
+                .filter(this::podeExistir)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<String, ClienteComEnderecoDTO> porCpf = possiveis.isEmpty() ? Map.of() : (incluirEndereco
+                ? clienteRepository.buscarComEnderecoPorCpfs(possiveis).stream().map(clienteMapper::toDtoComEndereco)
+                : clienteRepository.buscarPorCpfs(possiveis).stream().map(ClienteComEnderecoDTO::semEndereco))
+                .collect(Collectors.toMap(ClienteComEnderecoDTO::cpf, Function.identity()));
+
+        List<ClienteComEnderecoDTO> encontrados = new ArrayList<>(porCpf.size());
+        List<String> naoEncontrados = new ArrayList<>();
+        for (String cpf : pedidos) {
+            ClienteComEnderecoDTO cliente = porCpf.get(cpf);
+            if (cliente != null) {
+                encontrados.add(cliente);
+            } else {
+                naoEncontrados.add(cpf);
+            }
+        }
+        return new ResultadoBuscaClientesDTO(encontrados, naoEncontrados);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ClientePaginaDTO buscarPagina(String apos, int tamanho) {
+        int limite = Math.clamp(tamanho, 1, TAMANHO_MAXIMO_PAGINA);
+        validarCursor(apos);
+        // Busca um registro a mais apenas para saber se existe próxima página
+        Limit limiteComProxima = Limit.of(limite + 1);
+        List<ClienteDTO> clientes = apos == null || apos.isBlank()
+                ? clienteRepository.buscarPrimeiraPagina(limiteComProxima)
+                : clienteRepository.buscarPaginaApos(apos, limiteComProxima);
+
+        return paginar(clientes, limite);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ClientePaginaDTO pesquisar(FiltroClienteDTO filtro, String apos, int tamanho) {
+        int limite = Math.clamp(tamanho, 1, TAMANHO_MAXIMO_PAGINA);
+        validarCursor(apos);
+        return paginar(clienteRepository.pesquisar(filtro, apos, limite + 1), limite);
+    }
+
+    // O cursor é um CPF e é comparado como número no banco
+    private void validarCursor(String apos) {
+        if (apos != null && !apos.isBlank() && !Cpf.formatoValido(apos)) {
+            throw new CursorInvalidoException("Cursor de paginação inválido: " + apos);
+        }
+    }
+
+    private ClientePaginaDTO paginar(List<ClienteDTO> clientes, int limite) {
+        if (clientes.size() <= limite) {
+            return new ClientePaginaDTO(clientes, null);
+        }
+        List<ClienteDTO> pagina = clientes.subList(0, limite);
+        return new ClientePaginaDTO(pagina, pagina.get(limite - 1).cpf());
+    }
+
+    @Override
+    public ResultadoBuscaTextoDTO buscarTexto(String texto, String apos, int tamanho) {
+        return indiceClientes.buscar(texto, apos, Math.clamp(tamanho, 1, TAMANHO_MAXIMO_PAGINA));
+    }
+
+    @Override
+    public void reindexarBuscaTexto() {
+        indiceClientes.reindexar();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarTodos(Consumer<ClienteDTO> consumidor) {
+        try (Stream<ClienteDTO> clientes = clienteRepository.streamTodosOrdenadosPorCpf()) {
+            clientes.forEach(consumidor);
+        }
     }
 
     @Override
-    public List<ClienteDTO> buscarTodos() {
-        return clienteRepository.findAll()
-                .stream()
-                .map(clienteMapper::toDto)
-                .toList();
+    @Transactional(readOnly = true)
+    public AlteracoesDTO buscarAlteracoes(long desde, int tamanho) {
+        // O limite vem dos locks e da sequência do primário; numa réplica ele não valeria para as linhas lidas
+        return LeituraPropria.noPrimario(() -> buscarAlteracoesNoPrimario(desde, tamanho));
+    }
+
+    private AlteracoesDTO buscarAlteracoesNoPrimario(long desde, int tamanho) {
+        int limite = Math.clamp(tamanho, 1, TAMANHO_MAXIMO_PAGINA);
+        // Alterações acima do limite podem ter à frente números de transações ainda em andamento
+        long ate = sequenciaAlteracoes.limiteVisivel();
+        // Cada origem vem ordenada e limitada a limite + 1, então a junção contém as limite + 1 primeiras do total
+        Limit limiteComProxima = Limit.of(limite + 1);
+        List<AlteracaoDTO> alteracoes = new ArrayList<>();
+        clienteRepository.buscarAlteradosDesde(desde, ate, limiteComProxima).forEach(cliente -> alteracoes.add(
+                new AlteracaoDTO(cliente.getSequenciaAlteracao(), AlteracaoRegistradaEvento.CLIENTE, cliente.getCpf(),
+                        false, clienteMapper.toDto(cliente), null)));
+        enderecoRepository.buscarAlteradosDesde(desde, ate, limiteComProxima).forEach(endereco -> alteracoes.add(
+                new AlteracaoDTO(endereco.getSequenciaAlteracao(), AlteracaoRegistradaEvento.ENDERECO,
+                        String.valueOf(endereco.getId()), false, null, enderecoMapper.toDto(endereco))));
+        remocaoRepository.buscarDesde(desde, ate, limiteComProxima).forEach(remocao -> alteracoes.add(
+                new AlteracaoDTO(remocao.getSequenciaAlteracao(), remocao.getAgregado(), remocao.getChave(),
+                        true, null, null)));
+        alteracoes.sort(Comparator.comparingLong(AlteracaoDTO::sequencia));
+
+        if (alteracoes.size() <= limite) {
+            long cursor = alteracoes.isEmpty() ? desde : alteracoes.getLast().sequencia();
+            return new AlteracoesDTO(alteracoes, cursor, false);
+        }
+        List<AlteracaoDTO> pagina = alteracoes.subList(0, limite);
+        return new AlteracoesDTO(pagina, pagina.getLast().sequencia(), true);
     }
 
     @Override
+    @Transactional
     public ClienteDTO salvar(ClienteDTO clienteDTO) {
-        verificarCPFUnico(clienteDTO.cpf());
         enderecoService.buscarPorId(clienteDTO.enderecoId());
-        Cliente cliente = clienteMapper.toEntity(clienteDTO);
-        cliente = clienteRepository.save(cliente);
-        return clienteMapper.toDto(cliente);
+        // Antes do commit, para que nenhuma leitura posterior ao commit seja barrada pelo filtro
+        filtroCpfs.adicionar(clienteDTO.cpf());
+        try {
+            clienteRepository.inserir(Cpf.numero(clienteDTO.cpf()), clienteDTO.nome(), Cliente.normalizarNome(clienteDTO.nome()),
+                    clienteDTO.email(), clienteDTO.enderecoId(), sequenciaAlteracoes.proxima());
+        } catch (DataIntegrityViolationException e) {
+            // A chave primária (CPF) é a única restrição de unicidade da tabela; as demais violações, como um nome
+            // longo demais ou um endereço removido depois da validação acima, seguem como estão
+            if (!ViolacoesDeUnicidade.violouUnicidade(e)) {
+                throw e;
+            }
+            throw new CPFJaCadastradoException(
+                    "CPF " + clienteDTO.cpf() + " já cadastrado no sistema");
+        }
+        eventPublisher.publishEvent(AlteracaoRegistradaEvento.cliente(TipoAlteracao.CRIACAO, clienteDTO.cpf(), clienteDTO));
+        eventPublisher.publishEvent(ClientesAlteradosEvento.de(clienteDTO.cpf()));
+        return clienteDTO;
+    }
+
+    @Override
+    public ResultadoImportacaoDTO importar(Iterator<ClienteDTO> clientes) {
+        List<ResultadoRegistroDTO> resultados = new ArrayList<>();
+        List<ClienteDTO> lote = new ArrayList<>(TAMANHO_LOTE_IMPORTACAO);
+        while (clientes.hasNext()) {
+            lote.add(clientes.next());
+            if (lote.size() == TAMANHO_LOTE_IMPORTACAO) {
+                resultados.addAll(importarLote(lote, resultados.size()));
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            resultados.addAll(importarLote(lote, resultados.size()));
+        }
+        return ResultadoImportacaoDTO.de(resultados);
+    }
+
+    private List<ResultadoRegistroDTO> importarLote(List<ClienteDTO> lote, int posicaoInicial) {
+        try {
+            return transactionTemplate.execute(status -> gravarLote(lote, posicaoInicial));
+        } catch (DataAccessException e) {
+            // A falha no flush desfaz o lote inteiro sem apontar o registro que a causou: grava um registro por
+            // transação para rejeitar só os que o banco recusar
+            List<ResultadoRegistroDTO> resultados = new ArrayList<>(lote.size());
+            for (int i = 0; i < lote.size(); i++) {
+                resultados.add(importarRegistro(lote.get(i), posicaoInicial + i));
+            }
+            return resultados;
+        }
+    }
+
+    private ResultadoRegistroDTO importarRegistro(ClienteDTO clienteDTO, int posicao) {
+        try {
+            return transactionTemplate.execute(status -> gravarLote(Collections.singletonList(clienteDTO), posicao))
+                    .getFirst();
+        } catch (DataAccessException e) {
+            String erro = e instanceof DataIntegrityViolationException violacao
+                    && ViolacoesDeUnicidade.violouUnicidade(violacao)
+                    ? "CPF " + clienteDTO.cpf() + " já cadastrado no sistema"
+                    : "Registro recusado pelo banco de dados";
+            return ResultadoRegistroDTO.rejeitado(posicao, clienteDTO.cpf(), List.of(erro));
+        }
+    }
+
+    private List<ResultadoRegistroDTO> gravarLote(List<ClienteDTO> lote, int posicaoInicial) {
+        Set<String> cpfsCadastrados = buscarCpfsCadastrados(lote);
+        Set<Long> enderecosExistentes = buscarEnderecosExistentes(lote);
+
+        List<ResultadoRegistroDTO> resultados = new ArrayList<>(lote.size());
+        Set<String> importados = new HashSet<>();
+        for (int i = 0; i < lote.size(); i++) {
+            ClienteDTO clienteDTO = lote.get(i);
+            if (clienteDTO == null) {
+                resultados.add(ResultadoRegistroDTO.nulo(posicaoInicial + i));
+                continue;
+            }
+            List<String> erros = validator.validate(clienteDTO).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            if (clienteDTO.cpf() != null && cpfsCadastrados.contains(clienteDTO.cpf())) {
+                erros.add("CPF " + clienteDTO.cpf() + " já cadastrado no sistema");
+            }
+            if (clienteDTO.enderecoId() != null && !enderecosExistentes.contains(clienteDTO.enderecoId())) {
+                erros.add("Endereço não encontrado com id: " + clienteDTO.enderecoId());
+            }
+
+            if (erros.isEmpty()) {
+                entityManager.persist(Cliente.builder()
+                        .cpf(clienteDTO.cpf())
+                        .nome(clienteDTO.nome())
+                        .email(clienteDTO.email())
+                        .endereco(entityManager.getReference(Endereco.class, clienteDTO.enderecoId()))
+                        .sequenciaAlteracao(sequenciaAlteracoes.proxima())
+                        .build());
+                eventPublisher.publishEvent(
+                        AlteracaoRegistradaEvento.cliente(TipoAlteracao.CRIACAO, clienteDTO.cpf(), clienteDTO));
+                filtroCpfs.adicionar(clienteDTO.cpf());
+                // Registros repetidos dentro do mesmo lote também violariam a chave primária
+                cpfsCadastrados.add(clienteDTO.cpf());
+                importados.add(clienteDTO.cpf());
+                resultados.add(ResultadoRegistroDTO.importado(posicaoInicial + i, clienteDTO.cpf()));
+            } else {
+                resultados.add(ResultadoRegistroDTO.rejeitado(posicaoInicial + i, clienteDTO.cpf(), erros));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        if (!importados.isEmpty()) {
+            eventPublisher.publishEvent(new ClientesAlteradosEvento(importados));
+        }
+        return resultados;
+    }
+
+    // Sem o filtro de CPFs: um CPF gravado por outra instância e ainda não sincronizado só seria descoberto pela
+    // chave primária, no flush, derrubando o lote inteiro
+    private Set<String> buscarCpfsCadastrados(List<ClienteDTO> lote) {
+        Set<String> cpfs = lote.stream()
+                .filter(Objects::nonNull)
+                .map(ClienteDTO::cpf)
+                .filter(Cpf::formatoValido)
+                .collect(Collectors.toSet());
+        return cpfs.isEmpty() ? new HashSet<>() : new HashSet<>(clienteRepository.buscarCpfsExistentes(cpfs));
+    }
+
+    private Set<Long> buscarEnderecosExistentes(List<ClienteDTO> lote) {
+        Set<Long> enderecoIds = lote.stream()
+                .filter(Objects::nonNull)
+                .map(ClienteDTO::enderecoId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return enderecoIds.isEmpty() ? Set.of() : new HashSet<>(enderecoRepository.buscarIdsExistentes(enderecoIds));
     }
 
     @Override
-    public ClienteDTO atualizar(String cpf, ClienteAtualizacaoDTO clienteAtualizacaoDTO) {
-        Cliente cliente = clienteMapper.toEntity(this.buscarPorId(cpf));
+    @Transactional
+    public Versionado<ClienteDTO> atualizar(String cpf, ClienteAtualizacaoDTO clienteAtualizacaoDTO, Long versaoEsperada) {
+        if (!Cpf.formatoValido(cpf)) {
+            throw clienteNaoEncontrado(cpf);
+        }
         enderecoService.buscarPorId(clienteAtualizacaoDTO.enderecoId());
-        clienteMapper.updateFromDto(clienteAtualizacaoDTO, cliente);
-        cliente = clienteRepository.save(cliente);
-        return clienteMapper.toDto(cliente);
+        ClienteDTO clienteAtualizado = new ClienteDTO(cpf, clienteAtualizacaoDTO.nome(), clienteAtualizacaoDTO.email(),
+                clienteAtualizacaoDTO.enderecoId());
+        String nomeBusca = Cliente.normalizarNome(clienteAtualizacaoDTO.nome());
+
+        long sequencia = sequenciaAlteracoes.proxima();
+
+        if (versaoEsperada == null) {
+            int atualizados = clienteRepository.atualizar(Cpf.numero(cpf), clienteAtualizacaoDTO.nome(), nomeBusca,
+                    clienteAtualizacaoDTO.email(), clienteAtualizacaoDTO.enderecoId(), sequencia);
+            if (atualizados == 0) {
+                throw clienteNaoEncontrado(cpf);
+            }
+            publicarAtualizacao(clienteAtualizado);
+            return new Versionado<>(clienteAtualizado, null);
+        }
+
+        int atualizados = clienteRepository.atualizarSeVersao(Cpf.numero(cpf), clienteAtualizacaoDTO.nome(), nomeBusca,
+                clienteAtualizacaoDTO.email(), clienteAtualizacaoDTO.enderecoId(), versaoEsperada, sequencia);
+        if (atualizados == 0) {
+            // Só no caminho de falha é preciso distinguir cliente inexistente de versão desatualizada
+            clienteRepository.buscarVersao(cpf).orElseThrow(() -> clienteNaoEncontrado(cpf));
+            throw new VersaoDesatualizadaException(
+                    "Cliente com o cpf " + cpf + " foi alterado por outra requisição");
+        }
+        publicarAtualizacao(clienteAtualizado);
+        return new Versionado<>(clienteAtualizado, versaoEsperada + 1);
+    }
+
+    private void publicarAtualizacao(ClienteDTO clienteAtualizado) {
+        eventPublisher.publishEvent(
+                AlteracaoRegistradaEvento.cliente(TipoAlteracao.ATUALIZACAO, clienteAtualizado.cpf(), clienteAtualizado));
+        eventPublisher.publishEvent(ClientesAlteradosEvento.de(clienteAtualizado.cpf()));
     }
 
     @Override
+    @Transactional
     public void deletarPorId(String cpf) {
-        this.buscarPorId(cpf);
-        clienteRepository.deleteById(cpf);
+        if (!Cpf.formatoValido(cpf) || clienteRepository.deletarPorCpf(cpf) == 0) {
+            throw clienteNaoEncontrado(cpf);
+        }
+        remocaoRepository.registrar(sequenciaAlteracoes.proxima(), AlteracaoRegistradaEvento.CLIENTE, cpf);
+        eventPublisher.publishEvent(AlteracaoRegistradaEvento.cliente(TipoAlteracao.REMOCAO, cpf, null));
+        eventPublisher.publishEvent(ClientesAlteradosEvento.de(cpf));
     }
 
-    private void verificarCPFUnico(String cpf){
-        clienteRepository.findById(cpf).ifPresent(cliente -> {
-            throw new CPFJaCadastradoException(
-                    "CPF " + cpf + " já cadastrado no sistema");
-        });
+    // CPFs fora do formato não podem estar gravados (a coluna é numérica) e nem chegam ao banco
+    private boolean podeExistir(String cpf) {
+        return Cpf.formatoValido(cpf) && filtroCpfs.podeExistir(cpf);
+    }
+
+    private RecursoNaoEncontradoException falsoPositivo(String cpf) {
+        filtroCpfs.registrarFalsoPositivo();
+        return clienteNaoEncontrado(cpf);
+    }
+
+    private RecursoNaoEncontradoException clienteNaoEncontrado(String cpf) {
+        return new RecursoNaoEncontradoException("Cliente não encontrado com o cpf: " + cpf);
     }
 }
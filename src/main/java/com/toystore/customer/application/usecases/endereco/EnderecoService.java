@@ -1,14 +1,26 @@
 package com.toystore.customer.application.usecases.endereco;
 
+import com.toystore.customer.application.dto.CepDTO;
 import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.dto.ResultadoImportacaoDTO;
+import com.toystore.customer.application.dto.Versionado;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EnderecoService {
 
     EnderecoDTO buscarPorId(Long id);
+    Versionado<EnderecoDTO> buscarVersionadoPorId(Long id);
+    Optional<Long> buscarVersao(Long id);
     List<EnderecoDTO> buscarTodos();
+    void exportarTodos(Consumer<EnderecoDTO> consumidor);
+    CepDTO buscarPorCep(String cep);
     EnderecoDTO salvar (EnderecoDTO enderecoDTO);
-    EnderecoDTO atualizar (Long id, EnderecoDTO enderecoDTO);
+    ResultadoImportacaoDTO importar(Iterator<EnderecoDTO> enderecos);
+    Versionado<EnderecoDTO> atualizar (Long id, EnderecoDTO enderecoDTO, Long versaoEsperada);
     void deletarPorId(Long id);
+    void mesclarDuplicados();
 }
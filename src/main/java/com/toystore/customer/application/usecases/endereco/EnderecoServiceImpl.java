@@ -1,31 +1,89 @@
 package com.toystore.customer.application.usecases.endereco;
 
+import com.toystore.customer.application.dto.CepDTO;
 import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.dto.ResultadoImportacaoDTO;
+import com.toystore.customer.application.dto.ResultadoRegistroDTO;
+import com.toystore.customer.application.dto.Versionado;
+import com.toystore.customer.domain.eventos.AlteracaoRegistradaEvento;
+import com.toystore.customer.domain.eventos.EnderecoAlteradoEvento;
+import com.toystore.customer.domain.eventos.TipoAlteracao;
+import com.toystore.customer.domain.exceptions.EnderecoJaCadastradoException;
 import com.toystore.customer.domain.exceptions.RecursoNaoEncontradoException;
+import com.toystore.customer.domain.exceptions.VersaoDesatualizadaException;
 import com.toystore.customer.domain.model.Endereco;
 import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.domain.repository.RemocaoRepository;
+import com.toystore.customer.infrastructure.cep.DiretorioCeps;
+import com.toystore.customer.infrastructure.concorrencia.AgrupadorDeConsultas;
+import com.toystore.customer.infrastructure.config.CacheConfig;
+import com.toystore.customer.infrastructure.deduplicacao.DeduplicacaoEnderecos;
+import com.toystore.customer.infrastructure.deduplicacao.MesclagemEnderecos;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import com.toystore.customer.infrastructure.persistence.ViolacoesDeUnicidade;
 import com.toystore.customer.interfaces.mapper.EnderecoMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Service
+@Timed("toystore.servico")
 public class EnderecoServiceImpl implements EnderecoService {
 
+    static final int TAMANHO_LOTE_IMPORTACAO = 1000;
+
     private final EnderecoRepository enderecoRepository;
     private final EnderecoMapper enderecoMapper;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final AgrupadorDeConsultas<Long, Versionado<EnderecoDTO>> agrupadorEnderecos;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SequenciaAlteracoes sequenciaAlteracoes;
+    private final RemocaoRepository remocaoRepository;
+    private final DeduplicacaoEnderecos deduplicacaoEnderecos;
+    private final MesclagemEnderecos mesclagemEnderecos;
+    private final DiretorioCeps diretorioCeps;
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.CACHE_ENDERECOS, key = "#id")
     public EnderecoDTO buscarPorId(Long id) {
-        Endereco endereco = enderecoRepository.findById(id).orElseThrow(() -> new RecursoNaoEncontradoException(
-                "Endereço não encontrado com id: " + id
-        ));
-        return enderecoMapper.toDto(endereco);
+        return buscarVersionadoPorId(id).valor();
+    }
+
+    @Override
+    public Versionado<EnderecoDTO> buscarVersionadoPorId(Long id) {
+        return agrupadorEnderecos.buscar(id).orElseThrow(() -> enderecoNaoEncontrado(id));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> buscarVersao(Long id) {
+        return enderecoRepository.buscarVersao(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<EnderecoDTO> buscarTodos() {
         return enderecoRepository.findAll()
                 .stream()
@@ -34,23 +92,175 @@ public class EnderecoServiceImpl implements EnderecoService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public void exportarTodos(Consumer<EnderecoDTO> consumidor) {
+        try (Stream<EnderecoDTO> enderecos = enderecoRepository.streamTodosOrdenadosPorId()) {
+            enderecos.forEach(consumidor);
+        }
+    }
+
+    @Override
+    public CepDTO buscarPorCep(String cep) {
+        return diretorioCeps.buscar(cep).orElseThrow(() -> new RecursoNaoEncontradoException("CEP não encontrado: " + cep));
+    }
+
+    @Override
+    @Transactional
     public EnderecoDTO salvar(EnderecoDTO enderecoDTO) {
-        Endereco endereco = enderecoMapper.toEntity(enderecoDTO);
-        endereco = enderecoRepository.save(endereco);
-        return enderecoMapper.toDto(endereco);
+        Endereco endereco = enderecoMapper.toEntity(conferirPeloCep(enderecoDTO));
+        endereco.setSequenciaAlteracao(sequenciaAlteracoes.proxima());
+        if (deduplicacaoEnderecos.habilitada()) {
+            endereco.setId(null);
+            DeduplicacaoEnderecos.Insercao insercao = deduplicacaoEnderecos.inserirOuReaproveitar(endereco);
+            if (!insercao.inserido()) {
+                return enderecoRepository.findById(insercao.id())
+                        .map(enderecoMapper::toDto)
+                        .orElseThrow(() -> enderecoNaoEncontrado(insercao.id()));
+            }
+        } else {
+            endereco = enderecoRepository.save(endereco);
+        }
+        EnderecoDTO salvo = enderecoMapper.toDto(endereco);
+        eventPublisher.publishEvent(AlteracaoRegistradaEvento.endereco(TipoAlteracao.CRIACAO, salvo.id(), salvo));
+        return salvo;
+    }
+
+    @Override
+    public ResultadoImportacaoDTO importar(Iterator<EnderecoDTO> enderecos) {
+        List<ResultadoRegistroDTO> resultados = new ArrayList<>();
+        List<EnderecoDTO> lote = new ArrayList<>(TAMANHO_LOTE_IMPORTACAO);
+        while (enderecos.hasNext()) {
+            lote.add(enderecos.next());
+            if (lote.size() == TAMANHO_LOTE_IMPORTACAO) {
+                resultados.addAll(importarLote(lote, resultados.size()));
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            resultados.addAll(importarLote(lote, resultados.size()));
+        }
+        return ResultadoImportacaoDTO.de(resultados);
+    }
+
+    private List<ResultadoRegistroDTO> importarLote(List<EnderecoDTO> lote, int posicaoInicial) {
+        try {
+            return transactionTemplate.execute(status -> gravarLote(lote, posicaoInicial));
+        } catch (DataAccessException e) {
+            // A falha no flush desfaz o lote inteiro sem apontar o registro que a causou: grava um registro por
+            // transação para rejeitar só os que o banco recusar
+            List<ResultadoRegistroDTO> resultados = new ArrayList<>(lote.size());
+            for (int i = 0; i < lote.size(); i++) {
+                resultados.add(importarRegistro(lote.get(i), posicaoInicial + i));
+            }
+            return resultados;
+        }
+    }
+
+    private ResultadoRegistroDTO importarRegistro(EnderecoDTO enderecoDTO, int posicao) {
+        try {
+            return transactionTemplate.execute(status -> gravarLote(Collections.singletonList(enderecoDTO), posicao))
+                    .getFirst();
+        } catch (DataAccessException e) {
+            return ResultadoRegistroDTO.rejeitado(posicao, null, List.of("Registro recusado pelo banco de dados"));
+        }
+    }
+
+    private List<ResultadoRegistroDTO> gravarLote(List<EnderecoDTO> lote, int posicaoInicial) {
+        List<ResultadoRegistroDTO> resultados = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            EnderecoDTO enderecoDTO = lote.get(i);
+            if (enderecoDTO == null) {
+                resultados.add(ResultadoRegistroDTO.nulo(posicaoInicial + i));
+                continue;
+            }
+            List<String> erros = validator.validate(enderecoDTO).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .toList();
+
+            if (erros.isEmpty()) {
+                Endereco endereco = enderecoMapper.toEntity(conferirPeloCep(enderecoDTO));
+                endereco.setId(null);
+                endereco.setSequenciaAlteracao(sequenciaAlteracoes.proxima());
+                if (deduplicacaoEnderecos.habilitada()) {
+                    DeduplicacaoEnderecos.Insercao insercao = deduplicacaoEnderecos.inserirOuReaproveitar(endereco);
+                    if (!insercao.inserido()) {
+                        resultados.add(ResultadoRegistroDTO.importado(posicaoInicial + i, String.valueOf(insercao.id())));
+                        continue;
+                    }
+                } else {
+                    entityManager.persist(endereco);
+                }
+                eventPublisher.publishEvent(AlteracaoRegistradaEvento.endereco(
+                        TipoAlteracao.CRIACAO, endereco.getId(), enderecoMapper.toDto(endereco)));
+                resultados.add(ResultadoRegistroDTO.importado(posicaoInicial + i, String.valueOf(endereco.getId())));
+            } else {
+                resultados.add(ResultadoRegistroDTO.rejeitado(posicaoInicial + i, null, erros));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return resultados;
     }
 
     @Override
-    public EnderecoDTO atualizar(Long id, EnderecoDTO enderecoDTO) {
-        Endereco endereco = enderecoMapper.toEntity(this.buscarPorId(id));
-        enderecoMapper.updateFromDto(enderecoDTO, endereco);
-        endereco = enderecoRepository.save(endereco);
-        return enderecoMapper.toDto(endereco);
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CACHE_ENDERECOS, key = "#id")
+    public Versionado<EnderecoDTO> atualizar(Long id, EnderecoDTO enderecoDTO, Long versaoEsperada) {
+        Endereco endereco = enderecoRepository.findById(id).orElseThrow(() -> enderecoNaoEncontrado(id));
+        if (versaoEsperada != null && !versaoEsperada.equals(endereco.getVersao())) {
+            throw new VersaoDesatualizadaException(
+                    "Endereço com id " + id + " foi alterado por outra requisição");
+        }
+        enderecoMapper.updateFromDto(conferirPeloCep(enderecoDTO), endereco);
+        endereco.setSequenciaAlteracao(sequenciaAlteracoes.proxima());
+        endereco.setHashConteudo(deduplicacaoEnderecos.hashParaGravar(endereco));
+        try {
+            // O flush incrementa a versão, que volta no ETag da resposta
+            endereco = enderecoRepository.saveAndFlush(endereco);
+        } catch (DataIntegrityViolationException e) {
+            // Com a deduplicação, o índice único recusa o conteúdo que já pertence a outro endereço
+            if (!ViolacoesDeUnicidade.violouUnicidade(e, Endereco.INDICE_HASH_CONTEUDO)) {
+                throw e;
+            }
+            throw new EnderecoJaCadastradoException("Já existe outro endereço cadastrado com o mesmo conteúdo");
+        }
+        EnderecoDTO atualizado = enderecoMapper.toDto(endereco);
+        eventPublisher.publishEvent(AlteracaoRegistradaEvento.endereco(TipoAlteracao.ATUALIZACAO, id, atualizado));
+        eventPublisher.publishEvent(new EnderecoAlteradoEvento(id));
+        return new Versionado<>(atualizado, endereco.getVersao());
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CACHE_ENDERECOS, key = "#id")
     public void deletarPorId(Long id) {
         this.buscarPorId(id);
         enderecoRepository.deleteById(id);
+        remocaoRepository.registrar(sequenciaAlteracoes.proxima(), AlteracaoRegistradaEvento.ENDERECO, String.valueOf(id));
+        eventPublisher.publishEvent(AlteracaoRegistradaEvento.endereco(TipoAlteracao.REMOCAO, id, null));
+    }
+
+    @Override
+    public void mesclarDuplicados() {
+        mesclagemEnderecos.iniciar();
+    }
+
+    // O que o diretório conhece do CEP prevalece sobre o informado; a rua só vem dele quando o CEP é de uma rua só
+    private EnderecoDTO conferirPeloCep(EnderecoDTO enderecoDTO) {
+        if (!diretorioCeps.conferirEnderecos()) {
+            return enderecoDTO;
+        }
+        return diretorioCeps.buscar(enderecoDTO.cep())
+                .map(cep -> new EnderecoDTO(enderecoDTO.id(), enderecoDTO.cep(),
+                        Objects.requireNonNullElse(cep.estado(), enderecoDTO.estado()),
+                        Objects.requireNonNullElse(cep.cidade(), enderecoDTO.cidade()),
+                        Objects.requireNonNullElse(cep.bairro(), enderecoDTO.bairro()),
+                        Objects.requireNonNullElse(cep.rua(), enderecoDTO.rua()),
+                        enderecoDTO.numero()))
+                .orElse(enderecoDTO);
+    }
+
+    private RecursoNaoEncontradoException enderecoNaoEncontrado(Long id) {
+        return new RecursoNaoEncontradoException("Endereço não encontrado com id: " + id);
     }
 }
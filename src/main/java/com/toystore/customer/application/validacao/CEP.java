@@ -0,0 +1,28 @@
+package com.toystore.customer.application.validacao;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * CEP com oito dígitos, no formato {@code 12345-678} ou sem o hífen. Valores nulos ou vazios são aceitos; combine com
+ * {@code @NotBlank} quando o campo for obrigatório.
+ */
+@Documented
+@Constraint(validatedBy = CEPValidator.class)
+@Target({ElementType.METHOD, ElementType.FIELD, ElementType.ANNOTATION_TYPE, ElementType.CONSTRUCTOR,
+        ElementType.PARAMETER, ElementType.TYPE_USE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CEP {
+
+    String message() default "O CEP informado é inválido";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
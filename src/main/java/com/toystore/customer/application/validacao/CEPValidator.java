@@ -0,0 +1,13 @@
+package com.toystore.customer.application.validacao;
+
+import com.toystore.customer.domain.model.Cep;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class CEPValidator implements ConstraintValidator<CEP, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence valor, ConstraintValidatorContext context) {
+        return valor == null || valor.isEmpty() || Cep.valido(valor);
+    }
+}
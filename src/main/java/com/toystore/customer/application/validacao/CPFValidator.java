@@ -0,0 +1,13 @@
+package com.toystore.customer.application.validacao;
+
+import com.toystore.customer.domain.model.Cpf;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class CPFValidator implements ConstraintValidator<CPF, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence valor, ConstraintValidatorContext context) {
+        return valor == null || valor.isEmpty() || Cpf.valido(valor);
+    }
+}
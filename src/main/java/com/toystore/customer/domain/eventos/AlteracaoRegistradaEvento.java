@@ -0,0 +1,20 @@
+package com.toystore.customer.domain.eventos;
+
+/**
+ * Publicado dentro da transação de cada criação, atualização ou remoção de cliente ou endereço, com o estado
+ * resultante do registro ({@code null} na remoção). Quem reage a ele grava na mesma transação; reações que
+ * dependem do commit usam {@link ClientesAlteradosEvento} e {@link EnderecoAlteradoEvento}.
+ */
+public record AlteracaoRegistradaEvento(String agregado, String chave, TipoAlteracao tipo, Object dados) {
+
+    public static final String CLIENTE = "cliente";
+    public static final String ENDERECO = "endereco";
+
+    public static AlteracaoRegistradaEvento cliente(TipoAlteracao tipo, String cpf, Object dados) {
+        return new AlteracaoRegistradaEvento(CLIENTE, cpf, tipo, dados);
+    }
+
+    public static AlteracaoRegistradaEvento endereco(TipoAlteracao tipo, Long id, Object dados) {
+        return new AlteracaoRegistradaEvento(ENDERECO, String.valueOf(id), tipo, dados);
+    }
+}
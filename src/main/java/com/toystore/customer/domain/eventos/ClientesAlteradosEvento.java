@@ -0,0 +1,14 @@
+package com.toystore.customer.domain.eventos;
+
+import java.util.Set;
+
+/**
+ * Publicado depois de inserir, atualizar ou remover clientes. Leva apenas os CPFs: quem reage ao evento
+ * consulta o estado atual no banco.
+ */
+public record ClientesAlteradosEvento(Set<String> cpfs) {
+
+    public static ClientesAlteradosEvento de(String cpf) {
+        return new ClientesAlteradosEvento(Set.of(cpf));
+    }
+}
@@ -0,0 +1,7 @@
+package com.toystore.customer.domain.eventos;
+
+/**
+ * Publicado depois de atualizar um endereço, já que os clientes que moram nele também mudam para a busca.
+ */
+public record EnderecoAlteradoEvento(Long enderecoId) {
+}
@@ -0,0 +1,7 @@
+package com.toystore.customer.domain.eventos;
+
+public enum TipoAlteracao {
+    CRIACAO,
+    ATUALIZACAO,
+    REMOCAO
+}
@@ -0,0 +1,7 @@
+package com.toystore.customer.domain.exceptions;
+
+public class CursorInvalidoException extends RuntimeException {
+    public CursorInvalidoException(String message) {
+        super(message);
+    }
+}
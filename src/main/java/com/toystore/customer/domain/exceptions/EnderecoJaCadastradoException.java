@@ -0,0 +1,7 @@
+package com.toystore.customer.domain.exceptions;
+
+public class EnderecoJaCadastradoException extends RuntimeException {
+    public EnderecoJaCadastradoException(String message) {
+        super(message);
+    }
+}
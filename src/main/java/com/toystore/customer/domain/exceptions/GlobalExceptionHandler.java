@@ -1,5 +1,10 @@
 package com.toystore.customer.domain.exceptions;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -12,8 +17,28 @@ import java.util.Map;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    static final String METRICA_EXCECOES = "toystore.excecoes";
+
+    // Registrados uma única vez: no caminho da requisição o custo é apenas o incremento
+    private final Counter recursoNaoEncontrado;
+    private final Counter cpfJaCadastrado;
+    private final Counter versaoDesatualizada;
+    private final Counter corpoInvalido;
+    private final Counter cursorInvalido;
+    private final Counter enderecoJaCadastrado;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.recursoNaoEncontrado = contador(meterRegistry, "RecursoNaoEncontradoException", HttpStatus.NOT_FOUND);
+        this.cpfJaCadastrado = contador(meterRegistry, "CPFJaCadastradoException", HttpStatus.CONFLICT);
+        this.versaoDesatualizada = contador(meterRegistry, "VersaoDesatualizadaException", HttpStatus.PRECONDITION_FAILED);
+        this.corpoInvalido = contador(meterRegistry, "CorpoInvalido", HttpStatus.BAD_REQUEST);
+        this.cursorInvalido = contador(meterRegistry, "CursorInvalidoException", HttpStatus.BAD_REQUEST);
+        this.enderecoJaCadastrado = contador(meterRegistry, "EnderecoJaCadastradoException", HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(RecursoNaoEncontradoException.class)
     public ResponseEntity<Map<String, Object>> handleRecursoNaoEncontradoException(RecursoNaoEncontradoException e){
+        recursoNaoEncontrado.increment();
         Map<String, Object> errorDetails = new HashMap<>();
         errorDetails.put("timestamp", LocalDateTime.now());
         errorDetails.put("message", e.getMessage());
@@ -22,9 +47,56 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(CPFJaCadastradoException.class)
     public ResponseEntity<Map<String, Object>> handleCPFJaCadastradoException(CPFJaCadastradoException e){
+        cpfJaCadastrado.increment();
         Map<String, Object> errorDetails = new HashMap<>();
         errorDetails.put("timestamp", LocalDateTime.now());
         errorDetails.put("message", e.getMessage());
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorDetails);
     }
+
+    @ExceptionHandler(EnderecoJaCadastradoException.class)
+    public ResponseEntity<Map<String, Object>> handleEnderecoJaCadastradoException(EnderecoJaCadastradoException e){
+        enderecoJaCadastrado.increment();
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorDetails);
+    }
+
+    @ExceptionHandler({VersaoDesatualizadaException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Map<String, Object>> handleVersaoDesatualizadaException(RuntimeException e){
+        versaoDesatualizada.increment();
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", e instanceof VersaoDesatualizadaException
+                ? e.getMessage()
+                : "O recurso foi alterado por outra requisição");
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorDetails);
+    }
+
+    @ExceptionHandler({JsonProcessingException.class, RuntimeJsonMappingException.class})
+    public ResponseEntity<Map<String, Object>> handleCorpoInvalidoException(Exception e){
+        corpoInvalido.increment();
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", "Corpo da requisição inválido: " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorDetails);
+    }
+
+    @ExceptionHandler(CursorInvalidoException.class)
+    public ResponseEntity<Map<String, Object>> handleCursorInvalidoException(CursorInvalidoException e){
+        cursorInvalido.increment();
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorDetails);
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String excecao, HttpStatus status) {
+        return Counter.builder(METRICA_EXCECOES)
+                .description("Exceções tratadas pelo GlobalExceptionHandler")
+                .tag("excecao", excecao)
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry);
+    }
 }
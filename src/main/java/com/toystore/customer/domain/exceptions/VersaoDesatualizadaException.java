@@ -0,0 +1,7 @@
+package com.toystore.customer.domain.exceptions;
+
+public class VersaoDesatualizadaException extends RuntimeException {
+    public VersaoDesatualizadaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,86 @@
+package com.toystore.customer.domain.model;
+
+/**
+ * Formato do CEP: oito dígitos, gravados como {@code 12345-678}. A entrada também é aceita sem o hífen; a
+ * verificação percorre os caracteres sem expressão regular nem objetos intermediários.
+ */
+public final class Cep {
+
+    private static final int DIGITOS = 8;
+    private static final int POSICAO_HIFEN = 5;
+
+    private Cep() {
+    }
+
+    /**
+     * Se o texto é um CEP de oito dígitos, com ou sem o hífen depois do quinto.
+     */
+    public static boolean valido(CharSequence texto) {
+        if (texto == null) {
+            return false;
+        }
+        int tamanho = texto.length();
+        if (tamanho == DIGITOS + 1) {
+            return texto.charAt(POSICAO_HIFEN) == '-'
+                    && digitos(texto, 0, POSICAO_HIFEN)
+                    && digitos(texto, POSICAO_HIFEN + 1, tamanho);
+        }
+        return tamanho == DIGITOS && digitos(texto, 0, DIGITOS);
+    }
+
+    /**
+     * CEP no formato gravado, {@code 12345-678}. Textos já nesse formato ou que não são um CEP válido são
+     * devolvidos sem alteração, deixando a recusa para a validação.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.length() != DIGITOS || !digitos(texto, 0, DIGITOS)) {
+            return texto;
+        }
+        return texto.substring(0, POSICAO_HIFEN) + '-' + texto.substring(POSICAO_HIFEN);
+    }
+
+    /**
+     * Os oito dígitos do CEP como número, como no índice do diretório de CEPs.
+     *
+     * @throws IllegalArgumentException se o texto não for um CEP válido
+     */
+    public static int numero(CharSequence texto) {
+        if (!valido(texto)) {
+            throw new IllegalArgumentException("CEP inválido: " + texto);
+        }
+        int numero = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c != '-') {
+                numero = numero * 10 + (c - '0');
+            }
+        }
+        return numero;
+    }
+
+    /**
+     * O número do CEP no formato gravado, com os zeros à esquerda.
+     */
+    public static String formatar(int numero) {
+        char[] texto = new char[DIGITOS + 1];
+        for (int i = DIGITOS; i >= 0; i--) {
+            if (i == POSICAO_HIFEN) {
+                texto[i] = '-';
+            } else {
+                texto[i] = (char) ('0' + numero % 10);
+                numero /= 10;
+            }
+        }
+        return new String(texto);
+    }
+
+    private static boolean digitos(CharSequence texto, int inicio, int fim) {
+        for (int i = inicio; i < fim; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,25 +1,79 @@
 package com.toystore.customer.domain.model;
 
+import com.toystore.customer.infrastructure.persistence.CpfType;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Type;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_cliente_email", columnList = "email"),
+        @Index(name = "idx_cliente_endereco_id", columnList = "endereco_id"),
+        @Index(name = "idx_cliente_nome_busca", columnList = "nome_busca"),
+        @Index(name = "idx_cliente_sequencia_alteracao", columnList = "sequencia_alteracao")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cliente")
 @Data
 @Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class Cliente {
 
+    private static final Pattern MARCAS_DE_ACENTO = Pattern.compile("\\p{M}+");
+
+    // Gravado como BIGINT; no modelo e na API continua sendo o texto de 11 dígitos
     @Id
+    @Type(CpfType.class)
     private String cpf;
     private String nome;
     private String email;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Endereco endereco;
+
+    @Version
+    private Long versao;
+
+    // Nome sem acentos e em minúsculas, indexado para a pesquisa por prefixo
+    @Column(name = "nome_busca")
+    private String nomeBusca;
+
+    // Número da última alteração, atribuído pelo serviço; cursor do feed de alterações
+    @Column(name = "sequencia_alteracao")
+    private Long sequenciaAlteracao;
+
+    @PrePersist
+    @PreUpdate
+    void atualizarNomeBusca() {
+        this.nomeBusca = normalizarNome(nome);
+    }
+
+    public static String normalizarNome(String nome) {
+        if (nome == null) {
+            return null;
+        }
+        return MARCAS_DE_ACENTO.matcher(Normalizer.normalize(nome, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
 }
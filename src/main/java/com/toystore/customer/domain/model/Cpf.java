@@ -0,0 +1,101 @@
+package com.toystore.customer.domain.model;
+
+/**
+ * CPF como número de 11 dígitos, a forma em que é gravado e indexado no banco ({@code BIGINT}). A API continua
+ * usando o texto com zeros à esquerda; a conversão entre as duas formas percorre os caracteres sem criar
+ * objetos intermediários.
+ */
+public record Cpf(long numero) {
+
+    public static final int DIGITOS = 11;
+
+    private static final long MAXIMO = 99_999_999_999L;
+    private static final long REPETIDOS = 11_111_111_111L;
+
+    public Cpf {
+        if (numero < 0 || numero > MAXIMO) {
+            throw new IllegalArgumentException("CPF fora do intervalo de 11 dígitos: " + numero);
+        }
+    }
+
+    public static Cpf de(CharSequence texto) {
+        return new Cpf(numero(texto));
+    }
+
+    /**
+     * Número do CPF informado como texto de exatamente 11 dígitos, sem pontuação.
+     */
+    public static long numero(CharSequence texto) {
+        long numero = converter(texto);
+        if (numero < 0) {
+            throw new IllegalArgumentException("CPF deve ter 11 dígitos: " + texto);
+        }
+        return numero;
+    }
+
+    /**
+     * Se o texto tem exatamente 11 dígitos, sem conferir os dígitos verificadores.
+     */
+    public static boolean formatoValido(CharSequence texto) {
+        return converter(texto) >= 0;
+    }
+
+    /**
+     * Se o texto tem 11 dígitos, não são todos iguais e os dois últimos conferem com os nove primeiros.
+     */
+    public static boolean valido(CharSequence texto) {
+        long numero = converter(texto);
+        return numero >= 0 && numero % REPETIDOS != 0 && digitosVerificadoresConferem(numero);
+    }
+
+    public static String formatar(long numero) {
+        char[] digitos = new char[DIGITOS];
+        for (int i = DIGITOS - 1; i >= 0; i--) {
+            digitos[i] = (char) ('0' + numero % 10);
+            numero /= 10;
+        }
+        return new String(digitos);
+    }
+
+    @Override
+    public String toString() {
+        return formatar(numero);
+    }
+
+    // -1 quando o texto não tem exatamente 11 dígitos
+    private static long converter(CharSequence texto) {
+        if (texto == null || texto.length() != DIGITOS) {
+            return -1;
+        }
+        long numero = 0;
+        for (int i = 0; i < DIGITOS; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            numero = numero * 10 + (c - '0');
+        }
+        return numero;
+    }
+
+    private static boolean digitosVerificadoresConferem(long numero) {
+        // Os nove primeiros dígitos da direita para a esquerda, com pesos 2..10 e 3..11
+        long base = numero / 100;
+        int soma1 = 0;
+        int soma2 = 0;
+        for (int peso = 2; peso <= 10; peso++) {
+            int digito = (int) (base % 10);
+            soma1 += digito * peso;
+            soma2 += digito * (peso + 1);
+            base /= 10;
+        }
+        int primeiro = verificador(soma1);
+        int segundo = verificador(soma2 + primeiro * 2);
+        return numero % 100 == primeiro * 10L + segundo;
+    }
+
+    private static int verificador(int soma) {
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
@@ -1,20 +1,46 @@
 package com.toystore.customer.domain.model;
 
+import com.toystore.customer.infrastructure.persistence.SequenciaConfiguravel;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_endereco_cep", columnList = "cep"),
+        @Index(name = "idx_endereco_sequencia_alteracao", columnList = "sequencia_alteracao"),
+        @Index(name = Endereco.INDICE_HASH_CONTEUDO, columnList = "hash_conteudo", unique = true)
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "endereco")
 @Data
 @Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class Endereco {
 
+    public static final String INDICE_HASH_CONTEUDO = "uk_endereco_hash_conteudo";
+
+    private static final Pattern MARCAS_DE_ACENTO = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+    private static final Pattern NAO_DIGITOS = Pattern.compile("\\D");
+    private static final char SEPARADOR = '\u001F';
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SequenciaConfiguravel("endereco_seq")
     private Long id;
 
     private String cep;
@@ -23,4 +49,45 @@ public class Endereco {
     private String bairro;
     private String rua;
     private String numero;
+
+    @Version
+    private Long versao;
+
+    // Número da última alteração, atribuído pelo serviço; cursor do feed de alterações
+    @Column(name = "sequencia_alteracao")
+    private Long sequenciaAlteracao;
+
+    // SHA-256 do conteúdo normalizado, único quando a deduplicação está ativa; nulo em endereços ainda não
+    // conferidos. Preenchê-lo não é uma alteração do endereço, então não incrementa a versão
+    @Column(name = "hash_conteudo", length = 64)
+    @OptimisticLock(excluded = true)
+    private String hashConteudo;
+
+    /**
+     * Hash do conteúdo (CEP, estado, cidade, bairro, rua e número) depois de normalizado: sem acentos, em
+     * minúsculas e com espaços repetidos reduzidos a um; do CEP ficam só os dígitos. Endereços que diferem
+     * apenas nisso têm o mesmo hash.
+     */
+    public String calcularHashConteudo() {
+        String conteudo = NAO_DIGITOS.matcher(cep == null ? "" : cep).replaceAll("") + SEPARADOR
+                + normalizar(estado) + SEPARADOR
+                + normalizar(cidade) + SEPARADOR
+                + normalizar(bairro) + SEPARADOR
+                + normalizar(rua) + SEPARADOR
+                + normalizar(numero);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(conteudo.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = MARCAS_DE_ACENTO.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,54 @@
+package com.toystore.customer.domain.model;
+
+import com.toystore.customer.domain.eventos.TipoAlteracao;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Alteração ainda não entregue aos outros serviços. É gravada na mesma transação da alteração e removida
+ * pelo relay depois da entrega. O relay só lê eventos cujo {@code disponivelEm} já passou: durante a entrega o
+ * evento fica reservado e, depois de uma falha, aguarda a próxima tentativa. Esgotadas as tentativas, o evento
+ * recebe {@code abandonadoEm} e fica na tabela para análise, fora da entrega.
+ */
+@Entity
+@Table(name = "evento_outbox")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_outbox_seq")
+    @SequenceGenerator(name = "evento_outbox_seq", sequenceName = "evento_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String agregado;
+
+    @Column(nullable = false, length = 20)
+    private String chave;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoAlteracao tipo;
+
+    // JSON do registro depois da alteração; nulo na remoção
+    @Column(columnDefinition = "text")
+    private String dados;
+
+    @Column(nullable = false)
+    private Instant criadoEm;
+
+    private int tentativas;
+
+    @Column(nullable = false)
+    private Instant disponivelEm;
+
+    private Instant abandonadoEm;
+}
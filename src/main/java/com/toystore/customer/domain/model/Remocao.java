@@ -0,0 +1,31 @@
+package com.toystore.customer.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Marca a remoção de um cliente ou endereço no feed de alterações, já que o registro removido não existe
+ * mais para carregar o próprio número de alteração.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Remocao {
+
+    @Id
+    @Column(name = "sequencia_alteracao")
+    private Long sequenciaAlteracao;
+
+    @Column(nullable = false, length = 20)
+    private String agregado;
+
+    @Column(nullable = false, length = 20)
+    private String chave;
+}
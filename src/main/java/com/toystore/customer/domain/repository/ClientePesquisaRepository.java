@@ -0,0 +1,12 @@
+package com.toystore.customer.domain.repository;
+
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.FiltroClienteDTO;
+
+import java.util.List;
+
+public interface ClientePesquisaRepository {
+
+    // Projeção direto em ClienteDTO: só as colunas do DTO são lidas, sem carregar nem gerenciar as entidades
+    List<ClienteDTO> pesquisar(FiltroClienteDTO filtro, String apos, int limite);
+}
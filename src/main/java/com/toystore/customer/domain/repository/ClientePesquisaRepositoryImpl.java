@@ -0,0 +1,34 @@
+package com.toystore.customer.domain.repository;
+
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.FiltroClienteDTO;
+import com.toystore.customer.domain.model.Cliente;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+import java.util.List;
+
+class ClientePesquisaRepositoryImpl implements ClientePesquisaRepository {
+
+    private final EntityManager entityManager;
+
+    ClientePesquisaRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<ClienteDTO> pesquisar(FiltroClienteDTO filtro, String apos, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ClienteDTO> consulta = cb.createQuery(ClienteDTO.class);
+        Root<Cliente> cliente = consulta.from(Cliente.class);
+        consulta.select(cb.construct(ClienteDTO.class, cliente.get("cpf"), cliente.get("nome"), cliente.get("email"),
+                        cliente.get("endereco").get("id")))
+                .where(ClienteSpecifications.pesquisa(filtro, apos).toPredicate(cliente, consulta, cb))
+                .orderBy(cb.asc(cliente.get("cpf")));
+        return entityManager.createQuery(consulta)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+}
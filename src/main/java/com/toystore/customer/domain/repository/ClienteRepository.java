@@ -1,9 +1,157 @@
 package com.toystore.customer.domain.repository;
 
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.ClienteIndexavelDTO;
 import com.toystore.customer.domain.model.Cliente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ClienteRepository extends JpaRepository<Cliente, String> {
+public interface ClienteRepository extends JpaRepository<Cliente, String>, JpaSpecificationExecutor<Cliente>,
+        ClientePesquisaRepository {
+
+    @Query("""
+            select new com.toystore.customer.application.dto.ClienteDTO(c.cpf, c.nome, c.email, c.endereco.id)
+            from Cliente c
+            order by c.cpf""")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<ClienteDTO> buscarPrimeiraPagina(Limit limit);
+
+    @Query("""
+            select new com.toystore.customer.application.dto.ClienteDTO(c.cpf, c.nome, c.email, c.endereco.id)
+            from Cliente c
+            where c.cpf > :apos
+            order by c.cpf""")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<ClienteDTO> buscarPaginaApos(@Param("apos") String apos, Limit limit);
+
+    @Query("""
+            select new com.toystore.customer.application.dto.ClienteDTO(c.cpf, c.nome, c.email, c.endereco.id)
+            from Cliente c
+            order by c.cpf""")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ClienteDTO> streamTodosOrdenadosPorCpf();
+
+    @Query("""
+            select new com.toystore.customer.application.dto.ClienteIndexavelDTO(
+                c.cpf, c.nome, c.email, e.id, e.rua, e.bairro, e.cidade, e.estado, e.cep)
+            from Cliente c left join c.endereco e""")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ClienteIndexavelDTO> streamIndexaveis();
+
+    @Query("select c.cpf from Cliente c")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<String> streamCpfs();
+
+    @Query("""
+            select new com.toystore.customer.application.dto.ClienteIndexavelDTO(
+                c.cpf, c.nome, c.email, e.id, e.rua, e.bairro, e.cidade, e.estado, e.cep)
+            from Cliente c left join c.endereco e
+            where c.cpf in :cpfs""")
+    List<ClienteIndexavelDTO> buscarIndexaveisPorCpfs(@Param("cpfs") Collection<String> cpfs);
+
+    @Query("""
+            select new com.toystore.customer.application.dto.ClienteIndexavelDTO(
+                c.cpf, c.nome, c.email, e.id, e.rua, e.bairro, e.cidade, e.estado, e.cep)
+            from Cliente c join c.endereco e
+            where e.id = :enderecoId""")
+    List<ClienteIndexavelDTO> buscarIndexaveisPorEndereco(@Param("enderecoId") Long enderecoId);
+
+    @Query("""
+            select new com.toystore.customer.application.dto.ClienteDTO(c.cpf, c.nome, c.email, c.endereco.id)
+            from Cliente c
+            where c.cpf in :cpfs""")
+    List<ClienteDTO> buscarPorCpfs(@Param("cpfs") Collection<String> cpfs);
+
+    @Query("select c from Cliente c left join fetch c.endereco where c.cpf in :cpfs")
+    List<Cliente> buscarComEnderecoPorCpfs(@Param("cpfs") Collection<String> cpfs);
+
+    @Query("select c from Cliente c where c.endereco.id in :enderecoIds")
+    List<Cliente> buscarPorEnderecos(@Param("enderecoIds") Collection<Long> enderecoIds);
+
+    @Query("select c.cpf from Cliente c where c.cpf in :cpfs")
+    List<String> buscarCpfsExistentes(@Param("cpfs") Collection<String> cpfs);
+
+    @Query("""
+            select c from Cliente c
+            where c.sequenciaAlteracao > :desde and c.sequenciaAlteracao < :ate
+            order by c.sequenciaAlteracao""")
+    List<Cliente> buscarAlteradosDesde(@Param("desde") long desde, @Param("ate") long ate, Limit limit);
+
+    @Query("select coalesce(max(c.sequenciaAlteracao), 0) from Cliente c")
+    long buscarUltimaSequenciaAlteracao();
+
+    @EntityGraph(attributePaths = "endereco")
+    Optional<Cliente> findComEnderecoByCpf(String cpf);
+
+    @Query("select c.versao from Cliente c where c.cpf = :cpf")
+    Optional<Long> buscarVersao(@Param("cpf") String cpf);
+
+    @Query("""
+            select new com.toystore.customer.application.dto.ClienteDTO(c.cpf, c.nome, c.email, c.endereco.id)
+            from Cliente c
+            where c.nomeBusca is null and c.nome is not null""")
+    List<ClienteDTO> buscarSemNomeBusca(Limit limit);
+
+    // Não incrementa a versão: o nome normalizado é derivado do nome e não muda o cliente para a API
+    @Transactional
+    @Modifying
+    @Query("update Cliente c set c.nomeBusca = :nomeBusca where c.cpf = :cpf")
+    int atualizarNomeBusca(@Param("cpf") String cpf, @Param("nomeBusca") String nomeBusca);
+
+    // Sem a tabela declarada, o Hibernate invalidaria todo o cache de segundo nível a cada comando nativo.
+    // Os comandos nativos não passam pelo CpfType, então recebem o CPF já como número (Cpf.numero)
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cliente"))
+    @Query(value = """
+            insert into cliente (cpf, nome, nome_busca, email, endereco_id, versao, sequencia_alteracao)
+            values (:cpf, :nome, :nomeBusca, :email, :enderecoId, 0, :sequencia)""", nativeQuery = true)
+    int inserir(@Param("cpf") long cpf, @Param("nome") String nome, @Param("nomeBusca") String nomeBusca,
+                @Param("email") String email, @Param("enderecoId") Long enderecoId,
+                @Param("sequencia") long sequencia);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cliente"))
+    @Query(value = """
+            update cliente
+            set nome = :nome, nome_busca = :nomeBusca, email = :email, endereco_id = :enderecoId, versao = versao + 1,
+                sequencia_alteracao = :sequencia
+            where cpf = :cpf""", nativeQuery = true)
+    int atualizar(@Param("cpf") long cpf, @Param("nome") String nome, @Param("nomeBusca") String nomeBusca,
+                  @Param("email") String email, @Param("enderecoId") Long enderecoId,
+                  @Param("sequencia") long sequencia);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cliente"))
+    @Query(value = """
+            update cliente
+            set nome = :nome, nome_busca = :nomeBusca, email = :email, endereco_id = :enderecoId, versao = versao + 1,
+                sequencia_alteracao = :sequencia
+            where cpf = :cpf and versao = :versao""", nativeQuery = true)
+    int atualizarSeVersao(@Param("cpf") long cpf, @Param("nome") String nome, @Param("nomeBusca") String nomeBusca,
+                          @Param("email") String email, @Param("enderecoId") Long enderecoId,
+                          @Param("versao") Long versao, @Param("sequencia") long sequencia);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Cliente c where c.cpf = :cpf")
+    int deletarPorCpf(@Param("cpf") String cpf);
 }
@@ -0,0 +1,71 @@
+package com.toystore.customer.domain.repository;
+
+import com.toystore.customer.application.dto.FiltroClienteDTO;
+import com.toystore.customer.domain.model.Cep;
+import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Endereco;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtros da pesquisa de clientes. Cada filtro vira uma condição de igualdade ou de prefixo sobre uma coluna
+ * indexada; o endereço só entra na consulta quando algum filtro de endereço é informado.
+ */
+public final class ClienteSpecifications {
+
+    private static final char ESCAPE = '\\';
+
+    private ClienteSpecifications() {
+    }
+
+    public static Specification<Cliente> pesquisa(FiltroClienteDTO filtro, String apos) {
+        return (root, query, cb) -> {
+            List<Predicate> condicoes = new ArrayList<>();
+            if (preenchido(filtro.email())) {
+                condicoes.add(cb.equal(root.get("email"), filtro.email()));
+            }
+            if (preenchido(filtro.nome())) {
+                // Prefixo sobre a coluna normalizada: o índice é usado e acentos e maiúsculas são ignorados
+                String prefixo = escaparLike(Cliente.normalizarNome(filtro.nome().strip())) + "%";
+                condicoes.add(cb.like(root.get("nomeBusca"), prefixo, ESCAPE));
+            }
+            if (preenchido(filtro.cidade()) || preenchido(filtro.estado()) || preenchido(filtro.cep())) {
+                Join<Cliente, Endereco> endereco = root.join("endereco", JoinType.INNER);
+                if (preenchido(filtro.cidade())) {
+                    condicoes.add(cb.equal(endereco.get("cidade"), filtro.cidade()));
+                }
+                if (preenchido(filtro.estado())) {
+                    condicoes.add(cb.equal(endereco.get("estado"), filtro.estado()));
+                }
+                if (preenchido(filtro.cep())) {
+                    condicoes.add(cb.equal(endereco.get("cep"), Cep.normalizar(filtro.cep())));
+                }
+            }
+            if (preenchido(apos)) {
+                condicoes.add(cb.greaterThan(root.get("cpf"), apos));
+            }
+            return cb.and(condicoes.toArray(Predicate[]::new));
+        };
+    }
+
+    private static boolean preenchido(String valor) {
+        return valor != null && !valor.isBlank();
+    }
+
+    private static String escaparLike(String valor) {
+        StringBuilder escapado = new StringBuilder(valor.length());
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                escapado.append(ESCAPE);
+            }
+            escapado.append(c);
+        }
+        return escapado.toString();
+    }
+}
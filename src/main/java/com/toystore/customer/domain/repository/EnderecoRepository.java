@@ -1,9 +1,57 @@
 package com.toystore.customer.domain.repository;
 
+import com.toystore.customer.application.dto.EnderecoDTO;
 import com.toystore.customer.domain.model.Endereco;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface EnderecoRepository extends JpaRepository<Endereco, Long> {
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Endereco> findAll();
+
+    @Query("""
+            select new com.toystore.customer.application.dto.EnderecoDTO(
+                e.id, e.cep, e.estado, e.cidade, e.bairro, e.rua, e.numero)
+            from Endereco e
+            order by e.id""")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<EnderecoDTO> streamTodosOrdenadosPorId();
+
+    @Query("""
+            select e from Endereco e
+            where e.sequenciaAlteracao > :desde and e.sequenciaAlteracao < :ate
+            order by e.sequenciaAlteracao""")
+    List<Endereco> buscarAlteradosDesde(@Param("desde") long desde, @Param("ate") long ate, Limit limit);
+
+    @Query("select e.id from Endereco e where e.id in :ids")
+    List<Long> buscarIdsExistentes(@Param("ids") Collection<Long> ids);
+
+    @Query("select e.versao from Endereco e where e.id = :id")
+    Optional<Long> buscarVersao(@Param("id") Long id);
+
+    @Query("select e.id from Endereco e where e.hashConteudo = :hash")
+    Optional<Long> buscarIdPorHashConteudo(@Param("hash") String hash);
+
+    @Query("select e from Endereco e where e.hashConteudo in :hashes")
+    List<Endereco> buscarPorHashesConteudo(@Param("hashes") Collection<String> hashes);
+
+    @Query("""
+            select e from Endereco e
+            where e.hashConteudo is null and e.id > :apos
+            order by e.id""")
+    List<Endereco> buscarSemHashConteudoApos(@Param("apos") long apos, Limit limit);
 }
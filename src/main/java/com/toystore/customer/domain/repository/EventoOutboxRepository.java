@@ -0,0 +1,53 @@
+package com.toystore.customer.domain.repository;
+
+import com.toystore.customer.domain.model.EventoOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    /**
+     * Trava até o commit os eventos mais antigos disponíveis em {@code agora}. Eventos travados por outra
+     * instância do relay são pulados; o relay deve reservá-los com {@link #reservar} antes do commit, para que a
+     * trava não precise durar a entrega.
+     */
+    @Query(value = """
+            select * from evento_outbox
+            where abandonado_em is null and disponivel_em <= :agora
+            order by id
+            limit :limite
+            for update skip locked""", nativeQuery = true)
+    List<EventoOutbox> travarPendentes(@Param("agora") Instant agora, @Param("limite") int limite);
+
+    @Modifying
+    @Query("update EventoOutbox e set e.disponivelEm = :ate where e.id in :ids")
+    int reservar(@Param("ids") Collection<Long> ids, @Param("ate") Instant ate);
+
+    @Modifying
+    @Query("""
+            update EventoOutbox e set e.tentativas = e.tentativas + 1, e.disponivelEm = :proximaTentativa
+            where e.id in :ids""")
+    int registrarFalha(@Param("ids") Collection<Long> ids, @Param("proximaTentativa") Instant proximaTentativa);
+
+    @Modifying
+    @Query("update EventoOutbox e set e.tentativas = e.tentativas + 1, e.abandonadoEm = :agora where e.id in :ids")
+    int abandonar(@Param("ids") Collection<Long> ids, @Param("agora") Instant agora);
+
+    @Query("select count(e) from EventoOutbox e where e.abandonadoEm is null")
+    long contarPendentes();
+
+    @Query("select count(e) from EventoOutbox e where e.abandonadoEm is not null")
+    long contarAbandonados();
+
+    @Query("select min(e.criadoEm) from EventoOutbox e where e.abandonadoEm is null")
+    Optional<Instant> buscarCriacaoMaisAntiga();
+}
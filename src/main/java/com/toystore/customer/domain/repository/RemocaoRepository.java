@@ -0,0 +1,35 @@
+package com.toystore.customer.domain.repository;
+
+import com.toystore.customer.domain.model.Remocao;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface RemocaoRepository extends JpaRepository<Remocao, Long> {
+
+    // Insert direto: o save() de uma entidade com id atribuído faria um select antes
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "remocao"))
+    @Query(value = """
+            insert into remocao (sequencia_alteracao, agregado, chave)
+            values (:sequencia, :agregado, :chave)""", nativeQuery = true)
+    int registrar(@Param("sequencia") long sequencia, @Param("agregado") String agregado,
+                  @Param("chave") String chave);
+
+    @Query("""
+            select r from Remocao r
+            where r.sequenciaAlteracao > :desde and r.sequenciaAlteracao < :ate
+            order by r.sequenciaAlteracao""")
+    List<Remocao> buscarDesde(@Param("desde") long desde, @Param("ate") long ate, Limit limit);
+}
@@ -0,0 +1,92 @@
+package com.toystore.customer.infrastructure.busca;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.KeywordTokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.ngram.NGramTokenFilter;
+import org.apache.lucene.analysis.pt.PortugueseAnalyzer;
+import org.apache.lucene.analysis.pt.PortugueseLightStemFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Análise de texto da busca de clientes. Todas removem acentos e passam para minúsculas, então
+ * "João" e "joao" geram os mesmos termos.
+ */
+final class AnalisadoresBusca {
+
+    static final int TAMANHO_MINIMO_PREFIXO = 2;
+    static final int TAMANHO_MAXIMO_PREFIXO = 20;
+    static final int TAMANHO_TRIGRAMA = 3;
+
+    private AnalisadoresBusca() {
+    }
+
+    /**
+     * Palavras sem stopwords e reduzidas ao radical: "flores" e "flor" viram o mesmo termo.
+     */
+    static Analyzer texto() {
+        return analisador(StandardTokenizer::new, fluxo -> new PortugueseLightStemFilter(
+                new ASCIIFoldingFilter(new StopFilter(new LowerCaseFilter(fluxo), PortugueseAnalyzer.getDefaultStopSet()))));
+    }
+
+    /**
+     * Palavras inteiras, usadas na consulta aos campos de prefixo.
+     */
+    static Analyzer palavras() {
+        return analisador(StandardTokenizer::new, fluxo -> new ASCIIFoldingFilter(new LowerCaseFilter(fluxo)));
+    }
+
+    /**
+     * Início de cada palavra, do tamanho mínimo ao máximo, para que "joa" encontre "João".
+     */
+    static Analyzer prefixos() {
+        return analisador(StandardTokenizer::new, fluxo -> new EdgeNGramTokenFilter(
+                new ASCIIFoldingFilter(new LowerCaseFilter(fluxo)), TAMANHO_MINIMO_PREFIXO, TAMANHO_MAXIMO_PREFIXO, true));
+    }
+
+    /**
+     * Trigramas do valor inteiro, para encontrar trechos de e-mail em qualquer posição.
+     */
+    static Analyzer trigramas() {
+        return analisador(KeywordTokenizer::new, fluxo -> new NGramTokenFilter(
+                new ASCIIFoldingFilter(new LowerCaseFilter(fluxo)), TAMANHO_TRIGRAMA, TAMANHO_TRIGRAMA, false));
+    }
+
+    static Set<String> termos(Analyzer analisador, String campo, String texto) {
+        Set<String> termos = new LinkedHashSet<>();
+        try (TokenStream fluxo = analisador.tokenStream(campo, texto)) {
+            CharTermAttribute termo = fluxo.addAttribute(CharTermAttribute.class);
+            fluxo.reset();
+            while (fluxo.incrementToken()) {
+                termos.add(termo.toString());
+            }
+            fluxo.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return termos;
+    }
+
+    private static Analyzer analisador(Supplier<Tokenizer> origem, UnaryOperator<TokenStream> filtros) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String campo) {
+                Tokenizer tokenizer = origem.get();
+                return new TokenStreamComponents(tokenizer, filtros.apply(tokenizer));
+            }
+        };
+    }
+}
@@ -0,0 +1,368 @@
+package com.toystore.customer.infrastructure.busca;
+
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.ClienteIndexavelDTO;
+import com.toystore.customer.application.dto.ResultadoBuscaTextoDTO;
+import com.toystore.customer.domain.eventos.ClientesAlteradosEvento;
+import com.toystore.customer.domain.eventos.EnderecoAlteradoEvento;
+import com.toystore.customer.domain.exceptions.CursorInvalidoException;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Índice Lucene embutido da busca textual de clientes por nome, trecho de e-mail e endereço.
+ *
+ * <p>As alterações chegam como eventos depois do commit e são aplicadas por uma única thread, que relê do
+ * banco o estado atual dos clientes afetados: a ordem dos eventos não importa e um cliente que não existe mais
+ * sai do índice. A reindexação completa passa pela mesma thread e por isso não se mistura com as atualizações.
+ *
+ * <p>Nenhuma tarefa apaga um cliente antes de gravar o substituto: a reindexação marca cada documento com a sua
+ * geração e só no fim remove os de gerações anteriores. Uma tarefa que falha pela metade deixa o índice com
+ * documentos corretos, apenas incompletos, e é repetida com espera crescente até o limite de tentativas.
+ *
+ * <p>Os resultados vêm por relevância e a paginação continua a partir da relevância e do CPF do último
+ * cliente da página; se o índice mudar entre uma página e outra, a ordem pode variar levemente.
+ */
+@Slf4j
+public class IndiceClientes implements AutoCloseable {
+
+    static final String METRICA_PENDENTES = "toystore.busca_texto.pendentes";
+
+    static final String CAMPO_CPF = "cpf";
+    static final String CAMPO_NOME = "nome";
+    static final String CAMPO_NOME_PREFIXO = "nome_prefixo";
+    static final String CAMPO_EMAIL = "email";
+    static final String CAMPO_ENDERECO = "endereco";
+    static final String CAMPO_ENDERECO_PREFIXO = "endereco_prefixo";
+    static final String CAMPO_ENDERECO_ID = "endereco_id";
+    static final String CAMPO_GERACAO = "geracao";
+
+    static final int TAMANHO_MAXIMO_TEXTO = 100;
+
+    // Relevância primeiro; o CPF desempata e torna a posição de cada cliente única para o cursor
+    private static final Sort ORDEM = new Sort(SortField.FIELD_SCORE, new SortField(CAMPO_CPF, SortField.Type.STRING));
+
+    private final ClienteRepository clienteRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final IndexWriter escritor;
+    private final SearcherManager buscadores;
+    private final ScheduledThreadPoolExecutor executor;
+    private final int tentativas;
+    private final Duration esperaInicial;
+    private final AtomicInteger pendentes = new AtomicInteger();
+
+    // Acessada apenas pela thread do índice
+    private String geracao = UUID.randomUUID().toString();
+
+    private final Analyzer analisadorTexto = AnalisadoresBusca.texto();
+    private final Analyzer analisadorPalavras = AnalisadoresBusca.palavras();
+    private final Analyzer analisadorTrigramas = AnalisadoresBusca.trigramas();
+
+    public IndiceClientes(Directory diretorio, ClienteRepository clienteRepository,
+                          TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                          int tentativas, Duration esperaInicial) {
+        this.clienteRepository = clienteRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tentativas = tentativas;
+        this.esperaInicial = esperaInicial;
+        Analyzer analisadorIndexacao = new PerFieldAnalyzerWrapper(analisadorTexto, Map.of(
+                CAMPO_NOME_PREFIXO, AnalisadoresBusca.prefixos(),
+                CAMPO_ENDERECO_PREFIXO, AnalisadoresBusca.prefixos(),
+                CAMPO_EMAIL, analisadorTrigramas));
+        try {
+            this.escritor = new IndexWriter(diretorio, new IndexWriterConfig(analisadorIndexacao));
+            this.buscadores = new SearcherManager(escritor, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.executor = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform()
+                .name("indice-clientes")
+                .daemon(true)
+                .factory());
+        // No encerramento, as novas tentativas ainda em espera são abandonadas
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+
+        Gauge.builder(METRICA_PENDENTES, pendentes, AtomicInteger::get)
+                .description("Atualizações do índice de busca textual aguardando a thread de indexação")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarClientes(ClientesAlteradosEvento evento) {
+        atualizar(evento.cpfs());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarEndereco(EnderecoAlteradoEvento evento) {
+        atualizarPorEndereco(evento.enderecoId());
+    }
+
+    public CompletableFuture<Void> atualizar(Collection<String> cpfs) {
+        Set<String> alterados = Set.copyOf(cpfs);
+        return agendar(() -> {
+            List<ClienteIndexavelDTO> atuais = transactionTemplate.execute(
+                    status -> clienteRepository.buscarIndexaveisPorCpfs(alterados));
+            Set<String> removidos = new HashSet<>(alterados);
+            for (ClienteIndexavelDTO cliente : atuais) {
+                gravar(cliente);
+                removidos.remove(cliente.cpf());
+            }
+            for (String cpf : removidos) {
+                escritor.deleteDocuments(new Term(CAMPO_CPF, cpf));
+            }
+        });
+    }
+
+    public CompletableFuture<Void> atualizarPorEndereco(Long enderecoId) {
+        return agendar(() -> {
+            List<ClienteIndexavelDTO> moradores = transactionTemplate.execute(
+                    status -> clienteRepository.buscarIndexaveisPorEndereco(enderecoId));
+            moradores.forEach(this::gravar);
+        });
+    }
+
+    /**
+     * Recria o índice a partir do banco. Até a conclusão as buscas continuam vendo o índice anterior; se a
+     * reindexação falhar, os clientes que ela não alcançou continuam no índice como estavam.
+     */
+    public CompletableFuture<Void> reindexar() {
+        return agendar(() -> {
+            geracao = UUID.randomUUID().toString();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ClienteIndexavelDTO> clientes = clienteRepository.streamIndexaveis()) {
+                    clientes.forEach(this::gravar);
+                }
+            });
+            // Sobram apenas os clientes que não estão mais no banco
+            escritor.deleteDocuments(new BooleanQuery.Builder()
+                    .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                    .add(new TermQuery(new Term(CAMPO_GERACAO, geracao)), BooleanClause.Occur.MUST_NOT)
+                    .build());
+        });
+    }
+
+    public ResultadoBuscaTextoDTO buscar(String texto, String apos, int tamanho) {
+        Query consulta = consulta(texto);
+        if (consulta == null) {
+            return new ResultadoBuscaTextoDTO(List.of(), null);
+        }
+        try {
+            IndexSearcher buscador = buscadores.acquire();
+            try {
+                // Um resultado a mais apenas para saber se existe próxima página
+                TopFieldDocs encontrados = buscador.searchAfter(cursor(apos, buscador), consulta, tamanho + 1, ORDEM, true);
+                ScoreDoc[] documentos = encontrados.scoreDocs;
+                int quantidade = Math.min(documentos.length, tamanho);
+
+                StoredFields campos = buscador.storedFields();
+                List<ClienteDTO> clientes = new ArrayList<>(quantidade);
+                for (int i = 0; i < quantidade; i++) {
+                    clientes.add(cliente(campos.document(documentos[i].doc)));
+                }
+                String proximoCursor = documentos.length > tamanho ? cursor((FieldDoc) documentos[tamanho - 1]) : null;
+                return new ResultadoBuscaTextoDTO(clientes, proximoCursor);
+            } finally {
+                buscadores.release(buscador);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        buscadores.close();
+        escritor.close();
+    }
+
+    private CompletableFuture<Void> agendar(Tarefa tarefa) {
+        pendentes.incrementAndGet();
+        CompletableFuture<Void> concluida = new CompletableFuture<>();
+        try {
+            executor.execute(() -> tentar(tarefa, 1, concluida));
+        } catch (RejectedExecutionException e) {
+            concluida.completeExceptionally(e);
+        }
+        return concluida.whenComplete((resultado, erro) -> {
+            pendentes.decrementAndGet();
+            if (erro != null) {
+                log.error("Falha ao atualizar o índice de busca textual de clientes; desistindo após {} tentativas",
+                        tentativas, erro);
+            }
+        });
+    }
+
+    // As tarefas releem o estado atual do banco, então repetir uma delas depois das seguintes não perde alterações
+    private void tentar(Tarefa tarefa, int tentativa, CompletableFuture<Void> concluida) {
+        try {
+            tarefa.executar();
+            escritor.commit();
+            buscadores.maybeRefresh();
+            concluida.complete(null);
+        } catch (Exception e) {
+            if (tentativa >= tentativas) {
+                concluida.completeExceptionally(e);
+                return;
+            }
+            Duration espera = esperaInicial.multipliedBy(1L << Math.min(tentativa - 1, 20));
+            log.warn("Falha ao atualizar o índice de busca textual de clientes; nova tentativa em {}", espera, e);
+            try {
+                executor.schedule(() -> tentar(tarefa, tentativa + 1, concluida), espera.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException rejeitada) {
+                concluida.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void gravar(ClienteIndexavelDTO cliente) {
+        try {
+            escritor.updateDocument(new Term(CAMPO_CPF, cliente.cpf()), documento(cliente, geracao));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Document documento(ClienteIndexavelDTO cliente, String geracao) {
+        Document documento = new Document();
+        documento.add(new StringField(CAMPO_CPF, cliente.cpf(), Field.Store.YES));
+        documento.add(new StringField(CAMPO_GERACAO, geracao, Field.Store.NO));
+        documento.add(new SortedDocValuesField(CAMPO_CPF, new BytesRef(cliente.cpf())));
+        if (cliente.nome() != null) {
+            documento.add(new TextField(CAMPO_NOME, cliente.nome(), Field.Store.YES));
+            documento.add(new TextField(CAMPO_NOME_PREFIXO, cliente.nome(), Field.Store.NO));
+        }
+        if (cliente.email() != null) {
+            documento.add(new TextField(CAMPO_EMAIL, cliente.email(), Field.Store.YES));
+        }
+        if (cliente.enderecoId() != null) {
+            documento.add(new StoredField(CAMPO_ENDERECO_ID, cliente.enderecoId()));
+            String endereco = Stream.of(cliente.rua(), cliente.bairro(), cliente.cidade(), cliente.estado(), cliente.cep())
+                    .filter(campo -> campo != null && !campo.isBlank())
+                    .collect(Collectors.joining(" "));
+            documento.add(new TextField(CAMPO_ENDERECO, endereco, Field.Store.NO));
+            documento.add(new TextField(CAMPO_ENDERECO_PREFIXO, endereco, Field.Store.NO));
+        }
+        return documento;
+    }
+
+    private static ClienteDTO cliente(Document documento) {
+        IndexableField enderecoId = documento.getField(CAMPO_ENDERECO_ID);
+        return new ClienteDTO(documento.get(CAMPO_CPF), documento.get(CAMPO_NOME), documento.get(CAMPO_EMAIL),
+                enderecoId == null ? null : enderecoId.numericValue().longValue());
+    }
+
+    // Cada palavra pode casar pelo radical, pelo início ou, no e-mail, por qualquer trecho; o nome pesa mais
+    private Query consulta(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        String limitado = texto.length() > TAMANHO_MAXIMO_TEXTO ? texto.substring(0, TAMANHO_MAXIMO_TEXTO) : texto;
+
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder();
+        for (String termo : AnalisadoresBusca.termos(analisadorTexto, CAMPO_NOME, limitado)) {
+            consulta.add(termo(CAMPO_NOME, termo, 3f), BooleanClause.Occur.SHOULD);
+            consulta.add(termo(CAMPO_ENDERECO, termo, 1f), BooleanClause.Occur.SHOULD);
+        }
+        for (String termo : AnalisadoresBusca.termos(analisadorPalavras, CAMPO_NOME_PREFIXO, limitado)) {
+            consulta.add(termo(CAMPO_NOME_PREFIXO, termo, 2f), BooleanClause.Occur.SHOULD);
+            consulta.add(termo(CAMPO_ENDERECO_PREFIXO, termo, 0.5f), BooleanClause.Occur.SHOULD);
+        }
+        for (String trecho : limitado.strip().split("\\s+")) {
+            Set<String> trigramas = AnalisadoresBusca.termos(analisadorTrigramas, CAMPO_EMAIL, trecho);
+            if (!trigramas.isEmpty()) {
+                // Todos os trigramas do trecho precisam estar no e-mail; o acerto vale o mesmo que qualquer trecho
+                BooleanQuery.Builder email = new BooleanQuery.Builder();
+                trigramas.forEach(trigrama -> email.add(new TermQuery(new Term(CAMPO_EMAIL, trigrama)), BooleanClause.Occur.FILTER));
+                consulta.add(new BoostQuery(new ConstantScoreQuery(email.build()), 2f), BooleanClause.Occur.SHOULD);
+            }
+        }
+        BooleanQuery montada = consulta.build();
+        return montada.clauses().isEmpty() ? null : montada;
+    }
+
+    private static Query termo(String campo, String termo, float peso) {
+        return new BoostQuery(new TermQuery(new Term(campo, termo)), peso);
+    }
+
+    private static String cursor(FieldDoc ultimo) {
+        float relevancia = (Float) ultimo.fields[0];
+        String cpf = ((BytesRef) ultimo.fields[1]).utf8ToString();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((relevancia + ":" + cpf).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static FieldDoc cursor(String apos, IndexSearcher buscador) {
+        if (apos == null || apos.isBlank()) {
+            return null;
+        }
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(apos), StandardCharsets.UTF_8).split(":", 2);
+            float relevancia = Float.parseFloat(partes[0]);
+            // Com o doc no fim do índice, o próprio cliente do cursor, de mesma relevância e CPF, fica de fora
+            return new FieldDoc(buscador.getIndexReader().maxDoc() - 1, relevancia,
+                    new Object[]{relevancia, new BytesRef(partes[1])});
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new CursorInvalidoException("Cursor de busca inválido: " + apos);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Tarefa {
+        void executar() throws IOException;
+    }
+}
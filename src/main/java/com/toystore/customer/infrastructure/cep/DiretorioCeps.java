@@ -0,0 +1,140 @@
+package com.toystore.customer.infrastructure.cep;
+
+import com.toystore.customer.application.dto.CepDTO;
+import com.toystore.customer.domain.model.Cep;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Diretório de CEPs consultado em memória, sem ir ao banco. Os dados ficam num arquivo de índice gerado pelo
+ * {@link GeradorIndiceCeps} e mapeado em memória: abrir o diretório não lê o arquivo, e no heap fica apenas o
+ * buffer do mapeamento; as páginas são carregadas pelo sistema operacional conforme as consultas as tocam.
+ *
+ * <p>Formato do índice (inteiros big-endian):
+ * <pre>
+ * MAGICO | quantidade | ceps[quantidade] | textos[quantidade * 4] | tabela de textos
+ * </pre>
+ * {@code ceps} são os números dos CEPs em ordem crescente, buscados por busca binária; {@code textos} traz, para
+ * cada CEP, o deslocamento na tabela de textos do estado, da cidade, do bairro e da rua ({@code -1} quando
+ * ausente). Cada texto da tabela é o tamanho em bytes (dois bytes, sem sinal) seguido do UTF-8, e textos
+ * repetidos, como estados e cidades, aparecem uma única vez.
+ *
+ * <p>Sem {@code toystore.diretorio-ceps.enabled} o diretório fica vazio e nenhum CEP é encontrado.
+ */
+public class DiretorioCeps {
+
+    static final int MAGICO = 0x43455031;
+    static final int TAMANHO_CABECALHO = 2 * Integer.BYTES;
+    static final int TEXTOS_POR_CEP = 4;
+    static final int AUSENTE = -1;
+
+    private final ByteBuffer dados;
+    private final int quantidade;
+    private final int inicioTextos;
+    private final int inicioTabela;
+    private final boolean conferirEnderecos;
+
+    private final Counter encontrados;
+    private final Counter ausentes;
+
+    private DiretorioCeps(ByteBuffer dados, boolean conferirEnderecos, MeterRegistry meterRegistry) {
+        this.dados = dados;
+        this.quantidade = dados.capacity() == 0 ? 0 : dados.getInt(Integer.BYTES);
+        this.inicioTextos = TAMANHO_CABECALHO + quantidade * Integer.BYTES;
+        this.inicioTabela = inicioTextos + quantidade * TEXTOS_POR_CEP * Integer.BYTES;
+        this.conferirEnderecos = conferirEnderecos;
+
+        this.encontrados = Counter.builder("toystore.diretorio_ceps.consultas")
+                .tag("resultado", "encontrado")
+                .description("Consultas ao diretório de CEPs")
+                .register(meterRegistry);
+        this.ausentes = Counter.builder("toystore.diretorio_ceps.consultas")
+                .tag("resultado", "ausente")
+                .description("Consultas ao diretório de CEPs")
+                .register(meterRegistry);
+    }
+
+    public static DiretorioCeps vazio(MeterRegistry meterRegistry) {
+        return new DiretorioCeps(ByteBuffer.allocate(0), false, meterRegistry);
+    }
+
+    /**
+     * Mapeia o arquivo de índice em memória. O mapeamento continua válido depois de fechado o canal.
+     */
+    public static DiretorioCeps abrir(Path indice, boolean conferirEnderecos, MeterRegistry meterRegistry)
+            throws IOException {
+        try (FileChannel canal = FileChannel.open(indice, StandardOpenOption.READ)) {
+            ByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (dados.capacity() < TAMANHO_CABECALHO || dados.getInt(0) != MAGICO) {
+                throw new IOException("Arquivo não é um índice de CEPs: " + indice);
+            }
+            return new DiretorioCeps(dados, conferirEnderecos, meterRegistry);
+        }
+    }
+
+    /**
+     * Se os endereços gravados devem ter estado, cidade, bairro e rua substituídos pelos do diretório.
+     */
+    public boolean conferirEnderecos() {
+        return conferirEnderecos;
+    }
+
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Localidade do CEP, com ou sem hífen; vazio se o CEP é inválido ou não está no diretório.
+     */
+    public Optional<CepDTO> buscar(String cep) {
+        int posicao = Cep.valido(cep) ? posicao(Cep.numero(cep)) : -1;
+        if (posicao < 0) {
+            ausentes.increment();
+            return Optional.empty();
+        }
+        encontrados.increment();
+        int textos = inicioTextos + posicao * TEXTOS_POR_CEP * Integer.BYTES;
+        return Optional.of(new CepDTO(
+                Cep.formatar(dados.getInt(TAMANHO_CABECALHO + posicao * Integer.BYTES)),
+                texto(dados.getInt(textos)),
+                texto(dados.getInt(textos + Integer.BYTES)),
+                texto(dados.getInt(textos + 2 * Integer.BYTES)),
+                texto(dados.getInt(textos + 3 * Integer.BYTES))));
+    }
+
+    // Busca binária direto no mapeamento, com leituras absolutas: o buffer é compartilhado entre as threads
+    private int posicao(int numero) {
+        int baixo = 0;
+        int alto = quantidade - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            int valor = dados.getInt(TAMANHO_CABECALHO + meio * Integer.BYTES);
+            if (valor < numero) {
+                baixo = meio + 1;
+            } else if (valor > numero) {
+                alto = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -1;
+    }
+
+    private String texto(int deslocamento) {
+        if (deslocamento == AUSENTE) {
+            return null;
+        }
+        int posicao = inicioTabela + deslocamento;
+        byte[] bytes = new byte[Short.toUnsignedInt(dados.getShort(posicao))];
+        dados.get(posicao + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+package com.toystore.customer.infrastructure.cep;
+
+import com.toystore.customer.domain.model.Cep;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gera o arquivo de índice do {@link DiretorioCeps} a partir da base de CEPs em texto: UTF-8, uma linha por
+ * CEP, com {@code cep;estado;cidade;bairro;rua}. O CEP pode vir com ou sem hífen e a rua pode ficar vazia;
+ * linhas sem CEP válido (como um cabeçalho) são ignoradas e, se um CEP se repete, vale a primeira linha.
+ *
+ * <p>O índice é escrito num arquivo temporário e movido para o lugar no fim, então um diretório aberto sobre
+ * o índice anterior não vê um arquivo pela metade.
+ */
+public final class GeradorIndiceCeps {
+
+    private static final String SEPARADOR = ";";
+    private static final int TAMANHO_MAXIMO_TEXTO = 0xFFFF;
+
+    private GeradorIndiceCeps() {
+    }
+
+    public static Resultado gerar(Path arquivo, Path indice) throws IOException {
+        Linhas linhas = new Linhas();
+        int ignoradas = 0;
+        try (BufferedReader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                if (!linhas.adicionar(linha.split(SEPARADOR, -1))) {
+                    ignoradas++;
+                }
+            }
+        }
+
+        // Número do CEP nos 32 bits altos e linha nos baixos: ordena por CEP e, no mesmo CEP, pela linha
+        long[] ordem = new long[linhas.quantidade];
+        for (int i = 0; i < linhas.quantidade; i++) {
+            ordem[i] = (long) linhas.numeros[i] << Integer.SIZE | i;
+        }
+        Arrays.sort(ordem);
+        int unicos = 0;
+        for (int i = 0; i < ordem.length; i++) {
+            if (i == 0 || ordem[i] >>> Integer.SIZE != ordem[i - 1] >>> Integer.SIZE) {
+                ordem[unicos++] = ordem[i];
+            }
+        }
+
+        Path temporario = indice.resolveSibling(indice.getFileName() + ".tmp");
+        try (DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporario)))) {
+            saida.writeInt(DiretorioCeps.MAGICO);
+            saida.writeInt(unicos);
+            for (int i = 0; i < unicos; i++) {
+                saida.writeInt((int) (ordem[i] >>> Integer.SIZE));
+            }
+            for (int i = 0; i < unicos; i++) {
+                int linha = (int) ordem[i];
+                for (int campo = 0; campo < DiretorioCeps.TEXTOS_POR_CEP; campo++) {
+                    saida.writeInt(linhas.textos[linha * DiretorioCeps.TEXTOS_POR_CEP + campo]);
+                }
+            }
+            linhas.tabela.writeTo(saida);
+        }
+        Files.move(temporario, indice, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Resultado(unicos, ignoradas + linhas.quantidade - unicos);
+    }
+
+    /**
+     * CEPs gravados no índice e linhas descartadas (inválidas ou com CEP repetido).
+     */
+    public record Resultado(int ceps, int ignoradas) {
+    }
+
+    private static final class Linhas {
+
+        private int[] numeros = new int[1024];
+        private int[] textos = new int[1024 * DiretorioCeps.TEXTOS_POR_CEP];
+        private int quantidade;
+
+        private final ByteArrayOutputStream tabela = new ByteArrayOutputStream();
+        private final Map<String, Integer> deslocamentos = new HashMap<>();
+
+        boolean adicionar(String[] campos) {
+            if (campos.length < DiretorioCeps.TEXTOS_POR_CEP || !Cep.valido(campos[0].strip())) {
+                return false;
+            }
+            int[] deslocamentosLinha = new int[DiretorioCeps.TEXTOS_POR_CEP];
+            for (int campo = 0; campo < DiretorioCeps.TEXTOS_POR_CEP; campo++) {
+                String texto = campo + 1 < campos.length ? campos[campo + 1].strip() : "";
+                if (texto.getBytes(StandardCharsets.UTF_8).length > TAMANHO_MAXIMO_TEXTO) {
+                    return false;
+                }
+                deslocamentosLinha[campo] = texto.isEmpty() ? DiretorioCeps.AUSENTE : deslocamento(texto);
+            }
+            if (quantidade == numeros.length) {
+                numeros = Arrays.copyOf(numeros, quantidade * 2);
+                textos = Arrays.copyOf(textos, quantidade * 2 * DiretorioCeps.TEXTOS_POR_CEP);
+            }
+            numeros[quantidade] = Cep.numero(campos[0].strip());
+            System.arraycopy(deslocamentosLinha, 0, textos, quantidade * DiretorioCeps.TEXTOS_POR_CEP,
+                    DiretorioCeps.TEXTOS_POR_CEP);
+            quantidade++;
+            return true;
+        }
+
+        private int deslocamento(String texto) {
+            return deslocamentos.computeIfAbsent(texto, novo -> {
+                byte[] bytes = novo.getBytes(StandardCharsets.UTF_8);
+                int inicio = tabela.size();
+                tabela.write(bytes.length >>> 8);
+                tabela.write(bytes.length);
+                tabela.writeBytes(bytes);
+                return inicio;
+            });
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.toystore.customer.infrastructure.concorrencia;
+
+import com.toystore.customer.infrastructure.persistence.LeituraPropria;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Agrupa buscas por chave feitas por requisições concorrentes. Quem pede uma chave que já está sendo
+ * buscada aguarda o mesmo resultado; chaves distintas que chegam dentro da janela, ou até completar o
+ * tamanho máximo do lote, seguem juntas em uma única consulta.
+ *
+ * <p>Quando não há outra busca em andamento a consulta sai na hora, então o agrupamento só acrescenta
+ * latência sob concorrência. Buscas feitas dentro de uma transação seguem direto para a busca individual,
+ * pois precisam enxergar o que a própria transação já escreveu. Com janela zero o agrupamento fica desligado.
+ *
+ * <p>O lote roda em outra thread, que não enxerga a requisição de quem buscou. Por isso quem precisa ler do
+ * primário ({@link LeituraPropria#exigida()}) é decidido na thread de quem busca: essas buscas formam lotes
+ * próprios, executados com {@link LeituraPropria#noPrimario}, e nunca aguardam uma busca feita numa réplica.
+ *
+ * <p>O mesmo valor é entregue a várias threads, então deve ser imutável. Quem aguarda desiste depois do limite
+ * de espera, e qualquer falha da consulta, inclusive a recusa do executor, é repassada a todos do lote.
+ */
+public class AgrupadorDeConsultas<K, V> implements AutoCloseable {
+
+    static final String METRICA_LOTE = "toystore.agrupamento.lote";
+    static final String METRICA_BUSCAS = "toystore.agrupamento.buscas";
+
+    private final Function<K, Optional<V>> buscaIndividual;
+    private final Function<Set<K>, Map<K, V>> buscaEmLote;
+    private final Duration janela;
+    private final int tamanhoMaximoLote;
+    private final Duration limiteEspera;
+
+    private final Fila filaPadrao = new Fila(false);
+    private final Fila filaPrimario = new Fila(true);
+    private final ScheduledExecutorService agendador;
+    private final ExecutorService executor;
+
+    private final DistributionSummary tamanhoLote;
+    private final Counter buscasCompartilhadas;
+    private final Counter buscasAgrupadas;
+    private final Counter buscasDiretas;
+
+    public AgrupadorDeConsultas(String nome, Function<K, Optional<V>> buscaIndividual,
+                                Function<Set<K>, Map<K, V>> buscaEmLote, Duration janela, int tamanhoMaximoLote,
+                                Duration limiteEspera, MeterRegistry meterRegistry) {
+        this.buscaIndividual = buscaIndividual;
+        this.buscaEmLote = buscaEmLote;
+        this.janela = janela;
+        this.tamanhoMaximoLote = tamanhoMaximoLote;
+        this.limiteEspera = limiteEspera;
+        this.agendador = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("agrupador-" + nome)
+                .daemon(true)
+                .factory());
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        this.tamanhoLote = DistributionSummary.builder(METRICA_LOTE)
+                .description("Chaves distintas por consulta em lote")
+                .tag("agrupador", nome)
+                .register(meterRegistry);
+        this.buscasCompartilhadas = contador(meterRegistry, nome, "compartilhada");
+        this.buscasAgrupadas = contador(meterRegistry, nome, "agrupada");
+        this.buscasDiretas = contador(meterRegistry, nome, "direta");
+    }
+
+    public Optional<V> buscar(K chave) {
+        if (janela.isZero() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            buscasDiretas.increment();
+            return buscaIndividual.apply(chave);
+        }
+
+        Fila fila = LeituraPropria.exigida() ? filaPrimario : filaPadrao;
+        CompletableFuture<Optional<V>> futuro = new CompletableFuture<>();
+        CompletableFuture<Optional<V>> existente = fila.emAndamento.putIfAbsent(chave, futuro);
+        if (existente != null) {
+            buscasCompartilhadas.increment();
+            return aguardar(existente);
+        }
+        // Um futuro que expira sai do mapa, para que os próximos pedidos da chave façam uma nova busca
+        futuro.orTimeout(limiteEspera.toNanos(), TimeUnit.NANOSECONDS)
+                .whenComplete((valor, erro) -> fila.emAndamento.remove(chave, futuro));
+        if (fila.emAndamento.size() == 1) {
+            // Sem outras buscas em andamento não há com quem agrupar: consulta já, sem esperar a janela. A consulta
+            // roda no executor mesmo assim, para que quem a disparou também respeite o limite de espera
+            buscasDiretas.increment();
+            enviar(fila, Map.of(chave, futuro));
+        } else {
+            buscasAgrupadas.increment();
+            enfileirar(fila, chave, futuro);
+        }
+        return aguardar(futuro);
+    }
+
+    @Override
+    public void close() {
+        // Não espera os lotes em andamento: quem os aguarda já tem o limite de espera
+        agendador.shutdownNow();
+        executor.shutdown();
+    }
+
+    private void enfileirar(Fila fila, K chave, CompletableFuture<Optional<V>> futuro) {
+        Map<K, CompletableFuture<Optional<V>>> loteCompleto = null;
+        synchronized (fila) {
+            fila.pendentes.put(chave, futuro);
+            if (fila.pendentes.size() >= tamanhoMaximoLote) {
+                loteCompleto = fila.retirarPendentes();
+            } else if (fila.pendentes.size() == 1) {
+                try {
+                    fila.envioAgendado = agendador.schedule(() -> enviarPendentes(fila), janela.toNanos(),
+                            TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    falhar(fila, fila.retirarPendentes(), e);
+                }
+            }
+        }
+        if (loteCompleto != null) {
+            enviar(fila, loteCompleto);
+        }
+    }
+
+    private void enviarPendentes(Fila fila) {
+        Map<K, CompletableFuture<Optional<V>>> lote;
+        synchronized (fila) {
+            if (fila.pendentes.isEmpty()) {
+                return;
+            }
+            lote = fila.retirarPendentes();
+        }
+        enviar(fila, lote);
+    }
+
+    private void enviar(Fila fila, Map<K, CompletableFuture<Optional<V>>> lote) {
+        // A consulta roda fora da thread do agendador para que lotes diferentes não esperem uns pelos outros
+        try {
+            executor.execute(() -> executar(fila, lote));
+        } catch (RejectedExecutionException e) {
+            falhar(fila, lote, e);
+        }
+    }
+
+    private void executar(Fila fila, Map<K, CompletableFuture<Optional<V>>> lote) {
+        tamanhoLote.record(lote.size());
+        Map<K, V> encontrados;
+        try {
+            encontrados = fila.primario
+                    ? LeituraPropria.noPrimario(() -> buscaEmLote.apply(lote.keySet()))
+                    : buscaEmLote.apply(lote.keySet());
+        } catch (Throwable e) {
+            falhar(fila, lote, e);
+            return;
+        }
+        lote.forEach((chave, futuro) -> {
+            // Sai do mapa antes de concluir: quem chegar depois dispara uma nova busca e vê dados atuais
+            fila.emAndamento.remove(chave, futuro);
+            futuro.complete(Optional.ofNullable(encontrados.get(chave)));
+        });
+    }
+
+    private void falhar(Fila fila, Map<K, CompletableFuture<Optional<V>>> lote, Throwable erro) {
+        lote.forEach((chave, futuro) -> {
+            fila.emAndamento.remove(chave, futuro);
+            futuro.completeExceptionally(erro);
+        });
+    }
+
+    private Optional<V> aguardar(CompletableFuture<Optional<V>> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            switch (e.getCause()) {
+                case RuntimeException causa -> throw causa;
+                case Error causa -> throw causa;
+                case TimeoutException causa -> throw new QueryTimeoutException(
+                        "Busca agrupada não concluída em " + limiteEspera, causa);
+                case null, default -> throw e;
+            }
+        }
+    }
+
+    /**
+     * Buscas em andamento e lote em formação de uma rota de leitura. A trava é a própria fila.
+     */
+    private final class Fila {
+        private final boolean primario;
+        private final ConcurrentHashMap<K, CompletableFuture<Optional<V>>> emAndamento = new ConcurrentHashMap<>();
+        private Map<K, CompletableFuture<Optional<V>>> pendentes = new HashMap<>();
+        private ScheduledFuture<?> envioAgendado;
+
+        private Fila(boolean primario) {
+            this.primario = primario;
+        }
+
+        // Chamado com a trava adquirida
+        private Map<K, CompletableFuture<Optional<V>>> retirarPendentes() {
+            Map<K, CompletableFuture<Optional<V>>> lote = pendentes;
+            pendentes = new HashMap<>();
+            if (envioAgendado != null) {
+                envioAgendado.cancel(false);
+                envioAgendado = null;
+            }
+            return lote;
+        }
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String nome, String tipo) {
+        return Counter.builder(METRICA_BUSCAS)
+                .description("Buscas recebidas pelo agrupador, por forma de atendimento")
+                .tag("agrupador", nome)
+                .tag("tipo", tipo)
+                .register(meterRegistry);
+    }
+}
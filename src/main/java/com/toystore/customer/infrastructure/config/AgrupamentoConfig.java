@@ -0,0 +1,95 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.dto.Versionado;
+import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Endereco;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.infrastructure.concorrencia.AgrupadorDeConsultas;
+import com.toystore.customer.interfaces.mapper.ClienteMapper;
+import com.toystore.customer.interfaces.mapper.EnderecoMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Agrupadores usados por {@code buscarPorId} e {@code buscarVersionadoPorId} de clientes e endereços. Com
+ * {@code toystore.agrupamento.enabled=false} as buscas seguem direto para o repositório. Os agrupadores guardam
+ * DTOs, e não entidades, porque o mesmo resultado é entregue a várias requisições ao mesmo tempo; a versão segue
+ * junto para que o GET monte o ETag sem outra consulta.
+ */
+@Configuration
+public class AgrupamentoConfig {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration janela;
+    private final int tamanhoMaximoLote;
+    private final Duration esperaMaxima;
+
+    public AgrupamentoConfig(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                             ObjectProvider<MeterRegistry> meterRegistry,
+                             @Value("${toystore.agrupamento.enabled:true}") boolean habilitado,
+                             @Value("${toystore.agrupamento.janela:2ms}") Duration janela,
+                             @Value("${toystore.agrupamento.tamanho-maximo-lote:64}") int tamanhoMaximoLote,
+                             @Value("${toystore.agrupamento.espera-maxima:5s}") Duration esperaMaxima) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.janela = habilitado ? janela : Duration.ZERO;
+        this.tamanhoMaximoLote = tamanhoMaximoLote;
+        this.esperaMaxima = esperaMaxima;
+    }
+
+    @Bean
+    public AgrupadorDeConsultas<String, Versionado<ClienteDTO>> agrupadorClientes(ClienteRepository clienteRepository,
+                                                                                  ClienteMapper clienteMapper) {
+        Function<Cliente, Versionado<ClienteDTO>> versionado =
+                cliente -> new Versionado<>(clienteMapper.toDto(cliente), cliente.getVersao());
+        return new AgrupadorDeConsultas<>("cliente", cpf -> clienteRepository.findById(cpf).map(versionado),
+                cpfs -> carregar(Cliente.class, cpfs, Cliente::getCpf, versionado), janela,
+                tamanhoMaximoLote, esperaMaxima, meterRegistry);
+    }
+
+    @Bean
+    public AgrupadorDeConsultas<Long, Versionado<EnderecoDTO>> agrupadorEnderecos(EnderecoRepository enderecoRepository,
+                                                                                  EnderecoMapper enderecoMapper) {
+        Function<Endereco, Versionado<EnderecoDTO>> versionado =
+                endereco -> new Versionado<>(enderecoMapper.toDto(endereco), endereco.getVersao());
+        return new AgrupadorDeConsultas<>("endereco", id -> enderecoRepository.findById(id).map(versionado),
+                ids -> carregar(Endereco.class, ids, Endereco::getId, versionado), janela,
+                tamanhoMaximoLote, esperaMaxima, meterRegistry);
+    }
+
+    private <K, T, D> Map<K, D> carregar(Class<T> tipo, Set<K> ids, Function<T, K> id, Function<T, D> dto) {
+        // Com o CacheMode explícito o multiLoad consulta o cache de segundo nível antes e busca no banco apenas as
+        // chaves ausentes; sem ele, o Hibernate ignora o cache e vai sempre ao banco
+        return transactionTemplate.execute(status -> entityManager.unwrap(Session.class)
+                .byMultipleIds(tipo)
+                .with(CacheMode.NORMAL)
+                .multiLoad(List.copyOf(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(id, dto)));
+    }
+}
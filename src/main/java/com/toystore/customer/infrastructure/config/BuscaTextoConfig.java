@@ -0,0 +1,59 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.infrastructure.busca.IndiceClientes;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Índice da busca textual de clientes. Sem {@code toystore.busca-texto.diretorio} o índice fica em memória
+ * e precisa de {@code toystore.busca-texto.reindexar-na-inicializacao=true} para ser preenchido.
+ */
+@Configuration
+public class BuscaTextoConfig {
+
+    @Bean
+    public IndiceClientes indiceClientes(ClienteRepository clienteRepository,
+                                         PlatformTransactionManager transactionManager,
+                                         ObjectProvider<MeterRegistry> meterRegistry,
+                                         @Value("${toystore.busca-texto.diretorio:}") String diretorio,
+                                         @Value("${toystore.busca-texto.retentativa.tentativas:5}") int tentativas,
+                                         @Value("${toystore.busca-texto.retentativa.espera-inicial:1s}") Duration esperaInicial)
+            throws IOException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return new IndiceClientes(abrir(diretorio), clienteRepository, transactionTemplate,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new), tentativas, esperaInicial);
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> reindexacaoNaInicializacao(
+            IndiceClientes indiceClientes,
+            @Value("${toystore.busca-texto.reindexar-na-inicializacao:true}") boolean reindexar) {
+        // A reindexação roda na thread do índice; a aplicação já atende enquanto ela termina
+        return evento -> {
+            if (reindexar) {
+                indiceClientes.reindexar();
+            }
+        };
+    }
+
+    private static Directory abrir(String diretorio) throws IOException {
+        return diretorio.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(diretorio));
+    }
+}
@@ -0,0 +1,36 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+@ConditionalOnProperty(prefix = "toystore.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CacheConfig {
+
+    public static final String CACHE_ENDERECOS = "enderecos";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${toystore.cache.enderecos.tamanho-maximo:10000}") long tamanhoMaximo,
+                                     @Value("${toystore.cache.enderecos.ttl:10m}") Duration ttl) {
+        // Caches declarados aqui são criados na inicialização e registrados no actuator (cache.gets hit/miss)
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CACHE_ENDERECOS);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        // Remoções feitas em métodos @Transactional só valem no commit; antes dele, uma leitura concorrente
+        // recarregaria a linha antiga e a manteria no cache até o TTL
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,68 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+@Configuration
+@ConditionalOnProperty(prefix = "toystore.cache-segundo-nivel", name = "enabled", havingValue = "true")
+public class CacheSegundoNivelConfig {
+
+    public static final String REGIAO_ENDERECO = "endereco";
+    public static final String REGIAO_CLIENTE = "cliente";
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel(
+            @Value("${toystore.cache-segundo-nivel.endereco.tamanho-maximo:10000}") long tamanhoEndereco,
+            @Value("${toystore.cache-segundo-nivel.endereco.ttl:30m}") Duration ttlEndereco,
+            @Value("${toystore.cache-segundo-nivel.cliente.tamanho-maximo:50000}") long tamanhoCliente,
+            @Value("${toystore.cache-segundo-nivel.cliente.ttl:10m}") Duration ttlCliente,
+            @Value("${toystore.cache-segundo-nivel.consultas.tamanho-maximo:1000}") long tamanhoConsultas,
+            @Value("${toystore.cache-segundo-nivel.consultas.ttl:5m}") Duration ttlConsultas) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        criarRegiao(cacheManager, REGIAO_ENDERECO, limitada(tamanhoEndereco, ttlEndereco));
+        criarRegiao(cacheManager, REGIAO_CLIENTE, limitada(tamanhoCliente, ttlCliente));
+        criarRegiao(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                limitada(tamanhoConsultas, ttlConsultas));
+        // Os timestamps invalidam o cache de consultas e por isso nunca podem expirar antes dos resultados
+        criarRegiao(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new MutableConfiguration<>());
+
+        return propriedades -> {
+            propriedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            propriedades.put(AvailableSettings.USE_QUERY_CACHE, true);
+            propriedades.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            propriedades.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            propriedades.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> limitada(long tamanhoMaximo, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+        configuracao.setMaximumSize(OptionalLong.of(tamanhoMaximo));
+        configuracao.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        return configuracao;
+    }
+
+    private static void criarRegiao(CacheManager cacheManager, String nome,
+                                    javax.cache.configuration.Configuration<Object, Object> configuracao) {
+        // O CacheManager do provedor é compartilhado na JVM; recria a região para aplicar a configuração atual
+        if (cacheManager.getCache(nome) != null) {
+            cacheManager.destroyCache(nome);
+        }
+        cacheManager.createCache(nome, configuracao);
+    }
+}
@@ -0,0 +1,51 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.domain.repository.RemocaoRepository;
+import com.toystore.customer.infrastructure.deduplicacao.DeduplicacaoEnderecos;
+import com.toystore.customer.infrastructure.deduplicacao.MesclagemEnderecos;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Deduplicação de endereços pelo conteúdo. Com {@code toystore.deduplicacao-enderecos.enabled=false} os
+ * endereços são gravados sem hash; a mesclagem dos duplicados existentes pode rodar nos dois casos.
+ */
+@Configuration
+public class DeduplicacaoEnderecosConfig {
+
+    @Bean
+    public DeduplicacaoEnderecos deduplicacaoEnderecos(EntityManager entityManager,
+                                                       EnderecoRepository enderecoRepository,
+                                                       ObjectProvider<MeterRegistry> meterRegistry,
+                                                       @Value("${toystore.deduplicacao-enderecos.enabled:false}") boolean habilitada) {
+        return new DeduplicacaoEnderecos(entityManager, enderecoRepository,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new), habilitada);
+    }
+
+    @Bean
+    public MesclagemEnderecos mesclagemEnderecos(EnderecoRepository enderecoRepository,
+                                                 ClienteRepository clienteRepository,
+                                                 RemocaoRepository remocaoRepository,
+                                                 SequenciaAlteracoes sequenciaAlteracoes,
+                                                 ApplicationEventPublisher eventPublisher,
+                                                 PlatformTransactionManager transactionManager,
+                                                 ObjectProvider<CacheManager> cacheManager,
+                                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                                 @Value("${toystore.deduplicacao-enderecos.mesclagem.tamanho-lote:500}") int tamanhoLote) {
+        return new MesclagemEnderecos(enderecoRepository, clienteRepository, remocaoRepository, sequenciaAlteracoes,
+                eventPublisher, new TransactionTemplate(transactionManager), cacheManager.getIfAvailable(),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new), tamanhoLote);
+    }
+}
@@ -0,0 +1,51 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.toystore.customer.infrastructure.cep.DiretorioCeps;
+import com.toystore.customer.infrastructure.cep.GeradorIndiceCeps;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Diretório de CEPs da base local em {@code toystore.diretorio-ceps.arquivo}. O índice binário é gerado na
+ * primeira inicialização, e de novo sempre que a base for mais nova que ele; nas demais, só é mapeado em memória.
+ * Com {@code toystore.diretorio-ceps.enabled=false} o diretório fica vazio.
+ */
+@Slf4j
+@Configuration
+public class DiretorioCepsConfig {
+
+    @Bean
+    public DiretorioCeps diretorioCeps(ObjectProvider<MeterRegistry> meterRegistry,
+                                       @Value("${toystore.diretorio-ceps.enabled:false}") boolean habilitado,
+                                       @Value("${toystore.diretorio-ceps.arquivo:}") String arquivo,
+                                       @Value("${toystore.diretorio-ceps.indice:}") String indice,
+                                       @Value("${toystore.diretorio-ceps.conferir-enderecos:false}") boolean conferirEnderecos)
+            throws IOException {
+        MeterRegistry registro = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        if (!habilitado) {
+            return DiretorioCeps.vazio(registro);
+        }
+        Path base = Path.of(arquivo);
+        Path caminhoIndice = indice.isBlank() ? Path.of(arquivo + ".idx") : Path.of(indice);
+        if (Files.notExists(caminhoIndice)
+                || Files.getLastModifiedTime(base).compareTo(Files.getLastModifiedTime(caminhoIndice)) > 0) {
+            long inicio = System.nanoTime();
+            GeradorIndiceCeps.Resultado resultado = GeradorIndiceCeps.gerar(base, caminhoIndice);
+            log.info("Índice de CEPs gerado em {}: {} CEPs, {} linhas ignoradas, {} ms", caminhoIndice,
+                    resultado.ceps(), resultado.ignoradas(), (System.nanoTime() - inicio) / 1_000_000);
+        }
+        long inicio = System.nanoTime();
+        DiretorioCeps diretorio = DiretorioCeps.abrir(caminhoIndice, conferirEnderecos, registro);
+        log.info("Diretório de CEPs aberto: {} CEPs em {} µs", diretorio.quantidade(), (System.nanoTime() - inicio) / 1_000);
+        return diretorio;
+    }
+}
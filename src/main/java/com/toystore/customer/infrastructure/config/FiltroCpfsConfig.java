@@ -0,0 +1,53 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.infrastructure.filtro.FiltroCpfs;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Filtro de CPFs usado pelo serviço de clientes. Com {@code toystore.filtro-cpfs.enabled=false} o filtro
+ * nunca é construído e todas as consultas seguem para o banco.
+ */
+@Configuration
+public class FiltroCpfsConfig {
+
+    @Bean
+    public FiltroCpfs filtroCpfs(ClienteRepository clienteRepository,
+                                 SequenciaAlteracoes sequenciaAlteracoes,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${toystore.filtro-cpfs.capacidade:1000000}") long capacidade,
+                                 @Value("${toystore.filtro-cpfs.taxa-falsos-positivos:0.01}") double taxaFalsosPositivos,
+                                 @Value("${toystore.filtro-cpfs.sincronizacao.atraso-maximo:4s}") Duration atrasoMaximo) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return new FiltroCpfs(clienteRepository, sequenciaAlteracoes, transactionTemplate,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new), capacidade, taxaFalsosPositivos, atrasoMaximo);
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> construcaoFiltroCpfs(
+            FiltroCpfs filtroCpfs,
+            @Value("${toystore.filtro-cpfs.enabled:false}") boolean habilitado,
+            @Value("${toystore.filtro-cpfs.sincronizacao.intervalo:2s}") Duration intervaloSincronizacao,
+            @Value("${toystore.filtro-cpfs.reconstrucao.intervalo:10m}") Duration intervaloReconstrucao) {
+        // A construção roda na thread do filtro; até terminar, as consultas seguem para o banco
+        return evento -> {
+            if (habilitado) {
+                filtroCpfs.iniciar(intervaloSincronizacao, intervaloReconstrucao);
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toystore.customer.infrastructure.web.MapeadoresPorFormato;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Registra CBOR e Smile ao lado do JSON. A escolha segue o Accept (respostas) e o Content-Type
+ * (requisições); quem não envia nenhum dos dois continua recebendo JSON. As três fábricas, inclusive a
+ * JSON do Spring Boot, usam o mesmo pool de buffers.
+ */
+@Configuration
+public class FormatosBinariosConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer poolDeBuffersJson() {
+        return builder -> builder.factory(JsonFactory.builder()
+                .recyclerPool(MapeadoresPorFormato.POOL_DE_BUFFERS)
+                .build());
+    }
+
+    @Bean
+    public MapeadoresPorFormato mapeadoresPorFormato(ObjectMapper objectMapper) {
+        // Parte do ObjectMapper do Spring Boot para herdar módulos e propriedades spring.jackson.*
+        return MapeadoresPorFormato.de(objectMapper);
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(MapeadoresPorFormato mapeadores) {
+        return new MappingJackson2CborHttpMessageConverter(mapeadores.cbor());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(MapeadoresPorFormato mapeadores) {
+        return new MappingJackson2SmileHttpMessageConverter(mapeadores.smile());
+    }
+}
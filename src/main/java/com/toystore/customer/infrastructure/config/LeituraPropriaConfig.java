@@ -0,0 +1,34 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.toystore.customer.infrastructure.persistence.LeituraPropria;
+import com.toystore.customer.infrastructure.web.LeituraPropriaFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Leitura das próprias escritas, necessária a tudo o que pode estar atrás do primário: as réplicas de leitura
+ * e o filtro de CPFs, que recebe as gravações de outras instâncias só na sincronização.
+ */
+@Configuration
+@ConditionalOnExpression("${toystore.replicas.enabled:false} or ${toystore.filtro-cpfs.enabled:false}")
+public class LeituraPropriaConfig {
+
+    @Bean
+    public LeituraPropria leituraPropria() {
+        return new LeituraPropria();
+    }
+
+    @Bean
+    public FilterRegistrationBean<LeituraPropriaFilter> leituraPropriaFilter(
+            @Value("${toystore.replicas.janela-leitura-propria:5s}") Duration janela) {
+        FilterRegistrationBean<LeituraPropriaFilter> registro =
+                new FilterRegistrationBean<>(new LeituraPropriaFilter(janela));
+        registro.addUrlPatterns("/v1/*");
+        return registro;
+    }
+}
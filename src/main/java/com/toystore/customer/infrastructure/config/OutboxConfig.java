@@ -0,0 +1,74 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toystore.customer.domain.repository.EventoOutboxRepository;
+import com.toystore.customer.infrastructure.outbox.DestinoArquivo;
+import com.toystore.customer.infrastructure.outbox.DestinoEventos;
+import com.toystore.customer.infrastructure.outbox.DestinoMemoria;
+import com.toystore.customer.infrastructure.outbox.DestinoWebhook;
+import com.toystore.customer.infrastructure.outbox.GravadorOutbox;
+import com.toystore.customer.infrastructure.outbox.RelayOutbox;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Outbox de alterações de clientes e endereços (opt-in). O destino é escolhido por
+ * {@code toystore.outbox.destino}: {@code webhook}, {@code arquivo} ou {@code memoria}.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "toystore.outbox", name = "enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Bean
+    public GravadorOutbox gravadorOutbox(EventoOutboxRepository eventoOutboxRepository, ObjectMapper objectMapper) {
+        return new GravadorOutbox(eventoOutboxRepository, objectMapper);
+    }
+
+    @Bean
+    public DestinoEventos destinoEventos(@Value("${toystore.outbox.destino:webhook}") String destino,
+                                         @Value("${toystore.outbox.webhook.url:}") String url,
+                                         @Value("${toystore.outbox.webhook.timeout:5s}") Duration timeout,
+                                         @Value("${toystore.outbox.arquivo.caminho:outbox.ndjson}") String caminho,
+                                         ObjectMapper objectMapper) {
+        return switch (destino) {
+            case "webhook" -> {
+                if (url.isBlank()) {
+                    throw new IllegalStateException("toystore.outbox.webhook.url é obrigatório com o destino webhook");
+                }
+                HttpClient httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+                yield new DestinoWebhook(httpClient, URI.create(url), timeout, objectMapper);
+            }
+            case "arquivo" -> new DestinoArquivo(Path.of(caminho), objectMapper);
+            case "memoria" -> new DestinoMemoria();
+            default -> throw new IllegalStateException("Destino de outbox desconhecido: " + destino);
+        };
+    }
+
+    @Bean
+    public RelayOutbox relayOutbox(EventoOutboxRepository eventoOutboxRepository, DestinoEventos destinoEventos,
+                                   PlatformTransactionManager transactionManager,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${toystore.outbox.relay.tamanho-lote:200}") int tamanhoLote,
+                                   @Value("${toystore.outbox.relay.reserva:1m}") Duration reserva,
+                                   @Value("${toystore.outbox.relay.tentativas:10}") int tentativas,
+                                   @Value("${toystore.outbox.relay.espera-inicial:1s}") Duration esperaInicial,
+                                   @Value("${toystore.outbox.relay.espera-maxima:10m}") Duration esperaMaxima) {
+        return new RelayOutbox(eventoOutboxRepository, destinoEventos, new TransactionTemplate(transactionManager),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new), tamanhoLote, reserva, tentativas,
+                esperaInicial, esperaMaxima);
+    }
+}
@@ -0,0 +1,38 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.infrastructure.persistence.PreenchimentoNomeBusca;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Pesquisa de clientes por filtros. Na inicialização, os clientes ainda sem nome normalizado recebem o nome
+ * calculado pela aplicação; com {@code toystore.pesquisa.preencher-nome-busca=false} isso fica a cargo de quem
+ * administra o banco.
+ */
+@Configuration
+public class PesquisaClientesConfig {
+
+    @Bean
+    public PreenchimentoNomeBusca preenchimentoNomeBusca(ClienteRepository clienteRepository,
+                                                         PlatformTransactionManager transactionManager) {
+        return new PreenchimentoNomeBusca(clienteRepository, new TransactionTemplate(transactionManager));
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> preenchimentoNomeBuscaNaInicializacao(
+            PreenchimentoNomeBusca preenchimentoNomeBusca,
+            @Value("${toystore.pesquisa.preencher-nome-busca:true}") boolean preencher) {
+        // Até terminar, a pesquisa por nome não encontra os clientes pendentes
+        return evento -> {
+            if (preencher) {
+                preenchimentoNomeBusca.preencher();
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.toystore.customer.infrastructure.persistence.ReplicasLeitura;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de leitura (opt-in). Transações {@code readOnly} pegam a conexão de uma das réplicas de
+ * {@code toystore.replicas.urls}; as demais, do primário de {@code spring.datasource.*}. As réplicas usam
+ * o mesmo usuário, senha e configuração de pool do primário.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "toystore.replicas", name = "enabled", havingValue = "true")
+public class ReplicasLeituraConfig {
+
+    // Segundos desde a última transação aplicada; zero quando a réplica já aplicou tudo o que recebeu, para que
+    // um primário sem escritas não pareça atrasado
+    static final String CONSULTA_ATRASO_POSTGRES = "select case when pg_last_wal_receive_lsn() = "
+            + "pg_last_wal_replay_lsn() then 0 else coalesce(extract(epoch from now() - "
+            + "pg_last_xact_replay_timestamp()), 0) end";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicasLeitura replicasLeitura(DataSourceProperties properties, HikariDataSource dataSourcePrimario,
+                                           @Value("${toystore.replicas.urls}") List<String> urls,
+                                           @Value("${toystore.replicas.quarentena:30s}") Duration quarentena,
+                                           @Value("${toystore.replicas.timeout-conexao:1s}") Duration timeoutConexao,
+                                           @Value("${toystore.replicas.atraso-maximo:2s}") Duration atrasoMaximo,
+                                           @Value("${toystore.replicas.consulta-atraso:}") String consultaAtraso,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i).trim())
+                    .build();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setMaximumPoolSize(dataSourcePrimario.getMaximumPoolSize());
+            replica.setMinimumIdle(dataSourcePrimario.getMinimumIdle());
+            replica.setReadOnly(true);
+            // Réplica fora do ar deve cair logo para a próxima, não segurar a leitura pelo timeout do primário
+            replica.setConnectionTimeout(timeoutConexao.toMillis());
+            replica.setMetricRegistry(meterRegistry.getIfAvailable());
+            replicas.add(replica);
+        }
+        return new ReplicasLeitura(dataSourcePrimario, replicas, quarentena, atrasoMaximo,
+                consultaAtraso.isBlank() ? CONSULTA_ATRASO_POSTGRES : consultaAtraso);
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> verificacaoAtrasoReplicas(
+            ReplicasLeitura replicasLeitura,
+            @Value("${toystore.replicas.verificacao-atraso.intervalo:1s}") Duration intervalo) {
+        return evento -> replicasLeitura.iniciarVerificacaoAtraso(intervalo);
+    }
+
+    // A conexão só é obtida no primeiro comando, quando o readOnly da transação já é conhecido
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource dataSourcePrimario, ReplicasLeitura replicasLeitura) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(dataSourcePrimario);
+        dataSource.setReadOnlyDataSource(replicasLeitura);
+        return dataSource;
+    }
+}
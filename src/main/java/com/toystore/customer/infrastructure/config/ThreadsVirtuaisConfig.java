@@ -0,0 +1,32 @@
+package com.toystore.customer.infrastructure.config;
+
+import com.toystore.customer.infrastructure.web.LimiteConcorrenciaFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Ativo junto com {@code spring.threads.virtual.enabled=true}, que faz o Tomcat e as tarefas
+ * assíncronas rodarem em threads virtuais.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ThreadsVirtuaisConfig {
+
+    @Bean
+    public FilterRegistrationBean<LimiteConcorrenciaFilter> limiteConcorrenciaFilter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int tamanhoPool,
+            @Value("${toystore.threads-virtuais.requisicoes-por-conexao:4}") int requisicoesPorConexao,
+            @Value("${toystore.threads-virtuais.espera:2s}") Duration espera) {
+        FilterRegistrationBean<LimiteConcorrenciaFilter> registro =
+                new FilterRegistrationBean<>(new LimiteConcorrenciaFilter(tamanhoPool * requisicoesPorConexao, espera));
+        registro.addUrlPatterns("/v1/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+}
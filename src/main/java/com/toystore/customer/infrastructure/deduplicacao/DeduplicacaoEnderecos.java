@@ -0,0 +1,118 @@
+package com.toystore.customer.infrastructure.deduplicacao;
+
+import com.toystore.customer.domain.model.Endereco;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.jpa.HibernateHints;
+
+/**
+ * Gravação de endereços deduplicada pelo conteúdo. Cada endereço novo leva o hash do conteúdo normalizado
+ * ({@link Endereco#calcularHashConteudo()}), que é único na tabela; se o hash já existe, nada é inserido e o
+ * id do endereço existente é devolvido.
+ *
+ * <p>A decisão fica com o banco, em um único comando ({@code on conflict do nothing} no PostgreSQL): duas
+ * requisições simultâneas com o mesmo endereço não geram duas linhas, porque a segunda espera o commit da
+ * primeira e então encontra o conflito. Com {@code toystore.deduplicacao-enderecos.enabled=false} o serviço
+ * grava como antes e os endereços ficam sem hash.
+ */
+public class DeduplicacaoEnderecos {
+
+    private static final String INSERIR_SE_NOVO_POSTGRES = """
+            insert into endereco (id, cep, estado, cidade, bairro, rua, numero, versao, sequencia_alteracao, hash_conteudo)
+            values (:id, :cep, :estado, :cidade, :bairro, :rua, :numero, 0, :sequencia, :hash)
+            on conflict (hash_conteudo) do nothing""";
+
+    // Demais bancos (H2 nos testes): o merge padrão, que não tem a mesma garantia sob concorrência; nesse caso
+    // a segunda gravação falha no índice único em vez de devolver o endereço existente
+    private static final String INSERIR_SE_NOVO_PADRAO = """
+            merge into endereco e
+            using (select cast(:hash as varchar(64)) as hash_conteudo) n
+            on e.hash_conteudo = n.hash_conteudo
+            when not matched then
+                insert (id, cep, estado, cidade, bairro, rua, numero, versao, sequencia_alteracao, hash_conteudo)
+                values (:id, :cep, :estado, :cidade, :bairro, :rua, :numero, 0, :sequencia, n.hash_conteudo)""";
+
+    private final EntityManager entityManager;
+    private final EnderecoRepository enderecoRepository;
+    private final boolean habilitada;
+    private final String comandoInserirSeNovo;
+    private final Counter reaproveitados;
+
+    public DeduplicacaoEnderecos(EntityManager entityManager, EnderecoRepository enderecoRepository,
+                                 MeterRegistry meterRegistry, boolean habilitada) {
+        this.entityManager = entityManager;
+        this.enderecoRepository = enderecoRepository;
+        this.habilitada = habilitada;
+        boolean postgres = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+        this.comandoInserirSeNovo = postgres ? INSERIR_SE_NOVO_POSTGRES : INSERIR_SE_NOVO_PADRAO;
+        this.reaproveitados = Counter.builder("toystore.deduplicacao_enderecos.reaproveitados")
+                .description("Gravações de endereço que devolveram um endereço já cadastrado com o mesmo conteúdo")
+                .register(meterRegistry);
+    }
+
+    public boolean habilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Hash a gravar no endereço depois de alterado o conteúdo; {@code null} com a deduplicação desligada, para
+     * que um hash antigo não fique valendo para o conteúdo novo.
+     */
+    public String hashParaGravar(Endereco endereco) {
+        return habilitada ? endereco.calcularHashConteudo() : null;
+    }
+
+    /**
+     * Insere o endereço, com id da mesma sequência das demais gravações, se não houver outro com o mesmo
+     * conteúdo. Deve ser chamado dentro de uma transação; o número de alteração precisa já estar no endereço.
+     */
+    public Insercao inserirOuReaproveitar(Endereco endereco) {
+        String hash = endereco.calcularHashConteudo();
+        SharedSessionContractImplementor sessao = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator gerador = (BeforeExecutionGenerator) sessao.getFactory()
+                .getMappingMetamodel()
+                .getEntityDescriptor(Endereco.class)
+                .getGenerator();
+        Long id = (Long) gerador.generate(sessao, endereco, null, EventType.INSERT);
+
+        int inseridos = entityManager.createNativeQuery(comandoInserirSeNovo)
+                .setParameter("id", id)
+                .setParameter("cep", endereco.getCep())
+                .setParameter("estado", endereco.getEstado())
+                .setParameter("cidade", endereco.getCidade())
+                .setParameter("bairro", endereco.getBairro())
+                .setParameter("rua", endereco.getRua())
+                .setParameter("numero", endereco.getNumero())
+                .setParameter("sequencia", endereco.getSequenciaAlteracao())
+                .setParameter("hash", hash)
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, "endereco")
+                .executeUpdate();
+        if (inseridos == 1) {
+            endereco.setId(id);
+            endereco.setVersao(0L);
+            endereco.setHashConteudo(hash);
+            return new Insercao(id, true);
+        }
+
+        reaproveitados.increment();
+        Long existente = enderecoRepository.buscarIdPorHashConteudo(hash)
+                .orElseThrow(() -> new IllegalStateException("Endereço com hash " + hash + " não encontrado"));
+        return new Insercao(existente, false);
+    }
+
+    /**
+     * Id do endereço gravado e se ele foi inserido agora ({@code false} quando já existia).
+     */
+    public record Insercao(Long id, boolean inserido) {
+    }
+}
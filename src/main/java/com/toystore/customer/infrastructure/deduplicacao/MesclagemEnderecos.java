@@ -0,0 +1,201 @@
+package com.toystore.customer.infrastructure.deduplicacao;
+
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.domain.eventos.AlteracaoRegistradaEvento;
+import com.toystore.customer.domain.eventos.ClientesAlteradosEvento;
+import com.toystore.customer.domain.eventos.TipoAlteracao;
+import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Endereco;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.domain.repository.RemocaoRepository;
+import com.toystore.customer.infrastructure.config.CacheConfig;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesclagem dos endereços duplicados gravados antes da deduplicação. Percorre em lotes, por id, os endereços
+ * ainda sem hash: o primeiro de cada conteúdo recebe o hash e passa a ser o endereço daquele conteúdo, a menos
+ * que já exista um endereço com o mesmo hash; os demais têm os clientes apontados para ele e são removidos.
+ *
+ * <p>Cada lote é uma transação, e as alterações de clientes e as remoções de endereços entram no feed de
+ * alterações e no outbox como qualquer outra. Um lote que colide com uma gravação simultânea é refeito.
+ */
+@Slf4j
+public class MesclagemEnderecos implements AutoCloseable {
+
+    static final int TENTATIVAS_POR_LOTE = 3;
+
+    private final EnderecoRepository enderecoRepository;
+    private final ClienteRepository clienteRepository;
+    private final RemocaoRepository remocaoRepository;
+    private final SequenciaAlteracoes sequenciaAlteracoes;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final int tamanhoLote;
+    private final ExecutorService executor;
+    private final Counter mesclados;
+
+    private CompletableFuture<Integer> emAndamento;
+
+    public MesclagemEnderecos(EnderecoRepository enderecoRepository, ClienteRepository clienteRepository,
+                              RemocaoRepository remocaoRepository, SequenciaAlteracoes sequenciaAlteracoes,
+                              ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate,
+                              CacheManager cacheManager, MeterRegistry meterRegistry, int tamanhoLote) {
+        this.enderecoRepository = enderecoRepository;
+        this.clienteRepository = clienteRepository;
+        this.remocaoRepository = remocaoRepository;
+        this.sequenciaAlteracoes = sequenciaAlteracoes;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.tamanhoLote = tamanhoLote;
+        this.executor = Executors.newSingleThreadExecutor(Thread.ofPlatform()
+                .name("mesclagem-enderecos")
+                .daemon(true)
+                .factory());
+        this.mesclados = Counter.builder("toystore.deduplicacao_enderecos.mesclados")
+                .description("Endereços duplicados removidos pela mesclagem, com os clientes apontados para o que ficou")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inicia a mesclagem em segundo plano, ou devolve a que já está em andamento. O resultado é o número de
+     * endereços removidos.
+     */
+    public synchronized CompletableFuture<Integer> iniciar() {
+        if (emAndamento == null || emAndamento.isDone()) {
+            emAndamento = CompletableFuture.supplyAsync(this::mesclar, executor)
+                    .whenComplete((removidos, erro) -> {
+                        if (erro != null) {
+                            log.error("Falha na mesclagem de endereços duplicados", erro);
+                        } else {
+                            log.info("Mesclagem de endereços duplicados concluída: {} removidos", removidos);
+                        }
+                    });
+        }
+        return emAndamento;
+    }
+
+    int mesclar() {
+        int removidos = 0;
+        long apos = 0;
+        while (true) {
+            Lote lote = mesclarLoteComTentativas(apos);
+            if (lote == null) {
+                return removidos;
+            }
+            removerDoCache(lote.removidos());
+            mesclados.increment(lote.removidos().size());
+            removidos += lote.removidos().size();
+            apos = lote.ultimoId();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private Lote mesclarLoteComTentativas(long apos) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return transactionTemplate.execute(status -> mesclarLote(apos));
+            } catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+                if (tentativa == TENTATIVAS_POR_LOTE) {
+                    throw e;
+                }
+                log.warn("Lote da mesclagem de endereços após o id {} colidiu com outra gravação; refazendo", apos);
+            }
+        }
+    }
+
+    private Lote mesclarLote(long apos) {
+        List<Endereco> enderecos = enderecoRepository.buscarSemHashConteudoApos(apos, Limit.of(tamanhoLote));
+        if (enderecos.isEmpty()) {
+            return null;
+        }
+
+        Map<String, List<Endereco>> porHash = new LinkedHashMap<>();
+        for (Endereco endereco : enderecos) {
+            porHash.computeIfAbsent(endereco.calcularHashConteudo(), hash -> new ArrayList<>()).add(endereco);
+        }
+        Map<String, Endereco> destinos = new HashMap<>();
+        for (Endereco existente : enderecoRepository.buscarPorHashesConteudo(porHash.keySet())) {
+            destinos.put(existente.getHashConteudo(), existente);
+        }
+
+        Map<Long, Endereco> destinoPorDuplicado = new HashMap<>();
+        List<Endereco> duplicados = new ArrayList<>();
+        porHash.forEach((hash, iguais) -> {
+            Endereco destino = destinos.get(hash);
+            int inicio = 0;
+            if (destino == null) {
+                destino = iguais.getFirst();
+                destino.setHashConteudo(hash);
+                inicio = 1;
+            }
+            for (Endereco duplicado : iguais.subList(inicio, iguais.size())) {
+                destinoPorDuplicado.put(duplicado.getId(), destino);
+                duplicados.add(duplicado);
+            }
+        });
+
+        Set<String> cpfs = new HashSet<>();
+        if (!duplicados.isEmpty()) {
+            for (Cliente cliente : clienteRepository.buscarPorEnderecos(destinoPorDuplicado.keySet())) {
+                Endereco destino = destinoPorDuplicado.get(cliente.getEndereco().getId());
+                cliente.setEndereco(destino);
+                cliente.setSequenciaAlteracao(sequenciaAlteracoes.proxima());
+                cpfs.add(cliente.getCpf());
+                eventPublisher.publishEvent(AlteracaoRegistradaEvento.cliente(TipoAlteracao.ATUALIZACAO, cliente.getCpf(),
+                        new ClienteDTO(cliente.getCpf(), cliente.getNome(), cliente.getEmail(), destino.getId())));
+            }
+            // No flush, as atualizações dos clientes vão antes das remoções, respeitando a chave estrangeira
+            enderecoRepository.deleteAll(duplicados);
+            for (Endereco duplicado : duplicados) {
+                remocaoRepository.registrar(sequenciaAlteracoes.proxima(), AlteracaoRegistradaEvento.ENDERECO,
+                        String.valueOf(duplicado.getId()));
+                eventPublisher.publishEvent(
+                        AlteracaoRegistradaEvento.endereco(TipoAlteracao.REMOCAO, duplicado.getId(), null));
+            }
+        }
+        if (!cpfs.isEmpty()) {
+            eventPublisher.publishEvent(new ClientesAlteradosEvento(cpfs));
+        }
+        return new Lote(enderecos.getLast().getId(), List.copyOf(destinoPorDuplicado.keySet()));
+    }
+
+    private void removerDoCache(List<Long> ids) {
+        Cache cache = cacheManager == null ? null : cacheManager.getCache(CacheConfig.CACHE_ENDERECOS);
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+    }
+
+    private record Lote(long ultimoId, List<Long> removidos) {
+    }
+}
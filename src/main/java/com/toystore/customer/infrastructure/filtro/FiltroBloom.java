@@ -0,0 +1,84 @@
+package com.toystore.customer.infrastructure.filtro;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de tamanho fixo. {@link #podeConter} nunca erra para um valor adicionado; para os demais
+ * responde {@code true} com probabilidade próxima da taxa de falsos positivos do dimensionamento, enquanto
+ * o número de valores não passar da capacidade. Não há remoção.
+ */
+final class FiltroBloom {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray palavras;
+    private final long bits;
+    private final int funcoesHash;
+    private final AtomicLong bitsLigados = new AtomicLong();
+
+    FiltroBloom(long capacidade, double taxaFalsosPositivos) {
+        long bitsNecessarios = (long) Math.ceil(-capacidade * Math.log(taxaFalsosPositivos) / (LN2 * LN2));
+        int quantidadePalavras = Math.toIntExact(Math.max(1, (bitsNecessarios + 63) / 64));
+        this.palavras = new AtomicLongArray(quantidadePalavras);
+        this.bits = quantidadePalavras * 64L;
+        this.funcoesHash = Math.max(1, (int) Math.round((double) bits / capacidade * LN2));
+    }
+
+    void adicionar(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcoesHash; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            long mascara = 1L << bit;
+            long anterior = palavras.getAndAccumulate((int) (bit >>> 6), mascara, (atual, m) -> atual | m);
+            if ((anterior & mascara) == 0) {
+                bitsLigados.incrementAndGet();
+            }
+        }
+    }
+
+    boolean podeConter(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcoesHash; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            if ((palavras.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Probabilidade de um valor nunca adicionado passar pelo filtro, dada a fração atual de bits ligados.
+     */
+    double taxaFalsosPositivosEstimada() {
+        return Math.pow((double) bitsLigados.get() / bits, funcoesHash);
+    }
+
+    long bytes() {
+        return bits / 8;
+    }
+
+    int funcoesHash() {
+        return funcoesHash;
+    }
+
+    // Sem alocação: os CPFs chegam como texto e seriam convertidos a cada consulta
+    private static long hash(String valor) {
+        long h = 0;
+        for (int i = 0; i < valor.length(); i++) {
+            h = 31 * h + valor.charAt(i);
+        }
+        // Finalizador do MurmurHash3: espalha os dígitos por todos os bits
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,295 @@
+package com.toystore.customer.infrastructure.filtro;
+
+import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.infrastructure.persistence.LeituraPropria;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * CPFs cadastrados em um filtro de Bloom em memória, para responder sem ir ao banco que um CPF não existe.
+ * Enquanto o filtro não foi construído, todo CPF "pode existir" e as consultas seguem para o banco.
+ *
+ * <p>O filtro nunca pode deixar de conter um CPF cadastrado. Os CPFs gravados por esta instância entram antes
+ * do commit; os gravados por outras instâncias chegam a cada sincronização, que lê no primário as alterações
+ * abaixo de {@link SequenciaAlteracoes#limiteVisivel()} e só avança o cursor até ele, então uma transação
+ * confirmada fora de ordem nunca fica para trás. O filtro só descarta um CPF enquanto está em dia: se tudo o que
+ * foi reservado antes de um instante recente já está abaixo do cursor. Quando a sincronização falha, ou o limite
+ * fica preso numa transação longa ou numa reserva em andamento, o filtro deixa de estar em dia e as consultas
+ * seguem para o banco; o mesmo vale para as requisições que precisam ler as próprias escritas
+ * ({@link LeituraPropria}), que podem ter gravado por outra instância. Remoções não saem do filtro (viram falsos
+ * positivos) até a reconstrução periódica, que também redimensiona o filtro conforme a base cresce.
+ */
+@Slf4j
+public class FiltroCpfs implements AutoCloseable {
+
+    static final int TAMANHO_LOTE_SINCRONIZACAO = 1000;
+
+    // Com o limite preso, cada sincronização deixa um marco; descartar os mais antigos só atrasa o filtro
+    static final int MAXIMO_MARCOS = 1000;
+
+    private final ClienteRepository clienteRepository;
+    private final SequenciaAlteracoes sequenciaAlteracoes;
+    private final TransactionTemplate transactionTemplate;
+    private final long capacidadeMinima;
+    private final double taxaFalsosPositivos;
+    private final Duration atrasoMaximo;
+    private final Clock clock;
+    private final ScheduledExecutorService executor;
+
+    private volatile Estado atual;
+    private volatile FiltroBloom emConstrucao;
+
+    private final Counter ausentes;
+    private final Counter possiveis;
+    private final Counter desatualizadas;
+    private final Counter falsosPositivos;
+    private final Timer reconstrucao;
+
+    public FiltroCpfs(ClienteRepository clienteRepository, SequenciaAlteracoes sequenciaAlteracoes,
+                      TransactionTemplate transactionTemplate, MeterRegistry meterRegistry, long capacidadeMinima,
+                      double taxaFalsosPositivos, Duration atrasoMaximo) {
+        this(clienteRepository, sequenciaAlteracoes, transactionTemplate, meterRegistry, capacidadeMinima,
+                taxaFalsosPositivos, atrasoMaximo, Clock.systemUTC());
+    }
+
+    FiltroCpfs(ClienteRepository clienteRepository, SequenciaAlteracoes sequenciaAlteracoes,
+               TransactionTemplate transactionTemplate, MeterRegistry meterRegistry, long capacidadeMinima,
+               double taxaFalsosPositivos, Duration atrasoMaximo, Clock clock) {
+        this.clienteRepository = clienteRepository;
+        this.sequenciaAlteracoes = sequenciaAlteracoes;
+        this.transactionTemplate = transactionTemplate;
+        this.capacidadeMinima = capacidadeMinima;
+        this.taxaFalsosPositivos = taxaFalsosPositivos;
+        this.atrasoMaximo = atrasoMaximo;
+        this.clock = clock;
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("filtro-cpfs")
+                .daemon(true)
+                .factory());
+
+        this.ausentes = Counter.builder("toystore.filtro_cpfs.consultas")
+                .tag("resultado", "ausente")
+                .description("Consultas de CPF respondidas pelo filtro sem ir ao banco")
+                .register(meterRegistry);
+        this.possiveis = Counter.builder("toystore.filtro_cpfs.consultas")
+                .tag("resultado", "possivel")
+                .description("Consultas de CPF que o filtro deixou seguir para o banco")
+                .register(meterRegistry);
+        this.desatualizadas = Counter.builder("toystore.filtro_cpfs.consultas")
+                .tag("resultado", "desatualizado")
+                .description("Consultas de CPF que seguiram para o banco porque o filtro não estava em dia")
+                .register(meterRegistry);
+        this.falsosPositivos = Counter.builder("toystore.filtro_cpfs.falsos_positivos")
+                .description("CPFs que passaram pelo filtro e não existiam no banco")
+                .register(meterRegistry);
+        this.reconstrucao = Timer.builder("toystore.filtro_cpfs.reconstrucao")
+                .description("Duração da reconstrução do filtro a partir do banco")
+                .register(meterRegistry);
+        Gauge.builder("toystore.filtro_cpfs.memoria", this, filtro -> filtro.medir(FiltroBloom::bytes))
+                .description("Memória ocupada pelos bits do filtro")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("toystore.filtro_cpfs.taxa_falsos_positivos_estimada", this,
+                        filtro -> filtro.medir(FiltroBloom::taxaFalsosPositivosEstimada))
+                .description("Taxa de falsos positivos esperada pela ocupação atual do filtro")
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@code false} só quando o CPF certamente não está cadastrado.
+     */
+    public boolean podeExistir(String cpf) {
+        Estado estado = atual;
+        if (estado == null) {
+            return true;
+        }
+        Instant emDiaAte = estado.emDiaAte;
+        if (emDiaAte == null || emDiaAte.plus(atrasoMaximo).isBefore(clock.instant()) || LeituraPropria.exigida()) {
+            desatualizadas.increment();
+            return true;
+        }
+        if (estado.filtro.podeConter(cpf)) {
+            possiveis.increment();
+            return true;
+        }
+        ausentes.increment();
+        return false;
+    }
+
+    /**
+     * Deve ser chamado antes do commit da gravação do CPF; se a transação for desfeita, o CPF fica como falso
+     * positivo até a próxima reconstrução.
+     */
+    public void adicionar(String cpf) {
+        // O filtro em construção primeiro: depois da troca, quem o encontra vazio encontra o novo em atual
+        FiltroBloom novo = emConstrucao;
+        if (novo != null) {
+            novo.adicionar(cpf);
+        }
+        Estado estado = atual;
+        if (estado != null) {
+            estado.filtro.adicionar(cpf);
+        }
+    }
+
+    /**
+     * Registra que um CPF liberado pelo filtro não foi encontrado no banco.
+     */
+    public void registrarFalsoPositivo() {
+        if (atual != null) {
+            falsosPositivos.increment();
+        }
+    }
+
+    /**
+     * Constrói o filtro agora e agenda a sincronização e a reconstrução periódicas na thread do filtro.
+     */
+    public void iniciar(Duration intervaloSincronizacao, Duration intervaloReconstrucao) {
+        executor.execute(() -> executarSemFalhar("construir", this::reconstruir));
+        executor.scheduleWithFixedDelay(() -> executarSemFalhar("sincronizar", this::sincronizar),
+                intervaloSincronizacao.toMillis(), intervaloSincronizacao.toMillis(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(() -> executarSemFalhar("reconstruir", this::reconstruir),
+                intervaloReconstrucao.toMillis(), intervaloReconstrucao.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Monta um filtro novo com todos os CPFs do banco e o coloca no lugar do atual.
+     */
+    public void reconstruir() {
+        reconstrucao.record(() -> {
+            try {
+                Instant inicio = clock.instant();
+                SequenciaAlteracoes.Visibilidade visibilidade = noPrimario(() -> {
+                    // Folga para a base crescer até a próxima reconstrução sem estourar a taxa de falsos positivos
+                    emConstrucao = new FiltroBloom(Math.max(capacidadeMinima, clienteRepository.count() * 2),
+                            taxaFalsosPositivos);
+                    // Lido antes dos CPFs: tudo abaixo do limite já está confirmado e aparece na leitura
+                    SequenciaAlteracoes.Visibilidade lida = sequenciaAlteracoes.visibilidade();
+                    try (Stream<String> cpfs = clienteRepository.streamCpfs()) {
+                        cpfs.forEach(emConstrucao::adicionar);
+                    }
+                    return lida;
+                });
+                Estado novo = new Estado(emConstrucao, visibilidade.limite());
+                novo.avancar(inicio, visibilidade.reservado());
+                // Gravações confirmadas enquanto o banco era percorrido
+                sincronizarEm(novo);
+                atual = novo;
+            } finally {
+                emConstrucao = null;
+            }
+        });
+        log.info("Filtro de CPFs reconstruído: {} bytes, {} funções de hash",
+                atual.filtro.bytes(), atual.filtro.funcoesHash());
+    }
+
+    /**
+     * Acrescenta ao filtro os CPFs gravados desde a última sincronização, inclusive por outras instâncias.
+     */
+    public void sincronizar() {
+        Estado estado = atual;
+        if (estado != null) {
+            sincronizarEm(estado);
+        }
+    }
+
+    private void sincronizarEm(Estado estado) {
+        Instant inicio = clock.instant();
+        SequenciaAlteracoes.Visibilidade visibilidade = noPrimario(sequenciaAlteracoes::visibilidade);
+        long limite = visibilidade.limite();
+        long desde = estado.cursor - 1;
+        List<Cliente> alterados;
+        do {
+            long inicioLote = desde;
+            alterados = noPrimario(() ->
+                    clienteRepository.buscarAlteradosDesde(inicioLote, limite, Limit.of(TAMANHO_LOTE_SINCRONIZACAO)));
+            for (Cliente cliente : alterados) {
+                estado.filtro.adicionar(cliente.getCpf());
+                desde = cliente.getSequenciaAlteracao();
+            }
+        } while (alterados.size() == TAMANHO_LOTE_SINCRONIZACAO);
+        // Um limite incerto (zero) não desfaz o que já foi lido
+        estado.cursor = Math.max(estado.cursor, limite);
+        estado.avancar(inicio, visibilidade.reservado());
+    }
+
+    // O limite e as linhas precisam vir do mesmo banco; numa réplica atrasada o limite não valeria
+    private <T> T noPrimario(Supplier<T> leitura) {
+        return LeituraPropria.noPrimario(() -> transactionTemplate.execute(status -> leitura.get()));
+    }
+
+    boolean construido() {
+        return atual != null;
+    }
+
+    private double medir(ToDoubleFunction<FiltroBloom> medida) {
+        Estado estado = atual;
+        return estado == null ? 0 : medida.applyAsDouble(estado.filtro);
+    }
+
+    private void executarSemFalhar(String etapa, Runnable tarefa) {
+        // Uma exceção cancelaria as execuções seguintes do agendamento
+        try {
+            tarefa.run();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao {} o filtro de CPFs; o filtro atual continua em uso", etapa, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Um filtro e o quanto ele está em dia. Só a thread do filtro altera o cursor e os marcos.
+     */
+    private static final class Estado {
+
+        private final FiltroBloom filtro;
+        // Todo CPF com número de alteração abaixo do cursor está no filtro
+        private long cursor;
+        private final Deque<Marco> marcos = new ArrayDeque<>();
+        // Todo CPF confirmado até este instante está no filtro; nulo enquanto não se sabe
+        private volatile Instant emDiaAte;
+
+        private Estado(FiltroBloom filtro, long cursor) {
+            this.filtro = filtro;
+            this.cursor = cursor;
+        }
+
+        // Em dia até o instante mais recente em que tudo o que fora reservado já está abaixo do cursor
+        private void avancar(Instant instante, long reservado) {
+            marcos.addLast(new Marco(instante, reservado));
+            if (marcos.size() > MAXIMO_MARCOS) {
+                marcos.removeFirst();
+            }
+            while (!marcos.isEmpty() && marcos.getFirst().reservado() <= cursor) {
+                emDiaAte = marcos.removeFirst().instante();
+            }
+        }
+    }
+
+    private record Marco(Instant instante, long reservado) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.toystore.customer.infrastructure.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toystore.customer.application.dto.EventoAlteracaoDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Acrescenta os eventos a um arquivo NDJSON, um por linha. O lote só é dado como entregue depois de
+ * gravado no disco.
+ */
+public class DestinoArquivo implements DestinoEventos {
+
+    private final Path arquivo;
+    private final ObjectMapper objectMapper;
+
+    public DestinoArquivo(Path arquivo, ObjectMapper objectMapper) {
+        this.arquivo = arquivo;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publicar(List<EventoAlteracaoDTO> eventos) throws IOException {
+        ByteArrayOutputStream linhas = new ByteArrayOutputStream();
+        for (EventoAlteracaoDTO evento : eventos) {
+            objectMapper.writeValue(linhas, evento);
+            linhas.write('\n');
+        }
+        try (FileChannel canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(linhas.toByteArray());
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+        }
+    }
+}
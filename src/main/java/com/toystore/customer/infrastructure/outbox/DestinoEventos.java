@@ -0,0 +1,15 @@
+package com.toystore.customer.infrastructure.outbox;
+
+import com.toystore.customer.application.dto.EventoAlteracaoDTO;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Para onde o relay entrega os eventos do outbox. Uma exceção mantém o lote inteiro no outbox para a
+ * próxima tentativa, então a entrega é pelo menos uma vez.
+ */
+public interface DestinoEventos {
+
+    void publicar(List<EventoAlteracaoDTO> eventos) throws IOException;
+}
@@ -0,0 +1,27 @@
+package com.toystore.customer.infrastructure.outbox;
+
+import com.toystore.customer.application.dto.EventoAlteracaoDTO;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Guarda os eventos em memória, para testes e ambientes locais.
+ */
+public class DestinoMemoria implements DestinoEventos {
+
+    private final List<EventoAlteracaoDTO> eventos = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publicar(List<EventoAlteracaoDTO> lote) {
+        eventos.addAll(lote);
+    }
+
+    public List<EventoAlteracaoDTO> eventos() {
+        return List.copyOf(eventos);
+    }
+
+    public void limpar() {
+        eventos.clear();
+    }
+}
@@ -0,0 +1,51 @@
+package com.toystore.customer.infrastructure.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toystore.customer.application.dto.EventoAlteracaoDTO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Envia cada lote como um array JSON num POST. Qualquer resposta fora da faixa 2xx conta como falha.
+ */
+public class DestinoWebhook implements DestinoEventos {
+
+    private final HttpClient httpClient;
+    private final URI url;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+
+    public DestinoWebhook(HttpClient httpClient, URI url, Duration timeout, ObjectMapper objectMapper) {
+        this.httpClient = httpClient;
+        this.url = url;
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publicar(List<EventoAlteracaoDTO> eventos) throws IOException {
+        HttpRequest requisicao = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(eventos)))
+                .build();
+        HttpResponse<Void> resposta;
+        try {
+            resposta = httpClient.send(requisicao, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Envio ao webhook interrompido", e);
+        }
+        if (resposta.statusCode() / 100 != 2) {
+            throw new IOException("Webhook " + url + " respondeu " + resposta.statusCode());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.toystore.customer.infrastructure.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toystore.customer.domain.eventos.AlteracaoRegistradaEvento;
+import com.toystore.customer.domain.model.EventoOutbox;
+import com.toystore.customer.domain.repository.EventoOutboxRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Grava cada alteração no outbox. Roda na thread e na transação de quem publicou o evento: se a alteração
+ * sofrer rollback, o evento some com ela. Publicar fora de uma transação é erro de programação.
+ */
+public class GravadorOutbox {
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public GravadorOutbox(EventoOutboxRepository eventoOutboxRepository, ObjectMapper objectMapper) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aoRegistrarAlteracao(AlteracaoRegistradaEvento evento) throws JsonProcessingException {
+        Instant agora = Instant.now();
+        eventoOutboxRepository.save(EventoOutbox.builder()
+                .agregado(evento.agregado())
+                .chave(evento.chave())
+                .tipo(evento.tipo())
+                .dados(evento.dados() == null ? null : objectMapper.writeValueAsString(evento.dados()))
+                .criadoEm(agora)
+                .disponivelEm(agora)
+                .build());
+    }
+}
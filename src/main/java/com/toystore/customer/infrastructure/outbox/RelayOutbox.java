@@ -0,0 +1,159 @@
+package com.toystore.customer.infrastructure.outbox;
+
+import com.toystore.customer.application.dto.EventoAlteracaoDTO;
+import com.toystore.customer.domain.model.EventoOutbox;
+import com.toystore.customer.domain.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Drena o outbox em lotes e entrega cada lote ao destino configurado. O lote é lido com
+ * {@code FOR UPDATE SKIP LOCKED} e reservado por {@code reserva} numa transação curta; a entrega acontece fora
+ * dela, sem travas nem conexão presas, e só então os eventos saem da tabela. Se a instância cai no meio da
+ * entrega, o lote volta a ser lido quando a reserva vence. Em caso de falha cada evento espera
+ * {@code esperaInicial}, dobrando a cada nova falha até {@code esperaMaxima}; depois de {@code tentativas}
+ * falhas o evento é abandonado e fica na tabela, fora da entrega.
+ */
+@Slf4j
+public class RelayOutbox {
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final DestinoEventos destino;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+    private final Duration reserva;
+    private final int tentativas;
+    private final Duration esperaInicial;
+    private final Duration esperaMaxima;
+
+    private final Timer atraso;
+    private final Counter publicados;
+    private final Counter falhas;
+
+    public RelayOutbox(EventoOutboxRepository eventoOutboxRepository, DestinoEventos destino,
+                       TransactionTemplate transactionTemplate, MeterRegistry meterRegistry, int tamanhoLote,
+                       Duration reserva, int tentativas, Duration esperaInicial, Duration esperaMaxima) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.destino = destino;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanhoLote = tamanhoLote;
+        this.reserva = reserva;
+        this.tentativas = tentativas;
+        this.esperaInicial = esperaInicial;
+        this.esperaMaxima = esperaMaxima;
+        this.atraso = Timer.builder("toystore.outbox.atraso")
+                .description("Tempo entre a gravação do evento no outbox e a sua entrega")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.publicados = Counter.builder("toystore.outbox.publicados")
+                .description("Eventos entregues ao destino")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("toystore.outbox.falhas")
+                .description("Lotes cuja entrega falhou")
+                .register(meterRegistry);
+        Gauge.builder("toystore.outbox.pendentes", eventoOutboxRepository, EventoOutboxRepository::contarPendentes)
+                .description("Eventos aguardando entrega")
+                .register(meterRegistry);
+        Gauge.builder("toystore.outbox.abandonados", eventoOutboxRepository,
+                        EventoOutboxRepository::contarAbandonados)
+                .description("Eventos que esgotaram as tentativas e não serão mais entregues")
+                .register(meterRegistry);
+        Gauge.builder("toystore.outbox.idade_mais_antigo", eventoOutboxRepository, RelayOutbox::idadeMaisAntigo)
+                .description("Segundos desde a gravação do evento pendente mais antigo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${toystore.outbox.relay.intervalo:1s}")
+    public void executar() {
+        // Lotes cheios indicam que há mais eventos esperando; segue drenando sem aguardar o próximo ciclo
+        while (drenar() == tamanhoLote) {
+            log.debug("Outbox com eventos acumulados, drenando o próximo lote");
+        }
+    }
+
+    /**
+     * Entrega um lote. Retorna quantos eventos foram entregues, zero se não havia eventos ou se a entrega falhou.
+     */
+    public int drenar() {
+        List<EventoOutbox> eventos = reservarLote();
+        if (eventos.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = ids(eventos);
+        try {
+            destino.publicar(eventos.stream().map(RelayOutbox::toDto).toList());
+        } catch (Exception e) {
+            registrarFalha(eventos, e);
+            return 0;
+        }
+        eventoOutboxRepository.deleteAllByIdInBatch(ids);
+        Instant agora = Instant.now();
+        eventos.forEach(evento -> atraso.record(Duration.between(evento.getCriadoEm(), agora)));
+        publicados.increment(eventos.size());
+        return eventos.size();
+    }
+
+    private List<EventoOutbox> reservarLote() {
+        return Objects.requireNonNull(transactionTemplate.execute(status -> {
+            Instant agora = Instant.now();
+            List<EventoOutbox> eventos = eventoOutboxRepository.travarPendentes(agora, tamanhoLote);
+            if (!eventos.isEmpty()) {
+                eventoOutboxRepository.reservar(ids(eventos), agora.plus(reserva));
+            }
+            return eventos;
+        }));
+    }
+
+    private void registrarFalha(List<EventoOutbox> eventos, Exception erro) {
+        falhas.increment();
+        Instant agora = Instant.now();
+        Map<Boolean, List<EventoOutbox>> esgotados = eventos.stream()
+                .collect(Collectors.partitioningBy(evento -> evento.getTentativas() + 1 >= tentativas));
+        transactionTemplate.executeWithoutResult(status -> {
+            // Eventos com o mesmo número de falhas voltam juntos, depois da mesma espera
+            esgotados.get(false).stream()
+                    .collect(Collectors.groupingBy(EventoOutbox::getTentativas,
+                            Collectors.mapping(EventoOutbox::getId, Collectors.toList())))
+                    .forEach((anteriores, ids) ->
+                            eventoOutboxRepository.registrarFalha(ids, agora.plus(espera(anteriores + 1))));
+            if (!esgotados.get(true).isEmpty()) {
+                eventoOutboxRepository.abandonar(ids(esgotados.get(true)), agora);
+            }
+        });
+        log.warn("Falha ao entregar {} eventos do outbox; {} abandonados depois de {} tentativas",
+                eventos.size(), esgotados.get(true).size(), tentativas, erro);
+    }
+
+    private Duration espera(int falhas) {
+        Duration espera = esperaInicial.multipliedBy(1L << Math.min(falhas - 1, 30));
+        return espera.compareTo(esperaMaxima) > 0 ? esperaMaxima : espera;
+    }
+
+    private static List<Long> ids(List<EventoOutbox> eventos) {
+        return eventos.stream().map(EventoOutbox::getId).toList();
+    }
+
+    private static EventoAlteracaoDTO toDto(EventoOutbox evento) {
+        return new EventoAlteracaoDTO(evento.getId(), evento.getAgregado(), evento.getChave(),
+                evento.getTipo().name(), evento.getDados(), evento.getCriadoEm());
+    }
+
+    private static double idadeMaisAntigo(EventoOutboxRepository repository) {
+        return repository.buscarCriacaoMaisAntiga()
+                .map(criacao -> Duration.between(criacao, Instant.now()).toMillis() / 1000.0)
+                .orElse(0.0);
+    }
+}
@@ -0,0 +1,77 @@
+package com.toystore.customer.infrastructure.persistence;
+
+import com.toystore.customer.domain.model.Cpf;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+
+/**
+ * Grava o CPF, que no modelo é o texto de 11 dígitos, como {@code BIGINT}. Vale também para o {@code @Id}
+ * (onde um {@code AttributeConverter} não pode ser usado) e para os parâmetros JPQL comparados com o CPF,
+ * então repositórios e serviços continuam trabalhando com {@code String}.
+ */
+public class CpfType implements UserType<String> {
+
+    @Override
+    public int getSqlType() {
+        return Types.BIGINT;
+    }
+
+    @Override
+    public Class<String> returnedClass() {
+        return String.class;
+    }
+
+    @Override
+    public boolean equals(String x, String y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(String x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public String nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session, Object owner)
+            throws SQLException {
+        long numero = rs.getLong(position);
+        return rs.wasNull() ? null : Cpf.formatar(numero);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, String value, int index, SharedSessionContractImplementor session)
+            throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.BIGINT);
+        } else {
+            st.setLong(index, Cpf.numero(value));
+        }
+    }
+
+    @Override
+    public String deepCopy(String value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(String value) {
+        return value;
+    }
+
+    @Override
+    public String assemble(Serializable cached, Object owner) {
+        return (String) cached;
+    }
+}
@@ -0,0 +1,67 @@
+package com.toystore.customer.infrastructure.persistence;
+
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * Leitura das próprias escritas com réplicas: depois que uma requisição confirma uma transação de
+ * escrita, as leituras seguintes da mesma requisição vão ao primário, que já tem a alteração, e não a uma
+ * réplica que talvez ainda não a tenha recebido. Entre requisições, quem marca é o
+ * {@link com.toystore.customer.infrastructure.web.LeituraPropriaFilter}. A marca fica nos atributos da
+ * requisição, que só a thread dela enxerga; quem lê em nome da requisição em outra thread captura
+ * {@link #exigida()} na thread da requisição e lê dentro de {@link #noPrimario(Supplier)}.
+ */
+public class LeituraPropria implements TransactionExecutionListener {
+
+    static final String ATRIBUTO = LeituraPropria.class.getName() + ".primario";
+
+    private static final ThreadLocal<Boolean> NO_PRIMARIO = new ThreadLocal<>();
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && !transaction.isReadOnly()) {
+            marcar();
+        }
+    }
+
+    /**
+     * Manda as próximas leituras da requisição corrente ao primário. Fora de uma requisição não faz nada.
+     */
+    public static void marcar() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos != null) {
+            atributos.setAttribute(ATRIBUTO, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Se as leituras da thread corrente devem ir ao primário: a requisição dela escreveu, ou a leitura roda
+     * dentro de {@link #noPrimario(Supplier)}.
+     */
+    public static boolean exigida() {
+        if (NO_PRIMARIO.get() != null) {
+            return true;
+        }
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        return atributos != null && atributos.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    /**
+     * Executa {@code leitura} com as transações somente leitura da thread corrente indo ao primário.
+     */
+    public static <T> T noPrimario(Supplier<T> leitura) {
+        if (NO_PRIMARIO.get() != null) {
+            return leitura.get();
+        }
+        NO_PRIMARIO.set(Boolean.TRUE);
+        try {
+            return leitura.get();
+        } finally {
+            NO_PRIMARIO.remove();
+        }
+    }
+}
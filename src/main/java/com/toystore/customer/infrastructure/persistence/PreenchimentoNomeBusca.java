@@ -0,0 +1,49 @@
+package com.toystore.customer.infrastructure.persistence;
+
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Preenche o nome normalizado dos clientes gravados sem ele, como os de bancos migrados com
+ * {@code db/migracao/003_pesquisa.sql}. A normalização é a mesma do cadastro ({@link Cliente#normalizarNome}),
+ * para que a pesquisa por prefixo encontre esses clientes do mesmo jeito que os novos.
+ */
+@Slf4j
+public class PreenchimentoNomeBusca {
+
+    static final int TAMANHO_LOTE = 500;
+
+    private final ClienteRepository clienteRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public PreenchimentoNomeBusca(ClienteRepository clienteRepository, TransactionTemplate transactionTemplate) {
+        this.clienteRepository = clienteRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public int preencher() {
+        int preenchidos = 0;
+        int noLote;
+        do {
+            noLote = transactionTemplate.execute(status -> preencherLote());
+            preenchidos += noLote;
+        } while (noLote == TAMANHO_LOTE);
+        if (preenchidos > 0) {
+            log.info("Nome de pesquisa preenchido para {} clientes", preenchidos);
+        }
+        return preenchidos;
+    }
+
+    private int preencherLote() {
+        List<ClienteDTO> pendentes = clienteRepository.buscarSemNomeBusca(Limit.of(TAMANHO_LOTE));
+        pendentes.forEach(cliente ->
+                clienteRepository.atualizarNomeBusca(cliente.cpf(), Cliente.normalizarNome(cliente.nome())));
+        return pendentes.size();
+    }
+}
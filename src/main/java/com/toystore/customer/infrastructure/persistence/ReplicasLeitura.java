@@ -0,0 +1,162 @@
+package com.toystore.customer.infrastructure.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conexões das transações somente leitura. Reveza entre as réplicas e, quando uma réplica recusa a
+ * conexão, a deixa de quarentena pelo tempo configurado e tenta a seguinte. A cada
+ * {@link #iniciarVerificacaoAtraso(Duration) verificação} o atraso de cada réplica é medido com
+ * {@code consultaAtraso}, que devolve os segundos de atraso; a réplica acima de {@code atrasoMaximo} sai do
+ * revezamento até alcançar o primário. Sem réplica disponível, ou quando a requisição acabou de escrever
+ * ({@link LeituraPropria}), a leitura vai ao primário.
+ */
+@Slf4j
+public class ReplicasLeitura extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primario;
+    private final List<Replica> replicas;
+    private final Duration quarentena;
+    private final Duration atrasoMaximo;
+    private final String consultaAtraso;
+    private final Clock clock;
+    private final AtomicInteger proxima = new AtomicInteger();
+    private ScheduledExecutorService verificacao;
+
+    public ReplicasLeitura(DataSource primario, List<? extends DataSource> replicas, Duration quarentena,
+                           Duration atrasoMaximo, String consultaAtraso) {
+        this(primario, replicas, quarentena, atrasoMaximo, consultaAtraso, Clock.systemUTC());
+    }
+
+    ReplicasLeitura(DataSource primario, List<? extends DataSource> replicas, Duration quarentena,
+                    Duration atrasoMaximo, String consultaAtraso, Clock clock) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos uma réplica");
+        }
+        this.primario = primario;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.quarentena = quarentena;
+        this.atrasoMaximo = atrasoMaximo;
+        this.consultaAtraso = consultaAtraso;
+        this.clock = clock;
+    }
+
+    /**
+     * Mede o atraso das réplicas a cada {@code intervalo}, numa thread própria.
+     */
+    public synchronized void iniciarVerificacaoAtraso(Duration intervalo) {
+        if (verificacao != null) {
+            return;
+        }
+        verificacao = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("replicas-atraso")
+                .daemon(true)
+                .factory());
+        verificacao.scheduleWithFixedDelay(this::verificarAtraso, 0, intervalo.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Mede o atraso de cada réplica e tira do revezamento as que passaram de {@code atrasoMaximo}. A réplica que
+     * não responde fica de quarentena, como quando recusa a conexão de uma leitura.
+     */
+    public void verificarAtraso() {
+        for (int indice = 0; indice < replicas.size(); indice++) {
+            Replica replica = replicas.get(indice);
+            boolean atrasada;
+            try (Connection conexao = replica.dataSource.getConnection();
+                 Statement statement = conexao.createStatement();
+                 ResultSet resultado = statement.executeQuery(consultaAtraso)) {
+                Duration atraso = resultado.next()
+                        ? Duration.ofMillis(Math.round(resultado.getDouble(1) * 1000))
+                        : Duration.ZERO;
+                atrasada = atraso.compareTo(atrasoMaximo) > 0;
+                if (atrasada != replica.atrasada) {
+                    log.warn(atrasada ? "Réplica {} atrasada em {}; fora do revezamento"
+                            : "Réplica {} alcançou o primário (atraso de {}); de volta ao revezamento", indice, atraso);
+                }
+            } catch (SQLException e) {
+                replica.quarentenaAte = clock.instant().plus(quarentena);
+                log.warn("Réplica {} não respondeu à medição de atraso; fora do revezamento por {}",
+                        indice, quarentena, e);
+                continue;
+            }
+            replica.atrasada = atrasada;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (LeituraPropria.exigida()) {
+            return primario.getConnection();
+        }
+        Instant agora = clock.instant();
+        int inicio = Math.floorMod(proxima.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int indice = (inicio + i) % replicas.size();
+            Replica replica = replicas.get(indice);
+            if (!replica.disponivel(agora)) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.quarentenaAte = agora.plus(quarentena);
+                log.warn("Réplica {} indisponível; fora do revezamento por {}", indice, quarentena, e);
+            }
+        }
+        return primario.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("As réplicas usam as credenciais do próprio pool");
+    }
+
+    int replicasDisponiveis() {
+        Instant agora = clock.instant();
+        return (int) replicas.stream().filter(replica -> replica.disponivel(agora)).count();
+    }
+
+    @Override
+    public void close() throws Exception {
+        synchronized (this) {
+            if (verificacao != null) {
+                verificacao.shutdownNow();
+            }
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private volatile Instant quarentenaAte = Instant.MIN;
+        private volatile boolean atrasada;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private boolean disponivel(Instant agora) {
+            return !atrasada && !agora.isBefore(quarentenaAte);
+        }
+    }
+}
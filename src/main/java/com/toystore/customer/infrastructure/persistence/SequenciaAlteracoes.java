@@ -0,0 +1,223 @@
+package com.toystore.customer.infrastructure.persistence;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Números de alteração de clientes e endereços, usados como cursor do feed de alterações. Cada transação
+ * reserva um bloco da sequência {@code alteracao_seq} (um único {@code nextval}) e numera as próprias
+ * alterações dentro dele, então uma importação de mil registros custa um comando a mais, e não mil.
+ * <p>
+ * Os blocos seguem a ordem de reserva, não a de commit: uma transação longa pode confirmar um número menor que
+ * o de outra já confirmada. Por isso o feed só lê abaixo de {@link #limiteVisivel()}. No PostgreSQL cada
+ * transação marca a reserva e trava o próprio bloco com travas consultivas de transação (advisory locks), que
+ * as outras instâncias enxergam em {@code pg_locks} e que o banco solta no commit, no rollback ou na queda da
+ * conexão. Nos demais bancos, usados embutidos e com uma única instância, as reservas ficam em memória.
+ */
+@Component
+public class SequenciaAlteracoes {
+
+    public static final String NOME_SEQUENCIA = "alteracao_seq";
+
+    // Igual ao INCREMENT BY da sequência e ao tamanho do lote de importação
+    public static final int TAMANHO_BLOCO = 1000;
+
+    // Classes das travas consultivas; só precisam não colidir com outros usos de travas consultivas no banco
+    static final int TRAVA_RESERVA = 70_101;
+    static final int TRAVA_BLOCO = 70_102;
+
+    // Subconsultas aninhadas fixam a ordem: marca a reserva, reserva o bloco e só então trava o bloco
+    private static final String RESERVAR_BLOCO_POSTGRES = """
+            select inicio, marcada, pg_try_advisory_xact_lock(%d, (inicio / %d)::int)
+            from (select nextval('%s') as inicio, marcada
+                  from (select pg_try_advisory_xact_lock_shared(%d, 0) as marcada offset 0) reserva
+                  offset 0) bloco""".formatted(TRAVA_BLOCO, TAMANHO_BLOCO, NOME_SEQUENCIA, TRAVA_RESERVA);
+
+    private static final String ULTIMA_RESERVA_POSTGRES = "select last_value, is_called from " + NOME_SEQUENCIA;
+
+    // Por sessão: se marcou a reserva e a chave do primeiro bloco travado, nula enquanto ainda não travou
+    private static final String RESERVAS_EM_ANDAMENTO_POSTGRES = """
+            select pid, bool_or(classid = %d), min(objid::bigint) filter (where classid = %d)
+            from pg_locks
+            where locktype = 'advisory' and objsubid = 2 and granted and classid in (%d, %d)
+              and database = (select oid from pg_database where datname = current_database())
+            group by pid""".formatted(TRAVA_RESERVA, TRAVA_BLOCO, TRAVA_RESERVA, TRAVA_BLOCO);
+
+    // Releituras das travas enquanto uma sessão está entre o nextval e a trava do bloco, o que dura um comando
+    static final int RELEITURAS_RESERVA = 5;
+
+    private final EntityManager entityManager;
+    private final boolean postgres;
+    private final String comandoProximoBloco;
+
+    // Fora do PostgreSQL: primeiro bloco de cada transação em andamento e início do próximo bloco a reservar
+    private final NavigableSet<Long> reservasEmAndamento = new TreeSet<>();
+    private long proximaReserva = -1;
+
+    public SequenciaAlteracoes(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        Dialect dialect = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+        this.postgres = dialect instanceof PostgreSQLDialect;
+        this.comandoProximoBloco = postgres
+                ? RESERVAR_BLOCO_POSTGRES
+                : dialect.getSequenceSupport().getSequenceNextValString(NOME_SEQUENCIA);
+    }
+
+    /**
+     * Próximo número de alteração da transação corrente. Só faz sentido dentro da transação que grava a
+     * alteração: o número precisa ser descartado junto com ela em caso de rollback.
+     */
+    public long proxima() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Números de alteração só podem ser reservados dentro de uma transação");
+        }
+        Bloco bloco = (Bloco) TransactionSynchronizationManager.getResource(this);
+        if (bloco == null) {
+            Bloco novo = new Bloco();
+            TransactionSynchronizationManager.bindResource(this, novo);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(SequenciaAlteracoes.this);
+                    liberar(novo);
+                }
+            });
+            bloco = novo;
+        }
+        if (bloco.restantes == 0) {
+            bloco.proximo = reservarBloco(bloco);
+            bloco.restantes = TAMANHO_BLOCO;
+        }
+        bloco.restantes--;
+        return bloco.proximo++;
+    }
+
+    /**
+     * Limite, exclusivo, dos números de alteração já decididos: toda transação com número menor já terminou e
+     * nenhuma reserva futura terá número menor. Lido antes das alterações, garante que quem avança o cursor até
+     * o último número lido não deixa para trás uma transação que ainda vai confirmar.
+     */
+    public long limiteVisivel() {
+        return visibilidade().limite();
+    }
+
+    /**
+     * {@link #limiteVisivel()} junto com o limite, exclusivo, de tudo o que já foi reservado no momento da
+     * leitura. Quando os dois coincidem, nenhuma transação iniciada antes da leitura ficou acima do limite.
+     */
+    public Visibilidade visibilidade() {
+        if (postgres) {
+            return visibilidadePostgres();
+        }
+        synchronized (reservasEmAndamento) {
+            if (proximaReserva < 0) {
+                // Nenhuma reserva desde a partida: um bloco descartado marca onde as próximas vão começar
+                proximaReserva = ((Number) nativa(comandoProximoBloco).getSingleResult()).longValue();
+            }
+            return new Visibilidade(reservasEmAndamento.isEmpty() ? proximaReserva : reservasEmAndamento.first(),
+                    proximaReserva);
+        }
+    }
+
+    private Visibilidade visibilidadePostgres() {
+        // A sequência é lida antes das travas: o que for reservado depois fica acima deste limite
+        Object[] sequencia = (Object[]) nativa(ULTIMA_RESERVA_POSTGRES).getSingleResult();
+        long ultima = ((Number) sequencia[0]).longValue();
+        long reservado = Boolean.TRUE.equals(sequencia[1]) ? ultima + TAMANHO_BLOCO : ultima;
+        long limite = reservado;
+        // Sessões que marcaram a reserva sem ainda travar o bloco; só as vistas na primeira leitura podem ter
+        // reservado abaixo do limite, as que marcarem depois já leem a sequência adiante dele
+        Set<Integer> incertas = null;
+        for (int leitura = 0; leitura <= RELEITURAS_RESERVA; leitura++) {
+            Set<Integer> aindaIncertas = new HashSet<>();
+            for (Object trava : nativa(RESERVAS_EM_ANDAMENTO_POSTGRES).getResultList()) {
+                Object[] colunas = (Object[]) trava;
+                int pid = ((Number) colunas[0]).intValue();
+                if (incertas != null && !incertas.contains(pid)) {
+                    continue;
+                }
+                if (colunas[2] != null) {
+                    limite = Math.min(limite, inicioDoBloco(((Number) colunas[2]).longValue(), ultima));
+                } else if (Boolean.TRUE.equals(colunas[1])) {
+                    aindaIncertas.add(pid);
+                }
+            }
+            if (aindaIncertas.isEmpty()) {
+                return new Visibilidade(limite, reservado);
+            }
+            incertas = aindaIncertas;
+        }
+        // O bloco de quem ainda está reservando não é conhecido; nada é liberado agora
+        return new Visibilidade(0, reservado);
+    }
+
+    /**
+     * Primeiro número do bloco cuja trava tem a {@code chave} ({@code inicio / TAMANHO_BLOCO}). Com o
+     * {@code INCREMENT BY} igual ao bloco, todo valor da sequência deixa o mesmo resto que {@code valorSequencia}.
+     */
+    static long inicioDoBloco(long chave, long valorSequencia) {
+        return chave * TAMANHO_BLOCO + Math.floorMod(valorSequencia, TAMANHO_BLOCO);
+    }
+
+    private long reservarBloco(Bloco bloco) {
+        if (postgres) {
+            Object[] reserva = (Object[]) nativa(comandoProximoBloco).getSingleResult();
+            if (!Boolean.TRUE.equals(reserva[1]) || !Boolean.TRUE.equals(reserva[2])) {
+                throw new IllegalStateException("Bloco de alterações reservado sem as travas da reserva");
+            }
+            return ((Number) reserva[0]).longValue();
+        }
+        synchronized (reservasEmAndamento) {
+            long inicio = ((Number) nativa(comandoProximoBloco).getSingleResult()).longValue();
+            if (bloco.primeiro < 0) {
+                bloco.primeiro = inicio;
+                reservasEmAndamento.add(inicio);
+            }
+            proximaReserva = Math.max(proximaReserva, inicio + TAMANHO_BLOCO);
+            return inicio;
+        }
+    }
+
+    private void liberar(Bloco bloco) {
+        // No PostgreSQL as travas saem com a transação
+        if (!postgres && bloco.primeiro >= 0) {
+            synchronized (reservasEmAndamento) {
+                reservasEmAndamento.remove(bloco.primeiro);
+            }
+        }
+    }
+
+    private Query nativa(String comando) {
+        // O espaço declarado evita que o Hibernate descarregue a sessão inteira antes do comando
+        return entityManager.createNativeQuery(comando)
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, NOME_SEQUENCIA);
+    }
+
+    /**
+     * @param limite    números abaixo dele já foram confirmados ou descartados
+     * @param reservado números reservados até a leitura estão abaixo dele
+     */
+    public record Visibilidade(long limite, long reservado) {
+    }
+
+    private static final class Bloco {
+        private long proximo;
+        private int restantes;
+        private long primeiro = -1;
+    }
+}
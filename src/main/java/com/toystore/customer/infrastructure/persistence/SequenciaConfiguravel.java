@@ -0,0 +1,30 @@
+package com.toystore.customer.infrastructure.persistence;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id gerado pelo {@link SequenciaConfiguravelGenerator} a partir da sequência {@link #value()}. Substitui o
+ * {@code @GeneratedValue} no atributo do id.
+ */
+@Documented
+@IdGeneratorType(SequenciaConfiguravelGenerator.class)
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SequenciaConfiguravel {
+
+    /**
+     * Nome da sequência no banco.
+     */
+    String value();
+
+    /**
+     * Tamanho de alocação fixo da entidade; zero usa {@code toystore.id.tamanho-alocacao}.
+     */
+    int tamanhoAlocacao() default 0;
+}
@@ -0,0 +1,44 @@
+package com.toystore.customer.infrastructure.persistence;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+/**
+ * Gerador de ids por sequência, declarado com {@link SequenciaConfiguravel}, cujo tamanho de alocação pode vir
+ * da configuração ({@code spring.jpa.properties.toystore.id.tamanho-alocacao}) em vez de ficar fixo na entidade.
+ * O {@link SequenciaConfiguravel#tamanhoAlocacao()} declarado na entidade tem precedência; a configuração vale
+ * apenas para as entidades que não o declaram. O incremento da sequência no banco deve ser igual ao tamanho de
+ * alocação.
+ */
+public class SequenciaConfiguravelGenerator extends SequenceStyleGenerator {
+
+    public static final String PROPRIEDADE_TAMANHO_ALOCACAO = "toystore.id.tamanho-alocacao";
+
+    private final SequenciaConfiguravel sequencia;
+
+    public SequenciaConfiguravelGenerator(SequenciaConfiguravel sequencia, Member id,
+                                          CustomIdGeneratorCreationContext creationContext) {
+        this.sequencia = sequencia;
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        parameters.setProperty(SEQUENCE_PARAM, sequencia.value());
+        Object tamanhoAlocacao = sequencia.tamanhoAlocacao() > 0
+                ? sequencia.tamanhoAlocacao()
+                : serviceRegistry.requireService(ConfigurationService.class)
+                        .getSettings()
+                        .get(PROPRIEDADE_TAMANHO_ALOCACAO);
+        if (tamanhoAlocacao != null) {
+            parameters.setProperty(INCREMENT_PARAM, tamanhoAlocacao.toString());
+        }
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -0,0 +1,59 @@
+package com.toystore.customer.infrastructure.persistence;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Distingue, entre as violações de integridade, as de chave primária ou índice único. O Spring traduz tanto
+ * essas quanto as de chave estrangeira, {@code NOT NULL} ou tamanho de coluna para
+ * {@link DataIntegrityViolationException}; só as de unicidade têm o SQLState {@code 23505}, igual no PostgreSQL
+ * e no H2. Quando a mesma operação pode violar mais de uma restrição, {@link #violouUnicidade(
+ * DataIntegrityViolationException, String)} confere também o nome dela.
+ */
+public final class ViolacoesDeUnicidade {
+
+    static final String SQL_STATE_UNICIDADE = "23505";
+
+    private ViolacoesDeUnicidade() {
+    }
+
+    public static boolean violouUnicidade(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable causa = e.getCause(); causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLException sql && SQL_STATE_UNICIDADE.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Violação de unicidade do índice ou restrição {@code restricao}. O nome vem do Hibernate quando o dialeto o
+     * extrai (no H2, em maiúsculas, com o schema e, para um índice único, com o sufixo {@code _INDEX_n}); senão,
+     * da mensagem do banco.
+     */
+    public static boolean violouUnicidade(DataIntegrityViolationException e, String restricao) {
+        if (!violouUnicidade(e)) {
+            return false;
+        }
+        String procurado = restricao.toLowerCase(Locale.ROOT);
+        for (Throwable causa = e.getCause(); causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacao && violacao.getConstraintName() != null) {
+                String nome = violacao.getConstraintName().toLowerCase(Locale.ROOT);
+                nome = nome.substring(nome.lastIndexOf('.') + 1);
+                return nome.equals(procurado) || nome.startsWith(procurado + "_index_");
+            }
+            if (causa instanceof SQLException sql && sql.getMessage() != null
+                    && sql.getMessage().toLowerCase(Locale.ROOT).contains(procurado)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
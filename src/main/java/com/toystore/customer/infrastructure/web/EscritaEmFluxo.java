@@ -0,0 +1,74 @@
+package com.toystore.customer.infrastructure.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Respostas escritas registro a registro num único {@link JsonGenerator}, à medida que a fonte os entrega.
+ * Nem a lista completa nem o corpo serializado ficam em memória; os buffers do gerador vêm do pool do
+ * {@code JsonFactory} e voltam para ele ao final.
+ */
+public final class EscritaEmFluxo {
+
+    private EscritaEmFluxo() {
+    }
+
+    /**
+     * Um array no formato do mapeador (JSON, CBOR ou Smile).
+     */
+    public static <T> StreamingResponseBody array(ObjectMapper mapper, Consumer<Consumer<T>> fonte) {
+        ObjectWriter writer = escritor(mapper);
+        return saida -> {
+            try (JsonGenerator gerador = gerador(writer, saida)) {
+                gerador.writeStartArray();
+                fonte.accept(valor -> escrever(writer, gerador, valor));
+                gerador.writeEndArray();
+            }
+        };
+    }
+
+    /**
+     * Um registro JSON por linha (NDJSON).
+     */
+    public static <T> StreamingResponseBody ndjson(ObjectMapper mapper, Consumer<Consumer<T>> fonte) {
+        ObjectWriter writer = escritor(mapper).withRootValueSeparator("");
+        return saida -> {
+            try (JsonGenerator gerador = gerador(writer, saida)) {
+                fonte.accept(valor -> {
+                    escrever(writer, gerador, valor);
+                    try {
+                        gerador.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+
+    private static ObjectWriter escritor(ObjectMapper mapper) {
+        // Sem flush por registro: o container envia os dados quando o buffer de saída enche
+        return mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private static JsonGenerator gerador(ObjectWriter writer, OutputStream saida) throws IOException {
+        // O fluxo de saída pertence ao container, que o fecha depois de enviar a resposta
+        return writer.createGenerator(saida).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private static void escrever(ObjectWriter writer, JsonGenerator gerador, Object valor) {
+        try {
+            writer.writeValue(gerador, valor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.toystore.customer.infrastructure.web;
+
+import com.toystore.customer.infrastructure.persistence.LeituraPropria;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Estende a leitura das próprias escritas às requisições seguintes do mesmo cliente. Cada requisição de
+ * escrita devolve um cookie de curta duração; enquanto ele existir, as leituras do cliente vão ao primário
+ * em vez de a uma réplica que ainda pode estar atrasada.
+ */
+public class LeituraPropriaFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "toystore-primario";
+
+    private static final Set<String> METODOS_ESCRITA = Set.of(
+            HttpMethod.POST.name(), HttpMethod.PUT.name(), HttpMethod.PATCH.name(), HttpMethod.DELETE.name());
+
+    private final Duration janela;
+
+    public LeituraPropriaFilter(Duration janela) {
+        this.janela = janela;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (WebUtils.getCookie(request, COOKIE) != null) {
+            LeituraPropria.marcar();
+        }
+        if (METODOS_ESCRITA.contains(request.getMethod())) {
+            // Antes da cadeia: depois dela a resposta pode já ter sido enviada
+            ResponseCookie cookie = ResponseCookie.from(COOKIE, "1")
+                    .path(request.getContextPath().isEmpty() ? "/" : request.getContextPath())
+                    .maxAge(janela)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,102 @@
+package com.toystore.customer.infrastructure.web;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita quantas requisições são processadas ao mesmo tempo. Com threads virtuais o Tomcat deixa de
+ * ter um teto natural de concorrência, então sem esse limite milhares de requisições disputariam as
+ * poucas conexões do pool do Hikari. Quem não consegue uma vaga dentro do tempo de espera recebe 503.
+ *
+ * <p>Respostas assíncronas, como as escritas em fluxo, seguem lendo do banco depois que a thread da requisição
+ * termina; a vaga só é devolvida quando o processamento assíncrono é concluído.
+ */
+public class LimiteConcorrenciaFilter extends OncePerRequestFilter {
+
+    private final Semaphore permissoes;
+    private final Duration espera;
+
+    public LimiteConcorrenciaFilter(int limite, Duration espera) {
+        this.permissoes = new Semaphore(limite, true);
+        this.espera = espera;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!adquirir()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servidor sobrecarregado, tente novamente");
+            return;
+        }
+        Liberacao liberacao = new Liberacao();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(liberacao);
+            } else {
+                liberacao.liberar();
+            }
+        }
+    }
+
+    int permissoesDisponiveis() {
+        return permissoes.availablePermits();
+    }
+
+    // Devolve a vaga uma única vez, qualquer que seja o fim do processamento assíncrono
+    private final class Liberacao implements AsyncListener {
+
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        void liberar() {
+            if (liberada.compareAndSet(false, true)) {
+                permissoes.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Um novo ciclo assíncrono só repassa os ouvintes que se registrarem de novo
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private boolean adquirir() {
+        try {
+            return permissoes.tryAcquire(espera.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.toystore.customer.infrastructure.web;
+
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.core.util.RecyclerPool;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import java.util.List;
+
+/**
+ * Um {@link ObjectMapper} por formato aceito na API. CBOR e Smile são cópias do mapeador JSON com outra
+ * fábrica, então seguem exatamente as mesmas anotações e configurações dos DTOs.
+ */
+public final class MapeadoresPorFormato {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    /**
+     * Pool de buffers compartilhado por todas as fábricas. O padrão do Jackson guarda os buffers por thread,
+     * o que não serve com threads virtuais: cada requisição ganha uma thread nova e alocaria buffers novos.
+     */
+    public static final RecyclerPool<BufferRecycler> POOL_DE_BUFFERS = JsonRecyclerPools.sharedConcurrentDequePool();
+
+    private static final List<MediaType> SUPORTADOS =
+            List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+    private final ObjectMapper json;
+    private final ObjectMapper cbor;
+    private final ObjectMapper smile;
+
+    private MapeadoresPorFormato(ObjectMapper json) {
+        this.json = json;
+        this.cbor = json.copyWith(CBORFactory.builder().recyclerPool(POOL_DE_BUFFERS).build());
+        this.smile = json.copyWith(SmileFactory.builder().recyclerPool(POOL_DE_BUFFERS).build());
+    }
+
+    public static MapeadoresPorFormato de(ObjectMapper json) {
+        return new MapeadoresPorFormato(json);
+    }
+
+    public ObjectMapper json() {
+        return json;
+    }
+
+    public ObjectMapper cbor() {
+        return cbor;
+    }
+
+    public ObjectMapper smile() {
+        return smile;
+    }
+
+    /**
+     * Mapeador do tipo de conteúdo informado; JSON, NDJSON e tipos desconhecidos usam o mapeador JSON.
+     */
+    public ObjectMapper para(MediaType tipo) {
+        if (tipo == null) {
+            return json;
+        }
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(tipo)) {
+            return cbor;
+        }
+        if (APPLICATION_SMILE.isCompatibleWith(tipo)) {
+            return smile;
+        }
+        return json;
+    }
+
+    /**
+     * Formato de resposta para o cabeçalho Accept, para respostas escritas fora dos conversores do Spring MVC.
+     * Cada formato suportado vale a qualidade da faixa mais específica do Accept que o inclui, então um Accept
+     * com qualquer tipo e {@code application/cbor;q=0} exclui o CBOR; vence a maior qualidade e, no empate, a
+     * faixa que aparece primeiro no Accept. Sem Accept a resposta é JSON; com Accept inválido ou sem nenhum formato
+     * aceitável, a requisição é recusada com 406, como nas respostas dos conversores.
+     */
+    public static MediaType negociar(String accept) throws HttpMediaTypeNotAcceptableException {
+        if (!StringUtils.hasText(accept)) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> aceitos;
+        try {
+            aceitos = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            throw new HttpMediaTypeNotAcceptableException("Cabeçalho Accept inválido: " + e.getMessage());
+        }
+        MediaType escolhido = null;
+        double melhorQualidade = 0;
+        int melhorPosicao = Integer.MAX_VALUE;
+        for (MediaType suportado : SUPORTADOS) {
+            int posicao = faixaMaisEspecifica(suportado, aceitos);
+            double qualidade = posicao < 0 ? 0 : aceitos.get(posicao).getQualityValue();
+            if (qualidade == 0) {
+                continue;
+            }
+            if (qualidade > melhorQualidade || (qualidade == melhorQualidade && posicao < melhorPosicao)) {
+                escolhido = suportado;
+                melhorQualidade = qualidade;
+                melhorPosicao = posicao;
+            }
+        }
+        if (escolhido == null) {
+            throw new HttpMediaTypeNotAcceptableException(SUPORTADOS);
+        }
+        return escolhido;
+    }
+
+    // Posição no Accept da faixa mais específica que inclui o formato, ou -1 se nenhuma o inclui
+    private static int faixaMaisEspecifica(MediaType suportado, List<MediaType> aceitos) {
+        int encontrada = -1;
+        for (int i = 0; i < aceitos.size(); i++) {
+            MediaType aceito = aceitos.get(i);
+            if (aceito.includes(suportado)
+                    && (encontrada < 0 || especificidade(aceito) > especificidade(aceitos.get(encontrada)))) {
+                encontrada = i;
+            }
+        }
+        return encontrada;
+    }
+
+    private static int especificidade(MediaType faixa) {
+        if (faixa.isWildcardType()) {
+            return 0;
+        }
+        return faixa.isWildcardSubtype() ? 1 : 2;
+    }
+}
@@ -1,19 +1,36 @@
 package com.toystore.customer.interfaces.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.toystore.customer.application.dto.AlteracoesDTO;
+import com.toystore.customer.application.dto.BuscaClientesDTO;
 import com.toystore.customer.application.dto.ClienteAtualizacaoDTO;
 import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.ClientePaginaDTO;
+import com.toystore.customer.application.dto.FiltroClienteDTO;
+import com.toystore.customer.application.dto.ResultadoBuscaClientesDTO;
+import com.toystore.customer.application.dto.ResultadoBuscaTextoDTO;
+import com.toystore.customer.application.dto.ResultadoImportacaoDTO;
+import com.toystore.customer.application.dto.Versionado;
 import com.toystore.customer.application.usecases.cliente.ClienteService;
+import com.toystore.customer.infrastructure.web.EscritaEmFluxo;
+import com.toystore.customer.infrastructure.web.MapeadoresPorFormato;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/v1/cliente")
@@ -21,15 +38,75 @@ import java.util.List;
 public class ClienteController {
     
     private final ClienteService clienteService;
+    private final MapeadoresPorFormato mapeadores;
 
     @GetMapping
-    @Operation(summary = "Listar todos os clientes", description = "Retorna uma lista de todos os clientes cadastrados")
-    @ApiResponse(responseCode = "200", description = "Lista de clientes retornado com sucesso",
+    @Operation(summary = "Listar clientes paginados", description = "Retorna uma página de clientes ordenados por CPF, a partir do cursor informado em 'apos'")
+    @ApiResponse(responseCode = "200", description = "Página de clientes retornada com sucesso",
             content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ClientePaginaDTO.class)))
+    @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    public ResponseEntity<ClientePaginaDTO> listarTodos(@RequestParam(required = false) String apos,
+                                                        @RequestParam(defaultValue = "50") int tamanho){
+        return ResponseEntity.ok(clienteService.buscarPagina(apos, tamanho));
+    }
+
+    @GetMapping("/pesquisa")
+    @Operation(summary = "Pesquisar clientes", description = "Filtra clientes por e-mail, início do nome e cidade, estado ou CEP do endereço, paginando por CPF a partir do cursor informado em 'apos'")
+    @ApiResponse(responseCode = "200", description = "Página de clientes que atendem aos filtros",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ClientePaginaDTO.class)))
+    @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    public ResponseEntity<ClientePaginaDTO> pesquisar(@ParameterObject FiltroClienteDTO filtro,
+                                                      @RequestParam(required = false) String apos,
+                                                      @RequestParam(defaultValue = "50") int tamanho){
+        return ResponseEntity.ok(clienteService.pesquisar(filtro, apos, tamanho));
+    }
+
+    @GetMapping("/busca-texto")
+    @Operation(summary = "Buscar clientes por texto", description = "Busca clientes por partes do nome, trechos do e-mail e dados do endereço, em ordem de relevância; a próxima página é buscada com o cursor informado em 'apos'")
+    @ApiResponse(responseCode = "200", description = "Clientes encontrados, do mais ao menos relevante",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ResultadoBuscaTextoDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Cursor inválido")
+    @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    public ResponseEntity<ResultadoBuscaTextoDTO> buscarTexto(@RequestParam String q,
+                                                              @RequestParam(required = false) String apos,
+                                                              @RequestParam(defaultValue = "20") int tamanho){
+        return ResponseEntity.ok(clienteService.buscarTexto(q, apos, tamanho));
+    }
+
+    @PostMapping("/busca-texto/reindexar")
+    @Operation(summary = "Reindexar a busca por texto", description = "Recria o índice da busca por texto a partir do banco de dados, em segundo plano")
+    @ApiResponse(responseCode = "202", description = "Reindexação iniciada")
+    @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    public ResponseEntity<Void> reindexarBuscaTexto(){
+        clienteService.reindexarBuscaTexto();
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping(value = "/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar todos os clientes", description = "Transmite todos os clientes em NDJSON, um por linha, à medida que são lidos do banco")
+    @ApiResponse(responseCode = "200", description = "Clientes transmitidos com sucesso",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
                     schema = @Schema(implementation = ClienteDTO.class)))
     @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
-    public ResponseEntity<List<ClienteDTO>> listarTodos(){
-        return ResponseEntity.ok(clienteService.buscarTodos());
+    public ResponseEntity<StreamingResponseBody> exportar(){
+        StreamingResponseBody corpo = EscritaEmFluxo.ndjson(mapeadores.json(), clienteService::exportarTodos);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
+
+    @GetMapping("/alteracoes")
+    @Operation(summary = "Buscar alterações de clientes e endereços", description = "Retorna, em ordem, os clientes e endereços criados, alterados ou removidos depois do cursor informado em 'desde'. Cada registro aparece uma vez, com o estado atual; a próxima consulta usa o cursor retornado")
+    @ApiResponse(responseCode = "200", description = "Alterações posteriores ao cursor",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = AlteracoesDTO.class)))
+    @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    public ResponseEntity<AlteracoesDTO> buscarAlteracoes(@RequestParam(defaultValue = "0") long desde,
+                                                          @RequestParam(defaultValue = "200") int tamanho){
+        return ResponseEntity.ok(clienteService.buscarAlteracoes(desde, tamanho));
     }
 
     @GetMapping("/{cpf}")
@@ -37,10 +114,20 @@ public class ClienteController {
     @ApiResponse(responseCode = "200", description = "Cliente encontrado com sucesso",
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = ClienteDTO.class)))
+    @ApiResponse(responseCode = "304", description = "Recurso não modificado desde o ETag informado em If-None-Match")
     @ApiResponse(responseCode = "404", description = "Cliente nao encontrado")
     @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
-    public ResponseEntity<ClienteDTO> buscar(@PathVariable String cpf){
-        return  ResponseEntity.ok(clienteService.buscarPorId(cpf));
+    public ResponseEntity<ClienteDTO> buscar(@PathVariable String cpf,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        if (ifNoneMatch != null) {
+            // Consulta apenas a versão; se o cliente já tem a representação atual, nada é carregado
+            Optional<Long> versao = clienteService.buscarVersao(cpf);
+            if (versao.isPresent() && ETags.corresponde(ifNoneMatch, versao.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.de(versao.get())).build();
+            }
+        }
+        Versionado<ClienteDTO> versionado = clienteService.buscarVersionadoPorId(cpf);
+        return ResponseEntity.ok().eTag(ETags.de(versionado.versao())).body(versionado.valor());
     }
 
     @PostMapping
@@ -54,6 +141,32 @@ public class ClienteController {
         return  ResponseEntity.status(HttpStatus.CREATED).body(clienteService.salvar(clienteDto));
     }
 
+    @PostMapping(value = "/lote", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, MapeadoresPorFormato.APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Importar clientes em lote", description = "Recebe um array JSON, um fluxo NDJSON ou a sequência equivalente em CBOR ou Smile de clientes e retorna o resultado de cada registro")
+    @ApiResponse(responseCode = "200", description = "Lote processado; registros rejeitados são informados no relatório",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ResultadoImportacaoDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Corpo da requisição inválido")
+    @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    public ResponseEntity<ResultadoImportacaoDTO> importar(InputStream corpo,
+                                                           @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType tipo) throws IOException {
+        try (MappingIterator<ClienteDTO> registros = mapeadores.para(tipo).readerFor(ClienteDTO.class).readValues(corpo)) {
+            return ResponseEntity.ok(clienteService.importar(registros));
+        }
+    }
+
+    @PostMapping("/busca")
+    @Operation(summary = "Buscar clientes por CPF em lote", description = "Busca vários clientes com uma única consulta e informa os CPFs não encontrados")
+    @ApiResponse(responseCode = "200", description = "Busca realizada; CPFs inexistentes são listados em naoEncontrados",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ResultadoBuscaClientesDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Requisição inválida")
+    @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    public ResponseEntity<ResultadoBuscaClientesDTO> buscarPorCpfs(@Valid @RequestBody BuscaClientesDTO buscaClientesDTO){
+        return ResponseEntity.ok(clienteService.buscarPorCpfs(buscaClientesDTO.cpfs(), buscaClientesDTO.incluirEndereco()));
+    }
+
     @PutMapping("/{cpf}")
     @Operation(summary = "Atualizar endereço", description = "Atualiza um endereço existente")
     @ApiResponse(responseCode = "201", description = "Cliente atualizado com sucesso",
@@ -61,9 +174,16 @@ public class ClienteController {
                     schema = @Schema(implementation = ClienteDTO.class)))
     @ApiResponse(responseCode = "400", description = "Requisição inválida")
     @ApiResponse(responseCode = "404", description = "Cliente não encontrado")
+    @ApiResponse(responseCode = "412", description = "O ETag informado em If-Match não corresponde à versão atual")
     @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
-    public ResponseEntity<ClienteDTO> atualizar(@PathVariable String cpf, @Valid @RequestBody ClienteAtualizacaoDTO clienteAtualizacaoDTO){
-        return ResponseEntity.ok(clienteService.atualizar(cpf, clienteAtualizacaoDTO));
+    public ResponseEntity<ClienteDTO> atualizar(@PathVariable String cpf, @Valid @RequestBody ClienteAtualizacaoDTO clienteAtualizacaoDTO,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Versionado<ClienteDTO> versionado = clienteService.atualizar(cpf, clienteAtualizacaoDTO, ETags.versaoEsperada(ifMatch));
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (versionado.versao() != null) {
+            resposta.eTag(ETags.de(versionado.versao()));
+        }
+        return resposta.body(versionado.valor());
     }
 
     @DeleteMapping("/{cpf}")
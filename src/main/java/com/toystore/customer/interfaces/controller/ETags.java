@@ -0,0 +1,53 @@
+package com.toystore.customer.interfaces.controller;
+
+/**
+ * Conversão entre a versão ({@code @Version}) das entidades e ETags fortes, no formato {@code "<versao>"}.
+ */
+final class ETags {
+
+    private static final String QUALQUER = "*";
+    private static final String PREFIXO_FRACO = "W/";
+
+    private ETags() {
+    }
+
+    static String de(long versao) {
+        return "\"" + versao + "\"";
+    }
+
+    /**
+     * Comparação fraca usada no {@code If-None-Match}: aceita a lista de ETags, {@code *} e ETags fracos.
+     */
+    static boolean corresponde(String ifNoneMatch, long versao) {
+        String etag = de(versao);
+        for (String valor : ifNoneMatch.split(",")) {
+            String candidato = valor.trim();
+            if (candidato.startsWith(PREFIXO_FRACO)) {
+                candidato = candidato.substring(PREFIXO_FRACO.length());
+            }
+            if (candidato.equals(QUALQUER) || candidato.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versão esperada a partir do {@code If-Match}. Ausente ou {@code *} não restringe a versão;
+     * ETags fracos ou malformados nunca correspondem a uma versão, resultando em 412.
+     */
+    static Long versaoEsperada(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals(QUALQUER)) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        if (etag.length() < 3 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
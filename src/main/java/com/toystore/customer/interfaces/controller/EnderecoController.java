@@ -1,18 +1,30 @@
 package com.toystore.customer.interfaces.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.toystore.customer.application.dto.CepDTO;
 import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.dto.ResultadoImportacaoDTO;
+import com.toystore.customer.application.dto.Versionado;
 import com.toystore.customer.application.usecases.endereco.EnderecoService;
+import com.toystore.customer.infrastructure.web.EscritaEmFluxo;
+import com.toystore.customer.infrastructure.web.MapeadoresPorFormato;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/v1/endereco")
@@ -20,15 +32,21 @@ import java.util.List;
 public class EnderecoController {
     
     private final EnderecoService enderecoService;
+    private final MapeadoresPorFormato mapeadores;
 
     @GetMapping
-    @Operation(summary = "Listar todos os endereços", description = "Retorna uma lista de todos os endereços cadastrados")
+    @Operation(summary = "Listar todos os endereços", description = "Retorna uma lista de todos os endereços cadastrados, escrita à medida que é lida do banco")
     @ApiResponse(responseCode = "200", description = "Lista de endereços retornado com sucesso",
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = EnderecoDTO.class)))
+    @ApiResponse(responseCode = "406", description = "Nenhum dos formatos do Accept é suportado")
     @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
-    public ResponseEntity<List<EnderecoDTO>> listarTodos(){
-        return ResponseEntity.ok(enderecoService.buscarTodos());
+    public ResponseEntity<StreamingResponseBody> listarTodos(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws HttpMediaTypeNotAcceptableException {
+        MediaType tipo = MapeadoresPorFormato.negociar(accept);
+        return ResponseEntity.ok()
+                .contentType(tipo)
+                .body(EscritaEmFluxo.array(mapeadores.para(tipo), enderecoService::exportarTodos));
     }
 
     @GetMapping("/{id}")
@@ -36,14 +54,35 @@ public class EnderecoController {
     @ApiResponse(responseCode = "200", description = "Endereço encontrado com sucesso",
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = EnderecoDTO.class)))
+    @ApiResponse(responseCode = "304", description = "Recurso não modificado desde o ETag informado em If-None-Match")
     @ApiResponse(responseCode = "404", description = "Endereço nao encontrado")
     @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
-    public ResponseEntity<EnderecoDTO> buscar(@PathVariable Long id){
-        return  ResponseEntity.ok(enderecoService.buscarPorId(id));
+    public ResponseEntity<EnderecoDTO> buscar(@PathVariable Long id,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        if (ifNoneMatch != null) {
+            // Consulta apenas a versão; se o cliente já tem a representação atual, nada é carregado
+            Optional<Long> versao = enderecoService.buscarVersao(id);
+            if (versao.isPresent() && ETags.corresponde(ifNoneMatch, versao.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.de(versao.get())).build();
+            }
+        }
+        Versionado<EnderecoDTO> versionado = enderecoService.buscarVersionadoPorId(id);
+        return ResponseEntity.ok().eTag(ETags.de(versionado.versao())).body(versionado.valor());
+    }
+
+    @GetMapping("/cep/{cep}")
+    @Operation(summary = "Buscar localidade por CEP", description = "Consulta o diretório local de CEPs, sem acesso ao banco de dados, para preencher estado, cidade, bairro e rua")
+    @ApiResponse(responseCode = "200", description = "CEP encontrado",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CepDTO.class)))
+    @ApiResponse(responseCode = "404", description = "CEP inválido ou fora do diretório")
+    @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    public ResponseEntity<CepDTO> buscarPorCep(@PathVariable String cep){
+        return ResponseEntity.ok(enderecoService.buscarPorCep(cep));
     }
 
     @PostMapping
-    @Operation(summary = "Salvar novo endereço", description = "Cadastra um novo endereço")
+    @Operation(summary = "Salvar novo endereço", description = "Cadastra um novo endereço; com a deduplicação ativa, devolve o endereço já cadastrado com o mesmo conteúdo")
     @ApiResponse(responseCode = "201", description = "Endereço cadastrado com sucesso",
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = EnderecoDTO.class)))
@@ -53,6 +92,30 @@ public class EnderecoController {
         return  ResponseEntity.status(HttpStatus.CREATED).body(enderecoService.salvar(enderecoDto));
     }
 
+    @PostMapping(value = "/lote", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, MapeadoresPorFormato.APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Importar endereços em lote", description = "Recebe um array JSON, um fluxo NDJSON ou a sequência equivalente em CBOR ou Smile de endereços e retorna o resultado de cada registro")
+    @ApiResponse(responseCode = "200", description = "Lote processado; registros rejeitados são informados no relatório",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ResultadoImportacaoDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Corpo da requisição inválido")
+    @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    public ResponseEntity<ResultadoImportacaoDTO> importar(InputStream corpo,
+                                                           @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType tipo) throws IOException {
+        try (MappingIterator<EnderecoDTO> registros = mapeadores.para(tipo).readerFor(EnderecoDTO.class).readValues(corpo)) {
+            return ResponseEntity.ok(enderecoService.importar(registros));
+        }
+    }
+
+    @PostMapping("/mesclar-duplicados")
+    @Operation(summary = "Mesclar endereços duplicados", description = "Em segundo plano, une os endereços com o mesmo conteúdo e aponta os clientes para o que ficou")
+    @ApiResponse(responseCode = "202", description = "Mesclagem iniciada")
+    @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    public ResponseEntity<Void> mesclarDuplicados(){
+        enderecoService.mesclarDuplicados();
+        return ResponseEntity.accepted().build();
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualizar endereço", description = "Atualiza um endereço existente")
     @ApiResponse(responseCode = "201", description = "Endereço atualizado com sucesso",
@@ -60,9 +123,17 @@ public class EnderecoController {
                     schema = @Schema(implementation = EnderecoDTO.class)))
     @ApiResponse(responseCode = "400", description = "Requisição inválida")
     @ApiResponse(responseCode = "404", description = "Endereço não encontrado")
+    @ApiResponse(responseCode = "409", description = "Com a deduplicação ativa, já existe outro endereço com o mesmo conteúdo")
+    @ApiResponse(responseCode = "412", description = "O ETag informado em If-Match não corresponde à versão atual")
     @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
-    public ResponseEntity<EnderecoDTO> atualizar(@PathVariable Long id, @Valid @RequestBody EnderecoDTO enderecoDto){
-        return ResponseEntity.ok(enderecoService.atualizar(id, enderecoDto));
+    public ResponseEntity<EnderecoDTO> atualizar(@PathVariable Long id, @Valid @RequestBody EnderecoDTO enderecoDto,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Versionado<EnderecoDTO> versionado = enderecoService.atualizar(id, enderecoDto, ETags.versaoEsperada(ifMatch));
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (versionado.versao() != null) {
+            resposta.eTag(ETags.de(versionado.versao()));
+        }
+        return resposta.body(versionado.valor());
     }
 
     @DeleteMapping("/{id}")
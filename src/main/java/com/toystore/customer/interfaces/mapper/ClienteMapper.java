@@ -1,29 +1,45 @@
 package com.toystore.customer.interfaces.mapper;
 
 import com.toystore.customer.application.dto.ClienteAtualizacaoDTO;
+import com.toystore.customer.application.dto.ClienteComEnderecoDTO;
 import com.toystore.customer.application.dto.ClienteDTO;
 import com.toystore.customer.domain.model.Cliente;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 
-@Mapper(componentModel = "Spring")
+@Mapper(componentModel = "Spring", uses = EnderecoMapper.class)
 public interface ClienteMapper {
 
     @Mapping(target = "endereco.id", source = "enderecoId")
+    @Mapping(target = "versao", ignore = true)
+    @Mapping(target = "nomeBusca", ignore = true)
+    @Mapping(target = "sequenciaAlteracao", ignore = true)
     Cliente toEntity (ClienteDTO dto);
 
     @Mapping(target = "endereco.id", source = "enderecoId")
+    @Mapping(target = "versao", ignore = true)
+    @Mapping(target = "nomeBusca", ignore = true)
+    @Mapping(target = "sequenciaAlteracao", ignore = true)
     Cliente toEntity (ClienteAtualizacaoDTO dto);
 
     @Mapping(target = "enderecoId", source = "endereco.id")
     ClienteDTO toDto (Cliente entity);
 
+    @Mapping(target = "enderecoId", source = "endereco.id")
+    ClienteComEnderecoDTO toDtoComEndereco (Cliente entity);
+
     @Mapping(target = "endereco.id", source = "enderecoId")
     @Mapping(target = "cpf", ignore = true)
+    @Mapping(target = "versao", ignore = true)
+    @Mapping(target = "nomeBusca", ignore = true)
+    @Mapping(target = "sequenciaAlteracao", ignore = true)
     void updateFromDto(ClienteDTO dto, @MappingTarget Cliente entity);
 
     @Mapping(target = "endereco.id", source = "enderecoId")
     @Mapping(target = "cpf", ignore = true)
+    @Mapping(target = "versao", ignore = true)
+    @Mapping(target = "nomeBusca", ignore = true)
+    @Mapping(target = "sequenciaAlteracao", ignore = true)
     void updateFromDto(ClienteAtualizacaoDTO dto, @MappingTarget Cliente entity);
 }
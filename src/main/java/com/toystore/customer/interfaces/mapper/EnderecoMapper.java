@@ -9,10 +9,16 @@ import org.mapstruct.MappingTarget;
 @Mapper(componentModel = "Spring")
 public interface EnderecoMapper {
 
+    @Mapping(target = "versao", ignore = true)
+    @Mapping(target = "sequenciaAlteracao", ignore = true)
+    @Mapping(target = "hashConteudo", ignore = true)
     Endereco toEntity (EnderecoDTO dto);
 
     EnderecoDTO toDto (Endereco entity);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "versao", ignore = true)
+    @Mapping(target = "sequenciaAlteracao", ignore = true)
+    @Mapping(target = "hashConteudo", ignore = true)
     void updateFromDto (EnderecoDTO dto, @MappingTarget Endereco entity);
 }
@@ -0,0 +1,19 @@
+-- Migra endereco.id de SERIAL (IDENTITY) para a sequencia endereco_seq, alocada em blocos pelo Hibernate.
+-- Executar uma unica vez em bancos PostgreSQL criados antes da mudanca, com a aplicacao parada.
+-- O INCREMENT BY deve ser igual a spring.jpa.properties.toystore.id.tamanho-alocacao.
+BEGIN;
+
+LOCK TABLE endereco IN EXCLUSIVE MODE;
+
+ALTER TABLE endereco ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS endereco_id_seq;
+ALTER TABLE endereco ALTER COLUMN id TYPE BIGINT;
+
+CREATE SEQUENCE IF NOT EXISTS endereco_seq INCREMENT BY 50;
+
+-- O proximo valor fica um bloco inteiro acima do maior id atual, de modo que tanto o
+-- otimizador pooled (bloco terminando no valor lido) quanto o pooled-lo (bloco comecando
+-- no valor lido) gerem apenas ids ainda nao usados.
+SELECT setval('endereco_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM endereco), false);
+
+COMMIT;
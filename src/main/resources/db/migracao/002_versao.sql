@@ -0,0 +1,3 @@
+-- Adiciona a coluna de versao (controle otimista de concorrencia e ETag) em cliente e endereco.
+ALTER TABLE endereco ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
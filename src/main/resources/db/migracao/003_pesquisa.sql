@@ -0,0 +1,9 @@
+-- Adiciona o nome normalizado (sem acentos, minúsculo) e os índices usados pela pesquisa de clientes.
+-- A coluna não é preenchida aqui: a normalização é a de Cliente.normalizarNome (NFD sem as marcas de acento),
+-- que o SQL não reproduz. A aplicação preenche os nomes pendentes ao iniciar (PreenchimentoNomeBusca).
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS nome_busca VARCHAR(100);
+
+CREATE INDEX IF NOT EXISTS idx_cliente_email ON cliente (email);
+CREATE INDEX IF NOT EXISTS idx_cliente_endereco_id ON cliente (endereco_id);
+CREATE INDEX IF NOT EXISTS idx_endereco_cep ON endereco (cep);
+CREATE INDEX IF NOT EXISTS idx_cliente_nome_busca ON cliente (nome_busca varchar_pattern_ops);
@@ -0,0 +1,16 @@
+-- Cria o outbox de alterações de clientes e endereços (toystore.outbox.enabled).
+CREATE SEQUENCE IF NOT EXISTS evento_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS evento_outbox (
+    id BIGINT PRIMARY KEY,
+    agregado VARCHAR(20) NOT NULL,
+    chave VARCHAR(20) NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    dados TEXT,
+    criado_em TIMESTAMP WITH TIME ZONE NOT NULL,
+    tentativas INT NOT NULL DEFAULT 0,
+    -- O relay só lê o evento depois deste instante: reservado durante a entrega ou aguardando nova tentativa
+    disponivel_em TIMESTAMP WITH TIME ZONE NOT NULL,
+    -- Preenchido quando o relay desiste do evento; o evento fica na tabela, fora da entrega
+    abandonado_em TIMESTAMP WITH TIME ZONE
+);
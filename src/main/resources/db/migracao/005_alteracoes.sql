@@ -0,0 +1,21 @@
+-- Adiciona o número de alteração de clientes e endereços e a tabela de remoções do feed de alterações.
+CREATE SEQUENCE IF NOT EXISTS alteracao_seq START WITH 1 INCREMENT BY 1000;
+
+ALTER TABLE endereco ADD COLUMN IF NOT EXISTS sequencia_alteracao BIGINT;
+UPDATE endereco SET sequencia_alteracao = nextval('alteracao_seq') WHERE sequencia_alteracao IS NULL;
+ALTER TABLE endereco ALTER COLUMN sequencia_alteracao SET DEFAULT nextval('alteracao_seq');
+ALTER TABLE endereco ALTER COLUMN sequencia_alteracao SET NOT NULL;
+
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS sequencia_alteracao BIGINT;
+UPDATE cliente SET sequencia_alteracao = nextval('alteracao_seq') WHERE sequencia_alteracao IS NULL;
+ALTER TABLE cliente ALTER COLUMN sequencia_alteracao SET DEFAULT nextval('alteracao_seq');
+ALTER TABLE cliente ALTER COLUMN sequencia_alteracao SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_cliente_sequencia_alteracao ON cliente (sequencia_alteracao);
+CREATE INDEX IF NOT EXISTS idx_endereco_sequencia_alteracao ON endereco (sequencia_alteracao);
+
+CREATE TABLE IF NOT EXISTS remocao (
+    sequencia_alteracao BIGINT PRIMARY KEY,
+    agregado VARCHAR(20) NOT NULL,
+    chave VARCHAR(20) NOT NULL
+);
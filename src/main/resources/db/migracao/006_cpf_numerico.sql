@@ -0,0 +1,10 @@
+-- Converte o CPF dos clientes de VARCHAR(11) para BIGINT. Interrompe a migração se algum CPF gravado não
+-- tiver exatamente 11 dígitos, já que os zeros à esquerda são recompostos pela aplicação na leitura.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM cliente WHERE cpf !~ '^[0-9]{11}$') THEN
+        RAISE EXCEPTION 'Existem clientes com CPF fora do formato de 11 digitos';
+    END IF;
+END $$;
+
+ALTER TABLE cliente ALTER COLUMN cpf TYPE BIGINT USING cpf::BIGINT;
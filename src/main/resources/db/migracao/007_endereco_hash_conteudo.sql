@@ -0,0 +1,5 @@
+-- Adiciona o hash do conteúdo normalizado dos endereços, usado pela deduplicação. Os endereços existentes ficam
+-- com o hash nulo até a mesclagem de duplicados (POST /v1/endereco/mesclar-duplicados), que o preenche.
+ALTER TABLE endereco ADD COLUMN IF NOT EXISTS hash_conteudo VARCHAR(64);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_endereco_hash_conteudo ON endereco (hash_conteudo);
@@ -1,21 +1,76 @@
+DROP TABLE IF EXISTS evento_outbox;
+DROP TABLE IF EXISTS remocao;
 DROP TABLE IF EXISTS cliente;
 DROP TABLE IF EXISTS endereco;
+DROP SEQUENCE IF EXISTS endereco_seq;
+DROP SEQUENCE IF EXISTS evento_outbox_seq;
+DROP SEQUENCE IF EXISTS alteracao_seq;
 
+-- Incremento igual a toystore.id.tamanho-alocacao, permitindo inserts em lote (JDBC batching)
+CREATE SEQUENCE IF NOT EXISTS endereco_seq START WITH 101 INCREMENT BY 50;
+
+-- Números de alteração (feed GET /v1/cliente/alteracoes). Cada transação reserva um bloco de 1000 com um
+-- único nextval (SequenciaAlteracoes); o default cobre inserts feitos fora da aplicação, como o data.sql
+CREATE SEQUENCE IF NOT EXISTS alteracao_seq START WITH 1 INCREMENT BY 1000;
 
 CREATE TABLE IF NOT EXISTS endereco (
-    id SERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     cep VARCHAR(10),
     estado VARCHAR(50),
     cidade VARCHAR(50),
     bairro VARCHAR(50),
     rua VARCHAR(100),
-    numero VARCHAR(20)
+    numero VARCHAR(20),
+    versao BIGINT NOT NULL DEFAULT 0,
+    sequencia_alteracao BIGINT NOT NULL DEFAULT nextval('alteracao_seq'),
+    hash_conteudo VARCHAR(64)
 );
 
+-- CPF como número (8 bytes por chave em vez do texto de 11 caracteres); a API devolve o texto com zeros à esquerda
 CREATE TABLE IF NOT EXISTS cliente (
-    cpf VARCHAR(11) PRIMARY KEY,
+    cpf BIGINT PRIMARY KEY,
     nome VARCHAR(100),
+    nome_busca VARCHAR(100),
     email VARCHAR(50),
     endereco_id BIGINT,
+    versao BIGINT NOT NULL DEFAULT 0,
+    sequencia_alteracao BIGINT NOT NULL DEFAULT nextval('alteracao_seq'),
     CONSTRAINT fk_endereco FOREIGN KEY (endereco_id) REFERENCES endereco(id)
 );
+
+-- Índices da pesquisa de clientes (GET /v1/cliente/pesquisa)
+CREATE INDEX IF NOT EXISTS idx_cliente_email ON cliente (email);
+CREATE INDEX IF NOT EXISTS idx_cliente_endereco_id ON cliente (endereco_id);
+CREATE INDEX IF NOT EXISTS idx_endereco_cep ON endereco (cep);
+-- nome_busca guarda o nome sem acentos e em minúsculas; varchar_pattern_ops permite LIKE 'prefixo%' em qualquer collation
+CREATE INDEX IF NOT EXISTS idx_cliente_nome_busca ON cliente (nome_busca varchar_pattern_ops);
+
+-- Feed de alterações: clientes e endereços por número de alteração, mais as remoções
+CREATE INDEX IF NOT EXISTS idx_cliente_sequencia_alteracao ON cliente (sequencia_alteracao);
+CREATE INDEX IF NOT EXISTS idx_endereco_sequencia_alteracao ON endereco (sequencia_alteracao);
+
+-- Deduplicação de endereços: o mesmo conteúdo normalizado não pode ser gravado duas vezes (nulos não conflitam)
+CREATE UNIQUE INDEX IF NOT EXISTS uk_endereco_hash_conteudo ON endereco (hash_conteudo);
+
+CREATE TABLE IF NOT EXISTS remocao (
+    sequencia_alteracao BIGINT PRIMARY KEY,
+    agregado VARCHAR(20) NOT NULL,
+    chave VARCHAR(20) NOT NULL
+);
+
+-- Outbox de alterações de clientes e endereços, drenado pelo RelayOutbox
+CREATE SEQUENCE IF NOT EXISTS evento_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS evento_outbox (
+    id BIGINT PRIMARY KEY,
+    agregado VARCHAR(20) NOT NULL,
+    chave VARCHAR(20) NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    dados TEXT,
+    criado_em TIMESTAMP WITH TIME ZONE NOT NULL,
+    tentativas INT NOT NULL DEFAULT 0,
+    -- O relay só lê o evento depois deste instante: reservado durante a entrega ou aguardando nova tentativa
+    disponivel_em TIMESTAMP WITH TIME ZONE NOT NULL,
+    -- Preenchido quando o relay desiste do evento; o evento fica na tabela, fora da entrega
+    abandonado_em TIMESTAMP WITH TIME ZONE
+);
@@ -0,0 +1,201 @@
+package com.toystore.customer.application.usecases.cliente;
+
+import com.toystore.customer.application.dto.AlteracaoDTO;
+import com.toystore.customer.application.dto.AlteracoesDTO;
+import com.toystore.customer.application.dto.ClienteAtualizacaoDTO;
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.usecases.endereco.EnderecoService;
+import com.toystore.customer.application.usecases.endereco.EnderecoServiceImpl;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.domain.repository.RemocaoRepository;
+import com.toystore.customer.infrastructure.busca.IndiceClientes;
+import com.toystore.customer.infrastructure.config.AgrupamentoConfig;
+import com.toystore.customer.infrastructure.config.CacheConfig;
+import com.toystore.customer.infrastructure.config.DeduplicacaoEnderecosConfig;
+import com.toystore.customer.infrastructure.config.DiretorioCepsConfig;
+import com.toystore.customer.infrastructure.config.FiltroCpfsConfig;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import com.toystore.customer.interfaces.mapper.ClienteMapperImpl;
+import com.toystore.customer.interfaces.mapper.EnderecoMapperImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ActiveProfiles("test")
+@Import({ClienteServiceImpl.class, ClienteMapperImpl.class, EnderecoServiceImpl.class, EnderecoMapperImpl.class,
+        CacheConfig.class, AgrupamentoConfig.class, FiltroCpfsConfig.class, DeduplicacaoEnderecosConfig.class,
+        DiretorioCepsConfig.class, LocalValidatorFactoryBean.class, SequenciaAlteracoes.class})
+// Sem a transação do teste: cada chamada aos serviços faz o próprio commit e reserva o próprio bloco
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClienteServiceAlteracoesTest {
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private EnderecoService enderecoService;
+
+    @Autowired
+    private SequenciaAlteracoes sequenciaAlteracoes;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    @Autowired
+    private RemocaoRepository remocaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private IndiceClientes indiceClientes;
+
+    private long cursorInicial;
+
+    @BeforeEach
+    void setUp() {
+        cursorInicial = clienteService.buscarAlteracoes(0, 500).cursor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        remocaoRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+        enderecoRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("Deve retornar cada registro alterado uma vez, com o estado atual, e as remoções")
+    @Test
+    void deveRetornarAlteracoesDesdeCursor() {
+        Long enderecoId = salvarEndereco();
+        clienteService.salvar(new ClienteDTO("98765432100", "Maria", "maria@mail.com", enderecoId));
+        clienteService.salvar(new ClienteDTO("98765432290", "José", "jose@mail.com", enderecoId));
+        clienteService.atualizar("98765432100", new ClienteAtualizacaoDTO("Maria S.", "maria@mail.com", enderecoId), null);
+        clienteService.deletarPorId("98765432290");
+
+        AlteracoesDTO resultado = clienteService.buscarAlteracoes(cursorInicial, 50);
+
+        assertThat(resultado.alteracoes())
+                .extracting(AlteracaoDTO::agregado, AlteracaoDTO::chave, AlteracaoDTO::removido)
+                .containsExactly(
+                        tuple("endereco", String.valueOf(enderecoId), false),
+                        tuple("cliente", "98765432100", false),
+                        tuple("cliente", "98765432290", true));
+        assertThat(resultado.alteracoes().get(1).cliente().nome()).isEqualTo("Maria S.");
+        assertThat(resultado.cursor()).isEqualTo(resultado.alteracoes().getLast().sequencia());
+        assertThat(resultado.haMais()).isFalse();
+        assertThat(clienteService.buscarAlteracoes(resultado.cursor(), 50).alteracoes()).isEmpty();
+    }
+
+    @DisplayName("Deve numerar em sequência as alterações de uma mesma transação")
+    @Test
+    void deveNumerarAlteracoesDaMesmaTransacao() {
+        Long enderecoId = salvarEndereco();
+        clienteService.importar(List.of(
+                new ClienteDTO("98765432100", "Maria", "maria@mail.com", enderecoId),
+                new ClienteDTO("98765432290", "José", "jose@mail.com", enderecoId),
+                new ClienteDTO("98765432371", "Ana", "ana@mail.com", enderecoId)).iterator());
+
+        List<AlteracaoDTO> alteracoes = clienteService.buscarAlteracoes(cursorInicial, 50).alteracoes();
+
+        assertThat(alteracoes).hasSize(4);
+        long primeiroCliente = alteracoes.get(1).sequencia();
+        assertThat(alteracoes.subList(1, 4)).extracting(AlteracaoDTO::sequencia)
+                .containsExactly(primeiroCliente, primeiroCliente + 1, primeiroCliente + 2);
+    }
+
+    @DisplayName("Deve percorrer todas as alterações em páginas, sem repetir nem pular")
+    @Test
+    void devePercorrerAlteracoesEmPaginas() {
+        Long enderecoId = salvarEndereco();
+        clienteService.salvar(new ClienteDTO("98765432100", "Maria", "maria@mail.com", enderecoId));
+        clienteService.salvar(new ClienteDTO("98765432290", "José", "jose@mail.com", enderecoId));
+        clienteService.deletarPorId("98765432100");
+
+        List<String> chaves = new ArrayList<>();
+        AlteracoesDTO pagina;
+        long cursor = cursorInicial;
+        do {
+            pagina = clienteService.buscarAlteracoes(cursor, 1);
+            pagina.alteracoes().forEach(alteracao -> chaves.add(alteracao.chave()));
+            cursor = pagina.cursor();
+        } while (pagina.haMais());
+
+        assertThat(chaves).containsExactly(String.valueOf(enderecoId), "98765432290", "98765432100");
+    }
+
+    @DisplayName("Deve reter as alterações confirmadas depois de um número reservado por transação em andamento")
+    @Test
+    void deveReterAlteracoes_QuandoTransacaoAnteriorEmAndamento() throws Exception {
+        Long enderecoId = salvarEndereco();
+        var reservado = new CountDownLatch(1);
+        var confirmar = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CompletableFuture<Void> longa = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                status -> {
+                    clienteService.salvar(new ClienteDTO("98765432100", "Maria", "maria@mail.com", enderecoId));
+                    reservado.countDown();
+                    aguardar(confirmar);
+                }));
+        assertThat(reservado.await(5, TimeUnit.SECONDS)).isTrue();
+        clienteService.salvar(new ClienteDTO("98765432290", "José", "jose@mail.com", enderecoId));
+
+        AlteracoesDTO antes = clienteService.buscarAlteracoes(cursorInicial, 50);
+        confirmar.countDown();
+        longa.get(5, TimeUnit.SECONDS);
+        AlteracoesDTO depois = clienteService.buscarAlteracoes(antes.cursor(), 50);
+
+        assertThat(antes.alteracoes()).extracting(AlteracaoDTO::chave).containsExactly(String.valueOf(enderecoId));
+        assertThat(depois.alteracoes()).extracting(AlteracaoDTO::chave).containsExactly("98765432100", "98765432290");
+    }
+
+    @DisplayName("Deve recusar a reserva de número de alteração fora de uma transação")
+    @Test
+    void deveGerarExcecao_QuandoReservarForaDeTransacao() {
+        assertThatThrownBy(() -> sequenciaAlteracoes.proxima())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Long salvarEndereco() {
+        return enderecoService.salvar(
+                new EnderecoDTO(null, "40000-000", "BA", "Salvador", "Centro", "Rua Principal", "1")).id();
+    }
+}
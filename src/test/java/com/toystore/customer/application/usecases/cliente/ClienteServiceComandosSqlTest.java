@@ -0,0 +1,198 @@
+package com.toystore.customer.application.usecases.cliente;
+
+import com.toystore.customer.application.dto.ClienteAtualizacaoDTO;
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.usecases.endereco.EnderecoService;
+import com.toystore.customer.application.usecases.endereco.EnderecoServiceImpl;
+import com.toystore.customer.domain.exceptions.CPFJaCadastradoException;
+import com.toystore.customer.domain.exceptions.RecursoNaoEncontradoException;
+import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Endereco;
+import com.toystore.customer.infrastructure.busca.IndiceClientes;
+import com.toystore.customer.infrastructure.config.AgrupamentoConfig;
+import com.toystore.customer.infrastructure.config.CacheConfig;
+import com.toystore.customer.infrastructure.config.DeduplicacaoEnderecosConfig;
+import com.toystore.customer.infrastructure.config.DiretorioCepsConfig;
+import com.toystore.customer.infrastructure.config.FiltroCpfsConfig;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import com.toystore.customer.interfaces.mapper.ClienteMapperImpl;
+import com.toystore.customer.interfaces.mapper.EnderecoMapperImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@Import({ClienteServiceImpl.class, ClienteMapperImpl.class, EnderecoServiceImpl.class, EnderecoMapperImpl.class,
+        CacheConfig.class, AgrupamentoConfig.class, FiltroCpfsConfig.class, DeduplicacaoEnderecosConfig.class,
+        DiretorioCepsConfig.class, LocalValidatorFactoryBean.class, SequenciaAlteracoes.class})
+class ClienteServiceComandosSqlTest {
+
+    private static final String CPF_CADASTRADO = "12345678909";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private EnderecoService enderecoService;
+
+    @MockitoBean
+    private IndiceClientes indiceClientes;
+
+    private Long enderecoId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Endereco endereco = entityManager.persist(Endereco.builder()
+                .cep("40000-000")
+                .estado("BA")
+                .cidade("Salvador")
+                .bairro("Centro")
+                .rua("Rua Principal")
+                .numero("1")
+                .build());
+        entityManager.persist(Cliente.builder()
+                .cpf(CPF_CADASTRADO)
+                .nome("João Silva")
+                .email("joaosilva@mail.com")
+                .endereco(endereco)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        enderecoId = endereco.getId();
+
+        // Aquece o cache de endereços, como acontece em produção após a primeira validação
+        enderecoService.buscarPorId(enderecoId);
+
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @DisplayName("Deve salvar Cliente com um único insert, além da reserva do número de alteração")
+    @Test
+    void deveSalvarComUmComando() {
+        clienteService.salvar(new ClienteDTO("98765432100", "Maria", "maria@mail.com", enderecoId));
+
+        // nextval da sequência de alterações + insert
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @DisplayName("Deve rejeitar CPF duplicado com um único insert, além da reserva do número de alteração")
+    @Test
+    void deveRejeitarCpfDuplicadoComUmComando() {
+        assertThatThrownBy(() -> clienteService.salvar(
+                new ClienteDTO(CPF_CADASTRADO, "Outro", "outro@mail.com", enderecoId)))
+                .isInstanceOf(CPFJaCadastradoException.class);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @DisplayName("Não deve tratar como CPF duplicado um endereço removido depois de validado")
+    @Test
+    void naoDeveTratarOutrasViolacoesComoCpfDuplicado() {
+        Long removido = entityManager.persistAndGetId(Endereco.builder()
+                .cep("40000-001")
+                .estado("BA")
+                .cidade("Salvador")
+                .bairro("Centro")
+                .rua("Rua Removida")
+                .numero("2")
+                .build(), Long.class);
+        entityManager.flush();
+        enderecoService.buscarPorId(removido);
+        entityManager.getEntityManager().createNativeQuery("delete from endereco where id = " + removido).executeUpdate();
+
+        assertThatThrownBy(() -> clienteService.salvar(
+                new ClienteDTO("98765432100", "Maria", "maria@mail.com", removido)))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .isNotInstanceOf(CPFJaCadastradoException.class);
+    }
+
+    @DisplayName("Deve alterar Cliente com um único update, além da reserva do número de alteração")
+    @Test
+    void deveAlterarComUmComando() {
+        clienteService.atualizar(CPF_CADASTRADO, new ClienteAtualizacaoDTO("João S.", "joao@mail.com", enderecoId), null);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @DisplayName("Deve deletar Cliente com um único delete, além do registro da remoção")
+    @Test
+    void deveDeletarComUmComando() {
+        clienteService.deletarPorId(CPF_CADASTRADO);
+
+        // delete + nextval da sequência de alterações + insert da remoção
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @DisplayName("Deve informar Cliente inexistente ao deletar com um único comando SQL")
+    @Test
+    void deveInformarInexistenteAoDeletarComUmComando() {
+        assertThatThrownBy(() -> clienteService.deletarPorId("00000000000"))
+                .isInstanceOf(RecursoNaoEncontradoException.class);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve buscar Clientes por CPF em lote, com endereço, em uma única consulta")
+    @Test
+    void deveBuscarPorCpfsComUmaConsulta() {
+        var resultado = clienteService.buscarPorCpfs(List.of(CPF_CADASTRADO, "00000000000"), true);
+
+        assertThat(resultado.encontrados()).singleElement()
+                .satisfies(cliente -> assertThat(cliente.endereco().id()).isEqualTo(enderecoId));
+        assertThat(resultado.naoEncontrados()).containsExactly("00000000000");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve importar lote de Clientes com consultas por conjunto e um único insert em lote")
+    @Test
+    void deveImportarLoteComInsertEmLote() {
+        var clientes = List.of(
+                new ClienteDTO("98765432100", "Maria", "maria@mail.com", enderecoId),
+                new ClienteDTO("98765432290", "José", "jose@mail.com", enderecoId),
+                new ClienteDTO(CPF_CADASTRADO, "Repetido", "repetido@mail.com", enderecoId),
+                new ClienteDTO("98765432371", "Sem Endereço", "sem@mail.com", -1L),
+                new ClienteDTO("98765432452", "", "vazio@mail.com", enderecoId));
+
+        var resultado = clienteService.importar(clientes.iterator());
+
+        assertThat(resultado.total()).isEqualTo(5);
+        assertThat(resultado.importados()).isEqualTo(2);
+        assertThat(resultado.registros().get(2).erros())
+                .containsExactly("CPF " + CPF_CADASTRADO + " já cadastrado no sistema");
+        assertThat(resultado.registros().get(3).erros())
+                .containsExactly("Endereço não encontrado com id: -1");
+        assertThat(resultado.registros().get(4).erros())
+                .containsExactly("O nome é obrigatório");
+        // select de CPFs + select de endereços + nextval da sequência de alterações + um único insert em lote
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(entityManager.find(Cliente.class, "98765432290")).isNotNull();
+    }
+}
@@ -1,15 +1,37 @@
 package com.toystore.customer.application.usecases.cliente;
 
+import com.toystore.customer.application.dto.AlteracaoDTO;
 import com.toystore.customer.application.dto.ClienteAtualizacaoDTO;
+import com.toystore.customer.application.dto.ClienteComEnderecoDTO;
 import com.toystore.customer.application.dto.ClienteDTO;
 import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.dto.FiltroClienteDTO;
+import com.toystore.customer.application.dto.ResultadoBuscaTextoDTO;
+import com.toystore.customer.application.dto.Versionado;
 import com.toystore.customer.application.usecases.endereco.EnderecoService;
+import com.toystore.customer.domain.eventos.AlteracaoRegistradaEvento;
+import com.toystore.customer.domain.eventos.ClientesAlteradosEvento;
+import com.toystore.customer.domain.eventos.TipoAlteracao;
 import com.toystore.customer.domain.exceptions.CPFJaCadastradoException;
+import com.toystore.customer.domain.exceptions.CursorInvalidoException;
 import com.toystore.customer.domain.exceptions.RecursoNaoEncontradoException;
+import com.toystore.customer.domain.exceptions.VersaoDesatualizadaException;
 import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Cpf;
+import com.toystore.customer.domain.model.Endereco;
+import com.toystore.customer.domain.model.Remocao;
 import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.domain.repository.RemocaoRepository;
+import com.toystore.customer.infrastructure.busca.IndiceClientes;
+import com.toystore.customer.infrastructure.concorrencia.AgrupadorDeConsultas;
+import com.toystore.customer.infrastructure.filtro.FiltroCpfs;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
 import com.toystore.customer.infrastructure.utils.ClienteHelper;
 import com.toystore.customer.interfaces.mapper.ClienteMapper;
+import com.toystore.customer.interfaces.mapper.EnderecoMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -18,9 +40,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.toystore.customer.infrastructure.utils.ClienteHelper.*;
 import static com.toystore.customer.infrastructure.utils.EnderecoHelper.gerarEndereco;
@@ -34,6 +65,9 @@ import static org.mockito.Mockito.verify;
 @ExtendWith(MockitoExtension.class)
 class ClienteServiceTest {
 
+    private static final String NOME_BUSCA = "ninguem da silva";
+    private static final long SEQUENCIA = 1001L;
+
     @Mock
     private ClienteRepository clienteRepository;
 
@@ -43,6 +77,39 @@ class ClienteServiceTest {
     @Mock
     private EnderecoService enderecoService;
 
+    @Mock
+    private AgrupadorDeConsultas<String, Versionado<ClienteDTO>> agrupadorClientes;
+
+    @Mock
+    private IndiceClientes indiceClientes;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SequenciaAlteracoes sequenciaAlteracoes;
+
+    @Mock
+    private RemocaoRepository remocaoRepository;
+
+    @Mock
+    private EnderecoRepository enderecoRepository;
+
+    @Mock
+    private EnderecoMapper enderecoMapper;
+
+    @Mock
+    private FiltroCpfs filtroCpfs;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private ClienteServiceImpl clienteService;
 
@@ -66,8 +133,9 @@ class ClienteServiceTest {
         @Test
         void deveBuscarClientePorId() {
             // Arrange
-            when(clienteRepository.findById(cliente.getCpf())).thenReturn(Optional.of(cliente));
-            when(clienteMapper.toDto(cliente)).thenReturn(gerarClienteDTO(cliente));
+            when(filtroCpfs.podeExistir(cliente.getCpf())).thenReturn(true);
+            when(agrupadorClientes.buscar(cliente.getCpf()))
+                    .thenReturn(Optional.of(new Versionado<>(gerarClienteDTO(cliente), cliente.getVersao())));
 
             // Act
             var clienteRecebido = clienteService.buscarPorId(cliente.getCpf());
@@ -80,49 +148,212 @@ class ClienteServiceTest {
 
             assertThat(clienteRecebido.enderecoId()).isEqualTo(cliente.getEndereco().getId());
 
-            verify(clienteRepository).findById(cliente.getCpf());
+            verify(agrupadorClientes).buscar(cliente.getCpf());
         }
 
         @DisplayName("Deve lançar exceção ao buscar cliente com ID inexistente")
         @Test
         void deveGerarExcecao_QuandoBuscarCliente_PorIdInexistente() {
             // Arrange
-            when(clienteRepository.findById(cliente.getCpf())).thenReturn(Optional.empty());
+            when(filtroCpfs.podeExistir(cliente.getCpf())).thenReturn(true);
+            when(agrupadorClientes.buscar(cliente.getCpf())).thenReturn(Optional.empty());
 
             // Act & Assert
             assertThatThrownBy(() -> clienteService.buscarPorId(cliente.getCpf()))
                     .isInstanceOf(RecursoNaoEncontradoException.class)
                     .hasMessage("Cliente não encontrado com o cpf: " + cliente.getCpf());
-            verify(clienteRepository).findById(cliente.getCpf());
+            verify(agrupadorClientes).buscar(cliente.getCpf());
+            verify(filtroCpfs).registrarFalsoPositivo();
         }
 
-        @DisplayName("Deve retornar uma lista de avaliações salvas")
+        @DisplayName("Deve lançar exceção sem consultar o banco quando o filtro descarta o CPF")
         @Test
-        void deveBuscarTodasAsCliente() {
+        void deveGerarExcecao_QuandoFiltroDescartaCpf() {
             // Arrange
-            var clientes = List.of(gerarCliente(), gerarCliente(), gerarCliente());
-            var clientesDto = clientes.stream()
-                    .map(ClienteHelper::gerarClienteDTO)
-                    .toList();
-
-            when(clienteRepository.findAll()).thenReturn(clientes);
-            when(clienteMapper.toDto(any(Cliente.class)))
-                    .thenAnswer(invocation -> {
-                        cliente = invocation.getArgument(0);
-                        return gerarClienteDTO(cliente);
-                    });
+            when(filtroCpfs.podeExistir(cliente.getCpf())).thenReturn(false);
+
+            // Act & Assert
+            assertThatThrownBy(() -> clienteService.buscarPorId(cliente.getCpf()))
+                    .isInstanceOf(RecursoNaoEncontradoException.class)
+                    .hasMessage("Cliente não encontrado com o cpf: " + cliente.getCpf());
+            verifyNoInteractions(agrupadorClientes, clienteRepository);
+        }
+
+        @DisplayName("Deve lançar exceção sem consultar o banco quando o CPF não tem 11 dígitos")
+        @Test
+        void deveGerarExcecao_QuandoCpfForaDoFormato() {
+            // Act & Assert
+            assertThatThrownBy(() -> clienteService.buscarPorId("123.456.789-01"))
+                    .isInstanceOf(RecursoNaoEncontradoException.class)
+                    .hasMessage("Cliente não encontrado com o cpf: 123.456.789-01");
+            verifyNoInteractions(filtroCpfs, agrupadorClientes, clienteRepository);
+        }
+
+        @DisplayName("Deve buscar Clientes por CPF em lote informando os não encontrados")
+        @Test
+        void deveBuscarClientesPorCpfs_InformandoNaoEncontrados() {
+            // Arrange
+            var outro = new ClienteDTO("22222222222", "Dois", "dois@mail.com", 2L);
+            var cpfs = List.of("22222222222", "00000000000", clienteDTO.cpf(), "22222222222");
+            when(filtroCpfs.podeExistir(any())).thenReturn(true);
+            when(clienteRepository.buscarPorCpfs(Set.of("22222222222", "00000000000", clienteDTO.cpf())))
+                    .thenReturn(List.of(clienteDTO, outro));
 
             // Act
-            List<ClienteDTO> clientesRecebidos = clienteService.buscarTodos();
+            var resultado = clienteService.buscarPorCpfs(cpfs, false);
 
             // Assert
-            assertThat(clientesRecebidos)
-                    .isNotNull()
-                    .isNotEmpty()
-                    .hasSize(3)
-                    .containsExactlyElementsOf(clientesDto);
-            verify(clienteRepository).findAll();
-            verify(clienteMapper, times(3)).toDto(any(Cliente.class));
+            assertThat(resultado.encontrados())
+                    .containsExactly(ClienteComEnderecoDTO.semEndereco(outro), ClienteComEnderecoDTO.semEndereco(clienteDTO));
+            assertThat(resultado.naoEncontrados()).containsExactly("00000000000");
+            verify(clienteRepository, never()).buscarComEnderecoPorCpfs(any());
+            verifyNoInteractions(clienteMapper);
+        }
+
+        @DisplayName("Deve buscar Clientes por CPF em lote com o endereço")
+        @Test
+        void deveBuscarClientesPorCpfs_ComEndereco() {
+            // Arrange
+            var clienteComEndereco = new ClienteComEnderecoDTO(clienteDTO.cpf(), clienteDTO.nome(), clienteDTO.email(),
+                    clienteDTO.enderecoId(), enderecoDTO);
+            when(filtroCpfs.podeExistir(cliente.getCpf())).thenReturn(true);
+            when(clienteRepository.buscarComEnderecoPorCpfs(Set.of(cliente.getCpf()))).thenReturn(List.of(cliente));
+            when(clienteMapper.toDtoComEndereco(cliente)).thenReturn(clienteComEndereco);
+
+            // Act
+            var resultado = clienteService.buscarPorCpfs(List.of(cliente.getCpf()), true);
+
+            // Assert
+            assertThat(resultado.encontrados()).containsExactly(clienteComEndereco);
+            assertThat(resultado.naoEncontrados()).isEmpty();
+            verify(clienteRepository, never()).buscarPorCpfs(any());
+        }
+
+        @DisplayName("Deve consultar em lote apenas os CPFs que o filtro não descarta")
+        @Test
+        void deveBuscarClientesPorCpfs_SomenteOsPossiveis() {
+            // Arrange
+            when(filtroCpfs.podeExistir(clienteDTO.cpf())).thenReturn(true);
+            when(filtroCpfs.podeExistir("00000000000")).thenReturn(false);
+            when(clienteRepository.buscarPorCpfs(Set.of(clienteDTO.cpf()))).thenReturn(List.of(clienteDTO));
+
+            // Act
+            var resultado = clienteService.buscarPorCpfs(List.of("00000000000", clienteDTO.cpf()), false);
+
+            // Assert
+            assertThat(resultado.encontrados()).containsExactly(ClienteComEnderecoDTO.semEndereco(clienteDTO));
+            assertThat(resultado.naoEncontrados()).containsExactly("00000000000");
+        }
+
+        @DisplayName("Deve retornar a primeira página de clientes com cursor para a próxima")
+        @Test
+        void deveBuscarPrimeiraPaginaDeClientes() {
+            // Arrange
+            var clientes = List.of(
+                    new ClienteDTO("11111111111", "Um", "um@mail.com", 1L),
+                    new ClienteDTO("22222222222", "Dois", "dois@mail.com", 1L),
+                    new ClienteDTO("33333333333", "Tres", "tres@mail.com", 2L));
+            when(clienteRepository.buscarPrimeiraPagina(Limit.of(3))).thenReturn(clientes);
+
+            // Act
+            var pagina = clienteService.buscarPagina(null, 2);
+
+            // Assert
+            assertThat(pagina.clientes())
+                    .containsExactly(clientes.get(0), clientes.get(1));
+            assertThat(pagina.proximoCursor()).isEqualTo("22222222222");
+            verify(clienteRepository).buscarPrimeiraPagina(Limit.of(3));
+            verifyNoInteractions(clienteMapper);
+        }
+
+        @DisplayName("Deve retornar a última página de clientes sem cursor")
+        @Test
+        void deveBuscarUltimaPaginaDeClientes() {
+            // Arrange
+            var clientes = List.of(clienteDTO);
+            when(clienteRepository.buscarPaginaApos("00000000000", Limit.of(3))).thenReturn(clientes);
+
+            // Act
+            var pagina = clienteService.buscarPagina("00000000000", 2);
+
+            // Assert
+            assertThat(pagina.clientes()).containsExactly(clienteDTO);
+            assertThat(pagina.proximoCursor()).isNull();
+            verify(clienteRepository).buscarPaginaApos("00000000000", Limit.of(3));
+        }
+
+        @DisplayName("Deve limitar o tamanho da página ao máximo permitido")
+        @Test
+        void deveLimitarTamanhoDaPagina() {
+            // Arrange
+            when(clienteRepository.buscarPrimeiraPagina(any(Limit.class))).thenReturn(List.of());
+
+            // Act
+            var pagina = clienteService.buscarPagina(null, 1_000_000);
+
+            // Assert
+            assertThat(pagina.clientes()).isEmpty();
+            assertThat(pagina.proximoCursor()).isNull();
+            verify(clienteRepository).buscarPrimeiraPagina(Limit.of(ClienteServiceImpl.TAMANHO_MAXIMO_PAGINA + 1));
+        }
+
+        @DisplayName("Deve lançar exceção quando o cursor não é um CPF")
+        @Test
+        void deveGerarExcecao_QuandoCursorInvalido() {
+            // Act & Assert
+            assertThatThrownBy(() -> clienteService.buscarPagina("abc", 2))
+                    .isInstanceOf(CursorInvalidoException.class);
+            verifyNoInteractions(clienteRepository);
+        }
+
+        @DisplayName("Deve pesquisar Clientes por filtro com cursor para a próxima página")
+        @Test
+        void devePesquisarClientesPorFiltro() {
+            // Arrange
+            var filtro = new FiltroClienteDTO(null, "ninguém", "Salvador", null, null);
+            var outroDTO = gerarClienteDTO(gerarCliente());
+            when(clienteRepository.pesquisar(filtro, null, 3))
+                    .thenReturn(List.of(clienteDTO, outroDTO, gerarClienteDTO(gerarCliente())));
+
+            // Act
+            var pagina = clienteService.pesquisar(filtro, null, 2);
+
+            // Assert
+            assertThat(pagina.clientes()).containsExactly(clienteDTO, outroDTO);
+            assertThat(pagina.proximoCursor()).isEqualTo(outroDTO.cpf());
+            verify(clienteRepository).pesquisar(filtro, null, 3);
+            verifyNoInteractions(clienteMapper);
+        }
+
+        @DisplayName("Deve buscar Clientes por texto limitando o tamanho da página")
+        @Test
+        void deveBuscarClientesPorTexto() {
+            // Arrange
+            var resultado = new ResultadoBuscaTextoDTO(List.of(clienteDTO), null);
+            when(indiceClientes.buscar("ninguem", null, ClienteServiceImpl.TAMANHO_MAXIMO_PAGINA)).thenReturn(resultado);
+
+            // Act
+            var encontrados = clienteService.buscarTexto("ninguem", null, 1_000_000);
+
+            // Assert
+            assertThat(encontrados).isEqualTo(resultado);
+            verifyNoInteractions(clienteRepository);
+        }
+
+        @DisplayName("Deve exportar todos os clientes")
+        @Test
+        void deveExportarTodosOsClientes() {
+            // Arrange
+            var clientes = List.of(gerarClienteDTO(gerarCliente()), gerarClienteDTO(gerarCliente()));
+            when(clienteRepository.streamTodosOrdenadosPorCpf()).thenReturn(clientes.stream());
+            List<ClienteDTO> exportados = new ArrayList<>();
+
+            // Act
+            clienteService.exportarTodos(exportados::add);
+
+            // Assert
+            assertThat(exportados).containsExactlyElementsOf(clientes);
+            verifyNoInteractions(clienteMapper);
         }
     }
 
@@ -134,11 +365,11 @@ class ClienteServiceTest {
         @Test
         void deveSalvarCliente() {
             // Arrange
-            when(clienteMapper.toEntity(clienteDTO)).thenReturn(cliente);
-            when(clienteMapper.toDto(cliente)).thenReturn(clienteDTO);
             when(enderecoService.buscarPorId(clienteDTO.enderecoId())).thenReturn(enderecoDTO);
-            when(clienteRepository.findById(cliente.getCpf())).thenReturn(Optional.empty());
-            when(clienteRepository.save(cliente)).thenReturn(cliente);
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
+            when(clienteRepository.inserir(Cpf.numero(clienteDTO.cpf()), clienteDTO.nome(), NOME_BUSCA,
+                    clienteDTO.email(), clienteDTO.enderecoId(), SEQUENCIA))
+                    .thenReturn(1);
 
             // Act
             var clienteSalvo = clienteService.salvar(clienteDTO);
@@ -149,10 +380,13 @@ class ClienteServiceTest {
                     .isInstanceOf(ClienteDTO.class)
                     .isEqualTo(clienteDTO);
             verify(enderecoService).buscarPorId(clienteDTO.enderecoId());
-            verify(clienteRepository).findById(cliente.getCpf());
-            verify(clienteRepository).save(cliente);
-            verify(clienteMapper).toDto(cliente);
-            verify(clienteMapper).toEntity(clienteDTO);
+            verify(filtroCpfs).adicionar(clienteDTO.cpf());
+            verify(clienteRepository).inserir(Cpf.numero(clienteDTO.cpf()), clienteDTO.nome(), NOME_BUSCA,
+                    clienteDTO.email(), clienteDTO.enderecoId(), SEQUENCIA);
+            verifyNoMoreInteractions(clienteRepository);
+            verify(eventPublisher).publishEvent(
+                    AlteracaoRegistradaEvento.cliente(TipoAlteracao.CRIACAO, clienteDTO.cpf(), clienteDTO));
+            verify(eventPublisher).publishEvent(ClientesAlteradosEvento.de(clienteDTO.cpf()));
         }
 
         @DisplayName("Deve lançar exceção ao tentar salvar Cliente com endereço inexistente")
@@ -167,19 +401,86 @@ class ClienteServiceTest {
                     .isInstanceOf(RecursoNaoEncontradoException.class)
                     .hasMessage("Endereço não encontrado com id: " + clienteDTO.enderecoId());
             verify(enderecoService).buscarPorId(clienteDTO.enderecoId());
+            verifyNoInteractions(clienteRepository);
         }
 
         @DisplayName("Deve lançar exceção ao tentar salvar Cliente com cpf existente")
         @Test
         void deveGerarExcecao_QuandoSalvarCliente_ComCpfExistente(){
             //Arrenge
-            when(clienteRepository.findById(cliente.getCpf())).thenReturn(Optional.of(cliente));
+            when(enderecoService.buscarPorId(clienteDTO.enderecoId())).thenReturn(enderecoDTO);
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
+            when(clienteRepository.inserir(Cpf.numero(clienteDTO.cpf()), clienteDTO.nome(), NOME_BUSCA,
+                    clienteDTO.email(), clienteDTO.enderecoId(), SEQUENCIA))
+                    .thenThrow(new DataIntegrityViolationException("duplicate key",
+                            new SQLException("duplicate key", "23505")));
 
             //Act & Assert
             assertThatThrownBy(() -> clienteService.salvar(clienteDTO))
                     .isInstanceOf(CPFJaCadastradoException.class)
                     .hasMessage("CPF " + cliente.getCpf() + " já cadastrado no sistema");
         }
+
+        @DisplayName("Deve repassar violações que não são de CPF duplicado")
+        @Test
+        void deveRepassarOutrasViolacoes_QuandoSalvarCliente(){
+            //Arrenge
+            DataIntegrityViolationException violacao = new DataIntegrityViolationException("value too long",
+                    new SQLException("value too long", "22001"));
+            when(enderecoService.buscarPorId(clienteDTO.enderecoId())).thenReturn(enderecoDTO);
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
+            when(clienteRepository.inserir(Cpf.numero(clienteDTO.cpf()), clienteDTO.nome(), NOME_BUSCA,
+                    clienteDTO.email(), clienteDTO.enderecoId(), SEQUENCIA))
+                    .thenThrow(violacao);
+
+            //Act & Assert
+            assertThatThrownBy(() -> clienteService.salvar(clienteDTO)).isSameAs(violacao);
+        }
+    }
+
+    @DisplayName("Importar Clientes")
+    @Nested
+    class ImportarClientes {
+
+        @BeforeEach
+        void setUp() {
+            when(transactionTemplate.execute(any()))
+                    .thenAnswer(invocacao -> invocacao.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+            when(enderecoRepository.buscarIdsExistentes(any())).thenReturn(List.of(clienteDTO.enderecoId()));
+            when(validator.validate(any(ClienteDTO.class))).thenReturn(Set.of());
+        }
+
+        @DisplayName("Deve rejeitar o registro nulo e importar os demais")
+        @Test
+        void deveRejeitarRegistroNulo() {
+            // Act
+            var resultado = clienteService.importar(Arrays.asList(null, clienteDTO).iterator());
+
+            // Assert
+            assertThat(resultado.importados()).isEqualTo(1);
+            assertThat(resultado.registros().get(0).erros()).containsExactly("O registro não pode ser nulo");
+            assertThat(resultado.registros().get(1).importado()).isTrue();
+        }
+
+        @DisplayName("Deve gravar registro a registro e rejeitar só o recusado quando o lote falhar no banco")
+        @Test
+        void deveRejeitarSoORegistroRecusado_QuandoLoteFalhar() {
+            // Arrange
+            ClienteDTO recusado = new ClienteDTO(gerarCpf(), "Recusado", "recusado@mail.com", clienteDTO.enderecoId());
+            doThrow(new DataIntegrityViolationException("check"))
+                    .doNothing()
+                    .doThrow(new DataIntegrityViolationException("check"))
+                    .when(entityManager).flush();
+
+            // Act
+            var resultado = clienteService.importar(List.of(clienteDTO, recusado).iterator());
+
+            // Assert
+            assertThat(resultado.importados()).isEqualTo(1);
+            assertThat(resultado.registros().get(0).importado()).isTrue();
+            assertThat(resultado.registros().get(1).erros()).containsExactly("Registro recusado pelo banco de dados");
+            verify(transactionTemplate, times(3)).execute(any());
+        }
     }
 
     @DisplayName("Alterar Cliente")
@@ -190,60 +491,114 @@ class ClienteServiceTest {
         @Test
         void deveAlterarClientePorId() {
             // Arrange
-            when(clienteMapper.toEntity(clienteDTO)).thenReturn(cliente);
-            when(clienteMapper.toDto(cliente)).thenReturn(clienteDTO);
-            doNothing().when(clienteMapper).updateFromDto(clienteAtualizacaoDTO, cliente);
-            when(enderecoService.buscarPorId(clienteDTO.enderecoId())).thenReturn(enderecoDTO);
-            when(clienteRepository.save(cliente)).thenReturn(cliente);
-            when(clienteRepository.findById(cliente.getCpf())).thenReturn(Optional.of(cliente));
+            when(enderecoService.buscarPorId(clienteAtualizacaoDTO.enderecoId())).thenReturn(enderecoDTO);
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
+            when(clienteRepository.atualizar(Cpf.numero(clienteDTO.cpf()), clienteAtualizacaoDTO.nome(), NOME_BUSCA,
+                    clienteAtualizacaoDTO.email(), clienteAtualizacaoDTO.enderecoId(), SEQUENCIA)).thenReturn(1);
 
             // Act
-            var clienteSalvo = clienteService.atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO);
+            var clienteSalvo = clienteService.atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO, null);
 
             // Assert
-            assertThat(clienteSalvo)
+            assertThat(clienteSalvo.valor())
                     .isNotNull()
                     .isInstanceOf(ClienteDTO.class)
                     .isEqualTo(clienteDTO);
+            assertThat(clienteSalvo.versao()).isNull();
             verify(enderecoService).buscarPorId(clienteDTO.enderecoId());
-            verify(clienteRepository).findById(clienteDTO.cpf());
-            verify(clienteRepository).save(cliente);
-            verify(clienteMapper).updateFromDto(clienteAtualizacaoDTO, cliente);
-            verify(clienteMapper).toEntity(clienteDTO);
-            verify(clienteMapper, times(2)).toDto(cliente);
+            verify(clienteRepository).atualizar(Cpf.numero(clienteDTO.cpf()), clienteAtualizacaoDTO.nome(), NOME_BUSCA,
+                    clienteAtualizacaoDTO.email(), clienteAtualizacaoDTO.enderecoId(), SEQUENCIA);
+            verifyNoMoreInteractions(clienteRepository);
+            verifyNoInteractions(clienteMapper);
         }
 
         @DisplayName("Deve lançar exceção ao tentar alterar Cliente com cpf inexistente")
         @Test
         void deveGerarExcecao_QuandoAlterarCliente_PorIdInexistente() {
             // Arrange
-            when(clienteRepository.findById(cliente.getCpf())).thenReturn(Optional.empty());
+            when(enderecoService.buscarPorId(clienteAtualizacaoDTO.enderecoId())).thenReturn(enderecoDTO);
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
+            when(clienteRepository.atualizar(Cpf.numero(clienteDTO.cpf()), clienteAtualizacaoDTO.nome(), NOME_BUSCA,
+                    clienteAtualizacaoDTO.email(), clienteAtualizacaoDTO.enderecoId(), SEQUENCIA)).thenReturn(0);
             // Act & Assert
-            assertThatThrownBy(() -> clienteService.atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO))
+            assertThatThrownBy(() -> clienteService.atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO, null))
                     .isInstanceOf(RecursoNaoEncontradoException.class)
                     .hasMessage("Cliente não encontrado com o cpf: " + cliente.getCpf());
-
-            verify(clienteRepository).findById(clienteDTO.cpf());
         }
 
         @DisplayName("Deve lançar exceção ao tentar alterar Cliente por endereço inexistente")
         @Test
         void deveGerarExcecao_QuandoAlterarCliente_PorEnderecoInexistente() {
             // Arrange
-            when(clienteMapper.toEntity(clienteDTO)).thenReturn(cliente);
-            when(clienteMapper.toDto(cliente)).thenReturn(clienteDTO);
-            when(clienteRepository.findById(cliente.getCpf())).thenReturn(Optional.of(cliente));
             when(enderecoService.buscarPorId(clienteDTO.enderecoId())).thenThrow(new
                     RecursoNaoEncontradoException("Endereço não encontrado com id: " + clienteDTO.enderecoId()));
 
             // Act & Assert
-            assertThatThrownBy(() -> clienteService.atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO))
+            assertThatThrownBy(() -> clienteService.atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO, null))
                     .isInstanceOf(RecursoNaoEncontradoException.class)
                     .hasMessage("Endereço não encontrado com id: " + clienteDTO.enderecoId());
 
             verify(enderecoService).buscarPorId(clienteDTO.enderecoId());
-            verify(clienteRepository).findById(clienteDTO.cpf());
+            verifyNoInteractions(clienteRepository);
+        }
+
+        @DisplayName("Deve alterar Cliente quando a versão esperada é a atual")
+        @Test
+        void deveAlterarCliente_QuandoVersaoCorresponde() {
+            // Arrange
+            when(enderecoService.buscarPorId(clienteAtualizacaoDTO.enderecoId())).thenReturn(enderecoDTO);
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
+            when(clienteRepository.atualizarSeVersao(Cpf.numero(clienteDTO.cpf()), clienteAtualizacaoDTO.nome(),
+                    NOME_BUSCA, clienteAtualizacaoDTO.email(), clienteAtualizacaoDTO.enderecoId(), 3L, SEQUENCIA))
+                    .thenReturn(1);
+
+            // Act
+            var clienteSalvo = clienteService.atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO, 3L);
+
+            // Assert
+            assertThat(clienteSalvo.valor()).isEqualTo(clienteDTO);
+            assertThat(clienteSalvo.versao()).isEqualTo(4L);
+            verify(clienteRepository).atualizarSeVersao(Cpf.numero(clienteDTO.cpf()), clienteAtualizacaoDTO.nome(),
+                    NOME_BUSCA, clienteAtualizacaoDTO.email(), clienteAtualizacaoDTO.enderecoId(), 3L, SEQUENCIA);
             verifyNoMoreInteractions(clienteRepository);
+            verify(eventPublisher).publishEvent(
+                    AlteracaoRegistradaEvento.cliente(TipoAlteracao.ATUALIZACAO, clienteDTO.cpf(), clienteDTO));
+            verify(eventPublisher).publishEvent(ClientesAlteradosEvento.de(clienteDTO.cpf()));
+        }
+
+        @DisplayName("Deve lançar exceção ao alterar Cliente com versão desatualizada")
+        @Test
+        void deveGerarExcecao_QuandoAlterarCliente_ComVersaoDesatualizada() {
+            // Arrange
+            when(enderecoService.buscarPorId(clienteAtualizacaoDTO.enderecoId())).thenReturn(enderecoDTO);
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
+            when(clienteRepository.atualizarSeVersao(Cpf.numero(clienteDTO.cpf()), clienteAtualizacaoDTO.nome(),
+                    NOME_BUSCA, clienteAtualizacaoDTO.email(), clienteAtualizacaoDTO.enderecoId(), 3L, SEQUENCIA))
+                    .thenReturn(0);
+            when(clienteRepository.buscarVersao(clienteDTO.cpf())).thenReturn(Optional.of(5L));
+
+            // Act & Assert
+            assertThatThrownBy(() -> clienteService.atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO, 3L))
+                    .isInstanceOf(VersaoDesatualizadaException.class)
+                    .hasMessage("Cliente com o cpf " + clienteDTO.cpf() + " foi alterado por outra requisição");
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @DisplayName("Deve lançar exceção ao alterar com versão Cliente com cpf inexistente")
+        @Test
+        void deveGerarExcecao_QuandoAlterarCliente_ComVersao_PorIdInexistente() {
+            // Arrange
+            when(enderecoService.buscarPorId(clienteAtualizacaoDTO.enderecoId())).thenReturn(enderecoDTO);
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
+            when(clienteRepository.atualizarSeVersao(Cpf.numero(clienteDTO.cpf()), clienteAtualizacaoDTO.nome(),
+                    NOME_BUSCA, clienteAtualizacaoDTO.email(), clienteAtualizacaoDTO.enderecoId(), 3L, SEQUENCIA))
+                    .thenReturn(0);
+            when(clienteRepository.buscarVersao(clienteDTO.cpf())).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertThatThrownBy(() -> clienteService.atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO, 3L))
+                    .isInstanceOf(RecursoNaoEncontradoException.class)
+                    .hasMessage("Cliente não encontrado com o cpf: " + clienteDTO.cpf());
         }
     }
 
@@ -255,32 +610,98 @@ class ClienteServiceTest {
         @Test
         void deveDeletarClientePorId(){
             // Arrange
-            when(clienteRepository.findById(cliente.getCpf()))
-                    .thenReturn(Optional.of(cliente));
-            doNothing().when(clienteRepository).deleteById(cliente.getCpf());
+            when(clienteRepository.deletarPorCpf(cliente.getCpf())).thenReturn(1);
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
 
             // Act
             clienteService.deletarPorId(cliente.getCpf());
 
             // Assert
-            verify(clienteRepository).findById(cliente.getCpf());
-            verify(clienteRepository).deleteById(cliente.getCpf());
+            verify(clienteRepository).deletarPorCpf(cliente.getCpf());
+            verifyNoMoreInteractions(clienteRepository);
+            verify(remocaoRepository).registrar(SEQUENCIA, AlteracaoRegistradaEvento.CLIENTE, cliente.getCpf());
+            verify(eventPublisher).publishEvent(
+                    AlteracaoRegistradaEvento.cliente(TipoAlteracao.REMOCAO, cliente.getCpf(), null));
         }
 
         @DisplayName("Deve lançar exceção ao tentar deletar Cliente por id inexistente")
         @Test
         void deveGerarExcecao_QuandoDeletarCliente_PorIdInexistente(){
             // Arrange
-            when(clienteRepository.findById(cliente.getCpf())).thenReturn(Optional.empty());
+            when(clienteRepository.deletarPorCpf(cliente.getCpf())).thenReturn(0);
 
             // Act & Assert
             assertThatThrownBy(() -> clienteService.deletarPorId(cliente.getCpf()))
                     .isInstanceOf(RecursoNaoEncontradoException.class)
                     .hasMessage("Cliente não encontrado com o cpf: " + cliente.getCpf());
 
-            verify(clienteRepository).findById(cliente.getCpf());
+            verify(clienteRepository).deletarPorCpf(cliente.getCpf());
+            verifyNoInteractions(sequenciaAlteracoes, remocaoRepository);
         }
     }
-}
 
+    @DisplayName("Buscar alterações")
+    @Nested
+    class BuscarAlteracoes {
 
+        @DisplayName("Deve intercalar clientes, endereços e remoções em ordem de alteração")
+        @Test
+        void deveIntercalarAlteracoesEmOrdem() {
+            // Arrange
+            Endereco endereco = gerarEndereco();
+            endereco.setSequenciaAlteracao(11L);
+            cliente.setSequenciaAlteracao(12L);
+            when(sequenciaAlteracoes.limiteVisivel()).thenReturn(1000L);
+            when(clienteRepository.buscarAlteradosDesde(10L, 1000L, Limit.of(51))).thenReturn(List.of(cliente));
+            when(enderecoRepository.buscarAlteradosDesde(10L, 1000L, Limit.of(51))).thenReturn(List.of(endereco));
+            when(remocaoRepository.buscarDesde(10L, 1000L, Limit.of(51))).thenReturn(
+                    List.of(new Remocao(13L, AlteracaoRegistradaEvento.CLIENTE, "00000000000")));
+            when(clienteMapper.toDto(cliente)).thenReturn(clienteDTO);
+            when(enderecoMapper.toDto(endereco)).thenReturn(enderecoDTO);
+
+            // Act
+            var resultado = clienteService.buscarAlteracoes(10L, 50);
+
+            // Assert
+            assertThat(resultado.alteracoes()).containsExactly(
+                    new AlteracaoDTO(11L, AlteracaoRegistradaEvento.ENDERECO, String.valueOf(endereco.getId()),
+                            false, null, enderecoDTO),
+                    new AlteracaoDTO(12L, AlteracaoRegistradaEvento.CLIENTE, cliente.getCpf(), false, clienteDTO, null),
+                    new AlteracaoDTO(13L, AlteracaoRegistradaEvento.CLIENTE, "00000000000", true, null, null));
+            assertThat(resultado.cursor()).isEqualTo(13L);
+            assertThat(resultado.haMais()).isFalse();
+        }
+
+        @DisplayName("Deve cortar a página no tamanho pedido e devolver o cursor da última alteração")
+        @Test
+        void deveCortarPaginaNoTamanho() {
+            // Arrange
+            when(sequenciaAlteracoes.limiteVisivel()).thenReturn(1000L);
+            when(clienteRepository.buscarAlteradosDesde(0L, 1000L, Limit.of(2))).thenReturn(List.of());
+            when(enderecoRepository.buscarAlteradosDesde(0L, 1000L, Limit.of(2))).thenReturn(List.of());
+            when(remocaoRepository.buscarDesde(0L, 1000L, Limit.of(2))).thenReturn(List.of(
+                    new Remocao(5L, AlteracaoRegistradaEvento.CLIENTE, "11111111111"),
+                    new Remocao(6L, AlteracaoRegistradaEvento.ENDERECO, "1")));
+
+            // Act
+            var resultado = clienteService.buscarAlteracoes(0L, 1);
+
+            // Assert
+            assertThat(resultado.alteracoes()).extracting(AlteracaoDTO::sequencia).containsExactly(5L);
+            assertThat(resultado.cursor()).isEqualTo(5L);
+            assertThat(resultado.haMais()).isTrue();
+        }
+
+        @DisplayName("Deve manter o cursor recebido quando não há alterações novas")
+        @Test
+        void deveManterCursor_QuandoNaoHaAlteracoes() {
+            // Act
+            var resultado = clienteService.buscarAlteracoes(42L, 50);
+
+            // Assert
+            assertThat(resultado.alteracoes()).isEmpty();
+            assertThat(resultado.cursor()).isEqualTo(42L);
+            assertThat(resultado.haMais()).isFalse();
+        }
+    }
+}
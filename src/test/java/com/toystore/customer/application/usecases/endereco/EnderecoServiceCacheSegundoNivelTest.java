@@ -0,0 +1,157 @@
+package com.toystore.customer.application.usecases.endereco;
+
+import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.domain.exceptions.RecursoNaoEncontradoException;
+import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Endereco;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.infrastructure.config.AgrupamentoConfig;
+import com.toystore.customer.infrastructure.config.CacheSegundoNivelConfig;
+import com.toystore.customer.infrastructure.config.DeduplicacaoEnderecosConfig;
+import com.toystore.customer.infrastructure.config.DiretorioCepsConfig;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import com.toystore.customer.interfaces.mapper.ClienteMapperImpl;
+import com.toystore.customer.interfaces.mapper.EnderecoMapperImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Sem transação envolvendo o teste: cada chamada abre a sua sessão, como em produção,
+// e só o cache de segundo nível pode evitar a ida ao banco
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "toystore.cache-segundo-nivel.enabled=true"
+})
+@ActiveProfiles("test")
+@Import({AgrupamentoConfig.class, CacheSegundoNivelConfig.class, DeduplicacaoEnderecosConfig.class,
+        DiretorioCepsConfig.class, EnderecoServiceImpl.class, ClienteMapperImpl.class, EnderecoMapperImpl.class,
+        LocalValidatorFactoryBean.class, SequenciaAlteracoes.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EnderecoServiceCacheSegundoNivelTest {
+
+    @Autowired
+    private EnderecoService enderecoService;
+
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Endereco endereco;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        this.endereco = enderecoRepository.save(Endereco.builder()
+                .cep("40000-000")
+                .estado("BA")
+                .cidade("Salvador")
+                .bairro("Centro")
+                .rua("Rua Principal")
+                .numero("1")
+                .build());
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clienteRepository.deleteAll();
+        enderecoRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @DisplayName("Deve buscar o Endereço repetido sem nenhum comando SQL")
+    @Test
+    void deveBuscarEnderecoRepetidoSemSql() {
+        enderecoService.buscarPorId(endereco.getId());
+        statistics.clear();
+
+        var enderecoRecebido = enderecoService.buscarPorId(endereco.getId());
+
+        assertThat(enderecoRecebido.cep()).isEqualTo("40000-000");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve listar os Endereços repetidos sem nenhum comando SQL")
+    @Test
+    void deveListarEnderecosRepetidosSemSql() {
+        enderecoService.buscarTodos();
+        statistics.clear();
+
+        var enderecos = enderecoService.buscarTodos();
+
+        assertThat(enderecos).hasSize(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve retornar o Endereço alterado após atualizar")
+    @Test
+    void deveRetornarEnderecoAlteradoAposAtualizar() {
+        enderecoService.buscarPorId(endereco.getId());
+
+        enderecoService.atualizar(endereco.getId(), new EnderecoDTO(endereco.getId(), "22222-222", "BA",
+                "Salvador", "Pituba", "Rua Nova", "10"), null);
+        var enderecoRecebido = enderecoService.buscarPorId(endereco.getId());
+
+        assertThat(enderecoRecebido.cep()).isEqualTo("22222-222");
+        assertThat(enderecoService.buscarTodos())
+                .extracting(EnderecoDTO::cep)
+                .containsExactly("22222-222");
+    }
+
+    @DisplayName("Deve deixar de encontrar o Endereço após deletar")
+    @Test
+    void deveDeixarDeEncontrarEnderecoAposDeletar() {
+        enderecoService.buscarPorId(endereco.getId());
+
+        enderecoService.deletarPorId(endereco.getId());
+
+        assertThatThrownBy(() -> enderecoService.buscarPorId(endereco.getId()))
+                .isInstanceOf(RecursoNaoEncontradoException.class);
+        assertThat(enderecoService.buscarTodos()).isEmpty();
+    }
+
+    @DisplayName("Deve invalidar o Cliente em cache após alteração por comando nativo")
+    @Test
+    void deveInvalidarClienteAposAlteracaoNativa() {
+        clienteRepository.save(Cliente.builder()
+                .cpf("12345678901")
+                .nome("João Silva")
+                .email("joaosilva@mail.com")
+                .endereco(endereco)
+                .build());
+        enderecoService.buscarPorId(endereco.getId());
+        clienteRepository.findById("12345678901");
+
+        clienteRepository.atualizar(12345678901L, "João S.", "joao s.", "joao@mail.com", endereco.getId(), 1L);
+
+        assertThat(clienteRepository.findById("12345678901"))
+                .hasValueSatisfying(cliente -> assertThat(cliente.getNome()).isEqualTo("João S."));
+        // A região de Endereço não é afetada pelo comando na tabela cliente
+        assertThat(entityManagerFactory.getCache().contains(Endereco.class, endereco.getId())).isTrue();
+    }
+}
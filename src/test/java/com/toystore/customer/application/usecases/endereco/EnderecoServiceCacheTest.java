@@ -0,0 +1,163 @@
+package com.toystore.customer.application.usecases.endereco;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.dto.Versionado;
+import com.toystore.customer.domain.model.Endereco;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.domain.repository.RemocaoRepository;
+import com.toystore.customer.infrastructure.cep.DiretorioCeps;
+import com.toystore.customer.infrastructure.concorrencia.AgrupadorDeConsultas;
+import com.toystore.customer.infrastructure.config.CacheConfig;
+import com.toystore.customer.infrastructure.deduplicacao.DeduplicacaoEnderecos;
+import com.toystore.customer.infrastructure.deduplicacao.MesclagemEnderecos;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import com.toystore.customer.interfaces.mapper.EnderecoMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static com.toystore.customer.infrastructure.utils.EnderecoHelper.gerarEndereco;
+import static com.toystore.customer.infrastructure.utils.EnderecoHelper.gerarEnderecoDTO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {CacheConfig.class, EnderecoServiceImpl.class})
+class EnderecoServiceCacheTest {
+
+    @MockitoBean
+    private EnderecoRepository enderecoRepository;
+
+    @MockitoBean
+    private EnderecoMapper enderecoMapper;
+
+    @MockitoBean
+    private AgrupadorDeConsultas<Long, Versionado<EnderecoDTO>> agrupadorEnderecos;
+
+    @MockitoBean
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private Validator validator;
+
+    @MockitoBean
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private SequenciaAlteracoes sequenciaAlteracoes;
+
+    @MockitoBean
+    private RemocaoRepository remocaoRepository;
+
+    @MockitoBean
+    private DeduplicacaoEnderecos deduplicacaoEnderecos;
+
+    @MockitoBean
+    private MesclagemEnderecos mesclagemEnderecos;
+
+    @MockitoBean
+    private DiretorioCeps diretorioCeps;
+
+    @Autowired
+    private EnderecoService enderecoService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Endereco endereco;
+    private EnderecoDTO enderecoDTO;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.CACHE_ENDERECOS).clear();
+        this.endereco = gerarEndereco();
+        this.enderecoDTO = gerarEnderecoDTO(endereco);
+        when(agrupadorEnderecos.buscar(endereco.getId()))
+                .thenReturn(Optional.of(new Versionado<>(enderecoDTO, endereco.getVersao())));
+        when(enderecoRepository.findById(endereco.getId())).thenReturn(Optional.of(endereco));
+        when(enderecoMapper.toDto(endereco)).thenReturn(enderecoDTO);
+    }
+
+    @DisplayName("Deve consultar o banco apenas na primeira busca do Endereço")
+    @Test
+    void deveReutilizarEnderecoEmCache() {
+        var estatisticasIniciais = cacheNativo().stats();
+
+        var primeiraBusca = enderecoService.buscarPorId(endereco.getId());
+        var segundaBusca = enderecoService.buscarPorId(endereco.getId());
+
+        assertThat(segundaBusca).isEqualTo(primeiraBusca);
+        verify(agrupadorEnderecos, times(1)).buscar(endereco.getId());
+        var estatisticas = cacheNativo().stats().minus(estatisticasIniciais);
+        assertThat(estatisticas.hitCount()).isEqualTo(1);
+        assertThat(estatisticas.missCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve remover o Endereço do cache ao alterar")
+    @Test
+    void deveRemoverEnderecoDoCacheAoAlterar() {
+        var enderecoAlterado = new EnderecoDTO(endereco.getId(), "22222-222", "BA", "Salvador",
+                "Pituba", "Rua Nova", "10");
+        when(enderecoRepository.saveAndFlush(endereco)).thenReturn(endereco);
+        when(agrupadorEnderecos.buscar(endereco.getId()))
+                .thenReturn(Optional.of(new Versionado<>(enderecoDTO, endereco.getVersao())),
+                        Optional.of(new Versionado<>(enderecoAlterado, endereco.getVersao())));
+        when(enderecoMapper.toDto(endereco)).thenReturn(enderecoAlterado);
+
+        enderecoService.buscarPorId(endereco.getId());
+        enderecoService.atualizar(endereco.getId(), enderecoAlterado, null);
+        var enderecoRecebido = enderecoService.buscarPorId(endereco.getId());
+
+        // A busca após a alteração volta ao banco, pois o cache não guarda a versão do Endereço
+        assertThat(enderecoRecebido).isEqualTo(enderecoAlterado);
+        verify(agrupadorEnderecos, times(2)).buscar(endereco.getId());
+        verify(enderecoRepository).findById(endereco.getId());
+    }
+
+    @DisplayName("Deve remover o Endereço do cache ao deletar")
+    @Test
+    void deveRemoverEnderecoDoCacheAoDeletar() {
+        enderecoService.buscarPorId(endereco.getId());
+
+        enderecoService.deletarPorId(endereco.getId());
+
+        assertThat(cacheManager.getCache(CacheConfig.CACHE_ENDERECOS).get(endereco.getId())).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    @DisplayName("Deve manter o Endereço no cache até o commit da remoção")
+    @Test
+    void deveRemoverEnderecoDoCacheSoDepoisDoCommit() {
+        enderecoService.buscarPorId(endereco.getId());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            enderecoService.deletarPorId(endereco.getId());
+
+            // Antes do commit, a remoção ainda pode ser desfeita e a linha continua no banco
+            assertThat(cacheNativo().getIfPresent(endereco.getId())).isEqualTo(enderecoDTO);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cacheNativo().getIfPresent(endereco.getId())).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> cacheNativo() {
+        // O cache vem decorado pela sincronização com a transação; o nativo é o do Caffeine
+        return (Cache<Object, Object>) cacheManager.getCache(CacheConfig.CACHE_ENDERECOS).getNativeCache();
+    }
+}
@@ -1,11 +1,27 @@
 package com.toystore.customer.application.usecases.endereco;
 
+import com.toystore.customer.application.dto.CepDTO;
 import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.dto.Versionado;
+import com.toystore.customer.domain.eventos.AlteracaoRegistradaEvento;
+import com.toystore.customer.domain.eventos.EnderecoAlteradoEvento;
+import com.toystore.customer.domain.eventos.TipoAlteracao;
+import com.toystore.customer.domain.exceptions.EnderecoJaCadastradoException;
 import com.toystore.customer.domain.exceptions.RecursoNaoEncontradoException;
+import com.toystore.customer.domain.exceptions.VersaoDesatualizadaException;
 import com.toystore.customer.domain.model.Endereco;
 import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.domain.repository.RemocaoRepository;
+import com.toystore.customer.infrastructure.cep.DiretorioCeps;
+import com.toystore.customer.infrastructure.concorrencia.AgrupadorDeConsultas;
+import com.toystore.customer.infrastructure.deduplicacao.DeduplicacaoEnderecos;
+import com.toystore.customer.infrastructure.deduplicacao.MesclagemEnderecos;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
 import com.toystore.customer.infrastructure.utils.EnderecoHelper;
 import com.toystore.customer.interfaces.mapper.EnderecoMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,9 +30,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.toystore.customer.infrastructure.utils.EnderecoHelper.gerarEndereco;
 import static com.toystore.customer.infrastructure.utils.EnderecoHelper.gerarEnderecoDTO;
@@ -28,12 +52,44 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class EnderecoServiceTest {
 
+    private static final long SEQUENCIA = 1001L;
+
     @Mock
     private EnderecoRepository enderecoRepository;
 
     @Mock
     private EnderecoMapper enderecoMapper;
 
+    @Mock
+    private AgrupadorDeConsultas<Long, Versionado<EnderecoDTO>> agrupadorEnderecos;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SequenciaAlteracoes sequenciaAlteracoes;
+
+    @Mock
+    private RemocaoRepository remocaoRepository;
+
+    @Mock
+    private DeduplicacaoEnderecos deduplicacaoEnderecos;
+
+    @Mock
+    private MesclagemEnderecos mesclagemEnderecos;
+
+    @Mock
+    private DiretorioCeps diretorioCeps;
+
     @InjectMocks
     private EnderecoServiceImpl enderecoService;
 
@@ -55,8 +111,8 @@ class EnderecoServiceTest {
         @Test
         void deveBuscarEndereco(){
             //Arrange
-            when(enderecoRepository.findById(endereco.getId())).thenReturn(Optional.of(endereco));
-            when(enderecoMapper.toDto(endereco)).thenReturn(enderecoDTO);
+            when(agrupadorEnderecos.buscar(endereco.getId()))
+                    .thenReturn(Optional.of(new Versionado<>(enderecoDTO, endereco.getVersao())));
 
             //Act
             var enderecoRecebido = enderecoService.buscarPorId(endereco.getId());
@@ -66,21 +122,21 @@ class EnderecoServiceTest {
                     .usingRecursiveComparison()
                     .isEqualTo(endereco);
 
-            verify(enderecoRepository).findById(endereco.getId());
+            verify(agrupadorEnderecos).buscar(endereco.getId());
         }
 
         @DisplayName("Deve lançar exceção ao buscar Endereço com id inexistente")
         @Test
         void deveGerarExcecao_QuandoBuscarEndereco_PorIdInexistente(){
             //Arrange
-            when(enderecoRepository.findById(endereco.getId())).thenReturn(Optional.empty());
+            when(agrupadorEnderecos.buscar(endereco.getId())).thenReturn(Optional.empty());
 
             //Act & Assert
             assertThatThrownBy(() -> enderecoService.buscarPorId(endereco.getId()))
                     .isInstanceOf(RecursoNaoEncontradoException.class)
                     .hasMessage("Endereço não encontrado com id: " + endereco.getId());
 
-            verify(enderecoRepository).findById(endereco.getId());
+            verify(agrupadorEnderecos).buscar(endereco.getId());
         }
 
         @DisplayName("Deve retornar um lista de Endereços cadastrados")
@@ -110,6 +166,51 @@ class EnderecoServiceTest {
             verify(enderecoMapper, times(3)).toDto(any(Endereco.class));
         }
 
+        @DisplayName("Deve entregar todos os Endereços ao consumidor sem carregar as entidades")
+        @Test
+        void deveExportarTodosOsEnderecos() {
+            // Arrange
+            var enderecos = List.of(gerarEnderecoDTO(gerarEndereco()), gerarEnderecoDTO(gerarEndereco()));
+            when(enderecoRepository.streamTodosOrdenadosPorId()).thenReturn(enderecos.stream());
+            List<EnderecoDTO> exportados = new ArrayList<>();
+
+            // Act
+            enderecoService.exportarTodos(exportados::add);
+
+            // Assert
+            assertThat(exportados).containsExactlyElementsOf(enderecos);
+            verifyNoInteractions(enderecoMapper);
+        }
+
+    }
+
+    @DisplayName("Buscar CEP")
+    @Nested
+    class BuscarCep {
+
+        @DisplayName("Deve buscar a localidade do CEP no diretório")
+        @Test
+        void deveBuscarCep() {
+            // Arrange
+            var cep = new CepDTO("40020-000", "BA", "Salvador", "Centro", "Rua Chile");
+            when(diretorioCeps.buscar("40020000")).thenReturn(Optional.of(cep));
+
+            // Act & Assert
+            assertThat(enderecoService.buscarPorCep("40020000")).isEqualTo(cep);
+            verifyNoInteractions(enderecoRepository);
+        }
+
+        @DisplayName("Deve lançar exceção quando o CEP não está no diretório")
+        @Test
+        void deveGerarExcecao_QuandoCepNaoEncontrado() {
+            // Arrange
+            when(diretorioCeps.buscar("99999-999")).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertThatThrownBy(() -> enderecoService.buscarPorCep("99999-999"))
+                    .isInstanceOf(RecursoNaoEncontradoException.class)
+                    .hasMessage("CEP não encontrado: 99999-999");
+        }
     }
 
     @DisplayName("Salvar Endereço")
@@ -123,6 +224,7 @@ class EnderecoServiceTest {
             when(enderecoMapper.toEntity(enderecoDTO)).thenReturn(endereco);
             when(enderecoMapper.toDto(endereco)).thenReturn(enderecoDTO);
             when(enderecoRepository.save(endereco)).thenReturn(endereco);
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
 
             // Act
             var enderecoSalvo = enderecoService.salvar(enderecoDTO);
@@ -133,8 +235,80 @@ class EnderecoServiceTest {
                     .isInstanceOf(EnderecoDTO.class)
                     .isEqualTo(enderecoDTO);
             verify(enderecoRepository).save(endereco);
+            assertThat(endereco.getSequenciaAlteracao()).isEqualTo(SEQUENCIA);
             verify(enderecoMapper).toDto(endereco);
             verify(enderecoMapper).toEntity(enderecoDTO);
+            verify(eventPublisher).publishEvent(
+                    AlteracaoRegistradaEvento.endereco(TipoAlteracao.CRIACAO, enderecoDTO.id(), enderecoDTO));
+        }
+
+        @DisplayName("Deve gravar estado, cidade, bairro e rua do diretório de CEPs quando a conferência está ativa")
+        @Test
+        void deveConferirEnderecoPeloCep() {
+            // Arrange
+            var cep = new CepDTO(enderecoDTO.cep(), "BA", "Salvador", "Comércio", null);
+            var conferido = new EnderecoDTO(enderecoDTO.id(), enderecoDTO.cep(), "BA", "Salvador", "Comércio",
+                    enderecoDTO.rua(), enderecoDTO.numero());
+            when(diretorioCeps.conferirEnderecos()).thenReturn(true);
+            when(diretorioCeps.buscar(enderecoDTO.cep())).thenReturn(Optional.of(cep));
+            when(enderecoMapper.toEntity(conferido)).thenReturn(endereco);
+            when(enderecoMapper.toDto(endereco)).thenReturn(conferido);
+            when(enderecoRepository.save(endereco)).thenReturn(endereco);
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
+
+            // Act
+            var enderecoSalvo = enderecoService.salvar(enderecoDTO);
+
+            // Assert
+            assertThat(enderecoSalvo).isEqualTo(conferido);
+            verify(enderecoMapper).toEntity(conferido);
+        }
+
+        @DisplayName("Deve devolver o Endereço já cadastrado com o mesmo conteúdo quando a deduplicação está ativa")
+        @Test
+        void deveReaproveitarEndereco_QuandoDeduplicacaoAtiva() {
+            // Arrange
+            Endereco existente = gerarEndereco();
+            existente.setId(7L);
+            EnderecoDTO existenteDTO = gerarEnderecoDTO(existente);
+            when(enderecoMapper.toEntity(enderecoDTO)).thenReturn(endereco);
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
+            when(deduplicacaoEnderecos.habilitada()).thenReturn(true);
+            when(deduplicacaoEnderecos.inserirOuReaproveitar(endereco))
+                    .thenReturn(new DeduplicacaoEnderecos.Insercao(7L, false));
+            when(enderecoRepository.findById(7L)).thenReturn(Optional.of(existente));
+            when(enderecoMapper.toDto(existente)).thenReturn(existenteDTO);
+
+            // Act
+            var enderecoSalvo = enderecoService.salvar(enderecoDTO);
+
+            // Assert
+            assertThat(enderecoSalvo).isEqualTo(existenteDTO);
+            verify(enderecoRepository, never()).save(any());
+            verifyNoInteractions(eventPublisher);
+        }
+    }
+
+    @DisplayName("Importar Endereços")
+    @Nested
+    class ImportarEnderecos {
+
+        @DisplayName("Deve rejeitar o registro nulo e importar os demais")
+        @Test
+        void deveRejeitarRegistroNulo() {
+            // Arrange
+            when(transactionTemplate.execute(any()))
+                    .thenAnswer(invocacao -> invocacao.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+            when(validator.validate(enderecoDTO)).thenReturn(Set.of());
+            when(enderecoMapper.toEntity(enderecoDTO)).thenReturn(endereco);
+
+            // Act
+            var resultado = enderecoService.importar(Arrays.asList(enderecoDTO, null).iterator());
+
+            // Assert
+            assertThat(resultado.importados()).isEqualTo(1);
+            assertThat(resultado.registros().get(1).erros()).containsExactly("O registro não pode ser nulo");
+            verify(entityManager).persist(endereco);
         }
     }
 
@@ -146,25 +320,79 @@ class EnderecoServiceTest {
         @Test
         void deveAlterarEnderecoPorId() {
             // Arrange
-            when(enderecoMapper.toEntity(enderecoDTO)).thenReturn(endereco);
+            endereco.setVersao(2L);
             when(enderecoMapper.toDto(endereco)).thenReturn(enderecoDTO);
             doNothing().when(enderecoMapper).updateFromDto(enderecoDTO, endereco);
-            when(enderecoRepository.save(endereco)).thenReturn(endereco);
+            when(enderecoRepository.saveAndFlush(endereco)).thenReturn(endereco);
             when(enderecoRepository.findById(endereco.getId())).thenReturn(Optional.of(endereco));
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
 
             // Act
-            var enderecoSalvo = enderecoService.atualizar(enderecoDTO.id(), enderecoDTO);
+            var enderecoSalvo = enderecoService.atualizar(enderecoDTO.id(), enderecoDTO, null);
 
             // Assert
-            assertThat(enderecoSalvo)
+            assertThat(enderecoSalvo.valor())
                     .isNotNull()
                     .isInstanceOf(EnderecoDTO.class)
                     .isEqualTo(enderecoDTO);
+            assertThat(enderecoSalvo.versao()).isEqualTo(2L);
             verify(enderecoRepository).findById(enderecoDTO.id());
-            verify(enderecoRepository).save(endereco);
+            verify(enderecoRepository).saveAndFlush(endereco);
+            assertThat(endereco.getSequenciaAlteracao()).isEqualTo(SEQUENCIA);
             verify(enderecoMapper).updateFromDto(enderecoDTO, endereco);
-            verify(enderecoMapper).toEntity(enderecoDTO);
-            verify(enderecoMapper, times(2)).toDto(endereco);
+            verify(enderecoMapper).toDto(endereco);
+            verify(eventPublisher).publishEvent(
+                    AlteracaoRegistradaEvento.endereco(TipoAlteracao.ATUALIZACAO, enderecoDTO.id(), enderecoDTO));
+            verify(eventPublisher).publishEvent(new EnderecoAlteradoEvento(enderecoDTO.id()));
+        }
+
+        @DisplayName("Deve lançar exceção ao alterar Endereço para o conteúdo de outro Endereço cadastrado")
+        @Test
+        void deveGerarExcecao_QuandoAlterarEndereco_ComConteudoDeOutroEndereco() {
+            // Arrange
+            when(enderecoRepository.findById(endereco.getId())).thenReturn(Optional.of(endereco));
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
+            when(deduplicacaoEnderecos.hashParaGravar(endereco)).thenReturn("hash");
+            when(enderecoRepository.saveAndFlush(endereco)).thenThrow(violacao("23505", Endereco.INDICE_HASH_CONTEUDO));
+
+            // Act & Assert
+            assertThatThrownBy(() -> enderecoService.atualizar(enderecoDTO.id(), enderecoDTO, null))
+                    .isInstanceOf(EnderecoJaCadastradoException.class)
+                    .hasMessage("Já existe outro endereço cadastrado com o mesmo conteúdo");
+
+            assertThat(endereco.getHashConteudo()).isEqualTo("hash");
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @DisplayName("Deve repassar a violação de unicidade que não é do conteúdo duplicado")
+        @Test
+        void deveRepassarExcecao_QuandoAlterarEndereco_ViolandoOutraRestricao() {
+            // Arrange
+            when(enderecoRepository.findById(endereco.getId())).thenReturn(Optional.of(endereco));
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
+            DataIntegrityViolationException violacao = violacao("23505", "endereco_pkey");
+            when(enderecoRepository.saveAndFlush(endereco)).thenThrow(violacao);
+
+            // Act & Assert
+            assertThatThrownBy(() -> enderecoService.atualizar(enderecoDTO.id(), enderecoDTO, null))
+                    .isSameAs(violacao);
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @DisplayName("Deve lançar exceção ao alterar Endereço com versão desatualizada")
+        @Test
+        void deveGerarExcecao_QuandoAlterarEndereco_ComVersaoDesatualizada() {
+            // Arrange
+            endereco.setVersao(5L);
+            when(enderecoRepository.findById(endereco.getId())).thenReturn(Optional.of(endereco));
+
+            // Act & Assert
+            assertThatThrownBy(() -> enderecoService.atualizar(enderecoDTO.id(), enderecoDTO, 3L))
+                    .isInstanceOf(VersaoDesatualizadaException.class)
+                    .hasMessage("Endereço com id " + endereco.getId() + " foi alterado por outra requisição");
+
+            verify(enderecoRepository, never()).saveAndFlush(any());
+            verifyNoInteractions(enderecoMapper);
         }
 
         @DisplayName("Deve lançar exceção ao tentar alterar Endereço com id inexistente")
@@ -173,7 +401,7 @@ class EnderecoServiceTest {
             // Arrange
             when(enderecoRepository.findById(endereco.getId())).thenReturn(Optional.empty());
             // Act & Assert
-            assertThatThrownBy(() -> enderecoService.atualizar(enderecoDTO.id(), enderecoDTO))
+            assertThatThrownBy(() -> enderecoService.atualizar(enderecoDTO.id(), enderecoDTO, null))
                     .isInstanceOf(RecursoNaoEncontradoException.class)
                     .hasMessage("Endereço não encontrado com id: " + endereco.getId());
 
@@ -189,31 +417,41 @@ class EnderecoServiceTest {
         @Test
         void deveDeletarEnderecoPorId(){
             // Arrange
-            when(enderecoRepository.findById(endereco.getId()))
-                    .thenReturn(Optional.of(endereco));
+            when(agrupadorEnderecos.buscar(endereco.getId()))
+                    .thenReturn(Optional.of(new Versionado<>(enderecoDTO, endereco.getVersao())));
             doNothing().when(enderecoRepository).deleteById(endereco.getId());
+            when(sequenciaAlteracoes.proxima()).thenReturn(SEQUENCIA);
 
             // Act
             enderecoService.deletarPorId(endereco.getId());
 
             // Assert
-            verify(enderecoRepository).findById(endereco.getId());
+            verify(agrupadorEnderecos).buscar(endereco.getId());
             verify(enderecoRepository).deleteById(endereco.getId());
+            verify(remocaoRepository).registrar(SEQUENCIA, AlteracaoRegistradaEvento.ENDERECO,
+                    String.valueOf(endereco.getId()));
+            verify(eventPublisher).publishEvent(
+                    AlteracaoRegistradaEvento.endereco(TipoAlteracao.REMOCAO, endereco.getId(), null));
         }
 
         @DisplayName("Deve lançar exceção ao tentar deletar Endereço por id inexistente")
         @Test
         void deveGerarExcecao_QuandoDeletarEndereco_PorIdInexistente(){
             // Arrange
-            when(enderecoRepository.findById(endereco.getId())).thenReturn(Optional.empty());
+            when(agrupadorEnderecos.buscar(endereco.getId())).thenReturn(Optional.empty());
 
             // Act & Assert
             assertThatThrownBy(() -> enderecoService.deletarPorId(endereco.getId()))
                     .isInstanceOf(RecursoNaoEncontradoException.class)
                     .hasMessage("Endereço não encontrado com id: " + endereco.getId());
 
-            verify(enderecoRepository).findById(endereco.getId());
+            verify(agrupadorEnderecos).buscar(endereco.getId());
         }
     }
 
+    private static DataIntegrityViolationException violacao(String sqlState, String restricao) {
+        SQLException causa = new SQLException("violação de " + restricao, sqlState);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", causa, restricao));
+    }
 }
@@ -0,0 +1,50 @@
+package com.toystore.customer.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CepTest {
+
+    @DisplayName("Deve aceitar CEP de oito dígitos com ou sem hífen")
+    @Test
+    void deveAceitarCepComOuSemHifen() {
+        assertThat(Cep.valido("40000-000")).isTrue();
+        assertThat(Cep.valido("40000000")).isTrue();
+    }
+
+    @DisplayName("Deve recusar CEP fora do formato")
+    @Test
+    void deveRecusarCepForaDoFormato() {
+        assertThat(Cep.valido(null)).isFalse();
+        assertThat(Cep.valido("")).isFalse();
+        assertThat(Cep.valido("4000-000")).isFalse();
+        assertThat(Cep.valido("400000-00")).isFalse();
+        assertThat(Cep.valido("40000 000")).isFalse();
+        assertThat(Cep.valido("4000000a")).isFalse();
+        assertThat(Cep.valido("400000000")).isFalse();
+    }
+
+    @DisplayName("Deve normalizar para o formato com hífen e manter os demais textos")
+    @Test
+    void deveNormalizarCep() {
+        var comHifen = "40000-000";
+
+        assertThat(Cep.normalizar("40000000")).isEqualTo("40000-000");
+        assertThat(Cep.normalizar(comHifen)).isSameAs(comHifen);
+        assertThat(Cep.normalizar("4000000a")).isEqualTo("4000000a");
+        assertThat(Cep.normalizar(null)).isNull();
+    }
+
+    @DisplayName("Deve converter o CEP em número e voltar ao texto com zeros à esquerda")
+    @Test
+    void deveConverterIdaEVolta() {
+        assertThat(Cep.numero("01001-000")).isEqualTo(1_001_000);
+        assertThat(Cep.numero("40000123")).isEqualTo(40_000_123);
+        assertThat(Cep.formatar(1_001_000)).isEqualTo("01001-000");
+        assertThat(Cep.formatar(99_999_999)).isEqualTo("99999-999");
+        assertThatThrownBy(() -> Cep.numero("4000-000")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,54 @@
+package com.toystore.customer.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CpfTest {
+
+    @DisplayName("Deve converter o texto em número e voltar ao texto com zeros à esquerda")
+    @Test
+    void deveConverterIdaEVolta() {
+        assertThat(Cpf.numero("00012345678")).isEqualTo(12_345_678L);
+        assertThat(Cpf.formatar(12_345_678L)).isEqualTo("00012345678");
+        assertThat(Cpf.de("99999999999").numero()).isEqualTo(99_999_999_999L);
+        assertThat(new Cpf(0)).hasToString("00000000000");
+    }
+
+    @DisplayName("Deve rejeitar textos que não tenham exatamente 11 dígitos")
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "1234567890", "123456789012", "123.456.789-01", "1234567890a", "١٢٣٤٥٦٧٨٩٠١"})
+    void deveRejeitarFormatoInvalido(String texto) {
+        assertThat(Cpf.formatoValido(texto)).isFalse();
+        assertThat(Cpf.valido(texto)).isFalse();
+        assertThatThrownBy(() -> Cpf.numero(texto)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("Deve rejeitar números fora do intervalo de 11 dígitos")
+    @Test
+    void deveRejeitarNumeroForaDoIntervalo() {
+        assertThatThrownBy(() -> new Cpf(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Cpf(100_000_000_000L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("Deve conferir os dígitos verificadores")
+    @ParameterizedTest
+    @ValueSource(strings = {"52998224725", "11144477735", "00000000191"})
+    void deveAceitarDigitosVerificadoresCorretos(String texto) {
+        assertThat(Cpf.valido(texto)).isTrue();
+    }
+
+    @DisplayName("Deve recusar dígitos verificadores errados e CPFs com todos os dígitos iguais")
+    @ParameterizedTest
+    @ValueSource(strings = {"52998224724", "11144477753", "12345678901", "00000000000", "99999999999"})
+    void deveRecusarDigitosVerificadoresErrados(String texto) {
+        assertThat(Cpf.formatoValido(texto)).isTrue();
+        assertThat(Cpf.valido(texto)).isFalse();
+    }
+}
@@ -0,0 +1,104 @@
+package com.toystore.customer.domain.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.StringJoiner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Planos da pesquisa de clientes no PostgreSQL, com o {@code schema.sql} de produção. O H2 de
+ * {@link ClienteRepositoryPesquisaTest} não tem {@code varchar_pattern_ops} nem o planejador do PostgreSQL, então
+ * só estes testes mostram que os índices são de fato usados. Rodam apenas com um banco informado, em um schema
+ * temporário: {@code mvn test -Dtoystore.teste.postgres.url=jdbc:postgresql://localhost:5432/postgres
+ * -Dtoystore.teste.postgres.usuario=postgres -Dtoystore.teste.postgres.senha=postgres}.
+ */
+@EnabledIfSystemProperty(named = "toystore.teste.postgres.url", matches = ".+")
+class ClienteRepositoryPesquisaPostgresTest {
+
+    private static final String SCHEMA = "pesquisa_plano_teste";
+
+    private static Connection conexao;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        conexao = DriverManager.getConnection(System.getProperty("toystore.teste.postgres.url"),
+                System.getProperty("toystore.teste.postgres.usuario", "postgres"),
+                System.getProperty("toystore.teste.postgres.senha", "postgres"));
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("drop schema if exists " + SCHEMA + " cascade");
+            statement.execute("create schema " + SCHEMA);
+            statement.execute("set search_path to " + SCHEMA);
+        }
+        ScriptUtils.executeSqlScript(conexao, new ClassPathResource("schema.sql"));
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("""
+                    insert into endereco (id, cep, estado, cidade, bairro, rua, numero)
+                    select i, lpad(i::text, 5, '0') || '-000', 'BA', 'Cidade ' || (i % 50), 'Centro', 'Rua', '1'
+                    from generate_series(1, 2000) i""");
+            statement.execute("""
+                    insert into cliente (cpf, nome, nome_busca, email, endereco_id)
+                    select i, 'Cliente ' || i, 'cliente ' || i, 'cliente' || i || '@mail.com', 1 + i % 2000
+                    from generate_series(1, 20000) i""");
+            statement.execute("analyze endereco");
+            statement.execute("analyze cliente");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("drop schema " + SCHEMA + " cascade");
+        }
+        conexao.close();
+    }
+
+    @DisplayName("Deve usar o índice de e-mail na pesquisa por e-mail")
+    @Test
+    void deveUsarIndiceDeEmail() throws SQLException {
+        assertThat(plano("select c.cpf from cliente c where c.email = 'cliente10@mail.com'"))
+                .contains("idx_cliente_email");
+    }
+
+    @DisplayName("Deve usar o índice do nome normalizado na pesquisa por prefixo com escape")
+    @Test
+    void deveUsarIndiceDeNomeNaPesquisaPorPrefixo() throws SQLException {
+        assertThat(plano("select c.cpf from cliente c where c.nome_busca like 'cliente 123%' escape '\\' "
+                + "order by c.cpf limit 21"))
+                .contains("idx_cliente_nome_busca");
+    }
+
+    @DisplayName("Deve usar os índices de CEP e de endereço do cliente na pesquisa por CEP")
+    @Test
+    void deveUsarIndicesDeEnderecoNaPesquisaPorCep() throws SQLException {
+        assertThat(plano("""
+                select c.cpf from cliente c
+                join endereco e on e.id = c.endereco_id
+                where e.cep = '00042-000'
+                order by c.cpf limit 21"""))
+                .contains("idx_endereco_cep")
+                .contains("idx_cliente_endereco_id");
+    }
+
+    private static String plano(String sql) throws SQLException {
+        StringJoiner plano = new StringJoiner("\n");
+        try (Statement statement = conexao.createStatement();
+             ResultSet linhas = statement.executeQuery("explain " + sql)) {
+            while (linhas.next()) {
+                plano.add(linhas.getString(1));
+            }
+        }
+        return plano.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.toystore.customer.domain.repository;
+
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.FiltroClienteDTO;
+import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Endereco;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Os planos do PostgreSQL, com varchar_pattern_ops, ficam em ClienteRepositoryPesquisaPostgresTest
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ActiveProfiles("test")
+class ClienteRepositoryPesquisaTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @BeforeEach
+    void setUp() {
+        Endereco salvador = entityManager.persist(endereco("40000-000", "BA", "Salvador"));
+        Endereco camacari = entityManager.persist(endereco("42800-000", "BA", "Camaçari"));
+        Endereco recife = entityManager.persist(endereco("50000-000", "PE", "Recife"));
+
+        entityManager.persist(cliente("00000000001", "João Silva", "joaosilva@mail.com", salvador));
+        entityManager.persist(cliente("00000000002", "JOAO PEDRO", "joaopedro@mail.com", camacari));
+        entityManager.persist(cliente("00000000003", "Joana Souza", "joana@mail.com", salvador));
+        entityManager.persist(cliente("00000000004", "Maria João", "maria@mail.com", salvador));
+        entityManager.persist(cliente("00000000005", "Joaquim Barbosa", "joaquim@mail.com", recife));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @DisplayName("Deve pesquisar pelo início do nome ignorando acentos e maiúsculas")
+    @Test
+    void devePesquisarPorInicioDoNome_IgnorandoAcentosEMaiusculas() {
+        assertThat(cpfs(new FiltroClienteDTO(null, "JOÃO", null, null, null), null))
+                .containsExactly("00000000001", "00000000002");
+        assertThat(cpfs(new FiltroClienteDTO(null, "joa", null, null, null), null))
+                .containsExactly("00000000001", "00000000002", "00000000003", "00000000005");
+    }
+
+    @DisplayName("Deve pesquisar pelo e-mail exato")
+    @Test
+    void devePesquisarPorEmail() {
+        assertThat(cpfs(new FiltroClienteDTO("joana@mail.com", null, null, null, null), null))
+                .containsExactly("00000000003");
+    }
+
+    @DisplayName("Deve pesquisar pelo endereço combinando filtros")
+    @Test
+    void devePesquisarPorEndereco() {
+        assertThat(cpfs(new FiltroClienteDTO(null, null, "Salvador", "BA", null), null))
+                .containsExactly("00000000001", "00000000003", "00000000004");
+        assertThat(cpfs(new FiltroClienteDTO(null, "jo", null, null, "42800-000"), null))
+                .containsExactly("00000000002");
+    }
+
+    @DisplayName("Deve continuar a pesquisa a partir do cursor")
+    @Test
+    void devePesquisarAposCursor() {
+        assertThat(cpfs(new FiltroClienteDTO(null, null, "Salvador", null, null), "00000000001"))
+                .containsExactly("00000000003", "00000000004");
+    }
+
+    @DisplayName("Deve tratar curingas do LIKE no nome como texto")
+    @Test
+    void deveTratarCuringasComoTexto() {
+        assertThat(cpfs(new FiltroClienteDTO(null, "%", null, null, null), null)).isEmpty();
+        assertThat(cpfs(new FiltroClienteDTO(null, "jo_o", null, null, null), null)).isEmpty();
+    }
+
+    @DisplayName("Deve limitar a pesquisa ao número de clientes pedido")
+    @Test
+    void deveLimitarPesquisa() {
+        var clientes = clienteRepository.pesquisar(new FiltroClienteDTO(null, "jo", null, null, null), null, 2);
+
+        assertThat(clientes).extracting(ClienteDTO::cpf).containsExactly("00000000001", "00000000002");
+        assertThat(clientes).extracting(ClienteDTO::enderecoId).doesNotContainNull();
+    }
+
+    @DisplayName("Deve usar o índice de e-mail na pesquisa por e-mail")
+    @Test
+    void deveUsarIndiceDeEmail() {
+        assertThat(plano("select c.cpf from cliente c where c.email = 'joana@mail.com'"))
+                .containsIgnoringCase("idx_cliente_email");
+    }
+
+    @DisplayName("Deve usar o índice do nome normalizado na pesquisa por prefixo")
+    @Test
+    void deveUsarIndiceDeNomeNaPesquisaPorPrefixo() {
+        assertThat(plano("select c.cpf from cliente c where c.nome_busca like 'joao%' escape '\\'"))
+                .containsIgnoringCase("idx_cliente_nome_busca");
+    }
+
+    @DisplayName("Deve usar os índices de CEP e de endereço do cliente na pesquisa por CEP")
+    @Test
+    void deveUsarIndicesDeEnderecoNaPesquisaPorCep() {
+        String plano = plano("""
+                select c.cpf from cliente c
+                join endereco e on e.id = c.endereco_id
+                where e.cep = '42800-000'""");
+
+        assertThat(plano)
+                .containsIgnoringCase("idx_endereco_cep")
+                .containsIgnoringCase("idx_cliente_endereco_id");
+    }
+
+    private List<String> cpfs(FiltroClienteDTO filtro, String apos) {
+        return clienteRepository.pesquisar(filtro, apos, 100).stream()
+                .map(ClienteDTO::cpf)
+                .toList();
+    }
+
+    private String plano(String sql) {
+        return String.valueOf(entityManager.getEntityManager()
+                .createNativeQuery("explain " + sql)
+                .getSingleResult());
+    }
+
+    private static Endereco endereco(String cep, String estado, String cidade) {
+        return Endereco.builder()
+                .cep(cep)
+                .estado(estado)
+                .cidade(cidade)
+                .bairro("Centro")
+                .rua("Rua Principal")
+                .numero("1")
+                .build();
+    }
+
+    private static Cliente cliente(String cpf, String nome, String email, Endereco endereco) {
+        return Cliente.builder()
+                .cpf(cpf)
+                .nome(nome)
+                .email(email)
+                .endereco(endereco)
+                .build();
+    }
+}
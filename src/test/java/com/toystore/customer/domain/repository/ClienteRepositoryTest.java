@@ -0,0 +1,118 @@
+package com.toystore.customer.domain.repository;
+
+import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Endereco;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class ClienteRepositoryTest {
+
+    private static final int QUANTIDADE_CLIENTES = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        var enderecos = IntStream.range(0, 5)
+                .mapToObj(i -> entityManager.persist(Endereco.builder()
+                        .cep("4000000" + i)
+                        .estado("BA")
+                        .cidade("Salvador")
+                        .bairro("Centro")
+                        .rua("Rua " + i)
+                        .numero(String.valueOf(i))
+                        .build()))
+                .toList();
+        IntStream.range(0, QUANTIDADE_CLIENTES)
+                .forEach(i -> entityManager.persist(Cliente.builder()
+                        .cpf(String.format("%011d", i))
+                        .nome("Cliente " + i)
+                        .email("cliente" + i + "@mail.com")
+                        .endereco(enderecos.get(i % enderecos.size()))
+                        .build()));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @DisplayName("Deve listar uma página de clientes com um único comando SQL")
+    @Test
+    void deveListarPaginaComUmComando() {
+        var clientes = clienteRepository.buscarPrimeiraPagina(Limit.of(QUANTIDADE_CLIENTES));
+
+        assertThat(clientes).hasSize(QUANTIDADE_CLIENTES);
+        assertThat(clientes).allSatisfy(cliente -> assertThat(cliente.enderecoId()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @DisplayName("Deve listar a página seguinte ao cursor com um único comando SQL")
+    @Test
+    void deveListarPaginaAposCursorComUmComando() {
+        var clientes = clienteRepository.buscarPaginaApos(String.format("%011d", 9), Limit.of(5));
+
+        assertThat(clientes).hasSize(5);
+        assertThat(clientes.get(0).cpf()).isEqualTo(String.format("%011d", 10));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve transmitir todos os clientes com um único comando SQL")
+    @Test
+    void deveTransmitirTodosComUmComando() {
+        try (var clientes = clienteRepository.streamTodosOrdenadosPorCpf()) {
+            assertThat(clientes.count()).isEqualTo(QUANTIDADE_CLIENTES);
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve buscar cliente por CPF sem carregar o endereço")
+    @Test
+    void deveBuscarPorCpfSemCarregarEndereco() {
+        var cliente = clienteRepository.findById(String.format("%011d", 3)).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(cliente.getEndereco())).isFalse();
+        assertThat(cliente.getEndereco().getId()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve buscar cliente com endereço completo em um único comando SQL")
+    @Test
+    void deveBuscarComEnderecoEmUmComando() {
+        var cliente = clienteRepository.findComEnderecoByCpf(String.format("%011d", 3)).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(cliente.getEndereco())).isTrue();
+        assertThat(cliente.getEndereco().getRua()).isEqualTo("Rua 3");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
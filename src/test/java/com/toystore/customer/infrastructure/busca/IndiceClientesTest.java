@@ -0,0 +1,183 @@
+package com.toystore.customer.infrastructure.busca;
+
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.ClienteIndexavelDTO;
+import com.toystore.customer.application.dto.ResultadoBuscaTextoDTO;
+import com.toystore.customer.domain.exceptions.CursorInvalidoException;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IndiceClientesTest {
+
+    private static final ClienteIndexavelDTO JOAO = new ClienteIndexavelDTO("11111111111", "João Silva",
+            "joaosilva@mail.com", 1L, "Rua da Flor", "Centro", "Salvador", "BA", "40000-000");
+    private static final ClienteIndexavelDTO JOANA = new ClienteIndexavelDTO("22222222222", "Joana Souza",
+            "joana@mail.com", 2L, "Avenida Sete", "Centro", "Salvador", "BA", "40000-001");
+    private static final ClienteIndexavelDTO MARIA = new ClienteIndexavelDTO("33333333333", "Maria Joaquina",
+            "mj@outlook.com", 3L, "Rua das Flores", "Pituba", "Salvador", "BA", "40000-002");
+
+    private static final int TENTATIVAS = 3;
+
+    private final ClienteRepository clienteRepository = mock(ClienteRepository.class);
+
+    private IndiceClientes indice;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        indice = new IndiceClientes(new ByteBuffersDirectory(), clienteRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry(),
+                TENTATIVAS, Duration.ofMillis(10));
+        when(clienteRepository.streamIndexaveis()).thenReturn(Stream.of(JOAO, JOANA, MARIA));
+        indice.reindexar().get(5, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        indice.close();
+    }
+
+    @DisplayName("Deve encontrar clientes pelo início do nome ignorando acentos")
+    @Test
+    void deveEncontrarPeloInicioDoNome_IgnorandoAcentos() {
+        assertThat(cpfs(indice.buscar("joa", null, 10)))
+                .containsExactlyInAnyOrder(JOAO.cpf(), JOANA.cpf(), MARIA.cpf());
+        assertThat(cpfs(indice.buscar("JOÃO", null, 10))).containsExactly(JOAO.cpf());
+    }
+
+    @DisplayName("Deve encontrar clientes pelo radical das palavras do endereço")
+    @Test
+    void deveEncontrarPeloRadicalNoEndereco() {
+        assertThat(cpfs(indice.buscar("flores", null, 10))).containsExactly(MARIA.cpf(), JOAO.cpf());
+    }
+
+    @DisplayName("Deve encontrar clientes por um trecho do e-mail")
+    @Test
+    void deveEncontrarPorTrechoDoEmail() {
+        assertThat(cpfs(indice.buscar("outlook", null, 10))).containsExactly(MARIA.cpf());
+        assertThat(cpfs(indice.buscar("osilv", null, 10))).containsExactly(JOAO.cpf());
+    }
+
+    @DisplayName("Deve retornar os dados do cliente guardados no índice")
+    @Test
+    void deveRetornarDadosDoCliente() {
+        assertThat(indice.buscar("joana", null, 10).clientes())
+                .containsExactly(new ClienteDTO(JOANA.cpf(), JOANA.nome(), JOANA.email(), JOANA.enderecoId()));
+    }
+
+    @DisplayName("Deve paginar os resultados pelo cursor sem repetir clientes")
+    @Test
+    void devePaginarPeloCursor() {
+        ResultadoBuscaTextoDTO primeira = indice.buscar("salvador", null, 2);
+        ResultadoBuscaTextoDTO segunda = indice.buscar("salvador", primeira.proximoCursor(), 2);
+
+        assertThat(primeira.clientes()).hasSize(2);
+        assertThat(primeira.proximoCursor()).isNotNull();
+        assertThat(segunda.clientes()).hasSize(1);
+        assertThat(segunda.proximoCursor()).isNull();
+        List<String> todos = new ArrayList<>(cpfs(primeira));
+        todos.addAll(cpfs(segunda));
+        assertThat(todos).containsExactlyInAnyOrder(JOAO.cpf(), JOANA.cpf(), MARIA.cpf());
+    }
+
+    @DisplayName("Deve atualizar o índice com o estado atual do banco e remover clientes excluídos")
+    @Test
+    void deveAtualizarERemoverClientes() throws Exception {
+        when(clienteRepository.buscarIndexaveisPorCpfs(Set.of(JOAO.cpf(), JOANA.cpf()))).thenReturn(List.of(
+                new ClienteIndexavelDTO(JOAO.cpf(), "Joaquim Silva", JOAO.email(), 1L, "Rua da Flor", "Centro",
+                        "Salvador", "BA", "40000-000")));
+
+        indice.atualizar(List.of(JOAO.cpf(), JOANA.cpf())).get(5, TimeUnit.SECONDS);
+
+        assertThat(cpfs(indice.buscar("joaquim", null, 10))).containsExactly(JOAO.cpf());
+        assertThat(cpfs(indice.buscar("joana", null, 10))).isEmpty();
+    }
+
+    @DisplayName("Deve repetir a atualização que falhou até conseguir")
+    @Test
+    void deveRepetirAtualizacaoQueFalhou() throws Exception {
+        when(clienteRepository.buscarIndexaveisPorCpfs(Set.of(JOAO.cpf())))
+                .thenThrow(new QueryTimeoutException("banco indisponível"))
+                .thenReturn(List.of(new ClienteIndexavelDTO(JOAO.cpf(), "Joaquim Silva", JOAO.email(), 1L,
+                        "Rua da Flor", "Centro", "Salvador", "BA", "40000-000")));
+
+        indice.atualizar(List.of(JOAO.cpf())).get(5, TimeUnit.SECONDS);
+
+        assertThat(cpfs(indice.buscar("joaquim", null, 10))).containsExactly(JOAO.cpf());
+    }
+
+    @DisplayName("Deve manter os clientes já indexados quando a reindexação falha no meio")
+    @Test
+    void deveManterIndiceQuandoReindexacaoFalha() {
+        when(clienteRepository.streamIndexaveis()).thenAnswer(invocacao -> Stream.concat(Stream.of(JOAO),
+                Stream.<ClienteIndexavelDTO>generate(() -> {
+                    throw new QueryTimeoutException("conexão perdida");
+                })));
+
+        assertThatThrownBy(() -> indice.reindexar().get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(QueryTimeoutException.class);
+        verify(clienteRepository, times(1 + TENTATIVAS)).streamIndexaveis();
+        assertThat(cpfs(indice.buscar("joa", null, 10)))
+                .containsExactlyInAnyOrder(JOAO.cpf(), JOANA.cpf(), MARIA.cpf());
+    }
+
+    @DisplayName("Deve remover na reindexação os clientes que não estão mais no banco")
+    @Test
+    void deveRemoverNaReindexacaoClientesExcluidos() throws Exception {
+        when(clienteRepository.streamIndexaveis()).thenReturn(Stream.of(JOAO, MARIA));
+
+        indice.reindexar().get(5, TimeUnit.SECONDS);
+
+        assertThat(cpfs(indice.buscar("joa", null, 10))).containsExactlyInAnyOrder(JOAO.cpf(), MARIA.cpf());
+    }
+
+    @DisplayName("Deve reindexar os clientes de um endereço alterado")
+    @Test
+    void deveReindexarClientesDoEndereco() throws Exception {
+        when(clienteRepository.buscarIndexaveisPorEndereco(1L)).thenReturn(List.of(
+                new ClienteIndexavelDTO(JOAO.cpf(), JOAO.nome(), JOAO.email(), 1L, "Rua da Flor", "Centro",
+                        "Lauro de Freitas", "BA", "40000-000")));
+
+        indice.atualizarPorEndereco(1L).get(5, TimeUnit.SECONDS);
+
+        assertThat(cpfs(indice.buscar("lauro", null, 10))).containsExactly(JOAO.cpf());
+    }
+
+    @DisplayName("Deve lançar exceção ao buscar com cursor inválido")
+    @Test
+    void deveGerarExcecao_QuandoCursorInvalido() {
+        assertThatThrownBy(() -> indice.buscar("joa", "???", 10))
+                .isInstanceOf(CursorInvalidoException.class);
+    }
+
+    @DisplayName("Deve retornar resultado vazio para texto em branco")
+    @Test
+    void deveRetornarVazio_QuandoTextoEmBranco() {
+        assertThat(indice.buscar("  ", null, 10).clientes()).isEmpty();
+    }
+
+    private static List<String> cpfs(ResultadoBuscaTextoDTO resultado) {
+        return resultado.clientes().stream().map(ClienteDTO::cpf).toList();
+    }
+}
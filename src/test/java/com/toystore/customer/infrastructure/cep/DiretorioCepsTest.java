@@ -0,0 +1,119 @@
+package com.toystore.customer.infrastructure.cep;
+
+import com.toystore.customer.application.dto.CepDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiretorioCepsTest {
+
+    @TempDir
+    private Path pasta;
+
+    @DisplayName("Deve encontrar os CEPs da base, com ou sem hífen, e devolver a rua nula quando não há")
+    @Test
+    void deveBuscarCeps() throws IOException {
+        DiretorioCeps diretorio = gerarEAbrir(List.of(
+                "cep;estado;cidade;bairro;rua",
+                "40020-000;BA;Salvador;Comércio;Rua Chile",
+                "01001000;SP;São Paulo;Sé;Praça da Sé",
+                "44000-000;BA;Feira de Santana;;",
+                "99999-999;RR;Boa Vista;Centro;Avenida Ville Roy"));
+
+        assertThat(diretorio.quantidade()).isEqualTo(4);
+        assertThat(diretorio.buscar("40020000"))
+                .contains(new CepDTO("40020-000", "BA", "Salvador", "Comércio", "Rua Chile"));
+        assertThat(diretorio.buscar("01001-000"))
+                .contains(new CepDTO("01001-000", "SP", "São Paulo", "Sé", "Praça da Sé"));
+        assertThat(diretorio.buscar("44000-000"))
+                .contains(new CepDTO("44000-000", "BA", "Feira de Santana", null, null));
+        assertThat(diretorio.buscar("99999-999")).isPresent();
+    }
+
+    @DisplayName("Não deve encontrar CEPs fora da base ou fora do formato")
+    @Test
+    void naoDeveEncontrarCepsAusentes() throws IOException {
+        DiretorioCeps diretorio = gerarEAbrir(List.of("40020-000;BA;Salvador;Comércio;Rua Chile"));
+
+        assertThat(diretorio.buscar("40020-001")).isEmpty();
+        assertThat(diretorio.buscar("00000-000")).isEmpty();
+        assertThat(diretorio.buscar("4002-0000")).isEmpty();
+        assertThat(diretorio.buscar(null)).isEmpty();
+    }
+
+    @DisplayName("Deve manter a primeira linha de um CEP repetido e ignorar as linhas inválidas")
+    @Test
+    void deveIgnorarLinhasRepetidasEInvalidas() throws IOException {
+        Path base = escrever(List.of(
+                "40020-000;BA;Salvador;Comércio;Rua Chile",
+                "40020-000;BA;Salvador;Centro;Outra Rua",
+                "4002-000;BA;Salvador;Comércio;Rua Chile",
+                "40030-000;BA;Salvador"));
+
+        GeradorIndiceCeps.Resultado resultado = GeradorIndiceCeps.gerar(base, pasta.resolve("ceps.idx"));
+        DiretorioCeps diretorio = DiretorioCeps.abrir(pasta.resolve("ceps.idx"), false, new SimpleMeterRegistry());
+
+        assertThat(resultado).isEqualTo(new GeradorIndiceCeps.Resultado(1, 3));
+        assertThat(diretorio.buscar("40020-000")).map(CepDTO::bairro).contains("Comércio");
+    }
+
+    @DisplayName("Deve buscar por busca binária em uma base grande, gravando uma única vez os textos repetidos")
+    @Test
+    void deveBuscarEmBaseGrande() throws IOException {
+        List<String> linhas = new ArrayList<>();
+        // Fora de ordem, para que o índice precise ordenar
+        for (int i = 50_000; i > 0; i--) {
+            linhas.add(String.format("%08d;BA;Salvador;Bairro %d;Rua %d", i * 1000, i % 100, i));
+        }
+
+        DiretorioCeps diretorio = gerarEAbrir(linhas);
+
+        assertThat(diretorio.quantidade()).isEqualTo(50_000);
+        for (int i = 1; i <= 50_000; i += 997) {
+            assertThat(diretorio.buscar(String.format("%08d", i * 1000))).map(CepDTO::rua).contains("Rua " + i);
+            assertThat(diretorio.buscar(String.format("%08d", i * 1000 + 1))).isEmpty();
+        }
+        // Estado, cidade e bairros aparecem uma vez cada na tabela; só as ruas somam um texto por CEP
+        long cabecalhoEIndices = 8 + 50_000 * 20L;
+        assertThat(Files.size(pasta.resolve("ceps.idx")) - cabecalhoEIndices).isLessThan(50_000 * 12L);
+    }
+
+    @DisplayName("Deve recusar um arquivo que não é um índice de CEPs")
+    @Test
+    void deveRecusarArquivoInvalido() throws IOException {
+        Path arquivo = escrever(List.of("40020-000;BA;Salvador;Comércio;Rua Chile"));
+
+        assertThatThrownBy(() -> DiretorioCeps.abrir(arquivo, false, new SimpleMeterRegistry()))
+                .isInstanceOf(IOException.class);
+    }
+
+    @DisplayName("O diretório vazio não encontra nenhum CEP")
+    @Test
+    void diretorioVazioNaoEncontraCeps() {
+        DiretorioCeps diretorio = DiretorioCeps.vazio(new SimpleMeterRegistry());
+
+        assertThat(diretorio.quantidade()).isZero();
+        assertThat(diretorio.conferirEnderecos()).isFalse();
+        assertThat(diretorio.buscar("40020-000")).isEmpty();
+    }
+
+    private DiretorioCeps gerarEAbrir(List<String> linhas) throws IOException {
+        Path indice = pasta.resolve("ceps.idx");
+        GeradorIndiceCeps.gerar(escrever(linhas), indice);
+        return DiretorioCeps.abrir(indice, false, new SimpleMeterRegistry());
+    }
+
+    private Path escrever(List<String> linhas) throws IOException {
+        return Files.write(pasta.resolve("ceps.csv"), linhas);
+    }
+}
@@ -0,0 +1,281 @@
+package com.toystore.customer.infrastructure.concorrencia;
+
+import com.toystore.customer.infrastructure.persistence.LeituraPropria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AgrupadorDeConsultasTest {
+
+    private static final Duration ESPERA_MAXIMA = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Set<String>> lotes = new CopyOnWriteArrayList<>();
+    private final List<String> buscasIndividuais = new CopyOnWriteArrayList<>();
+    private final List<Boolean> lotesNoPrimario = new CopyOnWriteArrayList<>();
+    private final CountDownLatch primeiraBuscaIniciada = new CountDownLatch(1);
+    private final CountDownLatch liberarPrimeiraBusca = new CountDownLatch(1);
+
+    private AgrupadorDeConsultas<String, String> agrupador;
+
+    @AfterEach
+    void tearDown() {
+        liberarPrimeiraBusca.countDown();
+        if (agrupador != null) {
+            agrupador.close();
+        }
+    }
+
+    @DisplayName("Deve compartilhar a busca em andamento entre pedidos da mesma chave")
+    @Test
+    void deveCompartilharBuscaDaMesmaChave() throws Exception {
+        agrupador = criarAgrupador(Duration.ofMillis(50), 64);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<String>> primeira = executor.submit(() -> agrupador.buscar("a"));
+            assertThat(primeiraBuscaIniciada.await(1, TimeUnit.SECONDS)).isTrue();
+            Future<Optional<String>> segunda = executor.submit(() -> agrupador.buscar("a"));
+            aguardarContador("compartilhada", 1);
+
+            liberarPrimeiraBusca.countDown();
+
+            assertThat(primeira.get(1, TimeUnit.SECONDS)).contains("valor-a");
+            assertThat(segunda.get(1, TimeUnit.SECONDS)).contains("valor-a");
+        }
+        assertThat(lotes).containsExactly(Set.of("a"));
+    }
+
+    @DisplayName("Deve enviar em uma única consulta as chaves distintas que chegam dentro da janela")
+    @Test
+    void deveAgruparChavesDistintasDaJanela() throws Exception {
+        agrupador = criarAgrupador(Duration.ofMillis(200), 64);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<String>> ocupante = executor.submit(() -> agrupador.buscar("a"));
+            assertThat(primeiraBuscaIniciada.await(1, TimeUnit.SECONDS)).isTrue();
+
+            Future<Optional<String>> b = executor.submit(() -> agrupador.buscar("b"));
+            Future<Optional<String>> c = executor.submit(() -> agrupador.buscar("c"));
+
+            assertThat(b.get(1, TimeUnit.SECONDS)).contains("valor-b");
+            assertThat(c.get(1, TimeUnit.SECONDS)).contains("valor-c");
+            liberarPrimeiraBusca.countDown();
+            assertThat(ocupante.get(1, TimeUnit.SECONDS)).contains("valor-a");
+        }
+        assertThat(lotes).containsExactly(Set.of("a"), Set.of("b", "c"));
+        assertThat(meterRegistry.get(AgrupadorDeConsultas.METRICA_LOTE).summary().max()).isEqualTo(2);
+    }
+
+    @DisplayName("Deve enviar o lote assim que atingir o tamanho máximo, sem esperar a janela")
+    @Test
+    void deveEnviarLoteAoAtingirTamanhoMaximo() throws Exception {
+        agrupador = criarAgrupador(Duration.ofMinutes(1), 2);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> agrupador.buscar("a"));
+            assertThat(primeiraBuscaIniciada.await(1, TimeUnit.SECONDS)).isTrue();
+
+            Future<Optional<String>> b = executor.submit(() -> agrupador.buscar("b"));
+            Future<Optional<String>> c = executor.submit(() -> agrupador.buscar("c"));
+
+            assertThat(b.get(1, TimeUnit.SECONDS)).contains("valor-b");
+            assertThat(c.get(1, TimeUnit.SECONDS)).contains("valor-c");
+            liberarPrimeiraBusca.countDown();
+        }
+        assertThat(lotes).contains(Set.of("b", "c"));
+    }
+
+    @DisplayName("Deve buscar direto quando há uma transação ativa")
+    @Test
+    void deveBuscarDiretoDentroDeTransacao() {
+        agrupador = criarAgrupador(Duration.ofMillis(50), 64);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThat(agrupador.buscar("a")).contains("individual-a");
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(buscasIndividuais).containsExactly("a");
+        assertThat(lotes).isEmpty();
+    }
+
+    @DisplayName("Deve buscar direto quando o agrupamento está desligado")
+    @Test
+    void deveBuscarDiretoComJanelaZero() {
+        agrupador = criarAgrupador(Duration.ZERO, 64);
+
+        assertThat(agrupador.buscar("a")).contains("individual-a");
+        assertThat(lotes).isEmpty();
+    }
+
+    @DisplayName("Deve retornar vazio para chave não encontrada")
+    @Test
+    void deveRetornarVazioParaChaveInexistente() {
+        agrupador = new AgrupadorDeConsultas<>("teste", chave -> Optional.empty(), chaves -> Map.of(),
+                Duration.ofMillis(50), 64, ESPERA_MAXIMA, meterRegistry);
+
+        assertThat(agrupador.buscar("a")).isEmpty();
+    }
+
+    @DisplayName("Deve repassar a exceção da consulta a quem aguarda")
+    @Test
+    void deveRepassarExcecaoDaConsulta() {
+        agrupador = new AgrupadorDeConsultas<>("teste", chave -> Optional.empty(), chaves -> {
+            throw new IllegalStateException("banco indisponível");
+        }, Duration.ofMillis(50), 64, ESPERA_MAXIMA, meterRegistry);
+
+        assertThatThrownBy(() -> agrupador.buscar("a"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("banco indisponível");
+    }
+
+    @DisplayName("Deve repassar um Error da consulta a quem aguarda")
+    @Test
+    void deveRepassarErrorDaConsulta() {
+        agrupador = new AgrupadorDeConsultas<>("teste", chave -> Optional.empty(), chaves -> {
+            throw new AssertionError("falha grave");
+        }, Duration.ofMillis(50), 64, ESPERA_MAXIMA, meterRegistry);
+
+        assertThatThrownBy(() -> agrupador.buscar("a"))
+                .isInstanceOf(AssertionError.class)
+                .hasMessage("falha grave");
+    }
+
+    @DisplayName("Deve falhar a busca, sem deixá-la presa, quando o agrupador recusa o lote")
+    @Test
+    void deveFalharQuandoLoteRecusado() throws Exception {
+        agrupador = criarAgrupador(Duration.ofMillis(50), 64);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<String>> ocupante = executor.submit(() -> agrupador.buscar("a"));
+            assertThat(primeiraBuscaIniciada.await(1, TimeUnit.SECONDS)).isTrue();
+            agrupador.close();
+
+            Future<Optional<String>> recusada = executor.submit(() -> agrupador.buscar("b"));
+
+            assertThatThrownBy(() -> recusada.get(1, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(RejectedExecutionException.class);
+            liberarPrimeiraBusca.countDown();
+            assertThat(ocupante.get(1, TimeUnit.SECONDS)).contains("valor-a");
+        }
+    }
+
+    @DisplayName("Deve desistir após a espera máxima e buscar de novo no pedido seguinte")
+    @Test
+    void deveDesistirAposEsperaMaxima() throws Exception {
+        agrupador = criarAgrupador(Duration.ofMillis(50), 64, Duration.ofMillis(100));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<String>> ocupante = executor.submit(() -> agrupador.buscar("a"));
+            assertThat(primeiraBuscaIniciada.await(1, TimeUnit.SECONDS)).isTrue();
+            Future<Optional<String>> compartilhada = executor.submit(() -> agrupador.buscar("a"));
+
+            assertThatThrownBy(() -> compartilhada.get(1, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(QueryTimeoutException.class);
+            assertThatThrownBy(() -> ocupante.get(1, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(QueryTimeoutException.class);
+
+            liberarPrimeiraBusca.countDown();
+            assertThat(agrupador.buscar("a")).contains("valor-a");
+        }
+        assertThat(lotes).containsExactly(Set.of("a"), Set.of("a"));
+    }
+
+    @DisplayName("Deve buscar no primário, em lote próprio, quando a requisição de quem busca acabou de escrever")
+    @Test
+    void deveBuscarNoPrimario_QuandoRequisicaoEscreveu() throws Exception {
+        agrupador = criarAgrupador(Duration.ofMillis(50), 64);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<String>> naReplica = executor.submit(() -> agrupador.buscar("a"));
+            assertThat(primeiraBuscaIniciada.await(1, TimeUnit.SECONDS)).isTrue();
+            Future<Optional<String>> noPrimario = executor.submit(() -> {
+                RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+                LeituraPropria.marcar();
+                return agrupador.buscar("a");
+            });
+            aguardarLotes(2);
+
+            liberarPrimeiraBusca.countDown();
+
+            assertThat(naReplica.get(1, TimeUnit.SECONDS)).contains("valor-a");
+            assertThat(noPrimario.get(1, TimeUnit.SECONDS)).contains("valor-a");
+        }
+        assertThat(lotes).containsExactly(Set.of("a"), Set.of("a"));
+        assertThat(lotesNoPrimario).containsExactly(false, true);
+        assertThat(meterRegistry.get(AgrupadorDeConsultas.METRICA_BUSCAS).tag("tipo", "compartilhada").counter()
+                .count()).isZero();
+    }
+
+    private AgrupadorDeConsultas<String, String> criarAgrupador(Duration janela, int tamanhoMaximoLote) {
+        return criarAgrupador(janela, tamanhoMaximoLote, ESPERA_MAXIMA);
+    }
+
+    private AgrupadorDeConsultas<String, String> criarAgrupador(Duration janela, int tamanhoMaximoLote,
+                                                                Duration esperaMaxima) {
+        return new AgrupadorDeConsultas<>("teste",
+                chave -> {
+                    buscasIndividuais.add(chave);
+                    return Optional.of("individual-" + chave);
+                },
+                chaves -> {
+                    lotes.add(Set.copyOf(chaves));
+                    lotesNoPrimario.add(LeituraPropria.exigida());
+                    if (chaves.contains("a")) {
+                        primeiraBuscaIniciada.countDown();
+                        aguardar(liberarPrimeiraBusca);
+                    }
+                    return chaves.stream().collect(Collectors.toMap(Function.identity(), chave -> "valor-" + chave));
+                },
+                janela, tamanhoMaximoLote, esperaMaxima, meterRegistry);
+    }
+
+    private void aguardarContador(String tipo, double esperado) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (meterRegistry.get(AgrupadorDeConsultas.METRICA_BUSCAS).tag("tipo", tipo).counter().count() < esperado
+                && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void aguardarLotes(int esperados) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (lotes.size() < esperados && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
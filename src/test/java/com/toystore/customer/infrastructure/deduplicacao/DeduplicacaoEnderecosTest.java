@@ -0,0 +1,168 @@
+package com.toystore.customer.infrastructure.deduplicacao;
+
+import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.dto.ResultadoRegistroDTO;
+import com.toystore.customer.application.usecases.endereco.EnderecoService;
+import com.toystore.customer.application.usecases.endereco.EnderecoServiceImpl;
+import com.toystore.customer.domain.exceptions.EnderecoJaCadastradoException;
+import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Endereco;
+import com.toystore.customer.domain.model.Remocao;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.domain.repository.RemocaoRepository;
+import com.toystore.customer.infrastructure.config.AgrupamentoConfig;
+import com.toystore.customer.infrastructure.config.DeduplicacaoEnderecosConfig;
+import com.toystore.customer.infrastructure.config.DiretorioCepsConfig;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import com.toystore.customer.interfaces.mapper.ClienteMapperImpl;
+import com.toystore.customer.interfaces.mapper.EnderecoMapperImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "toystore.deduplicacao-enderecos.enabled=true",
+        "toystore.deduplicacao-enderecos.mesclagem.tamanho-lote=2"
+})
+@ActiveProfiles("test")
+@Import({AgrupamentoConfig.class, DeduplicacaoEnderecosConfig.class, DiretorioCepsConfig.class,
+        EnderecoServiceImpl.class, ClienteMapperImpl.class, EnderecoMapperImpl.class, LocalValidatorFactoryBean.class,
+        SequenciaAlteracoes.class})
+// Sem a transação do teste: cada gravação faz o próprio commit, como em produção
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DeduplicacaoEnderecosTest {
+
+    @Autowired
+    private EnderecoService enderecoService;
+
+    @Autowired
+    private MesclagemEnderecos mesclagemEnderecos;
+
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private RemocaoRepository remocaoRepository;
+
+    @AfterEach
+    void tearDown() {
+        remocaoRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+        enderecoRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("Deve devolver o endereço já cadastrado quando o conteúdo normalizado é o mesmo")
+    @Test
+    void deveReaproveitarEnderecoComMesmoConteudo() {
+        EnderecoDTO primeiro = enderecoService.salvar(endereco("40000-000", "Rua  Principal", "111"));
+        EnderecoDTO segundo = enderecoService.salvar(endereco("40000000", "rua principal ", "111"));
+
+        assertThat(segundo.id()).isEqualTo(primeiro.id());
+        assertThat(segundo.rua()).isEqualTo("Rua  Principal");
+        assertThat(enderecoRepository.count()).isEqualTo(1);
+        assertThat(enderecoRepository.findById(primeiro.id()).orElseThrow().getHashConteudo()).hasSize(64);
+    }
+
+    @DisplayName("Deve inserir um novo endereço quando o conteúdo é diferente")
+    @Test
+    void deveInserirEnderecoComConteudoDiferente() {
+        EnderecoDTO primeiro = enderecoService.salvar(endereco("40000-000", "Rua Principal", "111"));
+        EnderecoDTO segundo = enderecoService.salvar(endereco("40000-000", "Rua Principal", "112"));
+
+        assertThat(segundo.id()).isNotEqualTo(primeiro.id());
+        assertThat(enderecoRepository.count()).isEqualTo(2);
+    }
+
+    @DisplayName("Deve importar uma única vez os endereços repetidos no lote")
+    @Test
+    void deveImportarEnderecosRepetidosUmaVez() {
+        List<ResultadoRegistroDTO> resultados = enderecoService.importar(List.of(
+                endereco("40000-000", "Rua Principal", "111"),
+                endereco("40000-000", "Rua Principal", "111"),
+                endereco("40000-000", "Rua Principal", "112")).iterator()).registros();
+
+        assertThat(resultados).extracting(ResultadoRegistroDTO::identificador).doesNotContainNull();
+        assertThat(resultados.get(1).identificador()).isEqualTo(resultados.get(0).identificador());
+        assertThat(resultados.get(2).identificador()).isNotEqualTo(resultados.get(0).identificador());
+        assertThat(enderecoRepository.count()).isEqualTo(2);
+    }
+
+    @DisplayName("Deve recusar a alteração para o conteúdo de outro endereço")
+    @Test
+    void deveRecusarAlteracaoParaConteudoDeOutroEndereco() {
+        enderecoService.salvar(endereco("40000-000", "Rua Principal", "111"));
+        EnderecoDTO outro = enderecoService.salvar(endereco("40000-000", "Rua Principal", "112"));
+
+        assertThatThrownBy(() -> enderecoService.atualizar(outro.id(), endereco("40000-000", "Rua Principal", "111"), null))
+                .isInstanceOf(EnderecoJaCadastradoException.class);
+        assertThat(enderecoRepository.findById(outro.id()).orElseThrow().getNumero()).isEqualTo("112");
+    }
+
+    @DisplayName("Deve mesclar os endereços duplicados e apontar os clientes para o que ficou")
+    @Test
+    void deveMesclarEnderecosDuplicados() {
+        // Gravados diretamente, sem hash, como os endereços anteriores à deduplicação
+        Endereco original = enderecoRepository.save(semHash("Rua Principal", "111"));
+        Endereco duplicado = enderecoRepository.save(semHash("RUA PRINCIPAL", "111"));
+        Endereco outro = enderecoRepository.save(semHash("Rua Principal", "112"));
+        Endereco duplicadoEmOutroLote = enderecoRepository.save(semHash("Rua Principal", "111"));
+        clienteRepository.save(cliente("98765432100", duplicado));
+        clienteRepository.save(cliente("98765432290", duplicadoEmOutroLote));
+        clienteRepository.save(cliente("98765432371", outro));
+
+        int removidos = mesclagemEnderecos.mesclar();
+
+        assertThat(removidos).isEqualTo(2);
+        assertThat(enderecoRepository.findAll()).extracting(Endereco::getId)
+                .containsExactlyInAnyOrder(original.getId(), outro.getId());
+        assertThat(enderecoRepository.findAll()).extracting(Endereco::getHashConteudo).doesNotContainNull();
+        assertThat(clienteRepository.buscarPorEnderecos(List.of(original.getId())))
+                .extracting(Cliente::getCpf)
+                .containsExactlyInAnyOrder("98765432100", "98765432290");
+        assertThat(remocaoRepository.findAll()).extracting(Remocao::getChave)
+                .containsExactlyInAnyOrder(String.valueOf(duplicado.getId()), String.valueOf(duplicadoEmOutroLote.getId()));
+        assertThat(mesclagemEnderecos.mesclar()).isZero();
+    }
+
+    private static EnderecoDTO endereco(String cep, String rua, String numero) {
+        return new EnderecoDTO(null, cep, "Bahia", "Salvador", "Centro", rua, numero);
+    }
+
+    private static Endereco semHash(String rua, String numero) {
+        return Endereco.builder()
+                .cep("40000-000")
+                .estado("Bahia")
+                .cidade("Salvador")
+                .bairro("Centro")
+                .rua(rua)
+                .numero(numero)
+                .build();
+    }
+
+    private static Cliente cliente(String cpf, Endereco endereco) {
+        return Cliente.builder()
+                .cpf(cpf)
+                .nome("Cliente " + cpf)
+                .email(cpf + "@mail.com")
+                .endereco(endereco)
+                .build();
+    }
+}
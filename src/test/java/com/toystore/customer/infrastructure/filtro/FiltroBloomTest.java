@@ -0,0 +1,61 @@
+package com.toystore.customer.infrastructure.filtro;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class FiltroBloomTest {
+
+    private static final int CAPACIDADE = 20_000;
+    private static final double TAXA = 0.01;
+
+    @DisplayName("Deve conter todos os valores adicionados")
+    @Test
+    void deveConterValoresAdicionados() {
+        var filtro = new FiltroBloom(CAPACIDADE, TAXA);
+        for (int i = 0; i < CAPACIDADE; i++) {
+            filtro.adicionar(cpf(i));
+        }
+
+        for (int i = 0; i < CAPACIDADE; i++) {
+            assertThat(filtro.podeConter(cpf(i))).as(cpf(i)).isTrue();
+        }
+    }
+
+    @DisplayName("Deve manter a taxa de falsos positivos perto da dimensionada com o filtro cheio")
+    @Test
+    void deveManterTaxaDeFalsosPositivos() {
+        var filtro = new FiltroBloom(CAPACIDADE, TAXA);
+        for (int i = 0; i < CAPACIDADE; i++) {
+            filtro.adicionar(cpf(i));
+        }
+
+        int falsosPositivos = 0;
+        for (int i = CAPACIDADE; i < CAPACIDADE * 6; i++) {
+            if (filtro.podeConter(cpf(i))) {
+                falsosPositivos++;
+            }
+        }
+
+        double taxaMedida = falsosPositivos / (CAPACIDADE * 5.0);
+        assertThat(taxaMedida).isLessThan(TAXA * 2);
+        assertThat(filtro.taxaFalsosPositivosEstimada()).isCloseTo(TAXA, within(TAXA));
+    }
+
+    @DisplayName("Deve dimensionar bits e funções de hash pela capacidade e taxa")
+    @Test
+    void deveDimensionarPelaCapacidade() {
+        var filtro = new FiltroBloom(1_000_000, TAXA);
+
+        // ~9,6 bits por elemento para 1% de falsos positivos
+        assertThat(filtro.bytes()).isBetween(1_190_000L, 1_210_000L);
+        assertThat(filtro.funcoesHash()).isEqualTo(7);
+        assertThat(filtro.taxaFalsosPositivosEstimada()).isZero();
+    }
+
+    private static String cpf(int i) {
+        return String.format("%011d", 52_998_224_725L + i * 7919L);
+    }
+}
@@ -0,0 +1,226 @@
+package com.toystore.customer.infrastructure.filtro;
+
+import com.toystore.customer.domain.model.Cpf;
+import com.toystore.customer.domain.model.Endereco;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.toystore.customer.infrastructure.utils.EnderecoHelper.gerarEndereco;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ActiveProfiles("test")
+@Import(SequenciaAlteracoes.class)
+// Sem a transação do teste: as gravações precisam estar confirmadas para o filtro enxergá-las
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FiltroCpfsTest {
+
+    private static final Duration ATRASO_MAXIMO = Duration.ofSeconds(4);
+    private static final Instant AGORA = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    @Autowired
+    private SequenciaAlteracoes sequenciaAlteracoes;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Clock clock = mock(Clock.class);
+
+    private FiltroCpfs filtro;
+    private Long enderecoId;
+
+    @BeforeEach
+    void setUp() {
+        Endereco endereco = gerarEndereco();
+        endereco.setId(null);
+        enderecoId = enderecoRepository.save(endereco).getId();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        when(clock.instant()).thenReturn(AGORA);
+        filtro = new FiltroCpfs(clienteRepository, sequenciaAlteracoes, transactionTemplate, meterRegistry, 1000,
+                0.01, ATRASO_MAXIMO, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filtro.close();
+        clienteRepository.deleteAllInBatch();
+        enderecoRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("Deve deixar todas as consultas seguirem para o banco antes de ser construído")
+    @Test
+    void deveLiberarTudo_QuandoNaoConstruido() {
+        assertThat(filtro.construido()).isFalse();
+        assertThat(filtro.podeExistir("00000000000")).isTrue();
+    }
+
+    @DisplayName("Deve descartar CPFs ausentes e liberar os cadastrados depois de construído")
+    @Test
+    void deveResponderPeloBancoDepoisDeConstruido() {
+        gravar("98765432100");
+        gravar("98765432111");
+
+        filtro.reconstruir();
+
+        assertThat(filtro.podeExistir("98765432100")).isTrue();
+        assertThat(filtro.podeExistir("98765432111")).isTrue();
+        assertThat(filtro.podeExistir("00000000000")).isFalse();
+        assertThat(meterRegistry.get("toystore.filtro_cpfs.consultas").tag("resultado", "ausente").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("toystore.filtro_cpfs.memoria").gauge().value()).isPositive();
+    }
+
+    @DisplayName("Deve liberar de imediato os CPFs gravados por esta instância")
+    @Test
+    void deveLiberarCpfAdicionado() {
+        filtro.reconstruir();
+
+        filtro.adicionar("98765432100");
+
+        assertThat(filtro.podeExistir("98765432100")).isTrue();
+    }
+
+    @DisplayName("Deve incluir na sincronização os CPFs gravados por outras instâncias")
+    @Test
+    void deveSincronizarCpfsDeOutrasInstancias() {
+        gravar("98765432100");
+        filtro.reconstruir();
+        gravar("98765432111");
+
+        assertThat(filtro.podeExistir("98765432111")).isFalse();
+        filtro.sincronizar();
+
+        assertThat(filtro.podeExistir("98765432100")).isTrue();
+        assertThat(filtro.podeExistir("98765432111")).isTrue();
+    }
+
+    @DisplayName("Deve esperar a transação anterior ainda em andamento antes de avançar a sincronização")
+    @Test
+    void deveSincronizarCpfConfirmadoForaDeOrdem() throws Exception {
+        filtro.reconstruir();
+        var reservado = new CountDownLatch(1);
+        var confirmar = new CountDownLatch(1);
+        // Número menor que o do CPF seguinte, confirmado depois dele
+        CompletableFuture<Void> longa = CompletableFuture.runAsync(() -> escrita().executeWithoutResult(status -> {
+            inserir("98765432100", sequenciaAlteracoes.proxima());
+            reservado.countDown();
+            aguardar(confirmar);
+        }));
+        assertThat(reservado.await(5, TimeUnit.SECONDS)).isTrue();
+        gravar("98765432111");
+
+        filtro.sincronizar();
+        confirmar.countDown();
+        longa.get(5, TimeUnit.SECONDS);
+        filtro.sincronizar();
+
+        assertThat(filtro.podeExistir("98765432100")).isTrue();
+        assertThat(filtro.podeExistir("98765432111")).isTrue();
+    }
+
+    @DisplayName("Deve deixar as consultas seguirem para o banco enquanto o filtro não está em dia")
+    @Test
+    void deveLiberarTudo_QuandoSincronizacaoAtrasada() {
+        filtro.reconstruir();
+        assertThat(filtro.podeExistir("00000000000")).isFalse();
+
+        when(clock.instant()).thenReturn(AGORA.plus(ATRASO_MAXIMO).plusSeconds(1));
+        assertThat(filtro.podeExistir("00000000000")).isTrue();
+        assertThat(meterRegistry.get("toystore.filtro_cpfs.consultas").tag("resultado", "desatualizado")
+                .counter().count()).isEqualTo(1);
+
+        filtro.sincronizar();
+        assertThat(filtro.podeExistir("00000000000")).isFalse();
+    }
+
+    @DisplayName("Deve continuar atrás do instante em que uma transação ainda em andamento reservou seu número")
+    @Test
+    void deveLiberarTudo_QuandoTransacaoLongaSeguraASincronizacao() throws Exception {
+        filtro.reconstruir();
+        var reservado = new CountDownLatch(1);
+        var confirmar = new CountDownLatch(1);
+        CompletableFuture<Void> longa = CompletableFuture.runAsync(() -> escrita().executeWithoutResult(status -> {
+            inserir("98765432100", sequenciaAlteracoes.proxima());
+            reservado.countDown();
+            aguardar(confirmar);
+        }));
+        assertThat(reservado.await(5, TimeUnit.SECONDS)).isTrue();
+        when(clock.instant()).thenReturn(AGORA.plus(ATRASO_MAXIMO).plusSeconds(1));
+
+        try {
+            filtro.sincronizar();
+
+            assertThat(filtro.podeExistir("00000000000")).isTrue();
+        } finally {
+            confirmar.countDown();
+            longa.get(5, TimeUnit.SECONDS);
+        }
+        filtro.sincronizar();
+        assertThat(filtro.podeExistir("00000000000")).isFalse();
+    }
+
+    @DisplayName("Deve contar os falsos positivos informados pelo serviço")
+    @Test
+    void deveContarFalsosPositivos() {
+        filtro.registrarFalsoPositivo();
+        filtro.reconstruir();
+        filtro.registrarFalsoPositivo();
+
+        assertThat(meterRegistry.get("toystore.filtro_cpfs.falsos_positivos").counter().count()).isEqualTo(1);
+    }
+
+    // Como o serviço grava: o número de alteração é reservado na própria transação
+    private void gravar(String cpf) {
+        escrita().executeWithoutResult(status -> inserir(cpf, sequenciaAlteracoes.proxima()));
+    }
+
+    private TransactionTemplate escrita() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void inserir(String cpf, long sequencia) {
+        clienteRepository.inserir(Cpf.numero(cpf), "Maria", "maria", "maria@mail.com", enderecoId, sequencia);
+    }
+}
@@ -0,0 +1,319 @@
+package com.toystore.customer.infrastructure.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toystore.customer.application.dto.ClienteAtualizacaoDTO;
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.dto.EventoAlteracaoDTO;
+import com.toystore.customer.application.usecases.cliente.ClienteService;
+import com.toystore.customer.application.usecases.cliente.ClienteServiceImpl;
+import com.toystore.customer.application.usecases.endereco.EnderecoService;
+import com.toystore.customer.application.usecases.endereco.EnderecoServiceImpl;
+import com.toystore.customer.domain.eventos.AlteracaoRegistradaEvento;
+import com.toystore.customer.domain.eventos.TipoAlteracao;
+import com.toystore.customer.domain.model.EventoOutbox;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.domain.repository.EventoOutboxRepository;
+import com.toystore.customer.infrastructure.busca.IndiceClientes;
+import com.toystore.customer.infrastructure.config.AgrupamentoConfig;
+import com.toystore.customer.infrastructure.config.CacheConfig;
+import com.toystore.customer.infrastructure.config.DeduplicacaoEnderecosConfig;
+import com.toystore.customer.infrastructure.config.DiretorioCepsConfig;
+import com.toystore.customer.infrastructure.config.FiltroCpfsConfig;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import com.toystore.customer.interfaces.mapper.ClienteMapperImpl;
+import com.toystore.customer.interfaces.mapper.EnderecoMapperImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ActiveProfiles("test")
+@Import({ClienteServiceImpl.class, ClienteMapperImpl.class, EnderecoServiceImpl.class, EnderecoMapperImpl.class,
+        CacheConfig.class, AgrupamentoConfig.class, FiltroCpfsConfig.class, DeduplicacaoEnderecosConfig.class,
+        DiretorioCepsConfig.class, LocalValidatorFactoryBean.class, SequenciaAlteracoes.class, OutboxTest.Configuracao.class})
+// Sem a transação do teste: cada chamada aos serviços faz o próprio commit, como em produção
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxTest {
+
+    private static final Duration RESERVA = Duration.ofMinutes(1);
+    private static final Duration ESPERA_INICIAL = Duration.ofMinutes(1);
+
+    @TestConfiguration
+    static class Configuracao {
+
+        @Bean
+        GravadorOutbox gravadorOutbox(EventoOutboxRepository eventoOutboxRepository) {
+            return new GravadorOutbox(eventoOutboxRepository, new ObjectMapper());
+        }
+    }
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private EnderecoService enderecoService;
+
+    @Autowired
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private IndiceClientes indiceClientes;
+
+    private final DestinoMemoria destino = new DestinoMemoria();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Long enderecoId;
+
+    @BeforeEach
+    void setUp() {
+        enderecoId = enderecoService.salvar(
+                new EnderecoDTO(null, "40000-000", "BA", "Salvador", "Centro", "Rua Principal", "1")).id();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventoOutboxRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+        enderecoRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("Deve gravar no outbox cada alteração de cliente e endereço com o estado resultante")
+    @Test
+    void deveGravarAlteracoesNoOutbox() {
+        var cliente = new ClienteDTO("98765432100", "Maria", "maria@mail.com", enderecoId);
+        clienteService.salvar(cliente);
+        clienteService.atualizar(cliente.cpf(), new ClienteAtualizacaoDTO("Maria S.", "maria@mail.com", enderecoId), null);
+        clienteService.deletarPorId(cliente.cpf());
+
+        List<EventoOutbox> eventos = eventoOutboxRepository.findAll(Sort.by("id"));
+
+        assertThat(eventos).extracting(EventoOutbox::getAgregado, EventoOutbox::getChave, EventoOutbox::getTipo)
+                .containsExactly(
+                        tuple("endereco", String.valueOf(enderecoId), TipoAlteracao.CRIACAO),
+                        tuple("cliente", cliente.cpf(), TipoAlteracao.CRIACAO),
+                        tuple("cliente", cliente.cpf(), TipoAlteracao.ATUALIZACAO),
+                        tuple("cliente", cliente.cpf(), TipoAlteracao.REMOCAO));
+        assertThat(eventos.get(2).getDados()).contains("\"nome\":\"Maria S.\"");
+        assertThat(eventos.get(3).getDados()).isNull();
+    }
+
+    @DisplayName("Deve recusar a gravação no outbox fora de uma transação")
+    @Test
+    void deveGerarExcecao_QuandoPublicarForaDeTransacao() {
+        assertThatThrownBy(() -> eventPublisher.publishEvent(
+                AlteracaoRegistradaEvento.cliente(TipoAlteracao.REMOCAO, "98765432100", null)))
+                .isInstanceOf(IllegalTransactionStateException.class);
+        assertThat(eventoOutboxRepository.count()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve entregar os eventos em lotes, na ordem de gravação, e removê-los do outbox")
+    @Test
+    void deveEntregarEventosEmLotes() {
+        clienteService.salvar(new ClienteDTO("98765432100", "Maria", "maria@mail.com", enderecoId));
+        clienteService.deletarPorId("98765432100");
+        RelayOutbox relay = relay(destino, 2);
+
+        assertThat(relay.drenar()).isEqualTo(2);
+        assertThat(relay.drenar()).isEqualTo(1);
+        assertThat(relay.drenar()).isZero();
+
+        assertThat(destino.eventos()).extracting(EventoAlteracaoDTO::agregado, EventoAlteracaoDTO::tipo)
+                .containsExactly(
+                        tuple("endereco", "CRIACAO"),
+                        tuple("cliente", "CRIACAO"),
+                        tuple("cliente", "REMOCAO"));
+        assertThat(eventoOutboxRepository.count()).isZero();
+        assertThat(meterRegistry.get("toystore.outbox.publicados").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("toystore.outbox.atraso").timer().count()).isEqualTo(3);
+    }
+
+    @DisplayName("Deve manter os eventos no outbox e adiar a nova tentativa quando a entrega falha")
+    @Test
+    void deveManterEventos_QuandoEntregaFalha() {
+        var chamadas = new AtomicInteger();
+        RelayOutbox relay = relay(eventos -> {
+            chamadas.incrementAndGet();
+            throw new IOException("destino fora do ar");
+        }, 10);
+        Instant antes = Instant.now();
+
+        assertThat(relay.drenar()).isZero();
+        assertThat(relay.drenar()).isZero();
+
+        assertThat(chamadas).hasValue(1);
+        assertThat(eventoOutboxRepository.findAll()).singleElement().satisfies(evento -> {
+            assertThat(evento.getTentativas()).isEqualTo(1);
+            assertThat(evento.getDisponivelEm()).isAfterOrEqualTo(antes.plus(ESPERA_INICIAL));
+            assertThat(evento.getAbandonadoEm()).isNull();
+        });
+        assertThat(meterRegistry.get("toystore.outbox.falhas").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("toystore.outbox.pendentes").gauge().value()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve dobrar a espera a cada falha e abandonar o evento depois da última tentativa")
+    @Test
+    void deveAbandonarEvento_QuandoEsgotaTentativas() {
+        var chamadas = new AtomicInteger();
+        DestinoEventos fora = eventos -> {
+            chamadas.incrementAndGet();
+            throw new IOException("destino fora do ar");
+        };
+        RelayOutbox relay = new RelayOutbox(eventoOutboxRepository, fora, new TransactionTemplate(transactionManager),
+                meterRegistry, 10, RESERVA, 3, Duration.ZERO, Duration.ZERO);
+
+        assertThat(relay.drenar()).isZero();
+        assertThat(relay.drenar()).isZero();
+        assertThat(eventoOutboxRepository.findAll()).singleElement()
+                .satisfies(evento -> assertThat(evento.getAbandonadoEm()).isNull());
+        assertThat(relay.drenar()).isZero();
+        assertThat(relay.drenar()).isZero();
+
+        assertThat(chamadas).hasValue(3);
+        assertThat(eventoOutboxRepository.findAll()).singleElement().satisfies(evento -> {
+            assertThat(evento.getTentativas()).isEqualTo(3);
+            assertThat(evento.getAbandonadoEm()).isNotNull();
+        });
+        assertThat(meterRegistry.get("toystore.outbox.pendentes").gauge().value()).isZero();
+        assertThat(meterRegistry.get("toystore.outbox.abandonados").gauge().value()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve entregar o lote fora da transação, com os eventos já reservados")
+    @Test
+    void deveEntregarForaDaTransacao() {
+        var reservados = new AtomicReference<List<EventoOutbox>>();
+        var transacaoAtiva = new AtomicBoolean(true);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        RelayOutbox relay = relay(eventos -> {
+            transacaoAtiva.set(TransactionSynchronizationManager.isActualTransactionActive());
+            // Outra instância não lê o lote reservado, mesmo sem trava nenhuma
+            reservados.set(CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status ->
+                    eventoOutboxRepository.travarPendentes(Instant.now(), 10))).join());
+            destino.publicar(eventos);
+        }, 10);
+
+        assertThat(relay.drenar()).isEqualTo(1);
+
+        assertThat(transacaoAtiva).isFalse();
+        assertThat(reservados.get()).isEmpty();
+        assertThat(destino.eventos()).hasSize(1);
+        assertThat(eventoOutboxRepository.count()).isZero();
+    }
+
+    @DisplayName("Deve ler de novo o lote cuja reserva venceu sem entrega")
+    @Test
+    void deveLerLote_QuandoReservaVence() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        // Na precisão da coluna, para a comparação não depender do arredondamento dos nanossegundos
+        Instant agora = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        transactionTemplate.executeWithoutResult(status -> eventoOutboxRepository.reservar(
+                eventoOutboxRepository.findAll().stream().map(EventoOutbox::getId).toList(), agora.plus(RESERVA)));
+
+        List<EventoOutbox> reservados = transactionTemplate.execute(status ->
+                eventoOutboxRepository.travarPendentes(agora, 10));
+        List<EventoOutbox> vencidos = transactionTemplate.execute(status ->
+                eventoOutboxRepository.travarPendentes(agora.plus(RESERVA), 10));
+
+        assertThat(reservados).isEmpty();
+        assertThat(vencidos).hasSize(1);
+    }
+
+    @DisplayName("Deve pular eventos travados por outra instância do relay")
+    @Test
+    void devePularEventosTravados() throws Exception {
+        clienteService.salvar(new ClienteDTO("98765432100", "Maria", "maria@mail.com", enderecoId));
+        var travado = new CountDownLatch(1);
+        var liberar = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        CompletableFuture<List<EventoOutbox>> outraInstancia = CompletableFuture.supplyAsync(() ->
+                transactionTemplate.execute(status -> {
+                    List<EventoOutbox> eventos = eventoOutboxRepository.travarPendentes(Instant.now(), 1);
+                    travado.countDown();
+                    aguardar(liberar);
+                    return eventos;
+                }));
+        assertThat(travado.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<EventoOutbox> restantes = transactionTemplate.execute(status -> eventoOutboxRepository.travarPendentes(Instant.now(), 10));
+        liberar.countDown();
+
+        assertThat(outraInstancia.get(5, TimeUnit.SECONDS)).singleElement()
+                .satisfies(evento -> assertThat(evento.getAgregado()).isEqualTo("endereco"));
+        assertThat(restantes).singleElement()
+                .satisfies(evento -> assertThat(evento.getAgregado()).isEqualTo("cliente"));
+    }
+
+    @DisplayName("Deve informar a idade do evento pendente mais antigo")
+    @Test
+    void deveInformarIdadeDoEventoMaisAntigo() {
+        relay(destino, 10);
+
+        assertThat(eventoOutboxRepository.buscarCriacaoMaisAntiga()).hasValueSatisfying(
+                criacao -> assertThat(criacao).isBeforeOrEqualTo(Instant.now()));
+        assertThat(meterRegistry.get("toystore.outbox.idade_mais_antigo").gauge().value()).isGreaterThanOrEqualTo(0);
+    }
+
+    private RelayOutbox relay(DestinoEventos destinoEventos, int tamanhoLote) {
+        return new RelayOutbox(eventoOutboxRepository, destinoEventos, new TransactionTemplate(transactionManager),
+                meterRegistry, tamanhoLote, RESERVA, 10, ESPERA_INICIAL, Duration.ofMinutes(10));
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.toystore.customer.infrastructure.persistence;
+
+import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Cpf;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.infrastructure.config.PesquisaClientesConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ActiveProfiles("test")
+@Import(PesquisaClientesConfig.class)
+class PreenchimentoNomeBuscaTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private PreenchimentoNomeBusca preenchimentoNomeBusca;
+
+    @DisplayName("Deve preencher o nome de pesquisa com a mesma normalização do cadastro")
+    @Test
+    void devePreencherComANormalizacaoDoCadastro() {
+        // Arrange: ñ e å ficavam fora da lista de acentos da versão em SQL da migração
+        inserirSemNomeBusca("00000000001", "Íñigo Åström");
+        inserirSemNomeBusca("00000000002", "JOÃO Çaçador");
+
+        // Act
+        int preenchidos = preenchimentoNomeBusca.preencher();
+
+        // Assert
+        assertThat(preenchidos).isEqualTo(2);
+        assertThat(nomeBusca("00000000001")).isEqualTo(Cliente.normalizarNome("Íñigo Åström")).isEqualTo("inigo astrom");
+        assertThat(nomeBusca("00000000002")).isEqualTo("joao cacador");
+    }
+
+    @DisplayName("Deve preencher em vários lotes e não mexer na versão do cliente")
+    @Test
+    void devePreencherEmLotesSemAlterarVersao() {
+        // Arrange
+        IntStream.rangeClosed(1, PreenchimentoNomeBusca.TAMANHO_LOTE + 1)
+                .forEach(i -> inserirSemNomeBusca("%011d".formatted(i), "Cliente " + i));
+
+        // Act
+        int preenchidos = preenchimentoNomeBusca.preencher();
+
+        // Assert
+        assertThat(preenchidos).isEqualTo(PreenchimentoNomeBusca.TAMANHO_LOTE + 1);
+        assertThat(preenchimentoNomeBusca.preencher()).isZero();
+        assertThat(clienteRepository.buscarVersao("00000000001")).contains(0L);
+    }
+
+    private void inserirSemNomeBusca(String cpf, String nome) {
+        clienteRepository.inserir(Cpf.numero(cpf), nome, null, cpf + "@mail.com", null, 1L);
+    }
+
+    private String nomeBusca(String cpf) {
+        return entityManager.getEntityManager()
+                .createQuery("select c.nomeBusca from Cliente c where c.cpf = :cpf", String.class)
+                .setParameter("cpf", cpf)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,222 @@
+package com.toystore.customer.infrastructure.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicasLeituraTest {
+
+    private static final Duration QUARENTENA = Duration.ofSeconds(30);
+    private static final Duration ATRASO_MAXIMO = Duration.ofSeconds(2);
+    private static final String CONSULTA_ATRASO = "select segundos from atraso";
+    private static final Instant INICIO = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final DataSource primario = mock(DataSource.class);
+    private final DataSource replica1 = mock(DataSource.class);
+    private final DataSource replica2 = mock(DataSource.class);
+    private final Connection conexaoPrimario = mock(Connection.class);
+    private final Connection conexaoReplica1 = mock(Connection.class);
+    private final Connection conexaoReplica2 = mock(Connection.class);
+    private final Clock clock = mock(Clock.class);
+
+    private ReplicasLeitura replicasLeitura;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primario.getConnection()).thenReturn(conexaoPrimario);
+        when(replica1.getConnection()).thenReturn(conexaoReplica1);
+        when(replica2.getConnection()).thenReturn(conexaoReplica2);
+        when(clock.instant()).thenReturn(INICIO);
+        replicasLeitura = new ReplicasLeitura(primario, List.of(replica1, replica2), QUARENTENA, ATRASO_MAXIMO,
+                CONSULTA_ATRASO, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @DisplayName("Deve revezar as leituras entre as réplicas")
+    @Test
+    void deveRevezarEntreReplicas() throws SQLException {
+        assertThat(List.of(replicasLeitura.getConnection(), replicasLeitura.getConnection(),
+                replicasLeitura.getConnection()))
+                .containsExactly(conexaoReplica1, conexaoReplica2, conexaoReplica1);
+        verify(primario, never()).getConnection();
+    }
+
+    @DisplayName("Deve tirar do revezamento por um tempo a réplica que recusa a conexão")
+    @Test
+    void deveColocarReplicaEmQuarentena_QuandoConexaoFalha() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("réplica fora do ar"));
+
+        assertThat(replicasLeitura.getConnection()).isSameAs(conexaoReplica2);
+        assertThat(replicasLeitura.replicasDisponiveis()).isEqualTo(1);
+        assertThat(replicasLeitura.getConnection()).isSameAs(conexaoReplica2);
+        assertThat(replicasLeitura.getConnection()).isSameAs(conexaoReplica2);
+
+        doReturn(conexaoReplica1).when(replica1).getConnection();
+        when(clock.instant()).thenReturn(INICIO.plus(QUARENTENA));
+
+        assertThat(replicasLeitura.replicasDisponiveis()).isEqualTo(2);
+        assertThat(List.of(replicasLeitura.getConnection(), replicasLeitura.getConnection()))
+                .containsExactlyInAnyOrder(conexaoReplica1, conexaoReplica2);
+    }
+
+    @DisplayName("Deve ler do primário quando nenhuma réplica está disponível")
+    @Test
+    void deveLerDoPrimario_QuandoReplicasIndisponiveis() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("réplica fora do ar"));
+        when(replica2.getConnection()).thenThrow(new SQLException("réplica fora do ar"));
+
+        assertThat(replicasLeitura.getConnection()).isSameAs(conexaoPrimario);
+        assertThat(replicasLeitura.replicasDisponiveis()).isZero();
+        assertThat(replicasLeitura.getConnection()).isSameAs(conexaoPrimario);
+    }
+
+    @DisplayName("Deve ler do primário quando a requisição acabou de escrever")
+    @Test
+    void deveLerDoPrimario_QuandoRequisicaoEscreveu() throws SQLException {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(replicasLeitura.getConnection()).isSameAs(conexaoReplica1);
+
+        LeituraPropria.marcar();
+
+        assertThat(replicasLeitura.getConnection()).isSameAs(conexaoPrimario);
+    }
+
+    @DisplayName("Deve ler no primário dentro de noPrimario, mesmo sem requisição na thread")
+    @Test
+    void deveLerDoPrimario_QuandoExigidoNaThread() throws SQLException {
+        assertThat(LeituraPropria.noPrimario(() -> {
+            try {
+                return replicasLeitura.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        })).isSameAs(conexaoPrimario);
+        assertThat(replicasLeitura.getConnection()).isSameAs(conexaoReplica1);
+    }
+
+    @DisplayName("Deve colocar de quarentena a réplica que não responde à medição de atraso")
+    @Test
+    void deveColocarReplicaEmQuarentena_QuandoMedicaoFalha() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("réplica fora do ar"));
+        when(conexaoReplica2.createStatement()).thenThrow(new SQLException("réplica fora do ar"));
+
+        replicasLeitura.verificarAtraso();
+
+        assertThat(replicasLeitura.replicasDisponiveis()).isZero();
+        when(clock.instant()).thenReturn(INICIO.plus(QUARENTENA));
+        assertThat(replicasLeitura.replicasDisponiveis()).isEqualTo(2);
+    }
+
+    @Nested
+    @DisplayName("Com dois bancos H2")
+    class ComDoisBancos {
+
+        private final DataSource bancoPrimario = banco("primario");
+        private final DataSource bancoReplica = banco("replica");
+
+        private ReplicasLeitura replicas;
+        private JdbcTemplate jdbcTemplate;
+        private TransactionTemplate escrita;
+        private TransactionTemplate leitura;
+
+        @BeforeEach
+        void setUp() {
+            replicas = new ReplicasLeitura(bancoPrimario, List.of(bancoReplica), QUARENTENA, ATRASO_MAXIMO,
+                    CONSULTA_ATRASO);
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(bancoPrimario);
+            dataSource.setReadOnlyDataSource(replicas);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            transactionManager.addListener(new LeituraPropria());
+
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            escrita = new TransactionTemplate(transactionManager);
+            leitura = new TransactionTemplate(transactionManager);
+            leitura.setReadOnly(true);
+        }
+
+        @AfterEach
+        void tearDown() {
+            new JdbcTemplate(bancoPrimario).execute("drop table origem");
+            new JdbcTemplate(bancoPrimario).execute("drop table atraso");
+            new JdbcTemplate(bancoReplica).execute("drop table origem");
+            new JdbcTemplate(bancoReplica).execute("drop table atraso");
+        }
+
+        @DisplayName("Deve executar as transações somente leitura na réplica e as demais no primário")
+        @Test
+        void deveRotearPeloTipoDeTransacao() {
+            assertThat(origem(leitura)).isEqualTo("replica");
+            assertThat(origem(escrita)).isEqualTo("primario");
+        }
+
+        @DisplayName("Deve ler do primário depois de uma escrita confirmada na mesma requisição")
+        @Test
+        void deveLerPropriaEscrita() {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            assertThat(origem(leitura)).isEqualTo("replica");
+
+            escrita.executeWithoutResult(status -> jdbcTemplate.update("update origem set nome = nome"));
+
+            assertThat(origem(leitura)).isEqualTo("primario");
+        }
+
+        @DisplayName("Deve tirar do revezamento a réplica atrasada e devolvê-la quando alcança o primário")
+        @Test
+        void deveLerDoPrimario_QuandoReplicaAtrasada() {
+            JdbcTemplate replica = new JdbcTemplate(bancoReplica);
+            replica.update("update atraso set segundos = 10");
+            replicas.verificarAtraso();
+
+            assertThat(origem(leitura)).isEqualTo("primario");
+
+            replica.update("update atraso set segundos = 0.5");
+            replicas.verificarAtraso();
+
+            assertThat(origem(leitura)).isEqualTo("replica");
+        }
+
+        private String origem(TransactionTemplate transacao) {
+            return transacao.execute(status -> jdbcTemplate.queryForObject("select nome from origem", String.class));
+        }
+
+        private static DataSource banco(String nome) {
+            DataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:replicas_" + nome + ";DB_CLOSE_DELAY=-1", "sa", "");
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("create table origem (nome varchar(20))");
+            jdbcTemplate.update("insert into origem (nome) values (?)", nome);
+            jdbcTemplate.execute("create table atraso (segundos double precision)");
+            jdbcTemplate.update("insert into atraso (segundos) values (0)");
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.toystore.customer.infrastructure.persistence;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ActiveProfiles("test")
+@Import(SequenciaAlteracoes.class)
+// Sem a transação do teste: cada reserva precisa da própria transação, em andamento ou já terminada
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SequenciaAlteracoesTest {
+
+    @Autowired
+    private SequenciaAlteracoes sequenciaAlteracoes;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DisplayName("Deve limitar a visibilidade ao primeiro número da reserva mais antiga ainda em andamento")
+    @Test
+    void deveLimitarAoPrimeiroNumeroDaReservaMaisAntiga() throws Exception {
+        Reserva primeira = reservar();
+        Reserva segunda = reservar();
+
+        assertThat(segunda.numero()).isGreaterThan(primeira.numero());
+        assertThat(sequenciaAlteracoes.limiteVisivel()).isEqualTo(primeira.numero());
+
+        primeira.concluir();
+        assertThat(sequenciaAlteracoes.limiteVisivel()).isEqualTo(segunda.numero());
+
+        segunda.concluir();
+        assertThat(sequenciaAlteracoes.limiteVisivel())
+                .isEqualTo(segunda.numero() + SequenciaAlteracoes.TAMANHO_BLOCO);
+    }
+
+    @DisplayName("Deve obter da chave da trava o primeiro número do bloco, e não o último do bloco anterior")
+    @Test
+    void deveObterInicioDoBlocoPelaChaveDaTrava() {
+        // Duas reservas sobrepostas de uma sequência que começa em 1: blocos 1001-2000 e 2001-3000
+        assertThat(SequenciaAlteracoes.inicioDoBloco(1001 / SequenciaAlteracoes.TAMANHO_BLOCO, 2001)).isEqualTo(1001);
+        assertThat(SequenciaAlteracoes.inicioDoBloco(2001 / SequenciaAlteracoes.TAMANHO_BLOCO, 2001)).isEqualTo(2001);
+        // Sequência alinhada ao bloco
+        assertThat(SequenciaAlteracoes.inicioDoBloco(2, 3000)).isEqualTo(2000);
+    }
+
+    // Reserva um número numa transação de outra thread, que só termina em concluir()
+    private Reserva reservar() throws Exception {
+        var reservado = new CompletableFuture<Long>();
+        var concluir = new CountDownLatch(1);
+        CompletableFuture<Void> transacao = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    reservado.complete(sequenciaAlteracoes.proxima());
+                    aguardar(concluir);
+                }));
+        return new Reserva(reservado.get(5, TimeUnit.SECONDS), concluir, transacao);
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Reserva(long numero, CountDownLatch liberar, CompletableFuture<Void> transacao) {
+
+        void concluir() throws Exception {
+            liberar.countDown();
+            transacao.get(5, TimeUnit.SECONDS);
+        }
+    }
+}
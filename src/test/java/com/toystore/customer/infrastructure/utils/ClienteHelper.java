@@ -3,6 +3,7 @@ package com.toystore.customer.infrastructure.utils;
 import com.toystore.customer.application.dto.ClienteAtualizacaoDTO;
 import com.toystore.customer.application.dto.ClienteDTO;
 import com.toystore.customer.domain.model.Cliente;
+import com.toystore.customer.domain.model.Cpf;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -12,13 +13,26 @@ public class ClienteHelper {
 
     public static Cliente gerarCliente(){
         return Cliente.builder()
-                .cpf(String.valueOf(ThreadLocalRandom.current().nextLong(10000000000L, 100000000000L)))
+                .cpf(gerarCpf())
                 .email("ninguemdasilva@mail.com")
                 .nome("Ninguem da Silva")
                 .endereco(gerarEndereco())
                 .build();
     }
 
+    // Nove dígitos aleatórios seguidos dos dígitos verificadores que os completam
+    public static String gerarCpf(){
+        long base = ThreadLocalRandom.current().nextLong(100_000_000L, 1_000_000_000L) * 100;
+        for (int verificadores = 0; verificadores < 100; verificadores++) {
+            String cpf = Cpf.formatar(base + verificadores);
+            if (Cpf.valido(cpf)) {
+                return cpf;
+            }
+        }
+        // Nove dígitos iguais: nenhum par de verificadores é aceito
+        return gerarCpf();
+    }
+
     public static ClienteDTO gerarClienteDTO(Cliente cliente){
         return new ClienteDTO(cliente.getCpf(),
                 cliente.getNome(),
@@ -12,7 +12,7 @@ public class EnderecoHelper {
                 .id(Math.abs(UUID.randomUUID().getMostSignificantBits()))
                 .estado("Bahia")
                 .cidade("Salvador")
-                .cep("1111111")
+                .cep("11111-111")
                 .bairro("Centro")
                 .rua("Rua Principal")
                 .numero("111")
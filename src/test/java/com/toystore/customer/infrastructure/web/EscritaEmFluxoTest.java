@@ -0,0 +1,129 @@
+package com.toystore.customer.infrastructure.web;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toystore.customer.application.dto.ClienteDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EscritaEmFluxoTest {
+
+    private static final ClienteDTO JOAO = new ClienteDTO("11111111111", "João", "joao@mail.com", 1L);
+    private static final ClienteDTO MARIA = new ClienteDTO("22222222222", "Maria", "maria@mail.com", 2L);
+
+    private final MapeadoresPorFormato mapeadores = MapeadoresPorFormato.de(new ObjectMapper());
+
+    @DisplayName("Deve escrever um array JSON com os registros entregues pela fonte")
+    @Test
+    void deveEscreverArrayJson() throws Exception {
+        var saida = new ByteArrayOutputStream();
+
+        EscritaEmFluxo.<ClienteDTO>array(mapeadores.json(), consumidor -> List.of(JOAO, MARIA).forEach(consumidor))
+                .writeTo(saida);
+
+        assertThat(mapeadores.json().readValue(saida.toByteArray(), new TypeReference<List<ClienteDTO>>() { }))
+                .containsExactly(JOAO, MARIA);
+    }
+
+    @DisplayName("Deve escrever um array vazio quando a fonte não entrega registros")
+    @Test
+    void deveEscreverArrayVazio() throws Exception {
+        var saida = new ByteArrayOutputStream();
+
+        EscritaEmFluxo.<ClienteDTO>array(mapeadores.json(), consumidor -> { }).writeTo(saida);
+
+        assertThat(saida.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    @DisplayName("Deve escrever o array no formato binário do mapeador")
+    @Test
+    void deveEscreverArrayCbor() throws Exception {
+        var saida = new ByteArrayOutputStream();
+
+        EscritaEmFluxo.<ClienteDTO>array(mapeadores.para(MediaType.APPLICATION_CBOR),
+                consumidor -> List.of(JOAO, MARIA).forEach(consumidor)).writeTo(saida);
+
+        assertThat(mapeadores.cbor().readValue(saida.toByteArray(), new TypeReference<List<ClienteDTO>>() { }))
+                .containsExactly(JOAO, MARIA);
+    }
+
+    @DisplayName("Deve escrever um registro JSON por linha")
+    @Test
+    void deveEscreverNdjson() throws Exception {
+        var saida = new ByteArrayOutputStream();
+
+        EscritaEmFluxo.<ClienteDTO>ndjson(mapeadores.json(), consumidor -> List.of(JOAO, MARIA).forEach(consumidor))
+                .writeTo(saida);
+
+        assertThat(saida.toString(StandardCharsets.UTF_8)).isEqualTo(
+                mapeadores.json().writeValueAsString(JOAO) + "\n" + mapeadores.json().writeValueAsString(MARIA) + "\n");
+    }
+
+    @DisplayName("Deve deixar o fluxo de saída aberto para o container")
+    @Test
+    void deveManterSaidaAberta() throws Exception {
+        var saida = new SaidaQueRegistraFechamento();
+
+        EscritaEmFluxo.<ClienteDTO>array(mapeadores.json(), consumidor -> consumidor.accept(JOAO)).writeTo(saida);
+
+        assertThat(saida.fechada).isFalse();
+    }
+
+    @DisplayName("Deve negociar o formato pelo Accept, com JSON como padrão")
+    @Test
+    void deveNegociarFormatoPeloAccept() throws Exception {
+        assertThat(MapeadoresPorFormato.negociar(null)).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(MapeadoresPorFormato.negociar("*/*")).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(MapeadoresPorFormato.negociar("application/cbor")).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(MapeadoresPorFormato.negociar("application/json;q=0.5, application/x-jackson-smile"))
+                .isEqualTo(MapeadoresPorFormato.APPLICATION_SMILE);
+        assertThat(MapeadoresPorFormato.negociar("text/html, application/cbor;q=0.1"))
+                .isEqualTo(MediaType.APPLICATION_CBOR);
+    }
+
+    @DisplayName("Deve dar a cada formato a qualidade da faixa mais específica do Accept")
+    @Test
+    void deveNegociarPelaFaixaMaisEspecifica() throws Exception {
+        assertThat(MapeadoresPorFormato.negociar("*/*;q=0.8, application/json;q=0"))
+                .isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(MapeadoresPorFormato.negociar("application/*;q=0.2, application/x-jackson-smile;q=0.5"))
+                .isEqualTo(MapeadoresPorFormato.APPLICATION_SMILE);
+        assertThat(MapeadoresPorFormato.negociar("application/x-jackson-smile, application/cbor"))
+                .isEqualTo(MapeadoresPorFormato.APPLICATION_SMILE);
+    }
+
+    @DisplayName("Deve recusar com 406 o Accept sem formato suportado ou inválido")
+    @Test
+    void deveRecusarAcceptSemFormatoSuportado() {
+        assertThatThrownBy(() -> MapeadoresPorFormato.negociar("text/html"))
+                .isInstanceOf(HttpMediaTypeNotAcceptableException.class);
+        assertThatThrownBy(() -> MapeadoresPorFormato.negociar("*/*;q=0"))
+                .isInstanceOf(HttpMediaTypeNotAcceptableException.class);
+        assertThatThrownBy(() -> MapeadoresPorFormato.negociar("invalido"))
+                .isInstanceOf(HttpMediaTypeNotAcceptableException.class);
+    }
+
+    private static final class SaidaQueRegistraFechamento extends OutputStream {
+
+        private boolean fechada;
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void close() {
+            fechada = true;
+        }
+    }
+}
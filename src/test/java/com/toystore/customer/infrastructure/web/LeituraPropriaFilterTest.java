@@ -0,0 +1,64 @@
+package com.toystore.customer.infrastructure.web;
+
+import com.toystore.customer.infrastructure.persistence.LeituraPropria;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeituraPropriaFilterTest {
+
+    private final LeituraPropriaFilter filtro = new LeituraPropriaFilter(Duration.ofSeconds(5));
+
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest();
+        request.setContextPath("/customer");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @DisplayName("Deve devolver o cookie de leitura no primário nas requisições de escrita")
+    @Test
+    void deveDevolverCookie_QuandoRequisicaoDeEscrita() throws Exception {
+        request.setMethod("PUT");
+        var response = new MockHttpServletResponse();
+
+        filtro.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE))
+                .startsWith(LeituraPropriaFilter.COOKIE + "=1")
+                .contains("Path=/customer", "Max-Age=5", "HttpOnly");
+        assertThat(LeituraPropria.exigida()).isFalse();
+    }
+
+    @DisplayName("Deve mandar as leituras ao primário enquanto o cookie existir")
+    @Test
+    void deveMarcarLeituraPropria_QuandoCookiePresente() throws Exception {
+        request.setMethod("GET");
+        request.setCookies(new Cookie(LeituraPropriaFilter.COOKIE, "1"));
+        var response = new MockHttpServletResponse();
+
+        filtro.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+        assertThat(LeituraPropria.exigida()).isTrue();
+    }
+}
@@ -0,0 +1,84 @@
+package com.toystore.customer.infrastructure.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LimiteConcorrenciaFilterTest {
+
+    @DisplayName("Deve processar a requisição e liberar a vaga ao final")
+    @Test
+    void deveProcessarRequisicaoELiberarVaga() throws Exception {
+        var filtro = new LimiteConcorrenciaFilter(1, Duration.ofMillis(10));
+        var response = new MockHttpServletResponse();
+
+        filtro.doFilter(new MockHttpServletRequest("GET", "/v1/cliente"), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(filtro.permissoesDisponiveis()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve manter a vaga até o fim de uma resposta assíncrona")
+    @Test
+    void deveManterVagaAteFimDaRespostaAssincrona() throws Exception {
+        var filtro = new LimiteConcorrenciaFilter(1, Duration.ofMillis(10));
+        var request = new MockHttpServletRequest("GET", "/v1/cliente/exportar");
+        request.setAsyncSupported(true);
+
+        filtro.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertThat(filtro.permissoesDisponiveis()).isZero();
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        assertThat(filtro.permissoesDisponiveis()).isEqualTo(1);
+    }
+
+    @DisplayName("Deve responder 503 quando o limite de concorrência estiver ocupado")
+    @Test
+    void deveRecusarRequisicaoQuandoLimiteOcupado() throws Exception {
+        var filtro = new LimiteConcorrenciaFilter(1, Duration.ofMillis(10));
+        var emAndamento = new CountDownLatch(1);
+        var liberar = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> ocupante = executor.submit(() -> {
+                filtro.doFilter(new MockHttpServletRequest("GET", "/v1/cliente"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            emAndamento.countDown();
+                            try {
+                                liberar.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+                return null;
+            });
+            assertThat(emAndamento.await(1, TimeUnit.SECONDS)).isTrue();
+
+            var response = new MockHttpServletResponse();
+            filtro.doFilter(new MockHttpServletRequest("GET", "/v1/cliente"), response, new MockFilterChain());
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+            assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+            liberar.countDown();
+            ocupante.get(1, TimeUnit.SECONDS);
+        }
+        assertThat(filtro.permissoesDisponiveis()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,195 @@
+package com.toystore.customer.interfaces.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.usecases.cliente.ClienteService;
+import com.toystore.customer.application.usecases.cliente.ClienteServiceImpl;
+import com.toystore.customer.application.usecases.endereco.EnderecoService;
+import com.toystore.customer.application.usecases.endereco.EnderecoServiceImpl;
+import com.toystore.customer.domain.exceptions.GlobalExceptionHandler;
+import com.toystore.customer.domain.repository.ClienteRepository;
+import com.toystore.customer.domain.repository.EnderecoRepository;
+import com.toystore.customer.domain.repository.RemocaoRepository;
+import com.toystore.customer.infrastructure.busca.IndiceClientes;
+import com.toystore.customer.infrastructure.config.AgrupamentoConfig;
+import com.toystore.customer.infrastructure.config.CacheConfig;
+import com.toystore.customer.infrastructure.config.DeduplicacaoEnderecosConfig;
+import com.toystore.customer.infrastructure.config.DiretorioCepsConfig;
+import com.toystore.customer.infrastructure.config.FiltroCpfsConfig;
+import com.toystore.customer.infrastructure.persistence.SequenciaAlteracoes;
+import com.toystore.customer.infrastructure.web.MapeadoresPorFormato;
+import com.toystore.customer.interfaces.mapper.ClienteMapperImpl;
+import com.toystore.customer.interfaces.mapper.EnderecoMapperImpl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.toystore.customer.infrastructure.utils.ClienteHelper.gerarCpf;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.toystore.customer.interfaces.controller.ClienteControllerAgrupamentoTest$ConsultasDeCliente"
+})
+@ActiveProfiles("test")
+@Import({ClienteServiceImpl.class, ClienteMapperImpl.class, EnderecoServiceImpl.class, EnderecoMapperImpl.class,
+        CacheConfig.class, AgrupamentoConfig.class, FiltroCpfsConfig.class, DeduplicacaoEnderecosConfig.class,
+        DiretorioCepsConfig.class, LocalValidatorFactoryBean.class, SequenciaAlteracoes.class,
+        SimpleMeterRegistry.class})
+// Sem a transação do teste: o GET precisa chegar ao agrupador fora de uma transação, como numa requisição real
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClienteControllerAgrupamentoTest {
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private EnderecoService enderecoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    @Autowired
+    private RemocaoRepository remocaoRepository;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    @MockitoBean
+    private IndiceClientes indiceClientes;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ClienteController clienteController =
+                new ClienteController(clienteService, MapeadoresPorFormato.de(new ObjectMapper()));
+        mockMvc = MockMvcBuilders.standaloneSetup(clienteController)
+                .setControllerAdvice(new GlobalExceptionHandler(meterRegistry))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ConsultasDeCliente.parar();
+        remocaoRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+        enderecoRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("Deve atender dois GETs simultâneos do mesmo Cliente com uma única consulta")
+    @Test
+    void deveCompartilharConsultaEntreGetsSimultaneos() throws Exception {
+        String cpf = gerarCpf();
+        Long enderecoId = enderecoService.salvar(
+                new EnderecoDTO(null, "40000-000", "BA", "Salvador", "Centro", "Rua Principal", "1")).id();
+        clienteService.salvar(new ClienteDTO(cpf, "Maria", "maria@mail.com", enderecoId));
+
+        ConsultasDeCliente.iniciar();
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<MvcResult> primeiro = executor.submit(() -> buscar(cpf));
+            // A consulta do primeiro GET fica presa no banco até o segundo chegar ao agrupador
+            assertThat(ConsultasDeCliente.iniciada.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<MvcResult> segundo = executor.submit(() -> buscar(cpf));
+            aguardarBuscaCompartilhada();
+            ConsultasDeCliente.liberar.countDown();
+
+            MvcResult primeiraResposta = primeiro.get(5, TimeUnit.SECONDS);
+            MvcResult segundaResposta = segundo.get(5, TimeUnit.SECONDS);
+
+            assertThat(primeiraResposta.getResponse().getStatus()).isEqualTo(200);
+            assertThat(segundaResposta.getResponse().getStatus()).isEqualTo(200);
+            assertThat(segundaResposta.getResponse().getContentAsString())
+                    .isEqualTo(primeiraResposta.getResponse().getContentAsString())
+                    .contains(cpf);
+            assertThat(segundaResposta.getResponse().getHeader(HttpHeaders.ETAG))
+                    .isNotNull()
+                    .isEqualTo(primeiraResposta.getResponse().getHeader(HttpHeaders.ETAG));
+        }
+        assertThat(ConsultasDeCliente.total.get()).isEqualTo(1);
+    }
+
+    private MvcResult buscar(String cpf) throws Exception {
+        return mockMvc.perform(get("/v1/cliente/{cpf}", cpf)).andReturn();
+    }
+
+    private void aguardarBuscaCompartilhada() throws InterruptedException {
+        Counter compartilhadas = meterRegistry.get("toystore.agrupamento.buscas")
+                .tag("agrupador", "cliente")
+                .tag("tipo", "compartilhada")
+                .counter();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (compartilhadas.count() < 1 && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(compartilhadas.count()).isEqualTo(1);
+    }
+
+    /**
+     * Conta as consultas à tabela de clientes e segura a primeira delas até {@link #liberar}. Registrado pelo
+     * nome no Hibernate, que cria a própria instância; por isso o estado é estático.
+     */
+    public static class ConsultasDeCliente implements StatementInspector {
+
+        static final AtomicInteger total = new AtomicInteger();
+        static volatile CountDownLatch iniciada = new CountDownLatch(1);
+        static volatile CountDownLatch liberar = new CountDownLatch(1);
+        private static volatile boolean ativo;
+
+        static void iniciar() {
+            total.set(0);
+            iniciada = new CountDownLatch(1);
+            liberar = new CountDownLatch(1);
+            ativo = true;
+        }
+
+        static void parar() {
+            ativo = false;
+            liberar.countDown();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (ativo && sql.startsWith("select") && sql.contains(" from cliente ")) {
+                total.incrementAndGet();
+                iniciada.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return sql;
+        }
+    }
+}
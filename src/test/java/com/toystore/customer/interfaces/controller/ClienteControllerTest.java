@@ -1,12 +1,28 @@
 package com.toystore.customer.interfaces.controller;
 
+import com.toystore.customer.application.dto.AlteracaoDTO;
+import com.toystore.customer.application.dto.AlteracoesDTO;
+import com.toystore.customer.application.dto.BuscaClientesDTO;
 import com.toystore.customer.application.dto.ClienteAtualizacaoDTO;
+import com.toystore.customer.application.dto.ClienteComEnderecoDTO;
 import com.toystore.customer.application.dto.ClienteDTO;
+import com.toystore.customer.application.dto.ClientePaginaDTO;
+import com.toystore.customer.application.dto.ResultadoBuscaClientesDTO;
+import com.toystore.customer.application.dto.ResultadoBuscaTextoDTO;
+import com.toystore.customer.application.dto.ResultadoImportacaoDTO;
+import com.toystore.customer.application.dto.ResultadoRegistroDTO;
 import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.dto.FiltroClienteDTO;
+import com.toystore.customer.application.dto.Versionado;
 import com.toystore.customer.application.usecases.cliente.ClienteService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.toystore.customer.domain.exceptions.CPFJaCadastradoException;
+import com.toystore.customer.domain.exceptions.CursorInvalidoException;
 import com.toystore.customer.domain.exceptions.GlobalExceptionHandler;
 import com.toystore.customer.domain.exceptions.RecursoNaoEncontradoException;
+import com.toystore.customer.domain.exceptions.VersaoDesatualizadaException;
+import com.toystore.customer.infrastructure.web.MapeadoresPorFormato;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -15,16 +31,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static com.toystore.customer.infrastructure.utils.ClienteHelper.*;
 import static com.toystore.customer.infrastructure.utils.EnderecoHelper.gerarEndereco;
 import static com.toystore.customer.infrastructure.utils.EnderecoHelper.gerarEnderecoDTO;
 import static com.toystore.customer.infrastructure.utils.GeneralHelper.asJsonString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
@@ -48,16 +72,21 @@ class ClienteControllerTest {
     private ClienteAtualizacaoDTO clienteAtualizacaoDTO;
     private ClienteDTO clienteDTOSemId;
 
+    private SimpleMeterRegistry meterRegistry;
+
+    private final MapeadoresPorFormato mapeadores = MapeadoresPorFormato.de(new ObjectMapper());
+
     @BeforeEach
     void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
         this.enderecoDTO = gerarEnderecoDTO(gerarEndereco());
         this.clienteDTO = gerarClienteDTO(gerarCliente());
         this.clienteDTOSemId = gerarClienteDTOSemCpf(clienteDTO);
         this.clienteAtualizacaoDTO = gerarAtualizacaoClienteDTO(clienteDTO);
-        ClienteController clienteController = new ClienteController(clienteService);
+        ClienteController clienteController = new ClienteController(clienteService, mapeadores);
 
         mockMvc = MockMvcBuilders.standaloneSetup(clienteController)
-                .setControllerAdvice(new GlobalExceptionHandler())
+                .setControllerAdvice(new GlobalExceptionHandler(meterRegistry))
                 .addFilter((request, response, chain) -> {
                     response.setCharacterEncoding("UTF-8");
                     chain.doFilter(request, response);
@@ -72,10 +101,99 @@ class ClienteControllerTest {
         @DisplayName("Deve buscar um Cliente pelo ID fornecido")
         @Test
         void deveBuscarClientePorId() throws Exception {
-            when(clienteService.buscarPorId(clienteDTO.cpf())).thenReturn(clienteDTO);
+            when(clienteService.buscarVersionadoPorId(clienteDTO.cpf())).thenReturn(new Versionado<>(clienteDTO, 3L));
 
             mockMvc.perform(get("/v1/cliente/{cpfCliente}", clienteDTO.cpf()))
                     .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                    .andExpect(content().json(asJsonString(clienteDTO)));
+        }
+
+        @DisplayName("Deve buscar um Cliente em CBOR quando solicitado no Accept")
+        @Test
+        void deveBuscarClientePorId_EmCbor() throws Exception {
+            when(clienteService.buscarVersionadoPorId(clienteDTO.cpf())).thenReturn(new Versionado<>(clienteDTO, 3L));
+
+            MvcResult resultado = mockMvc.perform(get("/v1/cliente/{cpfCliente}", clienteDTO.cpf())
+                            .accept(MediaType.APPLICATION_CBOR))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                    .andReturn();
+
+            assertThat(mapeadores.cbor().readValue(resultado.getResponse().getContentAsByteArray(), ClienteDTO.class))
+                    .isEqualTo(clienteDTO);
+        }
+
+        @DisplayName("Deve pesquisar Clientes pelos filtros informados")
+        @Test
+        void devePesquisarClientesPorFiltro() throws Exception {
+            var filtro = new FiltroClienteDTO(null, "joao", "Salvador", "BA", null);
+            var pagina = new ClientePaginaDTO(List.of(clienteDTO), clienteDTO.cpf());
+            when(clienteService.pesquisar(filtro, "00000000000", 10)).thenReturn(pagina);
+
+            mockMvc.perform(get("/v1/cliente/pesquisa")
+                            .param("nome", "joao")
+                            .param("cidade", "Salvador")
+                            .param("estado", "BA")
+                            .param("apos", "00000000000")
+                            .param("tamanho", "10"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(asJsonString(pagina)));
+        }
+
+        @DisplayName("Deve buscar Clientes por texto")
+        @Test
+        void deveBuscarClientesPorTexto() throws Exception {
+            var resultado = new ResultadoBuscaTextoDTO(List.of(clienteDTO), "cursor");
+            when(clienteService.buscarTexto("ninguem silva", null, 20)).thenReturn(resultado);
+
+            mockMvc.perform(get("/v1/cliente/busca-texto").param("q", "ninguem silva"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(asJsonString(resultado)));
+        }
+
+        @DisplayName("Deve responder 400 ao buscar Clientes por texto com cursor inválido")
+        @Test
+        void deveGerarExcecao_QuandoBuscarPorTexto_ComCursorInvalido() throws Exception {
+            when(clienteService.buscarTexto("ninguem", "???", 20))
+                    .thenThrow(new CursorInvalidoException("Cursor de busca inválido: ???"));
+
+            mockMvc.perform(get("/v1/cliente/busca-texto").param("q", "ninguem").param("apos", "???"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Cursor de busca inválido: ???"));
+        }
+
+        @DisplayName("Deve iniciar a reindexação da busca por texto")
+        @Test
+        void deveReindexarBuscaTexto() throws Exception {
+            mockMvc.perform(post("/v1/cliente/busca-texto/reindexar"))
+                    .andExpect(status().isAccepted());
+            verify(clienteService).reindexarBuscaTexto();
+        }
+
+        @DisplayName("Deve responder 304 quando o ETag informado corresponde à versão atual")
+        @Test
+        void deveResponderNaoModificado_QuandoEtagCorresponde() throws Exception {
+            when(clienteService.buscarVersao(clienteDTO.cpf())).thenReturn(Optional.of(3L));
+
+            mockMvc.perform(get("/v1/cliente/{cpfCliente}", clienteDTO.cpf())
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                    .andExpect(content().string(""));
+            verify(clienteService, never()).buscarVersionadoPorId(any());
+        }
+
+        @DisplayName("Deve retornar o Cliente quando o ETag informado está desatualizado")
+        @Test
+        void deveBuscarCliente_QuandoEtagDesatualizado() throws Exception {
+            when(clienteService.buscarVersao(clienteDTO.cpf())).thenReturn(Optional.of(4L));
+            when(clienteService.buscarVersionadoPorId(clienteDTO.cpf())).thenReturn(new Versionado<>(clienteDTO, 4L));
+
+            mockMvc.perform(get("/v1/cliente/{cpfCliente}", clienteDTO.cpf())
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
                     .andExpect(content().json(asJsonString(clienteDTO)));
         }
 
@@ -83,7 +201,7 @@ class ClienteControllerTest {
         @Test
         void deveGerarExcecao_QuandoBuscarCliente_PorIdInexistente() throws Exception {
             doThrow(new RecursoNaoEncontradoException("Cliente não encontrado com o cpf: " + clienteDTO.cpf()))
-                    .when(clienteService).buscarPorId(clienteDTO.cpf());
+                    .when(clienteService).buscarVersionadoPorId(clienteDTO.cpf());
 
             mockMvc.perform(get("/v1/cliente/{cpfCliente}", clienteDTO.cpf()))
                     .andExpect(status().isNotFound())
@@ -91,19 +209,78 @@ class ClienteControllerTest {
                     .andExpect(jsonPath("$.message")
                             .value("Cliente não encontrado com o cpf: " + clienteDTO.cpf()));
 
+            assertThat(contadorDeExcecoes("RecursoNaoEncontradoException")).isEqualTo(1);
+        }
+
+        @DisplayName("Deve retornar uma página de clientes salvos")
+        @Test
+        void deveBuscarPaginaDeClientes() throws Exception {
+            var pagina = new ClientePaginaDTO(List.of(clienteDTO,
+                    new ClienteDTO("22233344455", "Ele", "ele@mail.com", null)), "22233344455");
+
+            when(clienteService.buscarPagina("11122233344", 2)).thenReturn(pagina);
+
+            mockMvc.perform(get("/v1/cliente")
+                            .param("apos", "11122233344")
+                            .param("tamanho", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(asJsonString(pagina)));
+        }
+
+        @DisplayName("Deve retornar uma página de clientes em Smile quando solicitado no Accept")
+        @Test
+        void deveBuscarPaginaDeClientes_EmSmile() throws Exception {
+            var pagina = new ClientePaginaDTO(List.of(clienteDTO,
+                    new ClienteDTO("22233344455", "Ele", "ele@mail.com", null)), "22233344455");
+
+            when(clienteService.buscarPagina(null, 50)).thenReturn(pagina);
+
+            MvcResult resultado = mockMvc.perform(get("/v1/cliente")
+                            .accept(MapeadoresPorFormato.APPLICATION_SMILE))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MapeadoresPorFormato.APPLICATION_SMILE))
+                    .andReturn();
+
+            assertThat(mapeadores.smile().readValue(resultado.getResponse().getContentAsByteArray(), ClientePaginaDTO.class))
+                    .isEqualTo(pagina);
+        }
+
+        @DisplayName("Deve exportar todos os clientes em NDJSON")
+        @Test
+        void deveExportarClientesEmNdjson() throws Exception {
+            var outroCliente = new ClienteDTO("22233344455", "Ele", "ele@mail.com", null);
+            doAnswer(invocation -> {
+                Consumer<ClienteDTO> consumidor = invocation.getArgument(0);
+                consumidor.accept(clienteDTO);
+                consumidor.accept(outroCliente);
+                return null;
+            }).when(clienteService).exportarTodos(any());
+
+            MvcResult resultado = mockMvc.perform(get("/v1/cliente/exportar"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(resultado))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                    .andExpect(content().string(asJsonString(clienteDTO) + "\n" + asJsonString(outroCliente) + "\n"));
         }
 
-        @DisplayName("Deve retornar uma lista de clientes salvas")
+        @DisplayName("Deve retornar as alterações posteriores ao cursor, com as remoções")
         @Test
-        void deveBuscarTodosOsClientes() throws Exception {
-            var clientes = List.of(clienteDTO,
-                    new ClienteDTO("22233344455", "Ele", "ele@mail.com", null));
+        void deveBuscarAlteracoesDesdeCursor() throws Exception {
+            var alteracoes = new AlteracoesDTO(List.of(
+                    new AlteracaoDTO(1001L, "cliente", clienteDTO.cpf(), false, clienteDTO, null),
+                    new AlteracaoDTO(2001L, "endereco", "7", true, null, null)), 2001L, false);
 
-            when(clienteService.buscarTodos()).thenReturn(clientes);
+            when(clienteService.buscarAlteracoes(1000L, 200)).thenReturn(alteracoes);
 
-            mockMvc.perform(get("/v1/cliente"))
+            mockMvc.perform(get("/v1/cliente/alteracoes").param("desde", "1000"))
                     .andExpect(status().isOk())
-                    .andExpect(content().json(asJsonString(clientes)));
+                    .andExpect(content().json(asJsonString(alteracoes)))
+                    .andExpect(jsonPath("$.alteracoes[1].removido").value(true))
+                    .andExpect(jsonPath("$.alteracoes[1].cliente").doesNotExist())
+                    .andExpect(jsonPath("$.cursor").value(2001));
         }
     }
 
@@ -156,6 +333,140 @@ class ClienteControllerTest {
                     .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                     .andExpect(jsonPath("$.message")
                             .value("CPF " + clienteDTO.cpf() + " já cadastrado no sistema"));
+
+            assertThat(contadorDeExcecoes("CPFJaCadastradoException")).isEqualTo(1);
+        }
+
+        @DisplayName("Deve responder 400 sem chamar o serviço ao salvar Cliente com CPF inválido")
+        @Test
+        void deveGerarExcecao_QuandoSalvarCliente_ComCpfInvalido() throws Exception {
+            var clienteComCpfInvalido = new ClienteDTO("52998224724", clienteDTO.nome(), clienteDTO.email(),
+                    clienteDTO.enderecoId());
+
+            mockMvc.perform(post("/v1/cliente")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(clienteComCpfInvalido)))
+                    .andExpect(status().isBadRequest());
+
+            verify(clienteService, never()).salvar(any());
+        }
+    }
+
+    @DisplayName("Importar Clientes")
+    @Nested
+    class ImportarClientes {
+
+        private final ResultadoImportacaoDTO resultado = ResultadoImportacaoDTO.de(List.of(
+                ResultadoRegistroDTO.importado(0, "11122233344"),
+                ResultadoRegistroDTO.rejeitado(1, "22233344455", List.of("O nome é obrigatório"))));
+
+        @DisplayName("Deve importar Clientes enviados como array JSON")
+        @Test
+        void deveImportarClientesEmArrayJson() throws Exception {
+            var clientes = List.of(clienteDTO, new ClienteDTO("22233344455", null, "ele@mail.com", 1L));
+            List<ClienteDTO> recebidos = new ArrayList<>();
+            when(clienteService.importar(any())).thenAnswer(invocation -> {
+                Iterator<ClienteDTO> registros = invocation.getArgument(0);
+                registros.forEachRemaining(recebidos::add);
+                return resultado;
+            });
+
+            mockMvc.perform(post("/v1/cliente/lote")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(clientes)))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(asJsonString(resultado)));
+
+            assertThat(recebidos).containsExactlyElementsOf(clientes);
+        }
+
+        @DisplayName("Deve importar Clientes enviados como NDJSON")
+        @Test
+        void deveImportarClientesEmNdjson() throws Exception {
+            var outroCliente = new ClienteDTO("22233344455", null, "ele@mail.com", 1L);
+            List<ClienteDTO> recebidos = new ArrayList<>();
+            when(clienteService.importar(any())).thenAnswer(invocation -> {
+                Iterator<ClienteDTO> registros = invocation.getArgument(0);
+                registros.forEachRemaining(recebidos::add);
+                return resultado;
+            });
+
+            mockMvc.perform(post("/v1/cliente/lote")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(asJsonString(clienteDTO) + "\n" + asJsonString(outroCliente) + "\n"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.importados").value(1))
+                    .andExpect(jsonPath("$.rejeitados").value(1));
+
+            assertThat(recebidos).containsExactly(clienteDTO, outroCliente);
+        }
+
+        @DisplayName("Deve importar Clientes enviados como array CBOR")
+        @Test
+        void deveImportarClientesEmCbor() throws Exception {
+            var clientes = List.of(clienteDTO, new ClienteDTO("22233344455", null, "ele@mail.com", 1L));
+            List<ClienteDTO> recebidos = new ArrayList<>();
+            when(clienteService.importar(any())).thenAnswer(invocation -> {
+                Iterator<ClienteDTO> registros = invocation.getArgument(0);
+                registros.forEachRemaining(recebidos::add);
+                return resultado;
+            });
+
+            mockMvc.perform(post("/v1/cliente/lote")
+                            .contentType(MediaType.APPLICATION_CBOR)
+                            .content(mapeadores.cbor().writeValueAsBytes(clientes)))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(asJsonString(resultado)));
+
+            assertThat(recebidos).containsExactlyElementsOf(clientes);
+        }
+
+        @DisplayName("Deve rejeitar lote com JSON malformado")
+        @Test
+        void deveGerarExcecao_QuandoImportarJsonMalformado() throws Exception {
+            when(clienteService.importar(any())).thenAnswer(invocation -> {
+                Iterator<ClienteDTO> registros = invocation.getArgument(0);
+                registros.forEachRemaining(registro -> { });
+                return resultado;
+            });
+
+            mockMvc.perform(post("/v1/cliente/lote")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(asJsonString(clienteDTO) + "\n{\"cpf\": "))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @DisplayName("Buscar Clientes por CPF em lote")
+    @Nested
+    class BuscarClientesPorCpfs {
+
+        @DisplayName("Deve retornar os Clientes encontrados e os CPFs não encontrados")
+        @Test
+        void deveBuscarClientesPorCpfs() throws Exception {
+            var resultado = new ResultadoBuscaClientesDTO(
+                    List.of(new ClienteComEnderecoDTO(clienteDTO.cpf(), clienteDTO.nome(), clienteDTO.email(),
+                            clienteDTO.enderecoId(), enderecoDTO)),
+                    List.of("00000000000"));
+            when(clienteService.buscarPorCpfs(List.of(clienteDTO.cpf(), "00000000000"), true)).thenReturn(resultado);
+
+            mockMvc.perform(post("/v1/cliente/busca")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(new BuscaClientesDTO(List.of(clienteDTO.cpf(), "00000000000"), true))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.encontrados[0].cpf").value(clienteDTO.cpf()))
+                    .andExpect(jsonPath("$.encontrados[0].endereco.cep").value(enderecoDTO.cep()))
+                    .andExpect(jsonPath("$.naoEncontrados[0]").value("00000000000"));
+        }
+
+        @DisplayName("Deve rejeitar busca sem CPFs")
+        @Test
+        void deveGerarExcecao_QuandoBuscarSemCpfs() throws Exception {
+            mockMvc.perform(post("/v1/cliente/busca")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(new BuscaClientesDTO(List.of(), false))))
+                    .andExpect(status().isBadRequest());
+            verifyNoInteractions(clienteService);
         }
     }
 
@@ -166,20 +477,53 @@ class ClienteControllerTest {
         @DisplayName("Deve alterar Cliente cadastrada")
         @Test
         void deveAtualizarCliente() throws Exception {
-            when(clienteService.atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO)).thenReturn(clienteDTO);
+            when(clienteService.atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO, null))
+                    .thenReturn(new Versionado<>(clienteDTO, null));
+
+            mockMvc.perform(put("/v1/cliente/{cpfCliente}", clienteDTO.cpf())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(clienteAtualizacaoDTO)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                    .andExpect(content().json(asJsonString(clienteDTO)));
+        }
+
+        @DisplayName("Deve alterar Cliente com If-Match e retornar o novo ETag")
+        @Test
+        void deveAtualizarCliente_ComIfMatch() throws Exception {
+            when(clienteService.atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO, 3L))
+                    .thenReturn(new Versionado<>(clienteDTO, 4L));
 
             mockMvc.perform(put("/v1/cliente/{cpfCliente}", clienteDTO.cpf())
+                            .header(HttpHeaders.IF_MATCH, "\"3\"")
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(asJsonString(clienteAtualizacaoDTO)))
                     .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
                     .andExpect(content().json(asJsonString(clienteDTO)));
         }
 
+        @DisplayName("Deve responder 412 ao alterar Cliente com ETag desatualizado")
+        @Test
+        void deveGerarExcecao_QuandoAlterarCliente_ComEtagDesatualizado() throws Exception {
+            doThrow(new VersaoDesatualizadaException("Cliente com o cpf " + clienteDTO.cpf() +
+                    " foi alterado por outra requisição"))
+                    .when(clienteService).atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO, 3L);
+
+            mockMvc.perform(put("/v1/cliente/{cpfCliente}", clienteDTO.cpf())
+                            .header(HttpHeaders.IF_MATCH, "\"3\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(clienteAtualizacaoDTO)))
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(jsonPath("$.message")
+                            .value("Cliente com o cpf " + clienteDTO.cpf() + " foi alterado por outra requisição"));
+        }
+
         @DisplayName("Deve lançar exceção ao tentar alterar Cliente com cpf inexistente")
         @Test
         void deveGerarExcecao_QuandoAlterarCliente_PorIdInexistente() throws Exception {
             doThrow(new RecursoNaoEncontradoException("Cliente não encontrado com o cpf: " + clienteDTO.cpf()))
-                    .when(clienteService).atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO);
+                    .when(clienteService).atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO, null);
 
             mockMvc.perform(put("/v1/cliente/{cpfCliente}", clienteDTO.cpf())
                             .contentType(MediaType.APPLICATION_JSON)
@@ -195,7 +539,7 @@ class ClienteControllerTest {
         void deveGerarExcecao_QuandoAlterarCliente_ComEstadoInexistente() throws Exception {
             doThrow(new RecursoNaoEncontradoException("Endereço não encontrado com id: " +
                     clienteDTO.enderecoId()))
-                    .when(clienteService).atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO);
+                    .when(clienteService).atualizar(clienteDTO.cpf(), clienteAtualizacaoDTO, null);
 
             mockMvc.perform(put("/v1/cliente/{cpfCliente}", clienteDTO.cpf())
                             .contentType(MediaType.APPLICATION_JSON)
@@ -237,4 +581,8 @@ class ClienteControllerTest {
     
     
     
+
+    private double contadorDeExcecoes(String excecao) {
+        return meterRegistry.get("toystore.excecoes").tag("excecao", excecao).counter().count();
+    }
 }
@@ -1,9 +1,18 @@
 package com.toystore.customer.interfaces.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toystore.customer.application.dto.CepDTO;
 import com.toystore.customer.application.dto.EnderecoDTO;
+import com.toystore.customer.application.dto.ResultadoImportacaoDTO;
+import com.toystore.customer.application.dto.ResultadoRegistroDTO;
+import com.toystore.customer.application.dto.Versionado;
 import com.toystore.customer.application.usecases.endereco.EnderecoService;
 import com.toystore.customer.domain.exceptions.GlobalExceptionHandler;
 import com.toystore.customer.domain.exceptions.RecursoNaoEncontradoException;
+import com.toystore.customer.domain.exceptions.VersaoDesatualizadaException;
+import com.toystore.customer.infrastructure.web.MapeadoresPorFormato;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -12,14 +21,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static com.toystore.customer.infrastructure.utils.EnderecoHelper.*;
 import static com.toystore.customer.infrastructure.utils.GeneralHelper.asJsonString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
@@ -40,14 +56,19 @@ class EnderecoControllerTest {
     private EnderecoDTO enderecoDTO;
     private EnderecoDTO enderecoDTOSemId;
 
+    private SimpleMeterRegistry meterRegistry;
+
+    private final MapeadoresPorFormato mapeadores = MapeadoresPorFormato.de(new ObjectMapper());
+
     @BeforeEach
     void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
         enderecoDTO = gerarEnderecoDTO(gerarEndereco());
         enderecoDTOSemId = gerarEnderecoDTOSemId(gerarEndereco());
-        EnderecoController enderecoController = new EnderecoController(enderecoService);
+        EnderecoController enderecoController = new EnderecoController(enderecoService, mapeadores);
 
         mockMvc = MockMvcBuilders.standaloneSetup(enderecoController)
-                .setControllerAdvice(new GlobalExceptionHandler())
+                .setControllerAdvice(new GlobalExceptionHandler(meterRegistry))
                 .addFilter((request, response, chain) -> {
                     response.setCharacterEncoding("UTF-8");
                     chain.doFilter(request, response);
@@ -62,18 +83,31 @@ class EnderecoControllerTest {
         @DisplayName("Deve buscar um Endereço pelo ID fornecido")
         @Test
         void deveBuscarEnderecoPorId() throws Exception {
-            when(enderecoService.buscarPorId(enderecoDTO.id())).thenReturn(enderecoDTO);
+            when(enderecoService.buscarVersionadoPorId(enderecoDTO.id())).thenReturn(new Versionado<>(enderecoDTO, 0L));
 
             mockMvc.perform(get("/v1/endereco/{idEndereco}", enderecoDTO.id()))
                     .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
                     .andExpect(content().json(asJsonString(enderecoDTO)));
         }
 
+        @DisplayName("Deve responder 304 quando o ETag informado corresponde à versão atual")
+        @Test
+        void deveResponderNaoModificado_QuandoEtagCorresponde() throws Exception {
+            when(enderecoService.buscarVersao(enderecoDTO.id())).thenReturn(Optional.of(0L));
+
+            mockMvc.perform(get("/v1/endereco/{idEndereco}", enderecoDTO.id())
+                            .header(HttpHeaders.IF_NONE_MATCH, "W/\"0\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+            verify(enderecoService, never()).buscarVersionadoPorId(any());
+        }
+
         @DisplayName("Deve lançar exceção ao buscar Endereço com ID inexistente")
         @Test
         void deveGerarExcecao_QuandoBuscarEndereco_PorIdInexistente() throws Exception {
             doThrow(new RecursoNaoEncontradoException("Endereço não encontrado com id: " + enderecoDTO.id()))
-                    .when(enderecoService).buscarPorId(enderecoDTO.id());
+                    .when(enderecoService).buscarVersionadoPorId(enderecoDTO.id());
 
             mockMvc.perform(get("/v1/endereco/{idEndereco}", enderecoDTO.id()))
                     .andExpect(status().isNotFound())
@@ -83,18 +117,83 @@ class EnderecoControllerTest {
 
         }
 
+        @DisplayName("Deve buscar a localidade de um CEP")
+        @Test
+        void deveBuscarCep() throws Exception {
+            var cep = new CepDTO("40020-000", "BA", "Salvador", "Centro", "Rua Chile");
+            when(enderecoService.buscarPorCep("40020000")).thenReturn(cep);
+
+            mockMvc.perform(get("/v1/endereco/cep/{cep}", "40020000"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(asJsonString(cep)));
+        }
+
+        @DisplayName("Deve lançar exceção ao buscar CEP fora do diretório")
+        @Test
+        void deveGerarExcecao_QuandoBuscarCep_ForaDoDiretorio() throws Exception {
+            when(enderecoService.buscarPorCep("99999-999"))
+                    .thenThrow(new RecursoNaoEncontradoException("CEP não encontrado: 99999-999"));
+
+            mockMvc.perform(get("/v1/endereco/cep/{cep}", "99999-999"))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.message").value("CEP não encontrado: 99999-999"));
+        }
+
         @DisplayName("Deve retornar uma lista de avaliações salvas")
         @Test
         void deveBuscarTodosOsEnderecos() throws Exception {
             var enderecos = List.of(enderecoDTO,
-                    new EnderecoDTO(2L, "2222222", "Bahia", "Camaçari", "Centro", "Unica", "2"));
+                    new EnderecoDTO(2L, "22222-222", "Bahia", "Camaçari", "Centro", "Unica", "2"));
+
+            doAnswer(invocation -> {
+                Consumer<EnderecoDTO> consumidor = invocation.getArgument(0);
+                enderecos.forEach(consumidor);
+                return null;
+            }).when(enderecoService).exportarTodos(any());
 
-            when(enderecoService.buscarTodos()).thenReturn(enderecos);
+            MvcResult resultado = mockMvc.perform(get("/v1/endereco"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
 
-            mockMvc.perform(get("/v1/endereco"))
+            mockMvc.perform(asyncDispatch(resultado))
                     .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                     .andExpect(content().json(asJsonString(enderecos)));
         }
+
+        @DisplayName("Deve retornar a lista de endereços em CBOR quando solicitado no Accept")
+        @Test
+        void deveBuscarTodosOsEnderecos_EmCbor() throws Exception {
+            var enderecos = List.of(enderecoDTO,
+                    new EnderecoDTO(2L, "22222-222", "Bahia", "Camaçari", "Centro", "Unica", "2"));
+
+            doAnswer(invocation -> {
+                Consumer<EnderecoDTO> consumidor = invocation.getArgument(0);
+                enderecos.forEach(consumidor);
+                return null;
+            }).when(enderecoService).exportarTodos(any());
+
+            MvcResult resultado = mockMvc.perform(get("/v1/endereco").accept(MediaType.APPLICATION_CBOR))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            MvcResult resposta = mockMvc.perform(asyncDispatch(resultado))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                    .andReturn();
+
+            // O id é somente leitura no DTO, então a comparação é feita na árvore decodificada
+            JsonNode lista = mapeadores.cbor().readTree(resposta.getResponse().getContentAsByteArray());
+            assertThat(lista).isEqualTo(mapeadores.json().readTree(asJsonString(enderecos)));
+        }
+
+        @DisplayName("Deve recusar com 406 a listagem em formato não suportado, sem consultar os endereços")
+        @Test
+        void deveRecusarListagemEmFormatoNaoSuportado() throws Exception {
+            mockMvc.perform(get("/v1/endereco").accept(MediaType.TEXT_HTML))
+                    .andExpect(status().isNotAcceptable());
+
+            verifyNoInteractions(enderecoService);
+        }
     }
 
     @DisplayName("Salvar Endereço")
@@ -115,6 +214,74 @@ class EnderecoControllerTest {
 
             verify(enderecoService).salvar(enderecoDTOSemId);
         }
+
+        @DisplayName("Deve salvar Endereço com o CEP informado sem hífen")
+        @Test
+        void deveSalvarEndereco_ComCepSemHifen() throws Exception {
+            var enderecoNormalizado = new EnderecoDTO(null, "40000-000", "BA", "Salvador", "Centro", "Rua Principal",
+                    "1");
+            when(enderecoService.salvar(enderecoNormalizado)).thenReturn(enderecoNormalizado);
+
+            mockMvc.perform(post("/v1/endereco")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {"cep": "40000000", "estado": "BA", "cidade": "Salvador", "bairro": "Centro",
+                                     "rua": "Rua Principal", "numero": "1"}"""))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.cep").value("40000-000"));
+        }
+
+        @DisplayName("Deve responder 400 sem chamar o serviço ao salvar Endereço com CEP inválido")
+        @Test
+        void deveGerarExcecao_QuandoSalvarEndereco_ComCepInvalido() throws Exception {
+            mockMvc.perform(post("/v1/endereco")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {"cep": "4000-000", "estado": "BA", "cidade": "Salvador", "bairro": "Centro",
+                                     "rua": "Rua Principal", "numero": "1"}"""))
+                    .andExpect(status().isBadRequest());
+
+            verify(enderecoService, never()).salvar(any());
+        }
+    }
+
+    @DisplayName("Importar Endereços")
+    @Nested
+    class ImportarEnderecos {
+
+        @DisplayName("Deve importar Endereços enviados como NDJSON")
+        @Test
+        void deveImportarEnderecosEmNdjson() throws Exception {
+            var resultado = ResultadoImportacaoDTO.de(List.of(
+                    ResultadoRegistroDTO.importado(0, "101"),
+                    ResultadoRegistroDTO.importado(1, "102")));
+            when(enderecoService.importar(any())).thenReturn(resultado);
+
+            mockMvc.perform(post("/v1/endereco/lote")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(asJsonString(enderecoDTOSemId) + "\n" + asJsonString(enderecoDTOSemId) + "\n"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(asJsonString(resultado)));
+
+            verify(enderecoService).importar(any());
+        }
+
+        @DisplayName("Deve importar Endereços enviados como sequência Smile")
+        @Test
+        void deveImportarEnderecosEmSmile() throws Exception {
+            var resultado = ResultadoImportacaoDTO.de(List.of(
+                    ResultadoRegistroDTO.importado(0, "101"),
+                    ResultadoRegistroDTO.importado(1, "102")));
+            when(enderecoService.importar(any())).thenReturn(resultado);
+
+            mockMvc.perform(post("/v1/endereco/lote")
+                            .contentType(MapeadoresPorFormato.APPLICATION_SMILE)
+                            .content(mapeadores.smile().writeValueAsBytes(List.of(enderecoDTOSemId, enderecoDTOSemId))))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(asJsonString(resultado)));
+
+            verify(enderecoService).importar(any());
+        }
     }
 
     @DisplayName("Alterar Endereço")
@@ -124,20 +291,38 @@ class EnderecoControllerTest {
         @DisplayName("Deve alterar Endereço cadastrado")
         @Test
         void deveAtualizarEndereco() throws Exception {
-            when(enderecoService.atualizar(enderecoDTO.id(), enderecoDTOSemId)).thenReturn(enderecoDTO);
+            when(enderecoService.atualizar(enderecoDTO.id(), enderecoDTOSemId, null))
+                    .thenReturn(new Versionado<>(enderecoDTO, 1L));
 
             mockMvc.perform(put("/v1/endereco/{idEndereco}", enderecoDTO.id())
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(asJsonString(enderecoDTOSemId)))
                     .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
                     .andExpect(content().json(asJsonString(enderecoDTO)));
         }
 
+        @DisplayName("Deve responder 412 ao alterar Endereço com ETag desatualizado")
+        @Test
+        void deveGerarExcecao_QuandoAlterarEndereco_ComEtagDesatualizado() throws Exception {
+            doThrow(new VersaoDesatualizadaException("Endereço com id " + enderecoDTO.id() +
+                    " foi alterado por outra requisição"))
+                    .when(enderecoService).atualizar(enderecoDTO.id(), enderecoDTOSemId, 0L);
+
+            mockMvc.perform(put("/v1/endereco/{idEndereco}", enderecoDTO.id())
+                            .header(HttpHeaders.IF_MATCH, "\"0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(enderecoDTOSemId)))
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(jsonPath("$.message")
+                            .value("Endereço com id " + enderecoDTO.id() + " foi alterado por outra requisição"));
+        }
+
         @DisplayName("Deve lançar exceção ao tentar alterar Endereço com id inexistente")
         @Test
         void deveGerarExcecao_QuandoAlterarEndereco_PorIdInexistente() throws Exception {
             doThrow(new RecursoNaoEncontradoException("Endereço não encontrado com id: " + enderecoDTO.id()))
-                    .when(enderecoService).atualizar(enderecoDTO.id(), enderecoDTOSemId);
+                    .when(enderecoService).atualizar(enderecoDTO.id(), enderecoDTOSemId, null);
 
             mockMvc.perform(put("/v1/endereco/{idEndereco}", enderecoDTO.id())
                             .contentType(MediaType.APPLICATION_JSON)
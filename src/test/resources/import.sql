@@ -0,0 +1,3 @@
+-- Executado pelo Hibernate depois de criar o schema (ddl-auto=create-drop). A sequência de alterações não
+-- pertence a nenhum gerador de id, então o Hibernate não a cria sozinho.
+CREATE SEQUENCE IF NOT EXISTS alteracao_seq START WITH 1 INCREMENT BY 1000;